@@ -89,11 +89,15 @@ public class ShapeMap
 	 */
 	public void removeNonPersistent()
 	{
-		categories.entrySet().removeIf(en -> !persist(en.getValue().identifier));
+		categories.entrySet().removeIf(en -> !isPersistent(en.getValue().identifier));
 	}
 
 
-	private boolean persist(IShapeLayerIdentifier identifier)
+	/**
+	 * @param identifier
+	 * @return true, if shapes of the given layer are persisted
+	 */
+	public static boolean isPersistent(IShapeLayerIdentifier identifier)
 	{
 		return identifier.getPersistenceType() == EShapeLayerPersistenceType.ALWAYS_PERSIST ||
 				(persistDebugShapes && identifier.getPersistenceType() == EShapeLayerPersistenceType.DEBUG_PERSIST);
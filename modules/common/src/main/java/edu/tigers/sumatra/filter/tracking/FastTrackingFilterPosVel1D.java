@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.SumatraMath;
+
+
+/**
+ * Allocation-free variant of {@link TrackingFilterPosVel1D}.
+ * <p>
+ * State (position, velocity) and the symmetric 2x2 covariance are stored in primitive fields and
+ * the Kalman predict and correct steps are unrolled by hand. As only the position is measured, the innovation
+ * covariance is a scalar and no matrix inversion is required.
+ * The results are equal to {@link TrackingFilterPosVel1D} up to floating point rounding.
+ */
+public class FastTrackingFilterPosVel1D
+{
+	private double pos;
+	private double vel;
+
+	/** covariance matrix [[p00, p01], [p01, p11]] */
+	private double p00;
+	private double p01;
+	private double p11;
+
+	private double innovation;
+	private double modelError;
+	private double measError;
+	private long lastTimestamp;
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialPos
+	 * @param covariance initial covariance of all states
+	 * @param modelErr   model error
+	 * @param measErr    measurement error
+	 * @param timestamp  initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel1D(final double initialPos, final double covariance, final double modelErr,
+			final double measErr, final long timestamp)
+	{
+		this(initialPos, 0, covariance, modelErr, measErr, timestamp);
+	}
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialPos
+	 * @param initialVel
+	 * @param covariance initial covariance of all states
+	 * @param modelErr   model error
+	 * @param measErr    measurement error
+	 * @param timestamp  initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel1D(final double initialPos, final double initialVel, final double covariance,
+			final double modelErr, final double measErr, final long timestamp)
+	{
+		pos = initialPos;
+		vel = initialVel;
+		p00 = covariance;
+		p11 = covariance;
+		modelError = modelErr;
+		measError = measErr;
+		lastTimestamp = timestamp;
+	}
+
+
+	/**
+	 * Create tracking filter. Deep copy constructor.
+	 *
+	 * @param orig
+	 * @param timestamp
+	 */
+	public FastTrackingFilterPosVel1D(final FastTrackingFilterPosVel1D orig, final long timestamp)
+	{
+		pos = orig.pos;
+		vel = orig.vel;
+		p00 = orig.p00;
+		p01 = orig.p01;
+		p11 = orig.p11;
+		innovation = orig.innovation;
+		modelError = orig.modelError;
+		measError = orig.measError;
+		lastTimestamp = timestamp;
+	}
+
+
+	public void setMeasurementError(final double error)
+	{
+		measError = error;
+	}
+
+
+	public void setModelError(final double error)
+	{
+		modelError = error;
+	}
+
+
+	public void setPosition(final double pos)
+	{
+		this.pos = pos;
+	}
+
+
+	public void setVelocity(final double vel)
+	{
+		this.vel = vel;
+	}
+
+
+	/**
+	 * Reset internal state covariance to a specific value.
+	 * The velocity covariance is set to the squared value, like in {@link TrackingFilterPosVel2D}.
+	 *
+	 * @param covariance
+	 */
+	public void resetCovariance(final double covariance)
+	{
+		p00 = covariance;
+		p01 = 0;
+		p11 = covariance * covariance;
+	}
+
+
+	/**
+	 * Predict the filter estimate to a given timestamp when no new measurement is available.
+	 * No correction will be performed.
+	 *
+	 * @param timestamp time in nanoseconds
+	 */
+	public void predict(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+		if (dt <= 0)
+		{
+			return;
+		}
+
+		lastTimestamp = timestamp;
+
+		predictBy(dt);
+	}
+
+
+	/**
+	 * Predict the filter estimate by the given time step.
+	 *
+	 * @param dt time step in seconds, must be positive
+	 */
+	void predictBy(final double dt)
+	{
+		// optimal process noise error if we assume white noise on acceleration with zero mean
+		double sigma = SumatraMath.sqrt((3.0 * modelError) / dt) / dt;
+		double sigma2 = sigma * sigma;
+		double q00 = (1.0 / 3.0) * dt * dt * dt * sigma2;
+		double q01 = (1.0 / 2.0) * dt * dt * sigma2;
+		double q11 = dt * sigma2;
+
+		// x = A * x
+		pos += dt * vel;
+
+		// P = A * P * A' + Q
+		double a01 = p01 + dt * p11;
+		p00 = p00 + dt * p01 + dt * a01 + q00;
+		p01 = a01 + q01;
+		p11 = p11 + q11;
+	}
+
+
+	/**
+	 * Correct filter estimate with a new measurement.
+	 *
+	 * @param position
+	 */
+	public void correct(final double position)
+	{
+		// S = H * P * H' + R
+		double s = p00 + measError;
+
+		// K = P * H' * S^-1
+		double k0 = p00 / s;
+		double k1 = p01 / s;
+
+		innovation = position - pos;
+		pos += k0 * innovation;
+		vel += k1 * innovation;
+
+		// P = (I - K * H) * P
+		double newP00 = (1 - k0) * p00;
+		double newP01 = (1 - k0) * p01;
+		p11 -= k1 * p01;
+		p00 = newP00;
+		p01 = newP01;
+	}
+
+
+	public long getLastTimestamp()
+	{
+		return lastTimestamp;
+	}
+
+
+	public double getPositionEstimate()
+	{
+		return pos;
+	}
+
+
+	/**
+	 * Get position estimate at a specific time.
+	 * Uses simple extrapolation with constant velocity model.
+	 *
+	 * @param timestamp time in nanoseconds
+	 * @return
+	 */
+	public double getPositionEstimate(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+
+		return pos + (dt * vel);
+	}
+
+
+	public double getVelocityEstimate()
+	{
+		return vel;
+	}
+
+
+	public double getPositionUncertainty()
+	{
+		return SumatraMath.sqrt(p00);
+	}
+
+
+	public double getVelocityUncertainty()
+	{
+		return SumatraMath.sqrt(p11);
+	}
+
+
+	public double getPositionInnovation()
+	{
+		return innovation;
+	}
+}
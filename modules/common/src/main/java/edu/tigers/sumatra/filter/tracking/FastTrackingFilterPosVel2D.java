@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector2f;
+
+
+/**
+ * Allocation-free variant of {@link TrackingFilterPosVel2D}.
+ * <p>
+ * The transition matrix, the process noise and the measurement noise of {@link TrackingFilterPosVel2D} do not
+ * couple the x and y axis. Starting from a diagonal covariance, the 4x4 covariance thus stays block diagonal and
+ * the filter is equal to two independent {@link FastTrackingFilterPosVel1D} filters, one per axis.
+ * The results are equal to {@link TrackingFilterPosVel2D} up to floating point rounding.
+ */
+public class FastTrackingFilterPosVel2D
+{
+	private final FastTrackingFilterPosVel1D filterX;
+	private final FastTrackingFilterPosVel1D filterY;
+	private long lastTimestamp;
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialPos
+	 * @param covariance initial covariance of all states
+	 * @param modelErr   model error
+	 * @param measErr    measurement error
+	 * @param timestamp  initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel2D(final IVector2 initialPos, final double covariance, final double modelErr,
+			final double measErr, final long timestamp)
+	{
+		this(initialPos, Vector2f.ZERO_VECTOR, covariance, modelErr, measErr, timestamp);
+	}
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialPos
+	 * @param initialVel
+	 * @param covariance initial covariance of all states
+	 * @param modelErr   model error
+	 * @param measErr    measurement error
+	 * @param timestamp  initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel2D(final IVector2 initialPos, final IVector2 initialVel, final double covariance,
+			final double modelErr, final double measErr, final long timestamp)
+	{
+		filterX = new FastTrackingFilterPosVel1D(initialPos.x(), initialVel.x(), covariance, modelErr, measErr,
+				timestamp);
+		filterY = new FastTrackingFilterPosVel1D(initialPos.y(), initialVel.y(), covariance, modelErr, measErr,
+				timestamp);
+		lastTimestamp = timestamp;
+	}
+
+
+	/**
+	 * Create tracking filter. Deep copy constructor.
+	 *
+	 * @param orig
+	 * @param timestamp
+	 */
+	public FastTrackingFilterPosVel2D(final FastTrackingFilterPosVel2D orig, final long timestamp)
+	{
+		filterX = new FastTrackingFilterPosVel1D(orig.filterX, timestamp);
+		filterY = new FastTrackingFilterPosVel1D(orig.filterY, timestamp);
+		lastTimestamp = timestamp;
+	}
+
+
+	public void setMeasurementError(final double error)
+	{
+		filterX.setMeasurementError(error);
+		filterY.setMeasurementError(error);
+	}
+
+
+	public void setModelError(final double error)
+	{
+		filterX.setModelError(error);
+		filterY.setModelError(error);
+	}
+
+
+	public void setPosition(final IVector2 pos)
+	{
+		filterX.setPosition(pos.x());
+		filterY.setPosition(pos.y());
+	}
+
+
+	public void setVelocity(final IVector2 vel)
+	{
+		filterX.setVelocity(vel.x());
+		filterY.setVelocity(vel.y());
+	}
+
+
+	/**
+	 * Reset internal state covariance to a specific value.
+	 *
+	 * @param covariance
+	 */
+	public void resetCovariance(final double covariance)
+	{
+		filterX.resetCovariance(covariance);
+		filterY.resetCovariance(covariance);
+	}
+
+
+	/**
+	 * Predict the filter estimate to a given timestamp when no new measurement is available.
+	 * No correction will be performed.
+	 *
+	 * @param timestamp time in nanoseconds
+	 */
+	public void predict(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+		if (dt <= 0)
+		{
+			return;
+		}
+
+		lastTimestamp = timestamp;
+
+		filterX.predictBy(dt);
+		filterY.predictBy(dt);
+	}
+
+
+	/**
+	 * Correct filter estimate with a new measurement.
+	 *
+	 * @param position
+	 */
+	public void correct(final IVector2 position)
+	{
+		filterX.correct(position.x());
+		filterY.correct(position.y());
+	}
+
+
+	public long getLastTimestamp()
+	{
+		return lastTimestamp;
+	}
+
+
+	public IVector2 getPositionEstimate()
+	{
+		return Vector2.fromXY(filterX.getPositionEstimate(), filterY.getPositionEstimate());
+	}
+
+
+	/**
+	 * Get position estimate at a specific time.
+	 * Uses simple extrapolation with constant velocity model.
+	 *
+	 * @param timestamp time in nanoseconds
+	 * @return
+	 */
+	public IVector2 getPositionEstimate(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+
+		return Vector2.fromXY(
+				filterX.getPositionEstimate() + (dt * filterX.getVelocityEstimate()),
+				filterY.getPositionEstimate() + (dt * filterY.getVelocityEstimate()));
+	}
+
+
+	public IVector2 getVelocityEstimate()
+	{
+		return Vector2.fromXY(filterX.getVelocityEstimate(), filterY.getVelocityEstimate());
+	}
+
+
+	public IVector2 getPositionUncertainty()
+	{
+		return Vector2.fromXY(filterX.getPositionUncertainty(), filterY.getPositionUncertainty());
+	}
+
+
+	public IVector2 getVelocityUncertainty()
+	{
+		return Vector2.fromXY(filterX.getVelocityUncertainty(), filterY.getVelocityUncertainty());
+	}
+
+
+	public IVector2 getPositionInnovation()
+	{
+		return Vector2.fromXY(filterX.getPositionInnovation(), filterY.getPositionInnovation());
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+/**
+ * Dense index of all possible {@link BotID}s, used by the BotID-indexed collections.
+ * Each team color has a block of {@link AObjectID#BOT_ID_MAX} + 1 regular ids, followed by its uninitialized id.
+ * The blocks are ordered by team color (yellow, blue, neutral), so the index defines the iteration order.
+ */
+final class BotIdIndex
+{
+	private static final int BLOCK_SIZE = AObjectID.BOT_ID_MAX + 2;
+	/**
+	 * Number of possible bot ids. Fits into the bits of a long.
+	 */
+	static final int SIZE = BLOCK_SIZE * ETeamColor.values().length;
+
+	private static final BotID[] BOT_IDS = new BotID[SIZE];
+
+	static
+	{
+		for (ETeamColor color : ETeamColor.values())
+		{
+			for (int number = AObjectID.BOT_ID_MIN; number <= AObjectID.BOT_ID_MAX; number++)
+			{
+				BotID botID = BotID.createBotId(number, color);
+				BOT_IDS[of(botID)] = botID;
+			}
+			BotID uninitialized = color == ETeamColor.NEUTRAL
+					? BotID.noBot()
+					: BotID.createBotId(AObjectID.UNINITIALIZED_ID, color);
+			BOT_IDS[of(uninitialized)] = uninitialized;
+		}
+	}
+
+
+	private BotIdIndex()
+	{
+	}
+
+
+	/**
+	 * @param botID
+	 * @return the index of the bot id in [0, SIZE)
+	 */
+	static int of(final BotID botID)
+	{
+		int offset = botID.getTeamColor().ordinal() * BLOCK_SIZE;
+		if (botID.isBot())
+		{
+			return offset + botID.getNumber();
+		}
+		return offset + BLOCK_SIZE - 1;
+	}
+
+
+	/**
+	 * @param index
+	 * @return the bot id of the given index
+	 */
+	static BotID botId(final int index)
+	{
+		return BOT_IDS[index];
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * A map from {@link BotID} to primitive long values (like timestamps), backed by an array indexed by the bot id.
+ * Operations do not hash, box or allocate and the iteration order is the bot id order (yellow, blue, neutral,
+ * each by number).
+ * This class is not thread-safe.
+ */
+public class BotIdLongMap
+{
+	private final long[] values = new long[BotIdIndex.SIZE];
+	private long present;
+
+
+	private static long bit(final int index)
+	{
+		return 1L << index;
+	}
+
+
+	/**
+	 * @param botID
+	 * @return true, if there is a value for the given bot
+	 */
+	public boolean containsKey(final BotID botID)
+	{
+		return (present & bit(BotIdIndex.of(botID))) != 0;
+	}
+
+
+	/**
+	 * @param botID
+	 * @param defaultValue
+	 * @return the value of the given bot or the default value, if there is none
+	 */
+	public long getOrDefault(final BotID botID, final long defaultValue)
+	{
+		int index = BotIdIndex.of(botID);
+		return (present & bit(index)) != 0 ? values[index] : defaultValue;
+	}
+
+
+	/**
+	 * @param botID
+	 * @param value
+	 */
+	public void put(final BotID botID, final long value)
+	{
+		int index = BotIdIndex.of(botID);
+		values[index] = value;
+		present |= bit(index);
+	}
+
+
+	/**
+	 * Put the value only, if there is no value for the given bot yet.
+	 *
+	 * @param botID
+	 * @param value
+	 * @return true, if the value was put
+	 */
+	public boolean putIfAbsent(final BotID botID, final long value)
+	{
+		if (containsKey(botID))
+		{
+			return false;
+		}
+		put(botID, value);
+		return true;
+	}
+
+
+	/**
+	 * @param botID
+	 * @return true, if there was a value for the given bot
+	 */
+	public boolean remove(final BotID botID)
+	{
+		long oldPresent = present;
+		present &= ~bit(BotIdIndex.of(botID));
+		return present != oldPresent;
+	}
+
+
+	public void clear()
+	{
+		present = 0;
+	}
+
+
+	public int size()
+	{
+		return Long.bitCount(present);
+	}
+
+
+	public boolean isEmpty()
+	{
+		return present == 0;
+	}
+
+
+	/**
+	 * @param action called for each bot with a value, in bot id order
+	 */
+	public void forEach(final ObjLongConsumer<BotID> action)
+	{
+		long remaining = present;
+		while (remaining != 0)
+		{
+			int index = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			action.accept(BotIdIndex.botId(index), values[index]);
+		}
+	}
+
+
+	@Override
+	public boolean equals(final Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof BotIdLongMap other) || present != other.present)
+		{
+			return false;
+		}
+		long remaining = present;
+		while (remaining != 0)
+		{
+			int index = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			if (values[index] != other.values[index])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		// same as Map#hashCode of the boxed map
+		int hash = 0;
+		long remaining = present;
+		while (remaining != 0)
+		{
+			int index = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			hash += BotIdIndex.botId(index).hashCode() ^ Long.hashCode(values[index]);
+		}
+		return hash;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("{");
+		forEach((botID, value) -> sb.append(sb.length() > 1 ? ", " : "").append(botID).append('=').append(value));
+		return sb.append('}').toString();
+	}
+}
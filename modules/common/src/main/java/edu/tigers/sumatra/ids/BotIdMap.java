@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+
+/**
+ * A map with {@link BotID} keys that is backed by an array indexed by the bot id.
+ * Lookups do not hash, updates do not allocate and the iteration order is the bot id order
+ * (yellow, blue, neutral, each by number).
+ * <p>
+ * Like {@link java.util.concurrent.ConcurrentHashMap}, null values are not permitted.
+ * The map supports a single writer and any number of concurrent readers. Values are safely published
+ * to the readers, and iterators are weakly consistent: they never throw a
+ * {@link java.util.ConcurrentModificationException} and reflect the state of each bot at some point during
+ * the iteration. Like the values, the size is published to the readers, but while the writer updates the map, it
+ * may not match the values a reader sees. Multiple writers must synchronize externally.
+ *
+ * @param <V> the value type
+ */
+public class BotIdMap<V> extends AbstractMap<BotID, V>
+{
+	private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+	private final Object[] values = new Object[BotIdIndex.SIZE];
+	/** only written by the single writer, volatile to publish it to the readers */
+	private volatile int size;
+
+	private Set<Map.Entry<BotID, V>> entrySet;
+	private Set<BotID> keySet;
+	private Collection<V> valueCollection;
+
+
+	public BotIdMap()
+	{
+		// empty
+	}
+
+
+	/**
+	 * @param map the initial content
+	 */
+	public BotIdMap(final Map<BotID, ? extends V> map)
+	{
+		putAll(map);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(final int index)
+	{
+		return (V) VALUES.getAcquire(values, index);
+	}
+
+
+	private V setValueAt(final int index, final V value)
+	{
+		V oldValue = valueAt(index);
+		VALUES.setRelease(values, index, value);
+		if (oldValue == null && value != null)
+		{
+			size++;
+		} else if (oldValue != null && value == null)
+		{
+			size--;
+		}
+		return oldValue;
+	}
+
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		return key instanceof BotID botID && valueAt(BotIdIndex.of(botID)) != null;
+	}
+
+
+	@Override
+	public V get(final Object key)
+	{
+		if (key instanceof BotID botID)
+		{
+			return valueAt(BotIdIndex.of(botID));
+		}
+		return null;
+	}
+
+
+	@Override
+	public V put(final BotID key, final V value)
+	{
+		return setValueAt(BotIdIndex.of(key), Objects.requireNonNull(value));
+	}
+
+
+	@Override
+	public V remove(final Object key)
+	{
+		if (key instanceof BotID botID)
+		{
+			return setValueAt(BotIdIndex.of(botID), null);
+		}
+		return null;
+	}
+
+
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			setValueAt(i, null);
+		}
+	}
+
+
+	@Override
+	public void forEach(final BiConsumer<? super BotID, ? super V> action)
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			V value = valueAt(i);
+			if (value != null)
+			{
+				action.accept(BotIdIndex.botId(i), value);
+			}
+		}
+	}
+
+
+	@Override
+	public Set<Map.Entry<BotID, V>> entrySet()
+	{
+		if (entrySet == null)
+		{
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+
+	@Override
+	public Set<BotID> keySet()
+	{
+		if (keySet == null)
+		{
+			keySet = new KeySet();
+		}
+		return keySet;
+	}
+
+
+	@Override
+	public Collection<V> values()
+	{
+		if (valueCollection == null)
+		{
+			valueCollection = new Values();
+		}
+		return valueCollection;
+	}
+
+
+	private abstract class SlotIterator<T> implements Iterator<T>
+	{
+		private int nextIndex;
+		private V nextValue;
+		private int lastIndex = -1;
+
+
+		SlotIterator()
+		{
+			advance(0);
+		}
+
+
+		private void advance(final int from)
+		{
+			for (int i = from; i < values.length; i++)
+			{
+				V value = valueAt(i);
+				if (value != null)
+				{
+					nextIndex = i;
+					nextValue = value;
+					return;
+				}
+			}
+			nextIndex = values.length;
+			nextValue = null;
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			return nextIndex < values.length;
+		}
+
+
+		@Override
+		public T next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			lastIndex = nextIndex;
+			V value = nextValue;
+			advance(nextIndex + 1);
+			return element(lastIndex, value);
+		}
+
+
+		@Override
+		public void remove()
+		{
+			if (lastIndex < 0)
+			{
+				throw new IllegalStateException();
+			}
+			setValueAt(lastIndex, null);
+			lastIndex = -1;
+		}
+
+
+		protected abstract T element(int index, V value);
+	}
+
+
+	private class Entry extends AbstractMap.SimpleEntry<BotID, V>
+	{
+		Entry(final BotID key, final V value)
+		{
+			super(key, value);
+		}
+
+
+		@Override
+		public V setValue(final V value)
+		{
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+
+	private class EntrySet extends AbstractSet<Map.Entry<BotID, V>>
+	{
+		@Override
+		public Iterator<Map.Entry<BotID, V>> iterator()
+		{
+			return new SlotIterator<>()
+			{
+				@Override
+				protected Map.Entry<BotID, V> element(final int index, final V value)
+				{
+					return new Entry(BotIdIndex.botId(index), value);
+				}
+			};
+		}
+
+
+		@Override
+		public int size()
+		{
+			return BotIdMap.this.size();
+		}
+
+
+		@Override
+		public void clear()
+		{
+			BotIdMap.this.clear();
+		}
+	}
+
+
+	private class KeySet extends AbstractSet<BotID>
+	{
+		@Override
+		public Iterator<BotID> iterator()
+		{
+			return new SlotIterator<>()
+			{
+				@Override
+				protected BotID element(final int index, final V value)
+				{
+					return BotIdIndex.botId(index);
+				}
+			};
+		}
+
+
+		@Override
+		public int size()
+		{
+			return BotIdMap.this.size();
+		}
+
+
+		@Override
+		public boolean contains(final Object o)
+		{
+			return containsKey(o);
+		}
+
+
+		@Override
+		public boolean remove(final Object o)
+		{
+			return BotIdMap.this.remove(o) != null;
+		}
+
+
+		@Override
+		public void clear()
+		{
+			BotIdMap.this.clear();
+		}
+	}
+
+
+	private class Values extends AbstractCollection<V>
+	{
+		@Override
+		public Iterator<V> iterator()
+		{
+			return new SlotIterator<>()
+			{
+				@Override
+				protected V element(final int index, final V value)
+				{
+					return value;
+				}
+			};
+		}
+
+
+		@Override
+		public int size()
+		{
+			return BotIdMap.this.size();
+		}
+
+
+		@Override
+		public void clear()
+		{
+			BotIdMap.this.clear();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+
+/**
+ * A set of {@link BotID}s that is backed by a single bit mask.
+ * Operations do not hash or allocate and the iteration order is the bot id order (yellow, blue, neutral,
+ * each by number).
+ * This class is not thread-safe.
+ */
+public class BotIdSet extends AbstractSet<BotID>
+{
+	private long bits;
+
+
+	public BotIdSet()
+	{
+		// empty
+	}
+
+
+	/**
+	 * @param botIds the initial content
+	 */
+	public BotIdSet(final Collection<BotID> botIds)
+	{
+		addAll(botIds);
+	}
+
+
+	private static long bit(final BotID botID)
+	{
+		return 1L << BotIdIndex.of(botID);
+	}
+
+
+	@Override
+	public boolean add(final BotID botID)
+	{
+		long oldBits = bits;
+		bits |= bit(botID);
+		return bits != oldBits;
+	}
+
+
+	@Override
+	public boolean remove(final Object o)
+	{
+		if (o instanceof BotID botID)
+		{
+			long oldBits = bits;
+			bits &= ~bit(botID);
+			return bits != oldBits;
+		}
+		return false;
+	}
+
+
+	@Override
+	public boolean contains(final Object o)
+	{
+		return o instanceof BotID botID && (bits & bit(botID)) != 0;
+	}
+
+
+	@Override
+	public int size()
+	{
+		return Long.bitCount(bits);
+	}
+
+
+	@Override
+	public boolean isEmpty()
+	{
+		return bits == 0;
+	}
+
+
+	@Override
+	public void clear()
+	{
+		bits = 0;
+	}
+
+
+	@Override
+	public void forEach(final Consumer<? super BotID> action)
+	{
+		long remaining = bits;
+		while (remaining != 0)
+		{
+			int index = Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			action.accept(BotIdIndex.botId(index));
+		}
+	}
+
+
+	@Override
+	public Iterator<BotID> iterator()
+	{
+		return new Iterator<>()
+		{
+			private long remaining = bits;
+			private int lastIndex = -1;
+
+
+			@Override
+			public boolean hasNext()
+			{
+				return remaining != 0;
+			}
+
+
+			@Override
+			public BotID next()
+			{
+				if (remaining == 0)
+				{
+					throw new NoSuchElementException();
+				}
+				lastIndex = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return BotIdIndex.botId(lastIndex);
+			}
+
+
+			@Override
+			public void remove()
+			{
+				if (lastIndex < 0)
+				{
+					throw new IllegalStateException();
+				}
+				bits &= ~(1L << lastIndex);
+				lastIndex = -1;
+			}
+		};
+	}
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.network;
+
+/**
+ * How a {@link MulticastUDPReceiver} distributes the joined network interfaces to sockets.
+ */
+public enum EMulticastReceiveMode
+{
+	/** A single socket joins the multicast group on all interfaces. */
+	SHARED_SOCKET,
+	/**
+	 * One socket per interface, drained by a common selector. Duplicate packets are dropped.
+	 * Not supported on Linux, where a shared socket is used instead.
+	 */
+	SOCKET_PER_INTERFACE,
+}
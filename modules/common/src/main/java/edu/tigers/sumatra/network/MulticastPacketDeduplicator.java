@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.network;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Detect datagrams that were received on more than one network interface.
+ * The content hashes of the most recent packets are kept in a small ring buffer. A packet is a duplicate,
+ * if a packet with the same hash and length was received on another interface within a short time window.
+ */
+class MulticastPacketDeduplicator
+{
+	private static final int HISTORY_SIZE = 64;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final long windowNs;
+	private final long[] hashes = new long[HISTORY_SIZE];
+	private final int[] lengths = new int[HISTORY_SIZE];
+	private final int[] sources = new int[HISTORY_SIZE];
+	private final long[] timestamps = new long[HISTORY_SIZE];
+	private int next = 0;
+
+
+	/**
+	 * @param windowNs the time window in which a packet from another source is considered a duplicate
+	 */
+	MulticastPacketDeduplicator(long windowNs)
+	{
+		this.windowNs = windowNs;
+		// mark all entries as unused
+		Arrays.fill(lengths, -1);
+	}
+
+
+	/**
+	 * Check if the packet was already seen and remember it otherwise.
+	 *
+	 * @param buffer    the buffer containing the packet
+	 * @param start     the index of the first byte of the packet
+	 * @param end       the index after the last byte of the packet
+	 * @param source    the id of the source (interface) of the packet
+	 * @param timestamp the receive timestamp [ns]
+	 * @return true, if the same packet was received from another source recently
+	 */
+	boolean isDuplicate(ByteBuffer buffer, int start, int end, int source, long timestamp)
+	{
+		long hash = hash(buffer, start, end);
+		int length = end - start;
+		for (int i = 0; i < HISTORY_SIZE; i++)
+		{
+			if (hashes[i] == hash
+					&& lengths[i] == length
+					&& sources[i] != source
+					&& timestamp - timestamps[i] <= windowNs)
+			{
+				return true;
+			}
+		}
+
+		hashes[next] = hash;
+		lengths[next] = length;
+		sources[next] = source;
+		timestamps[next] = timestamp;
+		next = (next + 1) % HISTORY_SIZE;
+		return false;
+	}
+
+
+	private long hash(ByteBuffer buffer, int start, int end)
+	{
+		long hash = FNV_OFFSET;
+		for (int i = start; i < end; i++)
+		{
+			hash ^= buffer.get(i) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+}
@@ -6,36 +6,95 @@ package edu.tigers.sumatra.network;
 
 
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang.SystemUtils;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.net.DatagramPacket;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.MulticastSocket;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
- * Connect to a multicast group on all reasonable network interfaces, and receive {@link DatagramPacket}s on it.
+ * Connect to a multicast group on all reasonable network interfaces, and receive datagrams on it.
+ * Datagrams can either be received into a {@link DatagramPacket} or, without any allocation, into a reused
+ * (direct) {@link ByteBuffer}.
+ * <p>
+ * With {@link EMulticastReceiveMode#SOCKET_PER_INTERFACE}, each interface gets its own socket (and thus its own
+ * kernel receive buffer). All sockets are drained round-robin by the receiving thread and packets that arrive on
+ * multiple interfaces are only delivered once.
+ * <p>
+ * Platform behavior: Linux delivers the datagrams of a group to all sockets that are bound to its port, independent
+ * of the interface that joined the group ({@code IP_MULTICAST_ALL}, which can not be disabled from Java). Separate
+ * sockets would thus each receive all datagrams, so {@link EMulticastReceiveMode#SOCKET_PER_INTERFACE} falls back to
+ * {@link EMulticastReceiveMode#SHARED_SOCKET} on Linux.
  */
 @Log4j2
 public class MulticastUDPReceiver implements AutoCloseable
 {
 	private static final int SO_TIMEOUT = 500;
+	private static final long DEDUPLICATION_WINDOW_NS = 50_000_000L;
 	private static final String[] USELESS_PREFIXES = { "tap", "tun", "ham", "WAN" };
 	private final List<IReceiverObserver> observers = new CopyOnWriteArrayList<>();
-	private MulticastSocket currentSocket;
+	private final List<InterfaceChannel> channels = new ArrayList<>();
+	private final MulticastPacketDeduplicator deduplicator = new MulticastPacketDeduplicator(DEDUPLICATION_WINDOW_NS);
+	private final int port;
+	private final int receiveBufferSize;
+	private Selector selector;
+	private long timeout = SO_TIMEOUT;
+	private int nextChannel = 0;
+	private volatile boolean closed = false;
 
 
 	public MulticastUDPReceiver(String host, int port)
 	{
-		currentSocket = connect(port);
-		addAllNetworkInterfaces(host, port);
+		this(host, port, EMulticastReceiveMode.SHARED_SOCKET, 0);
+	}
+
+
+	/**
+	 * Creates a MultiCastUDPReceiver that joins on all reasonable network interfaces
+	 *
+	 * @param host
+	 * @param port
+	 * @param mode              how to distribute the interfaces to sockets
+	 * @param receiveBufferSize the SO_RCVBUF size of each socket in bytes, 0 to keep the OS default
+	 */
+	public MulticastUDPReceiver(final String host, final int port, final EMulticastReceiveMode mode,
+			final int receiveBufferSize)
+	{
+		this.port = port;
+		this.receiveBufferSize = receiveBufferSize;
+		openSelector();
+		List<NetworkInterface> ifaces = getNetworkInterfaces().stream()
+				.filter(iface -> !isUselessInterface(iface))
+				.toList();
+		if (mode == EMulticastReceiveMode.SOCKET_PER_INTERFACE && SystemUtils.IS_OS_LINUX)
+		{
+			log.info("Sockets per interface would each receive all datagrams on Linux, using a shared socket for {}:{}",
+					host, port);
+			connect(host, ifaces);
+		} else if (mode == EMulticastReceiveMode.SOCKET_PER_INTERFACE)
+		{
+			ifaces.forEach(iface -> connect(host, List.of(iface)));
+		} else
+		{
+			connect(host, ifaces);
+		}
 	}
 
 
@@ -48,22 +107,25 @@ public class MulticastUDPReceiver implements AutoCloseable
 	 */
 	public MulticastUDPReceiver(final String host, final int port, final NetworkInterface iface)
 	{
-		currentSocket = connect(port);
-		joinOnInterface(port, host, iface);
+		this(host, port, iface, 0);
 	}
 
 
-	private void addAllNetworkInterfaces(String host, int port)
+	/**
+	 * Creates a MultiCastUDPReceiver with only the given nif
+	 *
+	 * @param host
+	 * @param port
+	 * @param iface
+	 * @param receiveBufferSize the SO_RCVBUF size of the socket in bytes, 0 to keep the OS default
+	 */
+	public MulticastUDPReceiver(final String host, final int port, final NetworkInterface iface,
+			final int receiveBufferSize)
 	{
-		for (NetworkInterface iface : getNetworkInterfaces())
-		{
-			if (isUselessInterface(iface))
-			{
-				log.debug("Filtered network interface: " + iface.getDisplayName());
-				continue;
-			}
-			joinOnInterface(port, host, iface);
-		}
+		this.port = port;
+		this.receiveBufferSize = receiveBufferSize;
+		openSelector();
+		connect(host, List.of(iface));
 	}
 
 
@@ -79,16 +141,66 @@ public class MulticastUDPReceiver implements AutoCloseable
 	}
 
 
-	private MulticastSocket connect(int port)
+	/**
+	 * @return a snapshot of the packet counters of all sockets
+	 */
+	public List<InterfaceStats> getInterfaceStats()
+	{
+		return channels.stream().map(InterfaceChannel::toStats).toList();
+	}
+
+
+	private void openSelector()
 	{
 		try
 		{
-			return new MulticastSocket(new InetSocketAddress(port));
+			selector = Selector.open();
 		} catch (IOException err)
 		{
-			log.error("Could not create new multicast socket", err);
+			log.error("Could not open selector for multicast channels", err);
 		}
-		return null;
+	}
+
+
+	private void connect(String host, List<NetworkInterface> ifaces)
+	{
+		if (selector == null)
+		{
+			return;
+		}
+		DatagramChannel channel;
+		try
+		{
+			channel = DatagramChannel.open(StandardProtocolFamily.INET);
+			channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			if (receiveBufferSize > 0)
+			{
+				channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+				int actualSize = channel.getOption(StandardSocketOptions.SO_RCVBUF);
+				if (actualSize < receiveBufferSize)
+				{
+					log.warn("Requested receive buffer size of {} bytes, but OS only granted {} bytes",
+							receiveBufferSize, actualSize);
+				}
+			}
+			channel.bind(new InetSocketAddress(port));
+			channel.configureBlocking(false);
+			channel.register(selector, SelectionKey.OP_READ);
+		} catch (IOException err)
+		{
+			log.error("Could not create new multicast channel", err);
+			return;
+		}
+
+		List<String> joined = new ArrayList<>();
+		for (NetworkInterface iface : ifaces)
+		{
+			if (joinOnInterface(channel, host, iface))
+			{
+				joined.add(iface.getDisplayName());
+			}
+		}
+		channels.add(new InterfaceChannel(channels.size(), String.join(",", joined), channel));
 	}
 
 
@@ -108,6 +220,17 @@ public class MulticastUDPReceiver implements AutoCloseable
 
 
 	private boolean isUselessInterface(final NetworkInterface iface)
+	{
+		boolean useless = isUselessInterfaceType(iface);
+		if (useless)
+		{
+			log.debug("Filtered network interface: " + iface.getDisplayName());
+		}
+		return useless;
+	}
+
+
+	private boolean isUselessInterfaceType(final NetworkInterface iface)
 	{
 		try
 		{
@@ -131,55 +254,171 @@ public class MulticastUDPReceiver implements AutoCloseable
 	}
 
 
-	private void joinOnInterface(final int port, final String groupStr, final NetworkInterface iface)
+	private boolean joinOnInterface(final DatagramChannel channel, final String groupStr, final NetworkInterface iface)
 	{
 		try
 		{
 			log.debug("Using network interface '{}' with MTU {}", iface.getDisplayName(), iface.getMTU());
-			currentSocket.joinGroup(new InetSocketAddress(groupStr, port), iface);
+			channel.join(InetAddress.getByName(groupStr), iface);
 			log.debug("Multicast group {}:{} joined on nif {}", groupStr, port, iface.getDisplayName());
-		} catch (IOException err)
+			return true;
+		} catch (IOException | UnsupportedOperationException | IllegalArgumentException err)
 		{
-			log.info("Could not create multicast socket on iface " + iface.getDisplayName() + " and port " + port, err);
+			log.info("Could not join multicast group on iface " + iface.getDisplayName() + " and port " + port, err);
 		}
+		return false;
 	}
 
 
+	/**
+	 * Receive the next datagram into the given packet.
+	 *
+	 * @param store the packet to fill. Its buffer, address and length are updated.
+	 * @throws IOException if the receiver was closed or the channel failed
+	 */
 	public void receive(final DatagramPacket store) throws IOException
 	{
-		if (currentSocket == null)
+		ByteBuffer buffer = ByteBuffer.wrap(store.getData(), store.getOffset(),
+				store.getData().length - store.getOffset());
+		SocketAddress sender = receive(buffer);
+		store.setLength(buffer.position() - store.getOffset());
+		store.setSocketAddress(sender);
+	}
+
+
+	/**
+	 * Receive the next datagram into the given buffer, starting at its current position.
+	 * The buffer is not flipped. If the datagram does not fit into the remaining buffer, it is silently truncated.
+	 * Nothing is allocated here, so a reused direct buffer gives an allocation-free receive path.
+	 *
+	 * @param buffer the buffer to write the datagram to
+	 * @return the address of the sender
+	 * @throws IOException if the receiver was closed or the channel failed
+	 */
+	public SocketAddress receive(final ByteBuffer buffer) throws IOException
+	{
+		try
 		{
-			throw new IOException("Connection is closed");
+			while (!closed && !channels.isEmpty())
+			{
+				SocketAddress sender = receiveFromAnyChannel(buffer);
+				if (sender != null)
+				{
+					timeout = SO_TIMEOUT;
+					return sender;
+				}
+				waitForData();
+			}
+		} catch (ClosedSelectorException err)
+		{
+			throw new IOException("Connection is closed", err);
 		}
+		throw new IOException("Connection is closed");
+	}
+
 
-		while (currentSocket != null)
+	private SocketAddress receiveFromAnyChannel(final ByteBuffer buffer) throws IOException
+	{
+		final int start = buffer.position();
+		for (int i = 0; i < channels.size(); i++)
 		{
-			try
-			{
-				currentSocket.receive(store);
-				currentSocket.setSoTimeout(SO_TIMEOUT);
-				return;
-			} catch (EOFException eof)
-			{
-				log.error("EOF error, buffer may be too small", eof);
-			} catch (SocketTimeoutException e)
+			// round-robin to not starve any interface under load
+			InterfaceChannel channel = channels.get(nextChannel);
+			nextChannel = (nextChannel + 1) % channels.size();
+
+			SocketAddress sender = channel.channel.receive(buffer);
+			while (sender != null)
 			{
-				log.debug("No data received for {} ms", SO_TIMEOUT, e);
-				observers.forEach(IReceiverObserver::onSocketTimedOut);
-				currentSocket.setSoTimeout(0);
+				channel.numReceived.incrementAndGet();
+				if (buffer.position() == buffer.limit())
+				{
+					channel.numTruncated.incrementAndGet();
+				}
+				if (channels.size() == 1
+						|| !deduplicator.isDuplicate(buffer, start, buffer.position(), channel.id, System.nanoTime()))
+				{
+					return sender;
+				}
+				channel.numDuplicates.incrementAndGet();
+				buffer.position(start);
+				sender = channel.channel.receive(buffer);
 			}
 		}
-		throw new IOException("No data received");
+		return null;
+	}
+
+
+	private void waitForData() throws IOException
+	{
+		if (Thread.currentThread().isInterrupted())
+		{
+			throw new IOException("Receiving thread interrupted");
+		}
+		int numReady = selector.select(timeout);
+		selector.selectedKeys().clear();
+		if (numReady == 0 && timeout > 0 && !Thread.currentThread().isInterrupted())
+		{
+			log.debug("No data received for {} ms", SO_TIMEOUT);
+			observers.forEach(IReceiverObserver::onSocketTimedOut);
+			// wait without timeout until the next datagram arrives, like a socket with SO_TIMEOUT=0
+			timeout = 0;
+		}
 	}
 
 
 	@Override
 	public void close()
 	{
-		if (currentSocket != null)
+		closed = true;
+		try
+		{
+			if (selector != null)
+			{
+				selector.close();
+			}
+			for (InterfaceChannel channel : channels)
+			{
+				channel.channel.close();
+			}
+		} catch (IOException err)
 		{
-			currentSocket.close();
+			log.warn("Could not close multicast channel", err);
 		}
 		observers.clear();
 	}
+
+
+	/**
+	 * Packet counters of a single socket.
+	 *
+	 * @param interfaces    the display names of the interfaces that the socket joined on
+	 * @param numReceived   the number of received datagrams, including duplicates
+	 * @param numDuplicates the number of datagrams that were dropped, because they were already received on another
+	 *                      interface
+	 * @param numTruncated  the number of datagrams that did not fit into the receive buffer
+	 */
+	public record InterfaceStats(String interfaces, long numReceived, long numDuplicates, long numTruncated)
+	{
+	}
+
+	private record InterfaceChannel(
+			int id,
+			String interfaces,
+			DatagramChannel channel,
+			AtomicLong numReceived,
+			AtomicLong numDuplicates,
+			AtomicLong numTruncated
+	)
+	{
+		InterfaceChannel(int id, String interfaces, DatagramChannel channel)
+		{
+			this(id, interfaces, channel, new AtomicLong(), new AtomicLong(), new AtomicLong());
+		}
+
+
+		InterfaceStats toStats()
+		{
+			return new InterfaceStats(interfaces, numReceived.get(), numDuplicates.get(), numTruncated.get());
+		}
+	}
 }
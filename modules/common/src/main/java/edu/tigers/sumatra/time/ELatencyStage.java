@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * The stage boundaries of the processing pipeline from a camera capture to a game event, in processing order.
+ * The latency of a stage is the time between the previous stamped boundary and this one,
+ * so the label describes the work that was done before the boundary was reached.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ELatencyStage
+{
+	/**
+	 * The camera captured the image (receive time minus the processing time reported by SSL-Vision)
+	 */
+	CAPTURED("Capture"),
+	/**
+	 * The UDP packet was received
+	 */
+	RECEIVED("SSL-Vision"),
+	/**
+	 * The packet was parsed into a CamDetectionFrame
+	 */
+	CAM_FRAME("Parsing"),
+	/**
+	 * The vision filter processed the CamDetectionFrame
+	 */
+	VISION_PROCESSED("Filter queue"),
+	/**
+	 * The vision filter published a FilteredVisionFrame
+	 */
+	FILTERED_FRAME("Publish tick"),
+	/**
+	 * The WorldFrameWrapper was created
+	 */
+	WORLD_FRAME("World info"),
+	/**
+	 * The AutoRefFrame was created
+	 */
+	AUTO_REF_FRAME("AutoRef queue"),
+	/**
+	 * The game events of the frame were sent
+	 */
+	GAME_EVENT("Game events"),
+
+	;
+
+	private final String label;
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+/**
+ * Observer for completed {@link LatencyTrace}s
+ */
+@FunctionalInterface
+public interface ILatencyTraceObserver
+{
+	/**
+	 * A frame passed its last stage.
+	 *
+	 * @param timestamp the (Sumatra) timestamp of the frame
+	 * @param trace     the trace of the frame
+	 */
+	void onNewLatencyTrace(long timestamp, LatencyTrace trace);
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+import java.util.Arrays;
+
+
+/**
+ * Histogram of latencies with logarithmic buckets, so that it has a constant memory footprint and a relative
+ * resolution of about 9% from 1us to several seconds.
+ * Mean and max are exact, percentiles are the upper bound of the bucket they fall into.
+ * This class is thread-safe.
+ */
+public class LatencyHistogram
+{
+	private static final double MIN_LATENCY = 1e3;
+	private static final int BUCKETS_PER_OCTAVE = 8;
+	private static final int NUM_OCTAVES = 22;
+	private static final int NUM_BUCKETS = BUCKETS_PER_OCTAVE * NUM_OCTAVES + 1;
+
+	private final long[] counts = new long[NUM_BUCKETS];
+	private long numSamples;
+	private long totalLatency;
+	private long maxLatency;
+
+
+	/**
+	 * @param latency the latency [ns]
+	 */
+	public synchronized void add(final long latency)
+	{
+		counts[bucketIndex(latency)]++;
+		numSamples++;
+		totalLatency += latency;
+		maxLatency = Math.max(maxLatency, latency);
+	}
+
+
+	private static int bucketIndex(final long latency)
+	{
+		if (latency <= MIN_LATENCY)
+		{
+			return 0;
+		}
+		double octaves = Math.log(latency / MIN_LATENCY) / Math.log(2);
+		return (int) Math.min(NUM_BUCKETS - 1, Math.ceil(octaves * BUCKETS_PER_OCTAVE));
+	}
+
+
+	private static double bucketUpperBound(final int index)
+	{
+		if (index == NUM_BUCKETS - 1)
+		{
+			// overflow bucket
+			return Double.POSITIVE_INFINITY;
+		}
+		return MIN_LATENCY * Math.pow(2, (double) index / BUCKETS_PER_OCTAVE);
+	}
+
+
+	/**
+	 * @return the number of added latencies
+	 */
+	public synchronized long getNumSamples()
+	{
+		return numSamples;
+	}
+
+
+	/**
+	 * @return the average latency [s]
+	 */
+	public synchronized double getMean()
+	{
+		return numSamples == 0 ? 0 : (double) totalLatency / numSamples * 1e-9;
+	}
+
+
+	/**
+	 * @return the maximum latency [s]
+	 */
+	public synchronized double getMax()
+	{
+		return maxLatency * 1e-9;
+	}
+
+
+	/**
+	 * @param percentile the percentile in [0,1]
+	 * @return the latency below which the given percentile of all latencies lie [s]
+	 */
+	public synchronized double getPercentile(final double percentile)
+	{
+		if (numSamples == 0)
+		{
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * numSamples));
+		long count = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			count += counts[i];
+			if (count >= rank)
+			{
+				return Math.min(bucketUpperBound(i), maxLatency) * 1e-9;
+			}
+		}
+		return maxLatency * 1e-9;
+	}
+
+
+	/**
+	 * Remove all latencies
+	 */
+	public synchronized void reset()
+	{
+		Arrays.fill(counts, 0);
+		numSamples = 0;
+		totalLatency = 0;
+		maxLatency = 0;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Aggregate {@link LatencyTrace}s into a latency histogram per {@link ELatencyStage} and one for the total latency.
+ * Only traces that start at the receiver contribute to the total latency, so frames that were published
+ * without new camera data do not distort it.
+ * This class is thread-safe.
+ */
+public class LatencyStatistics
+{
+	private final Map<ELatencyStage, LatencyHistogram> histograms = new EnumMap<>(ELatencyStage.class);
+	private final LatencyHistogram total = new LatencyHistogram();
+
+
+	public LatencyStatistics()
+	{
+		for (ELatencyStage stage : ELatencyStage.values())
+		{
+			histograms.put(stage, new LatencyHistogram());
+		}
+	}
+
+
+	/**
+	 * Add the latencies of all stamped stages of the given trace.
+	 *
+	 * @param trace
+	 */
+	public void add(final LatencyTrace trace)
+	{
+		histograms.forEach((stage, histogram) -> trace.getLatency(stage).ifPresent(histogram::add));
+		if (trace.has(ELatencyStage.RECEIVED))
+		{
+			trace.getTotalLatency().ifPresent(total::add);
+		}
+	}
+
+
+	/**
+	 * @param stage
+	 * @return the histogram of the latency of the given stage
+	 */
+	public LatencyHistogram getHistogram(final ELatencyStage stage)
+	{
+		return histograms.get(stage);
+	}
+
+
+	/**
+	 * @return the histogram of the total latency
+	 */
+	public LatencyHistogram getTotal()
+	{
+		return total;
+	}
+
+
+	/**
+	 * Reset all histograms.
+	 */
+	public void reset()
+	{
+		histograms.values().forEach(LatencyHistogram::reset);
+		total.reset();
+	}
+}
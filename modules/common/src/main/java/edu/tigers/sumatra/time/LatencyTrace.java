@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.time;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+
+/**
+ * Monotonic timestamps ({@link System#nanoTime()}) of a frame at the {@link ELatencyStage} boundaries it passed.
+ * <p>
+ * A trace is immutable, as frames are shared between threads and observers.
+ * Stamping a stage creates a new trace, which is passed on with the next frame.
+ */
+public final class LatencyTrace
+{
+	private static final LatencyTrace EMPTY = new LatencyTrace(new long[ELatencyStage.values().length], 0);
+
+	private final long[] timestamps;
+	private final int stamped;
+
+
+	private LatencyTrace(final long[] timestamps, final int stamped)
+	{
+		this.timestamps = timestamps;
+		this.stamped = stamped;
+	}
+
+
+	/**
+	 * @return a trace without any stamps
+	 */
+	public static LatencyTrace empty()
+	{
+		return EMPTY;
+	}
+
+
+	/**
+	 * Start a new trace at the given stage with the current time.
+	 *
+	 * @param stage
+	 * @return a new trace
+	 */
+	public static LatencyTrace start(final ELatencyStage stage)
+	{
+		return EMPTY.stamp(stage);
+	}
+
+
+	/**
+	 * Stamp the given stage with the current time.
+	 *
+	 * @param stage
+	 * @return a new trace with the additional stamp
+	 */
+	public LatencyTrace stamp(final ELatencyStage stage)
+	{
+		return stamp(stage, System.nanoTime());
+	}
+
+
+	/**
+	 * Stamp the given stage.
+	 *
+	 * @param stage
+	 * @param timestamp the time as {@link System#nanoTime()} value
+	 * @return a new trace with the additional stamp
+	 */
+	public LatencyTrace stamp(final ELatencyStage stage, final long timestamp)
+	{
+		long[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+		newTimestamps[stage.ordinal()] = timestamp;
+		return new LatencyTrace(newTimestamps, stamped | (1 << stage.ordinal()));
+	}
+
+
+	/**
+	 * @param stage
+	 * @return true, if the given stage was stamped
+	 */
+	public boolean has(final ELatencyStage stage)
+	{
+		return (stamped & (1 << stage.ordinal())) != 0;
+	}
+
+
+	/**
+	 * @param stage
+	 * @return the timestamp of the given stage, if stamped
+	 */
+	public OptionalLong getTimestamp(final ELatencyStage stage)
+	{
+		if (has(stage))
+		{
+			return OptionalLong.of(timestamps[stage.ordinal()]);
+		}
+		return OptionalLong.empty();
+	}
+
+
+	/**
+	 * Get the latency of a stage, that is the time since the previous stamped stage.
+	 *
+	 * @param stage
+	 * @return the latency [ns], if the stage and any previous stage were stamped
+	 */
+	public OptionalLong getLatency(final ELatencyStage stage)
+	{
+		if (!has(stage))
+		{
+			return OptionalLong.empty();
+		}
+		for (int i = stage.ordinal() - 1; i >= 0; i--)
+		{
+			if ((stamped & (1 << i)) != 0)
+			{
+				return OptionalLong.of(timestamps[stage.ordinal()] - timestamps[i]);
+			}
+		}
+		return OptionalLong.empty();
+	}
+
+
+	/**
+	 * @return the time between the first and the last stamped stage [ns], if at least two stages were stamped
+	 */
+	public OptionalLong getTotalLatency()
+	{
+		if (Integer.bitCount(stamped) < 2)
+		{
+			return OptionalLong.empty();
+		}
+		int first = Integer.numberOfTrailingZeros(stamped);
+		int last = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(stamped);
+		return OptionalLong.of(timestamps[last] - timestamps[first]);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("LatencyTrace[");
+		String separator = "";
+		for (ELatencyStage stage : ELatencyStage.values())
+		{
+			OptionalLong latency = getLatency(stage);
+			if (latency.isPresent())
+			{
+				sb.append(separator).append(stage).append('=').append(latency.getAsLong()).append("ns");
+				separator = ", ";
+			}
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.filter.tracking;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Compare {@link FastTrackingFilterPosVel1D} against the matrix based {@link TrackingFilterPosVel1D}.
+ */
+public class FastTrackingFilterPosVel1DTest
+{
+	private static final double TOLERANCE = 1e-6;
+
+
+	@Test
+	public void sameResultsAsMatrixFilter()
+	{
+		Random gen = new Random(0);
+
+		TrackingFilterPosVel1D reference = new TrackingFilterPosVel1D(
+				new ArrayRealVector(new double[] { 1, 2 }), 1, 0.1, 2, 0);
+		FastTrackingFilterPosVel1D filter = new FastTrackingFilterPosVel1D(1, 2, 1, 0.1, 2, 0);
+
+		long time = 0;
+		for (int i = 0; i < 500; i++)
+		{
+			// irregular frame rate with missing updates
+			time += (long) ((0.005 + gen.nextDouble() * 0.03) * 1e9);
+			double pos = i * 0.02 + gen.nextGaussian();
+
+			reference.predict(time);
+			filter.predict(time);
+			if (gen.nextDouble() > 0.2)
+			{
+				reference.correct(pos);
+				filter.correct(pos);
+				assertThat(filter.getPositionInnovation())
+						.isCloseTo(reference.getPositionInnovation(), within(TOLERANCE));
+			}
+
+			assertSameState(filter, reference, time + 10_000_000L);
+		}
+	}
+
+
+	@Test
+	public void samePredictionWithoutTimeProgress()
+	{
+		TrackingFilterPosVel1D reference = new TrackingFilterPosVel1D(3, 1, 0.1, 2, 1000);
+		FastTrackingFilterPosVel1D filter = new FastTrackingFilterPosVel1D(3, 1, 0.1, 2, 1000);
+
+		reference.predict(500);
+		filter.predict(500);
+
+		assertThat(filter.getLastTimestamp()).isEqualTo(reference.getLastTimestamp());
+		assertSameState(filter, reference, 1000);
+	}
+
+
+	@Test
+	public void sameResultsAfterCopy()
+	{
+		Random gen = new Random(1);
+
+		TrackingFilterPosVel1D reference = new TrackingFilterPosVel1D(0, 1, 0.1, 2, 0);
+		FastTrackingFilterPosVel1D filter = new FastTrackingFilterPosVel1D(0, 1, 0.1, 2, 0);
+		for (int i = 1; i < 50; i++)
+		{
+			long time = (long) (i * 0.01 * 1e9);
+			double pos = gen.nextGaussian();
+			reference.predict(time);
+			reference.correct(pos);
+			filter.predict(time);
+			filter.correct(pos);
+		}
+
+		TrackingFilterPosVel1D referenceCopy = new TrackingFilterPosVel1D(reference, reference.getLastTimestamp());
+		FastTrackingFilterPosVel1D filterCopy = new FastTrackingFilterPosVel1D(filter, filter.getLastTimestamp());
+		referenceCopy.predict(1_000_000_000L);
+		filterCopy.predict(1_000_000_000L);
+
+		assertSameState(filterCopy, referenceCopy, 1_000_000_000L);
+		assertSameState(filter, reference, 1_000_000_000L);
+	}
+
+
+	private void assertSameState(FastTrackingFilterPosVel1D filter, TrackingFilterPosVel1D reference, long timestamp)
+	{
+		assertThat(filter.getPositionEstimate()).isCloseTo(reference.getPositionEstimate(), within(TOLERANCE));
+		assertThat(filter.getVelocityEstimate()).isCloseTo(reference.getVelocityEstimate(), within(TOLERANCE));
+		assertThat(filter.getPositionUncertainty()).isCloseTo(reference.getPositionUncertainty(), within(TOLERANCE));
+		assertThat(filter.getVelocityUncertainty()).isCloseTo(reference.getVelocityUncertainty(), within(TOLERANCE));
+		assertThat(filter.getPositionEstimate(timestamp))
+				.isCloseTo(reference.getPositionEstimate(timestamp), within(TOLERANCE));
+	}
+}
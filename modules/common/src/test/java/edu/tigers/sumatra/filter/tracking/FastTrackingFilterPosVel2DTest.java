@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+/**
+ * Compare {@link FastTrackingFilterPosVel2D} against the matrix based {@link TrackingFilterPosVel2D}.
+ */
+public class FastTrackingFilterPosVel2DTest
+{
+	private static final double TOLERANCE = 1e-6;
+
+
+	@Test
+	public void sameResultsAsMatrixFilter()
+	{
+		Random gen = new Random(0);
+
+		TrackingFilterPosVel2D reference = new TrackingFilterPosVel2D(
+				new ArrayRealVector(new double[] { 100, -200, 1000, 500 }), 1000, 0.1, 100, 0);
+		FastTrackingFilterPosVel2D filter = new FastTrackingFilterPosVel2D(
+				Vector2.fromXY(100, -200), Vector2.fromXY(1000, 500), 1000, 0.1, 100, 0);
+
+		long time = 0;
+		for (int i = 0; i < 500; i++)
+		{
+			// irregular frame rate with missing updates
+			time += (long) ((0.005 + gen.nextDouble() * 0.03) * 1e9);
+			IVector2 pos = Vector2.fromXY(i * 16 + gen.nextGaussian() * 10, i * -8 + gen.nextGaussian() * 10);
+
+			reference.predict(time);
+			filter.predict(time);
+			if (gen.nextDouble() > 0.2)
+			{
+				reference.correct(pos);
+				filter.correct(pos);
+				assertSameVector(filter.getPositionInnovation(), reference.getPositionInnovation());
+			}
+
+			assertSameState(filter, reference, time + 10_000_000L);
+		}
+	}
+
+
+	@Test
+	public void sameResultsAfterCollision()
+	{
+		Random gen = new Random(1);
+
+		TrackingFilterPosVel2D reference = new TrackingFilterPosVel2D(Vector2.fromXY(10, 20), 1000, 0.1, 100, 0);
+		FastTrackingFilterPosVel2D filter = new FastTrackingFilterPosVel2D(Vector2.fromXY(10, 20), 1000, 0.1, 100, 0);
+
+		for (int i = 1; i < 200; i++)
+		{
+			long time = (long) (i * 0.016 * 1e9);
+			IVector2 pos = Vector2.fromXY(gen.nextGaussian() * 10, gen.nextGaussian() * 10);
+
+			if (i % 50 == 0)
+			{
+				// like a ball tracker that detected a collision
+				reference.resetCovariance(1000);
+				reference.setVelocity(Vector2.fromXY(-500, 300));
+				filter.resetCovariance(1000);
+				filter.setVelocity(Vector2.fromXY(-500, 300));
+			}
+
+			reference.predict(time);
+			reference.correct(pos);
+			filter.predict(time);
+			filter.correct(pos);
+
+			assertSameState(filter, reference, time);
+		}
+	}
+
+
+	@Test
+	public void sameResultsAfterCopy()
+	{
+		TrackingFilterPosVel2D reference = new TrackingFilterPosVel2D(Vector2.fromXY(10, 20), 1000, 0.1, 100, 0);
+		FastTrackingFilterPosVel2D filter = new FastTrackingFilterPosVel2D(Vector2.fromXY(10, 20), 1000, 0.1, 100, 0);
+		reference.predict(16_000_000L);
+		reference.correct(Vector2.fromXY(15, 25));
+		filter.predict(16_000_000L);
+		filter.correct(Vector2.fromXY(15, 25));
+
+		TrackingFilterPosVel2D referenceCopy = new TrackingFilterPosVel2D(reference, 20_000_000L);
+		FastTrackingFilterPosVel2D filterCopy = new FastTrackingFilterPosVel2D(filter, 20_000_000L);
+		referenceCopy.predict(50_000_000L);
+		filterCopy.predict(50_000_000L);
+
+		assertThat(filterCopy.getLastTimestamp()).isEqualTo(referenceCopy.getLastTimestamp());
+		assertSameState(filterCopy, referenceCopy, 60_000_000L);
+		assertSameState(filter, reference, 60_000_000L);
+	}
+
+
+	private void assertSameState(FastTrackingFilterPosVel2D filter, TrackingFilterPosVel2D reference, long timestamp)
+	{
+		assertSameVector(filter.getPositionEstimate(), reference.getPositionEstimate());
+		assertSameVector(filter.getVelocityEstimate(), reference.getVelocityEstimate());
+		assertSameVector(filter.getPositionUncertainty(), reference.getPositionUncertainty());
+		assertSameVector(filter.getVelocityUncertainty(), reference.getVelocityUncertainty());
+		assertSameVector(filter.getPositionEstimate(timestamp), reference.getPositionEstimate(timestamp));
+	}
+
+
+	private void assertSameVector(IVector2 actual, IVector2 expected)
+	{
+		assertThat(actual.x()).isCloseTo(expected.x(), within(TOLERANCE));
+		assertThat(actual.y()).isCloseTo(expected.y(), within(TOLERANCE));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compare the cost of a single predict and correct step of the matrix based and the fixed-size tracking filters.
+ * Run with '-prof gc' to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class TrackingFilterBenchmark
+{
+	private static final int NUM_RND_DATA = 1024;
+	private static final long FRAME_DT = 16_666_667L;
+
+	private final IVector2[] measurements = new IVector2[NUM_RND_DATA];
+
+	private final TrackingFilterPosVel2D filter2D = new TrackingFilterPosVel2D(Vector2.zero(), 1000, 0.1, 100, 0);
+	private final FastTrackingFilterPosVel2D fastFilter2D = new FastTrackingFilterPosVel2D(
+			Vector2.zero(), 1000, 0.1, 100, 0);
+	private final TrackingFilterPosVel1D filter1D = new TrackingFilterPosVel1D(0, 1000, 0.1, 100, 0);
+	private final FastTrackingFilterPosVel1D fastFilter1D = new FastTrackingFilterPosVel1D(0, 1000, 0.1, 100, 0);
+
+	private long timestamp = 0;
+	private int index = 0;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	public TrackingFilterBenchmark()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < NUM_RND_DATA; i++)
+		{
+			measurements[i] = Vector2.fromXY(rnd.nextGaussian() * 10, rnd.nextGaussian() * 10);
+		}
+	}
+
+
+	private IVector2 nextMeasurement()
+	{
+		timestamp += FRAME_DT;
+		index = (index + 1) % NUM_RND_DATA;
+		return measurements[index];
+	}
+
+
+	@Benchmark
+	public double update2D()
+	{
+		IVector2 measurement = nextMeasurement();
+		filter2D.predict(timestamp);
+		filter2D.correct(measurement);
+		return filter2D.getPositionUncertainty().x();
+	}
+
+
+	@Benchmark
+	public double fastUpdate2D()
+	{
+		IVector2 measurement = nextMeasurement();
+		fastFilter2D.predict(timestamp);
+		fastFilter2D.correct(measurement);
+		return fastFilter2D.getPositionUncertainty().x();
+	}
+
+
+	@Benchmark
+	public double update1D()
+	{
+		IVector2 measurement = nextMeasurement();
+		filter1D.predict(timestamp);
+		filter1D.correct(measurement.x());
+		return filter1D.getPositionUncertainty();
+	}
+
+
+	@Benchmark
+	public double fastUpdate1D()
+	{
+		IVector2 measurement = nextMeasurement();
+		fastFilter1D.predict(timestamp);
+		fastFilter1D.correct(measurement.x());
+		return fastFilter1D.getPositionUncertainty();
+	}
+}
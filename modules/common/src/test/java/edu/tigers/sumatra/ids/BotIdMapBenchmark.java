@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.ids;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compare the cost of a typical per-frame access pattern (update all bots, then read and iterate)
+ * of the hash based maps and the BotID-indexed collections.
+ * Run with '-prof gc' to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class BotIdMapBenchmark
+{
+	private static final int NUM_BOTS_PER_TEAM = 11;
+
+	private final List<BotID> botIds = new ArrayList<>();
+	private final Map<BotID, Object> hashMap = new HashMap<>();
+	private final Map<BotID, Object> concurrentHashMap = new ConcurrentHashMap<>();
+	private final Map<BotID, Object> botIdMap = new BotIdMap<>();
+	private final Map<BotID, Long> longHashMap = new HashMap<>();
+	private final BotIdLongMap botIdLongMap = new BotIdLongMap();
+	private final Object value = new Object();
+
+	private long timestamp = 0;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	public BotIdMapBenchmark()
+	{
+		for (int i = 0; i < NUM_BOTS_PER_TEAM; i++)
+		{
+			botIds.add(BotID.createBotId(i, ETeamColor.YELLOW));
+			botIds.add(BotID.createBotId(i, ETeamColor.BLUE));
+		}
+	}
+
+
+	private int frame(final Map<BotID, Object> map)
+	{
+		for (BotID botID : botIds)
+		{
+			map.put(botID, value);
+		}
+		int n = 0;
+		for (BotID botID : botIds)
+		{
+			if (map.get(botID) != null)
+			{
+				n++;
+			}
+		}
+		for (Object v : map.values())
+		{
+			n += v == value ? 1 : 0;
+		}
+		return n;
+	}
+
+
+	@Benchmark
+	public int hashMap()
+	{
+		return frame(hashMap);
+	}
+
+
+	@Benchmark
+	public int concurrentHashMap()
+	{
+		return frame(concurrentHashMap);
+	}
+
+
+	@Benchmark
+	public int botIdMap()
+	{
+		return frame(botIdMap);
+	}
+
+
+	@Benchmark
+	public long longHashMap()
+	{
+		timestamp++;
+		long sum = 0;
+		for (BotID botID : botIds)
+		{
+			longHashMap.putIfAbsent(botID, timestamp);
+			longHashMap.put(botID, timestamp);
+			sum += longHashMap.getOrDefault(botID, -1L);
+		}
+		return sum;
+	}
+
+
+	@Benchmark
+	public long botIdLongMap()
+	{
+		timestamp++;
+		long sum = 0;
+		for (BotID botID : botIds)
+		{
+			botIdLongMap.putIfAbsent(botID, timestamp);
+			botIdLongMap.put(botID, timestamp);
+			sum += botIdLongMap.getOrDefault(botID, -1L);
+		}
+		return sum;
+	}
+}
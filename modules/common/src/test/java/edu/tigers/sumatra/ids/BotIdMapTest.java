@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.ids;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class BotIdMapTest
+{
+	private static List<BotID> allBotIds()
+	{
+		List<BotID> botIds = new ArrayList<>();
+		for (ETeamColor color : ETeamColor.values())
+		{
+			for (int number = AObjectID.BOT_ID_MIN; number <= AObjectID.BOT_ID_MAX; number++)
+			{
+				botIds.add(BotID.createBotId(number, color));
+			}
+		}
+		botIds.add(BotID.noBot());
+		botIds.add(BotID.createBotId(AObjectID.UNINITIALIZED_ID, ETeamColor.YELLOW));
+		return botIds;
+	}
+
+
+	@Test
+	public void testSameBehaviorAsHashMap()
+	{
+		List<BotID> botIds = allBotIds();
+		Map<BotID, Integer> expected = new HashMap<>();
+		BotIdMap<Integer> map = new BotIdMap<>();
+		Random rnd = new Random(42);
+		for (int i = 0; i < 10000; i++)
+		{
+			BotID botID = botIds.get(rnd.nextInt(botIds.size()));
+			int value = rnd.nextInt(10);
+			switch (rnd.nextInt(3))
+			{
+				case 0 -> assertThat(map.put(botID, value)).isEqualTo(expected.put(botID, value));
+				case 1 -> assertThat(map.remove(botID)).isEqualTo(expected.remove(botID));
+				default -> assertThat(map.get(botID)).isEqualTo(expected.get(botID));
+			}
+			assertThat(map).isEqualTo(expected);
+			assertThat(expected).isEqualTo(map);
+			assertThat(map).hasSameHashCodeAs(expected);
+		}
+	}
+
+
+	@Test
+	public void testIterationInIdOrder()
+	{
+		BotIdMap<String> map = new BotIdMap<>();
+		map.put(BotID.createBotId(3, ETeamColor.BLUE), "b3");
+		map.put(BotID.createBotId(5, ETeamColor.YELLOW), "y5");
+		map.put(BotID.createBotId(1, ETeamColor.BLUE), "b1");
+		map.put(BotID.createBotId(0, ETeamColor.YELLOW), "y0");
+
+		assertThat(map.values()).containsExactly("y0", "y5", "b1", "b3");
+		assertThat(map.keySet()).containsExactly(
+				BotID.createBotId(0, ETeamColor.YELLOW),
+				BotID.createBotId(5, ETeamColor.YELLOW),
+				BotID.createBotId(1, ETeamColor.BLUE),
+				BotID.createBotId(3, ETeamColor.BLUE));
+	}
+
+
+	@Test
+	public void testRemoveWhileIterating()
+	{
+		BotIdMap<Integer> map = new BotIdMap<>();
+		allBotIds().forEach(id -> map.put(id, id.getNumber()));
+
+		map.entrySet().removeIf(e -> e.getKey().getTeamColor() != ETeamColor.YELLOW);
+		map.values().removeIf(v -> v % 2 == 0);
+
+		assertThat(map).hasSize(8);
+		assertThat(map.keySet()).allMatch(id -> id.getTeamColor() == ETeamColor.YELLOW && id.getNumber() % 2 == 1);
+	}
+
+
+	@Test
+	public void testEntrySetValueWritesThrough()
+	{
+		BotID botID = BotID.createBotId(2, ETeamColor.BLUE);
+		BotIdMap<Integer> map = new BotIdMap<>(Map.of(botID, 1));
+
+		map.entrySet().forEach(e -> e.setValue(e.getValue() + 1));
+
+		assertThat(map).containsEntry(botID, 2);
+	}
+
+
+	@Test
+	public void testNullValuesAreNotPermitted()
+	{
+		BotIdMap<Integer> map = new BotIdMap<>();
+		BotID botID = BotID.createBotId(2, ETeamColor.BLUE);
+		assertThatThrownBy(() -> map.put(botID, null)).isInstanceOf(NullPointerException.class);
+		assertThat(map.get("no bot id")).isNull();
+		assertThat(map.containsKey(null)).isFalse();
+	}
+}
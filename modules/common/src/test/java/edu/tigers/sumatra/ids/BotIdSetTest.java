@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.ids;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class BotIdSetTest
+{
+	private final BotID yellow3 = BotID.createBotId(3, ETeamColor.YELLOW);
+	private final BotID blue3 = BotID.createBotId(3, ETeamColor.BLUE);
+	private final BotID neutral3 = BotID.createBotId(3, ETeamColor.NEUTRAL);
+
+
+	@Test
+	public void testSet()
+	{
+		BotIdSet set = new BotIdSet();
+		assertThat(set.add(blue3)).isTrue();
+		assertThat(set.add(blue3)).isFalse();
+		assertThat(set.add(neutral3)).isTrue();
+		assertThat(set.add(yellow3)).isTrue();
+		assertThat(set.add(BotID.noBot())).isTrue();
+
+		assertThat(set).containsExactly(yellow3, blue3, neutral3, BotID.noBot());
+		assertThat(set).isEqualTo(new HashSet<>(List.of(yellow3, blue3, neutral3, BotID.noBot())));
+		assertThat(set).hasSameHashCodeAs(new HashSet<>(List.of(yellow3, blue3, neutral3, BotID.noBot())));
+
+		assertThat(set.remove(blue3)).isTrue();
+		assertThat(set.remove(blue3)).isFalse();
+		assertThat(set.remove("no bot id")).isFalse();
+		set.removeIf(id -> !id.isBot());
+		assertThat(set).containsExactly(yellow3, neutral3);
+	}
+
+
+	@Test
+	public void testLongMap()
+	{
+		BotIdLongMap map = new BotIdLongMap();
+		assertThat(map.putIfAbsent(blue3, 10)).isTrue();
+		assertThat(map.putIfAbsent(blue3, 20)).isFalse();
+		map.put(yellow3, -1);
+
+		assertThat(map.getOrDefault(blue3, 0)).isEqualTo(10);
+		assertThat(map.getOrDefault(yellow3, 0)).isEqualTo(-1);
+		assertThat(map.getOrDefault(neutral3, 0)).isZero();
+		assertThat(map.containsKey(yellow3)).isTrue();
+		assertThat(map.size()).isEqualTo(2);
+
+		Map<BotID, Long> boxed = new HashMap<>();
+		map.forEach(boxed::put);
+		assertThat(boxed).isEqualTo(Map.of(yellow3, -1L, blue3, 10L));
+		assertThat(map.hashCode()).isEqualTo(boxed.hashCode());
+
+		assertThat(map.remove(blue3)).isTrue();
+		assertThat(map.remove(blue3)).isFalse();
+		assertThat(map.containsKey(blue3)).isFalse();
+		map.clear();
+		assertThat(map.isEmpty()).isTrue();
+	}
+
+
+	@Test
+	public void testCopy()
+	{
+		Set<BotID> botIds = Set.of(yellow3, neutral3);
+		assertThat(new BotIdSet(botIds)).isEqualTo(botIds);
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.network;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class MulticastPacketDeduplicatorTest
+{
+	private static final long WINDOW = 50_000_000L;
+
+	private final ByteBuffer packetA = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+	private final ByteBuffer packetB = ByteBuffer.wrap(new byte[] { 1, 2, 3, 5 });
+
+
+	@Test
+	public void testDuplicateFromOtherInterface()
+	{
+		MulticastPacketDeduplicator deduplicator = new MulticastPacketDeduplicator(WINDOW);
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 0, 0)).isFalse();
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 1, 1000)).isTrue();
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 2, 2000)).isTrue();
+	}
+
+
+	@Test
+	public void testRepeatedPacketOnSameInterface()
+	{
+		MulticastPacketDeduplicator deduplicator = new MulticastPacketDeduplicator(WINDOW);
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 0, 0)).isFalse();
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 0, 1000)).isFalse();
+	}
+
+
+	@Test
+	public void testDifferentContent()
+	{
+		MulticastPacketDeduplicator deduplicator = new MulticastPacketDeduplicator(WINDOW);
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 0, 0)).isFalse();
+		assertThat(deduplicator.isDuplicate(packetB, 0, 4, 1, 1000)).isFalse();
+		assertThat(deduplicator.isDuplicate(packetA, 0, 3, 1, 1000)).isFalse();
+	}
+
+
+	@Test
+	public void testOutsideOfWindow()
+	{
+		MulticastPacketDeduplicator deduplicator = new MulticastPacketDeduplicator(WINDOW);
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 0, 0)).isFalse();
+		assertThat(deduplicator.isDuplicate(packetA, 0, 4, 1, WINDOW + 1)).isFalse();
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.time;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+public class LatencyHistogramTest
+{
+	@Test
+	public void testEmpty()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getNumSamples()).isZero();
+		assertThat(histogram.getMean()).isZero();
+		assertThat(histogram.getMax()).isZero();
+		assertThat(histogram.getPercentile(0.5)).isZero();
+	}
+
+
+	@Test
+	public void testPercentiles()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++)
+		{
+			histogram.add(i * 10_000L);
+		}
+
+		assertThat(histogram.getNumSamples()).isEqualTo(1000);
+		assertThat(histogram.getMean()).isCloseTo(5.005e-3, within(1e-9));
+		assertThat(histogram.getMax()).isCloseTo(10e-3, within(1e-12));
+		// percentiles are rounded up to the bucket boundary, which has a relative resolution of about 9%
+		assertThat(histogram.getPercentile(0.5)).isBetween(5e-3, 5e-3 * 1.1);
+		assertThat(histogram.getPercentile(0.99)).isBetween(9.9e-3, 10e-3);
+		assertThat(histogram.getPercentile(1)).isCloseTo(10e-3, within(1e-12));
+	}
+
+
+	@Test
+	public void testOutOfRange()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.add(0);
+		histogram.add(100_000_000_000L);
+
+		assertThat(histogram.getPercentile(0.5)).isCloseTo(0, within(1e-5));
+		assertThat(histogram.getPercentile(1)).isCloseTo(100, within(1e-9));
+	}
+
+
+	@Test
+	public void testReset()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.add(1_000_000);
+		histogram.reset();
+
+		assertThat(histogram.getNumSamples()).isZero();
+		assertThat(histogram.getPercentile(0.5)).isZero();
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.time;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class LatencyTraceTest
+{
+	@Test
+	public void testEmpty()
+	{
+		LatencyTrace trace = LatencyTrace.empty();
+		for (ELatencyStage stage : ELatencyStage.values())
+		{
+			assertThat(trace.has(stage)).isFalse();
+			assertThat(trace.getLatency(stage)).isEmpty();
+		}
+		assertThat(trace.getTotalLatency()).isEmpty();
+	}
+
+
+	@Test
+	public void testStampIsImmutable()
+	{
+		LatencyTrace trace = LatencyTrace.empty().stamp(ELatencyStage.RECEIVED, 100);
+		LatencyTrace stamped = trace.stamp(ELatencyStage.CAM_FRAME, 150);
+
+		assertThat(trace.has(ELatencyStage.CAM_FRAME)).isFalse();
+		assertThat(stamped.getTimestamp(ELatencyStage.RECEIVED)).hasValue(100);
+		assertThat(stamped.getTimestamp(ELatencyStage.CAM_FRAME)).hasValue(150);
+	}
+
+
+	@Test
+	public void testLatencySkipsMissingStages()
+	{
+		LatencyTrace trace = LatencyTrace.empty()
+				.stamp(ELatencyStage.RECEIVED, 100)
+				.stamp(ELatencyStage.CAM_FRAME, 150)
+				.stamp(ELatencyStage.WORLD_FRAME, 400)
+				.stamp(ELatencyStage.AUTO_REF_FRAME, 1000);
+
+		assertThat(trace.getLatency(ELatencyStage.RECEIVED)).isEmpty();
+		assertThat(trace.getLatency(ELatencyStage.CAM_FRAME)).hasValue(50);
+		assertThat(trace.getLatency(ELatencyStage.FILTERED_FRAME)).isEmpty();
+		assertThat(trace.getLatency(ELatencyStage.WORLD_FRAME)).hasValue(250);
+		assertThat(trace.getLatency(ELatencyStage.AUTO_REF_FRAME)).hasValue(600);
+		assertThat(trace.getTotalLatency()).hasValue(900);
+	}
+
+
+	@Test
+	public void testNegativeTimestamps()
+	{
+		// System.nanoTime() may be negative
+		LatencyTrace trace = LatencyTrace.empty()
+				.stamp(ELatencyStage.RECEIVED, -200)
+				.stamp(ELatencyStage.CAM_FRAME, 0);
+
+		assertThat(trace.has(ELatencyStage.CAM_FRAME)).isTrue();
+		assertThat(trace.getLatency(ELatencyStage.CAM_FRAME)).hasValue(200);
+	}
+}
@@ -5,11 +5,8 @@
 package edu.tigers.autoreferee;
 
 import com.github.g3force.configurable.ConfigRegistration;
-import com.google.protobuf.InvalidProtocolBufferException;
-import com.google.protobuf.util.JsonFormat;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
 import edu.tigers.autoreferee.module.AutoRefModule;
-import edu.tigers.sumatra.autoreferee.proto.DesiredEventDescription;
 import edu.tigers.sumatra.gamelog.GameLogPlayer;
 import edu.tigers.sumatra.gamelog.GameLogReader;
 import edu.tigers.sumatra.geometry.Geometry;
@@ -21,41 +18,30 @@ import edu.tigers.sumatra.persistence.PersistenceAsyncRecorder;
 import edu.tigers.sumatra.persistence.PersistenceDb;
 import edu.tigers.sumatra.persistence.log.PersistenceLogEvent;
 import edu.tigers.sumatra.persistence.log.PersistenceLogRecorder;
-import edu.tigers.sumatra.referee.gameevent.GameEventFactory;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.referee.gameevent.SimilarityChecker;
 import edu.tigers.sumatra.wp.PersistenceShapeMapFrame;
 import edu.tigers.sumatra.wp.ShapeMapPersistenceRecorder;
 import edu.tigers.sumatra.wp.WfwPersistenceRecorder;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
-import lombok.Builder;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
-import lombok.Value;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.message.Message;
 import org.junit.After;
-import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -66,12 +52,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class AutoRefIntegrationTest
 {
 	private static final String MODULI_CONFIG = "integration_test.xml";
-	private static final String TEST_CASE_DIR = "config/autoref-tests";
 
 	private static SimilarityChecker similarityChecker;
 
 	private final String name;
-	private final TestCase testCase;
+	private final AutoRefTestCase testCase;
 	private PersistenceAsyncRecorder recorder;
 	private final LogEventWatcher logEventWatcher = new LogEventWatcher(Level.WARN, Level.ERROR);
 	private boolean testCaseSucceeded;
@@ -80,7 +65,9 @@ public class AutoRefIntegrationTest
 	@Parameterized.Parameters(name = "{0}")
 	public static Collection<Object[]> data()
 	{
-		return findTestCases().stream().map(t -> new Object[] { t.getName(), t }).collect(Collectors.toList());
+		return AutoRefTestCase.findTestCases().stream()
+				.map(t -> new Object[] { t.getName(), t })
+				.collect(Collectors.toList());
 	}
 
 
@@ -145,15 +132,6 @@ public class AutoRefIntegrationTest
 		logReader.loadFileBlocking(testCase.getLogfileLocation().toAbsolutePath().toString());
 		assertThat(logReader.getMessages()).isNotEmpty();
 
-		var desiredEvent = testCase.getDesiredEvent();
-		var expectedEventProto = desiredEvent.hasExpectedEvent()
-				? desiredEvent.getExpectedEvent()
-				: null;
-
-		var desiredGameEvent = Optional.ofNullable(expectedEventProto)
-				.flatMap(GameEventFactory::fromProtobuf)
-				.orElse(null);
-
 		List<IGameEvent> gameEvents = new ArrayList<>();
 		IAutoRefObserver autoRefObserver = gameEvents::add;
 		SumatraModel.getInstance().getModule(AutoRefModule.class).addObserver(autoRefObserver);
@@ -164,27 +142,7 @@ public class AutoRefIntegrationTest
 			visionCam.playlogFast(logReader);
 
 			assertNoWarningsOrErrors();
-
-			if (gameEvents.isEmpty() && desiredGameEvent != null)
-			{
-				Assert.fail("Expected game event: " + desiredGameEvent);
-			}
-			if (desiredGameEvent == null && !gameEvents.isEmpty())
-			{
-				Assert.fail("Expected no game events, but got: " + gameEvents);
-			}
-
-			for (var gameEvent : gameEvents)
-			{
-				if (!similarityChecker.isSimilar(gameEvent, desiredGameEvent))
-				{
-					Assert.fail("Game event mismatch.\nExpected: " + desiredGameEvent + "\n     Got: " + gameEvent);
-				}
-				if (desiredEvent.getStopAfterEvent())
-				{
-					break;
-				}
-			}
+			testCase.assertGameEvents(gameEvents, similarityChecker);
 			testCaseSucceeded = true;
 		} finally
 		{
@@ -193,51 +151,6 @@ public class AutoRefIntegrationTest
 	}
 
 
-	private static List<TestCase> findTestCases()
-	{
-		Path testCaseDir = Path.of(TEST_CASE_DIR);
-		if (!testCaseDir.toFile().exists())
-		{
-			return Collections.emptyList();
-		}
-		try (Stream<Path> stream = Files.walk(testCaseDir))
-		{
-			return stream
-					.filter(p -> p.getFileName().toString().endsWith(".json"))
-					.map(AutoRefIntegrationTest::createTestCase)
-					.sorted(Comparator.comparing(TestCase::getName))
-					.collect(Collectors.toList());
-		} catch (IOException e)
-		{
-			throw new IllegalStateException("Could not walk through test case folder.", e);
-		}
-	}
-
-
-	@SneakyThrows
-	private static TestCase createTestCase(Path testCaseFile)
-	{
-		String eventType = testCaseFile.getParent().getFileName().toString();
-		String name = testCaseFile.getFileName().toString().replace(".json", "");
-		Path logfileLocation = testCaseFile.getParent().resolve(name + ".log");
-
-		var desiredEventBuilder = DesiredEventDescription.DesiredEvent.newBuilder();
-		try
-		{
-			JsonFormat.parser().ignoringUnknownFields().merge(Files.readString(testCaseFile), desiredEventBuilder);
-		} catch (InvalidProtocolBufferException e)
-		{
-			throw new IllegalStateException("Could not read " + testCaseFile, e);
-		}
-
-		return TestCase.builder()
-				.name(eventType + "-" + name)
-				.logfileLocation(logfileLocation)
-				.desiredEvent(desiredEventBuilder.build())
-				.build();
-	}
-
-
 	private void assertNoWarningsOrErrors()
 	{
 		assertThat(logEventWatcher.getEvents(Level.ERROR).stream()
@@ -265,14 +178,4 @@ public class AutoRefIntegrationTest
 		// Bug: https://gitlab.tigers-mannheim.de/main/Sumatra/-/issues/1859
 		return !message.contains("Goal detected, but no kick event found");
 	}
-
-
-	@Value
-	@Builder
-	private static class TestCase
-	{
-		String name;
-		Path logfileLocation;
-		DesiredEventDescription.DesiredEvent desiredEvent;
-	}
 }
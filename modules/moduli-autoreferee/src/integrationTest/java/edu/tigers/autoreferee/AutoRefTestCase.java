@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
+import edu.tigers.sumatra.autoreferee.proto.DesiredEventDescription;
+import edu.tigers.sumatra.referee.gameevent.GameEventFactory;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.gameevent.SimilarityChecker;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * A recorded game log with the game event that the AutoRef is expected to detect in it.
+ */
+@Value
+@Builder
+public class AutoRefTestCase
+{
+	private static final String TEST_CASE_DIR = "config/autoref-tests";
+
+	String name;
+	Path logfileLocation;
+	DesiredEventDescription.DesiredEvent desiredEvent;
+
+
+	public static List<AutoRefTestCase> findTestCases()
+	{
+		Path testCaseDir = Path.of(TEST_CASE_DIR);
+		if (!testCaseDir.toFile().exists())
+		{
+			return Collections.emptyList();
+		}
+		try (Stream<Path> stream = Files.walk(testCaseDir))
+		{
+			return stream
+					.filter(p -> p.getFileName().toString().endsWith(".json"))
+					.map(AutoRefTestCase::createTestCase)
+					.sorted(Comparator.comparing(AutoRefTestCase::getName))
+					.collect(Collectors.toList());
+		} catch (IOException e)
+		{
+			throw new IllegalStateException("Could not walk through test case folder.", e);
+		}
+	}
+
+
+	@SneakyThrows
+	private static AutoRefTestCase createTestCase(Path testCaseFile)
+	{
+		String eventType = testCaseFile.getParent().getFileName().toString();
+		String name = testCaseFile.getFileName().toString().replace(".json", "");
+		Path logfileLocation = testCaseFile.getParent().resolve(name + ".log");
+
+		var desiredEventBuilder = DesiredEventDescription.DesiredEvent.newBuilder();
+		try
+		{
+			JsonFormat.parser().ignoringUnknownFields().merge(Files.readString(testCaseFile), desiredEventBuilder);
+		} catch (InvalidProtocolBufferException e)
+		{
+			throw new IllegalStateException("Could not read " + testCaseFile, e);
+		}
+
+		return AutoRefTestCase.builder()
+				.name(eventType + "-" + name)
+				.logfileLocation(logfileLocation)
+				.desiredEvent(desiredEventBuilder.build())
+				.build();
+	}
+
+
+	/**
+	 * Check the detected game events against the desired event of this test case.
+	 *
+	 * @param gameEvents        the detected game events in the order of detection
+	 * @param similarityChecker the checker for comparing game events
+	 */
+	public void assertGameEvents(List<IGameEvent> gameEvents, SimilarityChecker similarityChecker)
+	{
+		var expectedEventProto = desiredEvent.hasExpectedEvent()
+				? desiredEvent.getExpectedEvent()
+				: null;
+
+		var desiredGameEvent = Optional.ofNullable(expectedEventProto)
+				.flatMap(GameEventFactory::fromProtobuf)
+				.orElse(null);
+
+		if (gameEvents.isEmpty() && desiredGameEvent != null)
+		{
+			Assert.fail("Expected game event: " + desiredGameEvent);
+		}
+		if (desiredGameEvent == null && !gameEvents.isEmpty())
+		{
+			Assert.fail("Expected no game events, but got: " + gameEvents);
+		}
+
+		for (var gameEvent : gameEvents)
+		{
+			if (!similarityChecker.isSimilar(gameEvent, desiredGameEvent))
+			{
+				Assert.fail("Game event mismatch.\nExpected: " + desiredGameEvent + "\n     Got: " + gameEvent);
+			}
+			if (desiredEvent.getStopAfterEvent())
+			{
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee.offline;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import edu.tigers.autoreferee.AutoRefTestCase;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.gameevent.SimilarityChecker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+/**
+ * Run the test cases of the AutoRefIntegrationTest with the {@link OfflineAutoRefPipeline}, without the module system.
+ */
+@RunWith(Parameterized.class)
+@Log4j2
+@RequiredArgsConstructor
+public class OfflineAutoRefPipelineIntegrationTest
+{
+	private static SimilarityChecker similarityChecker;
+
+	private final String name;
+	private final AutoRefTestCase testCase;
+
+
+	@Parameterized.Parameters(name = "{0}")
+	public static Collection<Object[]> data()
+	{
+		return AutoRefTestCase.findTestCases().stream()
+				.map(t -> new Object[] { t.getName(), t })
+				.collect(Collectors.toList());
+	}
+
+
+	@BeforeClass
+	public static void beforeClass()
+	{
+		ConfigRegistration.setDefPath("../../config/");
+		Geometry.setNegativeHalfTeam(ETeamColor.BLUE);
+
+		similarityChecker = new SimilarityChecker().initAllGameEvents();
+	}
+
+
+	@Test
+	public void runTestCase() throws IOException
+	{
+		log.info("Start running test case {} offline", testCase.getName());
+		List<IGameEvent> gameEvents = new OfflineAutoRefPipeline().process(testCase.getLogfileLocation());
+		testCase.assertGameEvents(gameEvents, similarityChecker);
+	}
+}
@@ -4,18 +4,14 @@
 package edu.tigers.autoreferee;
 
 import edu.tigers.autoreferee.generic.BotPosition;
-import edu.tigers.autoreferee.module.AutoRefModule;
-import edu.tigers.sumatra.drawable.DrawableBorderText;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
 import edu.tigers.sumatra.drawable.ShapeMap;
-import edu.tigers.sumatra.math.vector.Vector2;
-import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
 import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
 import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 
-import java.awt.Color;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +25,7 @@ public class AutoRefFrame implements IAutoRefFrame
 	private final ShapeMap shapes = new ShapeMap();
 	private final WorldFrameWrapper worldFrameWrapper;
 	private AutoRefFrame previousFrame;
+	private BotSpatialIndex botIndex;
 
 	private List<BotPosition> botsLastTouchedBall = Collections.emptyList();
 	private List<BotPosition> botsTouchingBall = Collections.emptyList();
@@ -42,11 +39,6 @@ public class AutoRefFrame implements IAutoRefFrame
 	{
 		this.previousFrame = previousFrame;
 		this.worldFrameWrapper = worldFrameWrapper;
-		shapes.get(EAutoRefShapesLayer.MODE).add(
-				new DrawableBorderText(
-						Vector2.fromXY(1, 6),
-						"AutoRef: " + SumatraModel.getInstance().getModule(AutoRefModule.class).getMode().toString())
-						.setColor(Color.WHITE));
 	}
 
 
@@ -64,6 +56,19 @@ public class AutoRefFrame implements IAutoRefFrame
 	}
 
 
+	@Override
+	public BotSpatialIndex getBotIndex()
+	{
+		return botIndex;
+	}
+
+
+	public void setBotIndex(final BotSpatialIndex botIndex)
+	{
+		this.botIndex = botIndex;
+	}
+
+
 	@Override
 	public List<BotPosition> getBotsLastTouchedBall()
 	{
@@ -9,6 +9,7 @@ import edu.tigers.autoreferee.engine.calc.BotBallContactAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.GameStateHistoryAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc;
 import edu.tigers.autoreferee.engine.calc.PassDetectionAutoRefCalc;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 
 import java.util.ArrayList;
@@ -21,11 +22,25 @@ import java.util.List;
 public class AutoRefFramePreprocessor
 {
 	private List<IAutoRefereeCalc> calculators = new ArrayList<>();
+	private final boolean releasePreviousFrames;
 	private AutoRefFrame lastFrame;
+	private AutoRefMetrics metrics;
 	
 	
 	public AutoRefFramePreprocessor()
 	{
+		this(true);
+	}
+	
+	
+	/**
+	 * @param releasePreviousFrames release the previous frame of the last frame, when the next frame is processed.
+	 *                              Disable this, if frames are still used by another thread after they were
+	 *                              processed. That thread has to call {@link AutoRefFrame#cleanUp()} instead.
+	 */
+	public AutoRefFramePreprocessor(final boolean releasePreviousFrames)
+	{
+		this.releasePreviousFrames = releasePreviousFrames;
 		calculators.add(new BallLeftFieldAutoRefCalc());
 		calculators.add(new BotBallContactAutoRefCalc());
 		calculators.add(new GameStateHistoryAutoRefCalc());
@@ -37,6 +52,7 @@ public class AutoRefFramePreprocessor
 	public AutoRefFrame process(final WorldFrameWrapper wFrame)
 	{
 		AutoRefFrame frame = new AutoRefFrame(lastFrame, wFrame);
+		frame.setBotIndex(BotSpatialIndex.of(wFrame.getSimpleWorldFrame().getBots().values()));
 		
 		if (lastFrame != null)
 		{
@@ -50,7 +66,7 @@ public class AutoRefFramePreprocessor
 	
 	private void setLastFrame(final AutoRefFrame frame)
 	{
-		if (lastFrame != null)
+		if (releasePreviousFrames && lastFrame != null)
 		{
 			lastFrame.cleanUp();
 		}
@@ -60,13 +76,28 @@ public class AutoRefFramePreprocessor
 	
 	private void runCalculators(final AutoRefFrame frame)
 	{
+		boolean measure = metrics != null && AutoRefMetrics.isEnabled();
 		for (IAutoRefereeCalc calc : calculators)
 		{
+			long tStart = measure ? System.nanoTime() : 0;
 			calc.process(frame);
+			if (measure)
+			{
+				metrics.addCalculator(calc, System.nanoTime() - tStart);
+			}
 		}
 	}
 	
 	
+	/**
+	 * @param metrics the metrics to report the duration of each calculator to, or null
+	 */
+	public void setMetrics(final AutoRefMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+	
+	
 	public boolean hasLastFrame()
 	{
 		return lastFrame != null;
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.drawable.DrawableBorderText;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.export.CSVExporter;
+import edu.tigers.sumatra.export.CSVExporterException;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import lombok.extern.log4j.Log4j2;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Processing time of the AutoRef per {@link EGameEventDetectorType}, per calculator of the
+ * {@link AutoRefFramePreprocessor} and per frame.
+ * <p>
+ * Detectors and calculators are only measured, if enabled, so there is no overhead otherwise.
+ * Frames that exceed the configured time budget are always counted and reported with a warning.
+ * The metrics are periodically written to the log and to a CSV file. The file is written on a background thread,
+ * so that the AutoRef is not blocked by I/O.
+ * This class is thread-safe.
+ */
+@Log4j2
+public class AutoRefMetrics
+{
+	private static final String CSV_FOLDER = "data/autoref";
+	private static final long WARNING_INTERVAL = 1_000_000_000L;
+	private static final int MAX_SHAPE_LINES = 12;
+
+	@Configurable(defValue = "false", comment = "Measure the processing time of each detector and calculator")
+	private static boolean enabled = false;
+
+	@Configurable(defValue = "0.01", comment = "[s] Time budget for preprocessing and detecting game events of a frame")
+	private static double frameBudget = 0.01;
+
+	@Configurable(defValue = "0", comment = "[s] Interval for writing the metrics to the log and a CSV file, 0 to disable")
+	private static double dumpInterval = 0;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", AutoRefMetrics.class);
+	}
+
+	private final Map<EGameEventDetectorType, LatencyHistogram> detectors = new EnumMap<>(
+			EGameEventDetectorType.class);
+	private final Map<String, LatencyHistogram> calculators = new ConcurrentHashMap<>();
+	private final LatencyHistogram frames = new LatencyHistogram();
+	private final AtomicLong numBudgetExceeded = new AtomicLong();
+	/** writes the dumps, the CSV exporter is only accessed by this thread. The thread terminates when idle */
+	private final ThreadPoolExecutor dumpExecutor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), new NamedThreadFactory("AutoRefMetrics"));
+
+	private long lastWarning;
+	private long lastDump;
+	private CSVExporter csvExporter;
+
+
+	public AutoRefMetrics()
+	{
+		dumpExecutor.allowCoreThreadTimeOut(true);
+		for (EGameEventDetectorType type : EGameEventDetectorType.values())
+		{
+			detectors.put(type, new LatencyHistogram());
+		}
+	}
+
+
+	/**
+	 * @return true, if detectors and calculators should be measured
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+
+	/**
+	 * Override the configuration, e.g. for tests.
+	 *
+	 * @param enabled true, if detectors and calculators should be measured
+	 */
+	static void setEnabled(final boolean enabled)
+	{
+		AutoRefMetrics.enabled = enabled;
+	}
+
+
+	/**
+	 * Override the configuration, e.g. for tests.
+	 *
+	 * @param frameBudget the time budget of a frame [s]
+	 */
+	static void setFrameBudget(final double frameBudget)
+	{
+		AutoRefMetrics.frameBudget = frameBudget;
+	}
+
+
+	/**
+	 * @return the number of frames that exceeded the time budget since the last reset
+	 */
+	public long getNumBudgetExceeded()
+	{
+		return numBudgetExceeded.get();
+	}
+
+
+	/**
+	 * @param type     the detector type
+	 * @param duration the duration of a single update [ns]
+	 */
+	public void addDetector(final EGameEventDetectorType type, final long duration)
+	{
+		detectors.get(type).add(duration);
+	}
+
+
+	/**
+	 * @param calculator the calculator
+	 * @param duration   the duration of a single update [ns]
+	 */
+	public void addCalculator(final Object calculator, final long duration)
+	{
+		calculators.computeIfAbsent(calculator.getClass().getSimpleName(), k -> new LatencyHistogram()).add(duration);
+	}
+
+
+	/**
+	 * Add the total processing time of a frame and check it against the time budget.
+	 *
+	 * @param duration the time for preprocessing and detecting game events of a frame [ns]
+	 */
+	public synchronized void addFrame(final long duration)
+	{
+		frames.add(duration);
+		long now = System.nanoTime();
+		if (duration * 1e-9 > frameBudget)
+		{
+			long numExceeded = numBudgetExceeded.incrementAndGet();
+			if (now - lastWarning > WARNING_INTERVAL)
+			{
+				lastWarning = now;
+				log.warn("AutoRef frame took {} ms, exceeding the budget of {} ms ({} frames in total)",
+						String.format(Locale.ENGLISH, "%.2f", duration * 1e-6), frameBudget * 1e3, numExceeded);
+			}
+		}
+		if (dumpInterval > 0 && (now - lastDump) * 1e-9 > dumpInterval)
+		{
+			if (lastDump != 0)
+			{
+				List<MetricSnapshot> snapshot = getMetrics().stream().map(Metric::snapshot).toList();
+				long timestamp = System.currentTimeMillis();
+				long numExceeded = numBudgetExceeded.get();
+				dumpExecutor.execute(() -> dump(snapshot, timestamp, numExceeded));
+			}
+			lastDump = now;
+		}
+	}
+
+
+	/**
+	 * @return a snapshot of all metrics with samples, the slowest (by p99) first
+	 */
+	List<MetricSnapshot> createSnapshots()
+	{
+		// the histograms are still updated, so only the snapshots have a consistent order
+		List<MetricSnapshot> snapshots = new ArrayList<>(getMetrics().stream().map(Metric::snapshot).toList());
+		snapshots.sort(Comparator.comparingDouble(MetricSnapshot::p99).reversed());
+		return snapshots;
+	}
+
+
+	private List<Metric> getMetrics()
+	{
+		List<Metric> metrics = new ArrayList<>();
+		metrics.add(new Metric("Frame", frames));
+		detectors.forEach((type, histogram) -> metrics.add(new Metric(type.name(), histogram)));
+		calculators.forEach((name, histogram) -> metrics.add(new Metric(name, histogram)));
+		metrics.removeIf(m -> m.histogram().getNumSamples() == 0);
+		return metrics;
+	}
+
+
+	private void dump(final List<MetricSnapshot> metrics, final long timestamp, final long numExceeded)
+	{
+		for (MetricSnapshot metric : metrics)
+		{
+			log.info("AutoRef metrics: {}", metric.format());
+		}
+		log.info("AutoRef metrics: {} frames exceeded the budget", numExceeded);
+		try
+		{
+			if (csvExporter == null)
+			{
+				csvExporter = new CSVExporter(CSV_FOLDER, "metrics", CSVExporter.EMode.APPEND_DATE);
+				csvExporter.setHeader(List.of("timestamp", "name", "samples", "mean [s]", "p50 [s]", "p99 [s]", "max [s]"));
+			}
+			for (MetricSnapshot m : metrics)
+			{
+				csvExporter.addValues(List.of(timestamp, m.name(), m.numSamples(), m.mean(), m.p50(), m.p99(), m.max()));
+			}
+		} catch (CSVExporterException e)
+		{
+			log.warn("Could not write AutoRef metrics", e);
+		}
+	}
+
+
+	/**
+	 * Create text shapes with the number of frames over budget and, if enabled, the metrics of the slowest detectors
+	 * and calculators. This formats all histograms, so it should not be called for every frame.
+	 *
+	 * @param posY the vertical position of the first line
+	 * @return the text shapes
+	 */
+	public List<IDrawableShape> createShapes(final double posY)
+	{
+		List<IDrawableShape> shapes = new ArrayList<>();
+		long numExceeded = numBudgetExceeded.get();
+		String text = String.format(Locale.ENGLISH, "Frames over budget (%.1fms): %d", frameBudget * 1e3,
+				numExceeded);
+		Color color = numExceeded > 0 ? Color.RED : Color.ORANGE;
+		shapes.add(new DrawableBorderText(Vector2.fromXY(1, posY), text).setColor(color));
+		if (!enabled)
+		{
+			return shapes;
+		}
+
+		List<MetricSnapshot> snapshots = createSnapshots();
+		for (int i = 0; i < Math.min(MAX_SHAPE_LINES, snapshots.size()); i++)
+		{
+			shapes.add(new DrawableBorderText(Vector2.fromXY(1, posY + 1 + i), snapshots.get(i).format())
+					.setColor(Color.WHITE));
+		}
+		return shapes;
+	}
+
+
+	/**
+	 * Reset all metrics and close the CSV file.
+	 */
+	public synchronized void reset()
+	{
+		detectors.values().forEach(LatencyHistogram::reset);
+		calculators.clear();
+		frames.reset();
+		numBudgetExceeded.set(0);
+		lastDump = 0;
+		dumpExecutor.execute(this::closeCsvExporter);
+	}
+
+
+	private void closeCsvExporter()
+	{
+		if (csvExporter != null)
+		{
+			csvExporter.close();
+			csvExporter = null;
+		}
+	}
+
+
+	private record Metric(String name, LatencyHistogram histogram)
+	{
+		MetricSnapshot snapshot()
+		{
+			return new MetricSnapshot(name, histogram.getNumSamples(), histogram.getMean(), histogram.getPercentile(0.5),
+					histogram.getPercentile(0.99), histogram.getMax());
+		}
+	}
+
+
+	/**
+	 * The values of a metric at one time
+	 *
+	 * @param name       the name of the detector, the calculator or "Frame"
+	 * @param numSamples the number of samples
+	 * @param mean       the mean duration [s]
+	 * @param p50        the median duration [s]
+	 * @param p99        the 99th percentile of the duration [s]
+	 * @param max        the maximum duration [s]
+	 */
+	record MetricSnapshot(String name, long numSamples, double mean, double p50, double p99, double max)
+	{
+		String format()
+		{
+			return String.format(Locale.ENGLISH, "%s: %.2fms p50, %.2fms p99, %.2fms max (%d)",
+					name, p50 * 1e3, p99 * 1e3, max * 1e3, numSamples);
+		}
+	}
+}
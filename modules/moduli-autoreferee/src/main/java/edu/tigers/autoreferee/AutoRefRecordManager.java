@@ -9,10 +9,13 @@ import edu.tigers.sumatra.persistence.PersistenceAsyncRecorder;
 import edu.tigers.sumatra.persistence.PersistenceDb;
 import edu.tigers.sumatra.persistence.RecordManager;
 import edu.tigers.sumatra.wp.CamFramePersistenceRecorder;
+import edu.tigers.sumatra.wp.GameTransitionPersistenceRecorder;
 import edu.tigers.sumatra.wp.PersistenceShapeMapFrame;
 import edu.tigers.sumatra.wp.ShapeMapPersistenceRecorder;
 import edu.tigers.sumatra.wp.WfwPersistenceRecorder;
 import edu.tigers.sumatra.wp.data.PersistenceCamDetectionFrame;
+import edu.tigers.sumatra.wp.data.PersistenceGameTransition;
+import edu.tigers.sumatra.wp.data.PersistenceLatencyTraceFrame;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 
 
@@ -26,6 +29,8 @@ public class AutoRefRecordManager extends RecordManager
 		db.add(PersistenceCamDetectionFrame.class, EPersistenceKeyType.ARBITRARY);
 		db.add(PersistenceShapeMapFrame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
 		db.add(WorldFrameWrapper.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(PersistenceLatencyTraceFrame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(PersistenceGameTransition.class, EPersistenceKeyType.ARBITRARY);
 	}
 
 
@@ -36,6 +41,8 @@ public class AutoRefRecordManager extends RecordManager
 		recorder.add(new CamFramePersistenceRecorder(recorder.getDb()));
 		recorder.add(new WfwPersistenceRecorder(recorder.getDb()));
 		recorder.add(new ShapeMapPersistenceRecorder(recorder.getDb()));
+		recorder.add(new LatencyTracePersistenceRecorder(recorder.getDb()));
+		recorder.add(new GameTransitionPersistenceRecorder(recorder.getDb()));
 	}
 
 }
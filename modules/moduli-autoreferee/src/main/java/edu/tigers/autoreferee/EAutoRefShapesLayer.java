@@ -34,4 +34,8 @@ public class EAutoRefShapesLayer
 			F.category(AUTO_REFEREE).layerName("Pushing Detector").visibleByDefault(true));
 	public static final IShapeLayerIdentifier PASS_DETECTION = F.create(
 			F.category(AUTO_REFEREE).layerName("Pass Detection").visibleByDefault(true));
+	public static final IShapeLayerIdentifier LATENCY = F.create(
+			F.category(AUTO_REFEREE).layerName("Latency"));
+	public static final IShapeLayerIdentifier METRICS = F.create(
+			F.category(AUTO_REFEREE).layerName("Metrics"));
 }
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Optional;
 
 import edu.tigers.autoreferee.generic.BotPosition;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
@@ -25,6 +26,12 @@ public interface IAutoRefFrame
 	SimpleWorldFrame getWorldFrame();
 	
 	
+	/**
+	 * @return a spatial index over all bots of the world frame
+	 */
+	BotSpatialIndex getBotIndex();
+	
+	
 	GameState getGameState();
 	
 	
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.module.AutoRefModule;
+import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.persistence.ABufferedPersistenceRecorder;
+import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.time.ILatencyTraceObserver;
+import edu.tigers.sumatra.time.LatencyTrace;
+import edu.tigers.sumatra.wp.data.PersistenceLatencyTraceFrame;
+
+
+/**
+ * Persistence recorder for the latency traces of the frames processed by the AutoRef
+ */
+public class LatencyTracePersistenceRecorder extends ABufferedPersistenceRecorder<PersistenceLatencyTraceFrame>
+		implements ILatencyTraceObserver
+{
+	public LatencyTracePersistenceRecorder(PersistenceDb db)
+	{
+		super(db, PersistenceLatencyTraceFrame.class);
+	}
+
+
+	@Override
+	public void start()
+	{
+		SumatraModel.getInstance().getModule(AutoRefModule.class).addLatencyTraceObserver(this);
+	}
+
+
+	@Override
+	public void stop()
+	{
+		SumatraModel.getInstance().getModule(AutoRefModule.class).removeLatencyTraceObserver(this);
+	}
+
+
+	@Override
+	public void onNewLatencyTrace(final long timestamp, final LatencyTrace trace)
+	{
+		queue(new PersistenceLatencyTraceFrame(timestamp, trace));
+	}
+}
@@ -3,6 +3,7 @@
  */
 package edu.tigers.autoreferee.engine;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
@@ -36,6 +37,15 @@ public class AutoRefEngine
 	}
 	
 	
+	/**
+	 * @param metrics the metrics to report the duration of each detector to, or null
+	 */
+	public void setMetrics(AutoRefMetrics metrics)
+	{
+		gameEventEngine.setMetrics(metrics);
+	}
+	
+	
 	protected List<IGameEvent> processEngine(final IAutoRefFrame frame)
 	{
 		return gameEventEngine.update(frame);
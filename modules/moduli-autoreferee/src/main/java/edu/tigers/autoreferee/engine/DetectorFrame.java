@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.engine;
+
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.generic.BotPosition;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * A view on an {@link IAutoRefFrame} for a single detector with its own {@link ShapeMap}.
+ * Detectors that run concurrently do not share the shape map of the frame this way.
+ * The shapes are merged into the frame afterwards, in a deterministic order.
+ */
+@RequiredArgsConstructor
+class DetectorFrame implements IAutoRefFrame
+{
+	private final IAutoRefFrame frame;
+	private final ShapeMap shapes = new ShapeMap();
+
+
+	/**
+	 * Add the shapes of this detector to the shapes of the underlying frame.
+	 */
+	void mergeShapes()
+	{
+		shapes.getAllShapeLayersIdentifiers().forEach(id -> frame.getShapes().get(id).addAll(shapes.get(id)));
+	}
+
+
+	@Override
+	public IAutoRefFrame getPreviousFrame()
+	{
+		return frame.getPreviousFrame();
+	}
+
+
+	@Override
+	public SimpleWorldFrame getWorldFrame()
+	{
+		return frame.getWorldFrame();
+	}
+
+
+	@Override
+	public BotSpatialIndex getBotIndex()
+	{
+		return frame.getBotIndex();
+	}
+
+
+	@Override
+	public GameState getGameState()
+	{
+		return frame.getGameState();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsLastTouchedBall()
+	{
+		return frame.getBotsLastTouchedBall();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsTouchingBall()
+	{
+		return frame.getBotsTouchingBall();
+	}
+
+
+	@Override
+	public Optional<BallLeftFieldPosition> getBallLeftFieldPos()
+	{
+		return frame.getBallLeftFieldPos();
+	}
+
+
+	@Override
+	public boolean isBallInsideField()
+	{
+		return frame.isBallInsideField();
+	}
+
+
+	@Override
+	public RefereeMsg getRefereeMsg()
+	{
+		return frame.getRefereeMsg();
+	}
+
+
+	@Override
+	public List<GameState> getStateHistory()
+	{
+		return frame.getStateHistory();
+	}
+
+
+	@Override
+	public long getTimestamp()
+	{
+		return frame.getTimestamp();
+	}
+
+
+	@Override
+	public void cleanUp()
+	{
+		frame.cleanUp();
+	}
+
+
+	@Override
+	public ShapeMap getShapes()
+	{
+		return shapes;
+	}
+}
@@ -4,35 +4,82 @@
 package edu.tigers.autoreferee.engine;
 
 import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import com.github.g3force.instanceables.InstanceableClass;
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
-import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.referee.data.EGameState;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * The engine consults the {@link IGameEventDetector}s.
+ * <p>
+ * The detectors can optionally run concurrently. Each detector only reads the frame and its own state and gets
+ * its own shape map. Game events and shapes are collected in the order of the detectors, so the result does not
+ * depend on the execution mode.
  */
 @Log4j2
 public class GameEventEngine
 {
+	@Configurable(defValue = "false", comment = "Run the active detectors concurrently")
+	private static boolean parallelDetectors = false;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", GameEventEngine.class);
+	}
+
+	private static final ThreadPoolExecutor DETECTOR_POOL = createDetectorPool();
+
 	private final List<IGameEventDetector> allDetectors = new ArrayList<>();
+	private final Map<EGameState, List<IGameEventDetector>> detectorsByState = new EnumMap<>(EGameState.class);
 	private final Set<EGameEventDetectorType> activeDetectors;
+	private AutoRefMetrics metrics;
 
 
 	public GameEventEngine(Set<EGameEventDetectorType> activeDetectors)
+	{
+		this(createDetectors(), activeDetectors);
+	}
+
+
+	/**
+	 * @param detectors       all detectors
+	 * @param activeDetectors the types of the detectors that are updated
+	 */
+	GameEventEngine(List<IGameEventDetector> detectors, Set<EGameEventDetectorType> activeDetectors)
 	{
 		this.activeDetectors = activeDetectors;
+		allDetectors.addAll(detectors);
+
+		for (EGameState state : EGameState.values())
+		{
+			detectorsByState.put(state, allDetectors.stream().filter(d -> d.isActiveIn(state)).toList());
+		}
+	}
 
+
+	private static List<IGameEventDetector> createDetectors()
+	{
+		List<IGameEventDetector> detectors = new ArrayList<>();
 		for (EGameEventDetectorType eCalc : EGameEventDetectorType.values())
 		{
 			ConfigRegistration.registerClass("autoreferee", eCalc.getInstanceableClass().getImpl());
@@ -41,13 +88,34 @@ public class GameEventEngine
 				try
 				{
 					IGameEventDetector inst = (IGameEventDetector) eCalc.getInstanceableClass().newDefaultInstance();
-					allDetectors.add(inst);
+					detectors.add(inst);
 				} catch (InstanceableClass.NotCreateableException e)
 				{
 					log.error("Could not instantiate calculator: " + eCalc, e);
 				}
 			}
 		}
+		return detectors;
+	}
+
+
+	private static ThreadPoolExecutor createDetectorPool()
+	{
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(numThreads, numThreads, 1, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new NamedThreadFactory("AutoRef Detector"));
+		// do not keep the JVM alive, when the AutoRef is not running
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+
+	/**
+	 * @param parallel run the active detectors concurrently
+	 */
+	static void setParallelDetectors(final boolean parallel)
+	{
+		parallelDetectors = parallel;
 	}
 
 
@@ -57,28 +125,38 @@ public class GameEventEngine
 	 */
 	public List<IGameEvent> update(final IAutoRefFrame frame)
 	{
-		GameState currentState = frame.getGameState();
-		GameState lastState = frame.getPreviousFrame().getGameState();
+		EGameState currentState = frame.getGameState().getState();
+		EGameState lastState = frame.getPreviousFrame().getGameState().getState();
 
 		/*
 		 * Retrieve all rules which are active in the current gamestate
+		 * and reset the detectors which have now become active
 		 */
-		List<IGameEventDetector> detectors = this.allDetectors.stream()
-				.filter(d -> activeDetectors.contains(d.getType()))
-				.filter(d -> d.isActiveIn(currentState.getState()))
-				.collect(Collectors.toList());
+		List<IGameEventDetector> detectors = new ArrayList<>();
+		for (IGameEventDetector detector : detectorsByState.get(currentState))
+		{
+			if (activeDetectors.contains(detector.getType()))
+			{
+				if (!detector.isActiveIn(lastState))
+				{
+					detector.reset();
+				}
+				detectors.add(detector);
+			}
+		}
 
-		/*
-		 * Reset the detectors which have now become active
-		 */
-		detectors.stream()
-				.filter(detector -> !detector.isActiveIn(lastState.getState()))
-				.forEach(IGameEventDetector::reset);
+		List<Optional<IGameEvent>> results;
+		if (parallelDetectors && detectors.size() > 1)
+		{
+			results = updateConcurrently(detectors, frame);
+		} else
+		{
+			results = detectors.stream().map(detector -> updateDetectorSafely(detector, frame)).toList();
+		}
 
 		List<IGameEvent> gameEvents = new ArrayList<>();
-		for (IGameEventDetector detector : detectors)
+		for (Optional<IGameEvent> result : results)
 		{
-			Optional<IGameEvent> result = detector.update(frame);
 			result.ifPresent(gameEvents::add);
 			result.ifPresent(event -> log.debug("Detected game event: {}", event));
 		}
@@ -87,8 +165,88 @@ public class GameEventEngine
 	}
 
 
+	private Optional<IGameEvent> updateDetector(final IGameEventDetector detector, final IAutoRefFrame frame)
+	{
+		if (metrics == null || !AutoRefMetrics.isEnabled())
+		{
+			return detector.update(frame);
+		}
+		long tStart = System.nanoTime();
+		Optional<IGameEvent> result = detector.update(frame);
+		metrics.addDetector(detector.getType(), System.nanoTime() - tStart);
+		return result;
+	}
+
+
+	/**
+	 * Update a detector on the calling thread. Like in the concurrent mode, a failing detector does not abort the
+	 * frame.
+	 */
+	private Optional<IGameEvent> updateDetectorSafely(final IGameEventDetector detector, final IAutoRefFrame frame)
+	{
+		try
+		{
+			return updateDetector(detector, frame);
+		} catch (RuntimeException e)
+		{
+			log.error("Game event detector {} failed", detector.getType(), e);
+			return Optional.empty();
+		}
+	}
+
+
+	private List<Optional<IGameEvent>> updateConcurrently(final List<IGameEventDetector> detectors,
+			final IAutoRefFrame frame)
+	{
+		List<DetectorFrame> detectorFrames = new ArrayList<>(detectors.size());
+		List<Future<Optional<IGameEvent>>> futures = new ArrayList<>(detectors.size());
+		for (IGameEventDetector detector : detectors)
+		{
+			DetectorFrame detectorFrame = new DetectorFrame(frame);
+			detectorFrames.add(detectorFrame);
+			// detectors must see the geometry of the calling pipeline
+			futures.add(DETECTOR_POOL.submit(Geometry.bindToCurrentScope(() -> updateDetector(detector, detectorFrame))));
+		}
+
+		List<Optional<IGameEvent>> results = new ArrayList<>(detectors.size());
+		for (int i = 0; i < detectors.size(); i++)
+		{
+			results.add(awaitResult(detectors.get(i), futures.get(i)));
+			detectorFrames.get(i).mergeShapes();
+		}
+		return results;
+	}
+
+
+	private Optional<IGameEvent> awaitResult(final IGameEventDetector detector,
+			final Future<Optional<IGameEvent>> future)
+	{
+		try
+		{
+			return future.get();
+		} catch (ExecutionException e)
+		{
+			log.error("Game event detector {} failed", detector.getType(), e.getCause());
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+		}
+		return Optional.empty();
+	}
+
+
 	public void reset()
 	{
 		allDetectors.forEach(IGameEventDetector::reset);
 	}
+
+
+	/**
+	 * @param metrics the metrics to report the duration of each detector to, or null
+	 */
+	public void setMetrics(final AutoRefMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
 }
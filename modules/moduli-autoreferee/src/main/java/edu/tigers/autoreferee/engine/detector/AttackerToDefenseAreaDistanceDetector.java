@@ -113,11 +113,12 @@ public class AttackerToDefenseAreaDistanceDetector extends AGameEventDetector
 	private boolean notBeingPushed(ITrackedBot attacker)
 	{
 		var defenderPenaltyArea = NGeometry.getPenaltyArea(attacker.getTeamColor().opposite());
-		return frame.getWorldFrame().getBots().values().stream()
-				// bots from defending team
-				.filter(b -> b.getTeamColor() != attacker.getTeamColor())
+		double touchDistance = Geometry.getBotRadius() * 2;
+		// bots from defending team that are close to the attacker
+		return frame.getBotIndex().getBotsInRadius(attacker.getPos(), touchDistance, attacker.getTeamColor().opposite())
+				.stream()
 				// that touch the attacker
-				.filter(b -> attacker.getPos().distanceTo(b.getPos()) <= Geometry.getBotRadius() * 2)
+				.filter(b -> attacker.getPos().distanceTo(b.getPos()) <= touchDistance)
 				// push in direction of penalty area
 				.map(b -> Lines.halfLineFromPoints(b.getPos(), attacker.getPos()))
 				// find intersection that show that defenders pushes towards penArea
@@ -5,7 +5,6 @@
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.EAutoRefShapesLayer;
 import edu.tigers.sumatra.drawable.DrawableTube;
 import edu.tigers.sumatra.geometry.Geometry;
@@ -92,9 +91,7 @@ public class BallPlacementInterferenceDetector extends AGameEventDetector
 		frame.getShapes().get(EAutoRefShapesLayer.VIOLATED_DISTANCES)
 				.add(new DrawableTube(placementTube.withMargin(-Geometry.getBotRadius()), Color.red));
 
-		return frame.getWorldFrame().getBots().values().stream()
-				.filter(AutoRefUtil.ColorFilter.get(placingTeam.opposite()))
-				.filter(bot -> placementTube.isPointInShape(bot.getPos()))
+		return frame.getBotIndex().getBotsInTube(placementTube, placingTeam.opposite()).stream()
 				.map(ITrackedBot::getBotId)
 				.collect(Collectors.toSet());
 	}
@@ -7,8 +7,10 @@ package edu.tigers.autoreferee.engine.detector;
 import com.github.g3force.configurable.Configurable;
 import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdLongMap;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.math.AngleMath;
 import edu.tigers.sumatra.math.line.ILine;
@@ -22,11 +24,8 @@ import edu.tigers.sumatra.referee.gameevent.IGameEvent;
 import edu.tigers.sumatra.wp.data.ITrackedBot;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 
@@ -51,7 +50,7 @@ public class BotCollisionDetector extends AGameEventDetector
 	private static double botBrakeLookahead = 0.1;
 
 
-	private final Map<BotID, Long> lastViolators = new HashMap<>();
+	private final BotIdLongMap lastViolators = new BotIdLongMap();
 
 
 	public BotCollisionDetector()
@@ -71,11 +70,7 @@ public class BotCollisionDetector extends AGameEventDetector
 	@Override
 	public Optional<IGameEvent> doUpdate()
 	{
-		Collection<ITrackedBot> bots = frame.getWorldFrame().getBots().values();
-		List<ITrackedBot> yellowBots = AutoRefUtil.filterByColor(bots, ETeamColor.YELLOW);
-		List<ITrackedBot> blueBots = AutoRefUtil.filterByColor(bots, ETeamColor.BLUE);
-
-		List<BotPair> consideredBotPairs = calcConsideredBots(yellowBots, blueBots, frame.getTimestamp());
+		List<BotPair> consideredBotPairs = calcConsideredBots(frame.getBotIndex(), frame.getTimestamp());
 		return checkForCrashEvent(consideredBotPairs, frame);
 	}
 
@@ -142,20 +137,19 @@ public class BotCollisionDetector extends AGameEventDetector
 	}
 
 
-	private List<BotPair> calcConsideredBots(
-			final List<ITrackedBot> yellowBots,
-			final List<ITrackedBot> blueBots,
-			final long curTS)
+	private List<BotPair> calcConsideredBots(final BotSpatialIndex botIndex, final long curTS)
 	{
+		double maxDistance = 2 * Geometry.getBotRadius() * minDistanceFactor;
 		List<BotPair> consideredBotPairs = new ArrayList<>();
-		for (ITrackedBot blueBot : blueBots)
+		for (ITrackedBot blueBot : AutoRefUtil.filterByColor(botIndex.getBots(), ETeamColor.BLUE))
 		{
 			if (botStillOnCoolDown(blueBot.getBotId(), curTS))
 			{
 				continue;
 			}
 			lastViolators.remove(blueBot.getBotId());
-			for (ITrackedBot yellowBot : yellowBots)
+			// only yellow bots that are close enough can be considered
+			for (ITrackedBot yellowBot : botIndex.getBotsInRadius(blueBot.getPos(), maxDistance, ETeamColor.YELLOW))
 			{
 				if (botStillOnCoolDown(yellowBot.getBotId(), curTS))
 				{
@@ -191,7 +185,7 @@ public class BotCollisionDetector extends AGameEventDetector
 	{
 		if (lastViolators.containsKey(bot))
 		{
-			Long ts = lastViolators.get(bot);
+			long ts = lastViolators.getOrDefault(bot, curTS);
 			return (curTS - ts) / 1e9 < crashCoolDownTimeMs;
 		}
 		return false;
@@ -5,7 +5,6 @@
 package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.autoreferee.generic.BotPosition;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.geometry.NGeometry;
@@ -164,11 +163,11 @@ public class BotInDefenseAreaDetector extends AGameEventDetector
 	{
 		ETeamColor attackerColor = defender.getTeamColor().opposite();
 
-		return frame.getWorldFrame().getBots().values().stream()
-				// bots from attacking team
-				.filter(AutoRefUtil.ColorFilter.get(attackerColor))
+		double touchDistance = Geometry.getBotRadius() * 2 + 10;
+		// bots from attacking team that are close to the defender
+		return frame.getBotIndex().getBotsInRadius(botPos, touchDistance, attackerColor).stream()
 				// that touch the defender
-				.anyMatch(b -> botPos.distanceTo(b.getPos()) <= Geometry.getBotRadius() * 2 + 10);
+				.anyMatch(b -> botPos.distanceTo(b.getPos()) <= touchDistance);
 	}
 
 
@@ -6,7 +6,6 @@ package edu.tigers.autoreferee.engine.detector;
 
 import com.github.g3force.configurable.Configurable;
 import com.google.common.collect.Sets;
-import edu.tigers.autoreferee.AutoRefUtil;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.geometry.RuleConstraints;
 import edu.tigers.sumatra.ids.BotID;
@@ -102,13 +101,12 @@ public class DefenderToKickPointDistanceDetector extends AGameEventDetector
 	{
 		ETeamColor attackingColor = frame.getGameState().getForTeam();
 
-		Map<BotID, ITrackedBot> bots = frame.getWorldFrame().getBots();
-		List<ITrackedBot> defendingBots = AutoRefUtil.filterByColor(bots, attackingColor.opposite());
-
 		ICircle outerCircle = Circle.createCircle(
 				ballPos,
 				RuleConstraints.getStopRadius() + Geometry.getBotRadius() - margin
 		);
+		List<ITrackedBot> defendingBots = frame.getBotIndex()
+				.getBotsInRadius(ballPos, outerCircle.radius(), attackingColor.opposite());
 
 		return botsInCircle(defendingBots, outerCircle);
 	}
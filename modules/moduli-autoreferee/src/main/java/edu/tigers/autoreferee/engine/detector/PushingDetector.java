@@ -113,7 +113,7 @@ public class PushingDetector extends AGameEventDetector
 
 	private Set<RobotPair> latestRobotPairs()
 	{
-		return frame.getWorldFrame().getBots().values().stream()
+		return frame.getBotIndex().getBots().stream()
 				.map(this::touchingOpponents)
 				.flatMap(Collection::stream)
 				.collect(Collectors.toSet());
@@ -216,8 +216,8 @@ public class PushingDetector extends AGameEventDetector
 
 	private List<RobotPair> touchingOpponents(ITrackedBot bot)
 	{
-		return frame.getWorldFrame().getBots().values().stream()
-				.filter(b -> bot.getTeamColor() != b.getTeamColor())
+		double maxDist = Geometry.getBotRadius() * 2 + botExtraMargin;
+		return frame.getBotIndex().getBotsInRadius(bot.getPos(), maxDist, bot.getTeamColor().opposite()).stream()
 				.filter(b -> touching(bot, b))
 				.map(b -> new RobotPair(bot, b))
 				.toList();
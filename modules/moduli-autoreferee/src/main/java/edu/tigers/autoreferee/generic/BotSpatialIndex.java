@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.generic;
+
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.SumatraMath;
+import edu.tigers.sumatra.math.rectangle.IRectangle;
+import edu.tigers.sumatra.math.tube.ITube;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+
+/**
+ * Immutable uniform grid over the robots of a frame for radius, tube and nearest neighbour queries.
+ * <p>
+ * Robots outside the bounds of the grid are put into the nearest border cell, so no robot gets lost.
+ * Query results keep the order of the robots the index was built from, so detectors that take the first
+ * match behave as if they iterated over all robots.
+ */
+public class BotSpatialIndex
+{
+	private static final double DEFAULT_CELL_SIZE = 500;
+
+	private final List<ITrackedBot> bots;
+	private final double minX;
+	private final double minY;
+	private final double cellSize;
+	private final int numCellsX;
+	private final int numCellsY;
+	/**
+	 * the bots of cell i are cellBots[cellStart[i]] until (excluding) cellBots[cellStart[i + 1]]
+	 */
+	private final int[] cellStart;
+	private final int[] cellBots;
+
+
+	private BotSpatialIndex(final Collection<ITrackedBot> bots, final IRectangle bounds, final double cellSize)
+	{
+		this.bots = List.copyOf(bots);
+		this.minX = bounds.minX();
+		this.minY = bounds.minY();
+		this.cellSize = cellSize;
+		numCellsX = Math.max(1, (int) Math.ceil(bounds.xExtent() / cellSize));
+		numCellsY = Math.max(1, (int) Math.ceil(bounds.yExtent() / cellSize));
+
+		// counting sort of the bots by cell
+		int[] botCells = new int[this.bots.size()];
+		cellStart = new int[numCellsX * numCellsY + 1];
+		for (int i = 0; i < botCells.length; i++)
+		{
+			IVector2 pos = this.bots.get(i).getPos();
+			botCells[i] = cell(cellX(pos.x()), cellY(pos.y()));
+			cellStart[botCells[i] + 1]++;
+		}
+		for (int i = 1; i < cellStart.length; i++)
+		{
+			cellStart[i] += cellStart[i - 1];
+		}
+		cellBots = new int[botCells.length];
+		int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+		for (int i = 0; i < botCells.length; i++)
+		{
+			cellBots[next[botCells[i]]++] = i;
+		}
+	}
+
+
+	/**
+	 * Create an index over the field including its boundary.
+	 *
+	 * @param bots all bots of the frame
+	 * @return a new index
+	 */
+	public static BotSpatialIndex of(final Collection<ITrackedBot> bots)
+	{
+		return of(bots, Geometry.getFieldWBorders(), DEFAULT_CELL_SIZE);
+	}
+
+
+	/**
+	 * @param bots     all bots of the frame
+	 * @param bounds   the area that is covered by the grid
+	 * @param cellSize the edge length of a grid cell [mm]
+	 * @return a new index
+	 */
+	public static BotSpatialIndex of(final Collection<ITrackedBot> bots, final IRectangle bounds,
+			final double cellSize)
+	{
+		return new BotSpatialIndex(bots, bounds, cellSize);
+	}
+
+
+	/**
+	 * @return all bots in the order the index was built from
+	 */
+	public List<ITrackedBot> getBots()
+	{
+		return bots;
+	}
+
+
+	/**
+	 * @param center the center of the circle
+	 * @param radius the radius of the circle
+	 * @return all bots with a distance to the center that is less than or equal to the radius
+	 */
+	public List<ITrackedBot> getBotsInRadius(final IVector2 center, final double radius)
+	{
+		double radiusSqr = radius * radius;
+		return query(center.x() - radius, center.y() - radius, center.x() + radius, center.y() + radius,
+				i -> bots.get(i).getPos().distanceToSqr(center) <= radiusSqr);
+	}
+
+
+	/**
+	 * @param center the center of the circle
+	 * @param radius the radius of the circle
+	 * @param color  the team color of the bots
+	 * @return all bots of the given color with a distance to the center that is less than or equal to the radius
+	 */
+	public List<ITrackedBot> getBotsInRadius(final IVector2 center, final double radius, final ETeamColor color)
+	{
+		double radiusSqr = radius * radius;
+		return query(center.x() - radius, center.y() - radius, center.x() + radius, center.y() + radius,
+				i -> bots.get(i).getTeamColor() == color && bots.get(i).getPos().distanceToSqr(center) <= radiusSqr);
+	}
+
+
+	/**
+	 * @param tube  the tube
+	 * @param color the team color of the bots
+	 * @return all bots of the given color that are inside the tube
+	 */
+	public List<ITrackedBot> getBotsInTube(final ITube tube, final ETeamColor color)
+	{
+		IVector2 start = tube.startCenter();
+		IVector2 end = tube.endCenter();
+		double radius = tube.radius();
+		return query(
+				Math.min(start.x(), end.x()) - radius, Math.min(start.y(), end.y()) - radius,
+				Math.max(start.x(), end.x()) + radius, Math.max(start.y(), end.y()) + radius,
+				i -> bots.get(i).getTeamColor() == color && tube.isPointInShape(bots.get(i).getPos()));
+	}
+
+
+	/**
+	 * Search the cells in rings around the position, until no cell beyond the current ring can contain a closer bot.
+	 * Of multiple bots with the same distance, the first one in the order of the bots is returned.
+	 *
+	 * @param pos    the position to search from
+	 * @param filter the bots to consider
+	 * @return the bot that is closest to the given position and matches the filter
+	 */
+	public Optional<ITrackedBot> getNearestBot(final IVector2 pos, final Predicate<ITrackedBot> filter)
+	{
+		int cx = cellX(pos.x());
+		int cy = cellY(pos.y());
+		// bots outside the grid are in the border cells, so the ring distance is no lower bound for them
+		boolean insideGrid = cx == (int) Math.floor((pos.x() - minX) / cellSize)
+				&& cy == (int) Math.floor((pos.y() - minY) / cellSize);
+		int maxRing = Math.max(numCellsX, numCellsY);
+
+		int nearest = -1;
+		double nearestDistSqr = Double.POSITIVE_INFINITY;
+		for (int ring = 0; ring <= maxRing; ring++)
+		{
+			for (int y = Math.max(0, cy - ring); y <= Math.min(numCellsY - 1, cy + ring); y++)
+			{
+				// only the outline of the ring is new
+				int step = (y == cy - ring || y == cy + ring) ? 1 : Math.max(1, 2 * ring);
+				for (int x = cx - ring; x <= cx + ring; x += step)
+				{
+					if (x < 0 || x >= numCellsX)
+					{
+						continue;
+					}
+					int cell = cell(x, y);
+					for (int j = cellStart[cell]; j < cellStart[cell + 1]; j++)
+					{
+						int botIndex = cellBots[j];
+						double distSqr = bots.get(botIndex).getPos().distanceToSqr(pos);
+						if ((distSqr < nearestDistSqr || (distSqr == nearestDistSqr && botIndex < nearest))
+								&& filter.test(bots.get(botIndex)))
+						{
+							nearest = botIndex;
+							nearestDistSqr = distSqr;
+						}
+					}
+				}
+			}
+			// all bots in cells beyond this ring are at least ring * cellSize away
+			double minDistBeyond = ring * cellSize;
+			if (insideGrid && nearest >= 0 && nearestDistSqr < minDistBeyond * minDistBeyond)
+			{
+				break;
+			}
+		}
+		return nearest < 0 ? Optional.empty() : Optional.of(bots.get(nearest));
+	}
+
+
+	private List<ITrackedBot> query(final double x1, final double y1, final double x2, final double y2,
+			final IntPredicate predicate)
+	{
+		int maxCellX = cellX(x2);
+		int maxCellY = cellY(y2);
+		int[] matches = null;
+		int numMatches = 0;
+		for (int y = cellY(y1); y <= maxCellY; y++)
+		{
+			for (int x = cellX(x1); x <= maxCellX; x++)
+			{
+				int cell = cell(x, y);
+				for (int j = cellStart[cell]; j < cellStart[cell + 1]; j++)
+				{
+					int botIndex = cellBots[j];
+					if (predicate.test(botIndex))
+					{
+						if (matches == null)
+						{
+							matches = new int[bots.size()];
+						}
+						matches[numMatches++] = botIndex;
+					}
+				}
+			}
+		}
+		if (numMatches == 0)
+		{
+			return Collections.emptyList();
+		}
+		Arrays.sort(matches, 0, numMatches);
+		List<ITrackedBot> result = new ArrayList<>(numMatches);
+		for (int i = 0; i < numMatches; i++)
+		{
+			result.add(bots.get(matches[i]));
+		}
+		return result;
+	}
+
+
+	private int cellX(final double x)
+	{
+		return SumatraMath.cap((int) Math.floor((x - minX) / cellSize), 0, numCellsX - 1);
+	}
+
+
+	private int cellY(final double y)
+	{
+		return SumatraMath.cap((int) Math.floor((y - minY) / cellSize), 0, numCellsY - 1);
+	}
+
+
+	private int cell(final int x, final int y)
+	{
+		return y * numCellsX + x;
+	}
+}
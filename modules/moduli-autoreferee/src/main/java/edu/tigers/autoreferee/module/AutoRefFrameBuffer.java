@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.module;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * A small bounded ring buffer that hands frames from one AutoRef pipeline stage to the next.
+ * The {@link EAutoRefFramePolicy} decides what happens, if the buffer is full.
+ *
+ * @param <T> the type of the frames
+ */
+class AutoRefFrameBuffer<T>
+{
+	private final Object[] items;
+	private final long[] enqueueTimes;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private int head;
+	private int count;
+
+
+	/**
+	 * @param capacity the maximum number of buffered frames
+	 */
+	AutoRefFrameBuffer(final int capacity)
+	{
+		items = new Object[Math.max(1, capacity)];
+		enqueueTimes = new long[items.length];
+	}
+
+
+	/**
+	 * Add a frame to the buffer.
+	 *
+	 * @param item   the new frame
+	 * @param policy what to do, if the buffer is full
+	 * @return the number of buffered frames that were skipped to make room for the new frame
+	 * @throws InterruptedException if interrupted while waiting with {@link EAutoRefFramePolicy#BLOCK}
+	 */
+	int put(final T item, final EAutoRefFramePolicy policy) throws InterruptedException
+	{
+		lock.lockInterruptibly();
+		try
+		{
+			int skipped = 0;
+			switch (policy)
+			{
+				case BLOCK ->
+				{
+					while (count == items.length)
+					{
+						notFull.await();
+					}
+				}
+				case DROP_OLDEST ->
+				{
+					if (count == items.length)
+					{
+						removeFirst();
+						skipped = 1;
+					}
+				}
+				case COALESCE ->
+				{
+					skipped = count;
+					removeAll();
+				}
+			}
+			int tail = (head + count) % items.length;
+			items[tail] = item;
+			enqueueTimes[tail] = System.nanoTime();
+			count++;
+			notEmpty.signal();
+			return skipped;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * Take the oldest frame from the buffer, waiting up to the given timeout.
+	 *
+	 * @param timeout
+	 * @param unit
+	 * @return the oldest frame or null, if the timeout elapsed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@SuppressWarnings("unchecked")
+	Entry<T> poll(final long timeout, final TimeUnit unit) throws InterruptedException
+	{
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try
+		{
+			while (count == 0)
+			{
+				if (nanos <= 0)
+				{
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			Entry<T> entry = new Entry<>((T) items[head], enqueueTimes[head]);
+			removeFirst();
+			return entry;
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * Remove all frames and wake up waiting producers.
+	 */
+	void clear()
+	{
+		lock.lock();
+		try
+		{
+			removeAll();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	private void removeFirst()
+	{
+		items[head] = null;
+		head = (head + 1) % items.length;
+		count--;
+		notFull.signal();
+	}
+
+
+	private void removeAll()
+	{
+		while (count > 0)
+		{
+			removeFirst();
+		}
+		notFull.signalAll();
+	}
+
+
+	/**
+	 * A buffered frame.
+	 *
+	 * @param item        the frame
+	 * @param enqueueTime the {@link System#nanoTime()} when the frame was added to the buffer
+	 * @param <T>         the type of the frame
+	 */
+	record Entry<T>(T item, long enqueueTime)
+	{
+	}
+}
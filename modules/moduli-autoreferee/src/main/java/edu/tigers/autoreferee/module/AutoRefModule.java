@@ -3,12 +3,16 @@
  */
 package edu.tigers.autoreferee.module;
 
+import edu.tigers.autoreferee.AutoRefMetrics;
 import edu.tigers.autoreferee.IAutoRefObserver;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.moduli.AModule;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.time.ILatencyTraceObserver;
+import edu.tigers.sumatra.time.LatencyStatistics;
+import edu.tigers.sumatra.time.LatencyTrace;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,8 +26,9 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	private static final Logger log = LogManager.getLogger(AutoRefModule.class.getName());
 
 	private final List<IAutoRefObserver> observers = new CopyOnWriteArrayList<>();
+	private final List<ILatencyTraceObserver> latencyTraceObservers = new CopyOnWriteArrayList<>();
 
-	private AutoRefRunner runner = new AutoRefRunner(this::notifyNewGameEvent);
+	private AutoRefRunner runner = new AutoRefRunner(this::notifyNewGameEvent, this::notifyNewLatencyTrace);
 
 
 	@Override
@@ -53,6 +58,12 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	}
 
 
+	private void notifyNewLatencyTrace(final long timestamp, final LatencyTrace trace)
+	{
+		latencyTraceObservers.forEach(o -> o.onNewLatencyTrace(timestamp, trace));
+	}
+
+
 	private void performAutoStart()
 	{
 		String autoRefMode = System.getProperty("autoref.mode");
@@ -82,6 +93,18 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	}
 
 
+	public void addLatencyTraceObserver(final ILatencyTraceObserver observer)
+	{
+		latencyTraceObservers.add(observer);
+	}
+
+
+	public void removeLatencyTraceObserver(final ILatencyTraceObserver observer)
+	{
+		latencyTraceObservers.remove(observer);
+	}
+
+
 	public void changeMode(final EAutoRefMode mode)
 	{
 		log.debug("Changing AutoRef mode to {}", mode);
@@ -107,4 +130,31 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	{
 		return runner.getMode();
 	}
+
+
+	/**
+	 * @return the latency statistics of the frames processed since the module was started
+	 */
+	public LatencyStatistics getLatencyStatistics()
+	{
+		return runner.getLatencyStatistics();
+	}
+
+
+	/**
+	 * @return the frame counters and stage latencies of the AutoRef pipeline since the module was started
+	 */
+	public AutoRefPipelineStatistics getPipelineStatistics()
+	{
+		return runner.getPipelineStatistics();
+	}
+
+
+	/**
+	 * @return the processing times of the detectors and calculators since the module was started
+	 */
+	public AutoRefMetrics getMetrics()
+	{
+		return runner.getMetrics();
+	}
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.module;
+
+import edu.tigers.sumatra.time.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Frame counters and a latency histogram per {@link EAutoRefPipelineStage} of the AutoRef pipeline.
+ * This class is thread-safe.
+ */
+public class AutoRefPipelineStatistics
+{
+	private final Map<EAutoRefPipelineStage, LatencyHistogram> histograms = new EnumMap<>(
+			EAutoRefPipelineStage.class);
+	private final AtomicLong numReceivedFrames = new AtomicLong();
+	private final AtomicLong numSkippedFrames = new AtomicLong();
+	private final AtomicLong numLateFrames = new AtomicLong();
+
+
+	public AutoRefPipelineStatistics()
+	{
+		for (EAutoRefPipelineStage stage : EAutoRefPipelineStage.values())
+		{
+			histograms.put(stage, new LatencyHistogram());
+		}
+	}
+
+
+	/**
+	 * @param stage
+	 * @param latency the duration of the stage [ns]
+	 */
+	public void addLatency(final EAutoRefPipelineStage stage, final long latency)
+	{
+		histograms.get(stage).add(latency);
+	}
+
+
+	/**
+	 * Count a frame that was handed to the pipeline.
+	 */
+	public void addReceivedFrame()
+	{
+		numReceivedFrames.incrementAndGet();
+	}
+
+
+	/**
+	 * @param numFrames number of frames that were skipped by the frame policy
+	 */
+	public void addSkippedFrames(final int numFrames)
+	{
+		numSkippedFrames.addAndGet(numFrames);
+	}
+
+
+	/**
+	 * Count a frame that was processed, if it took longer than the threshold.
+	 *
+	 * @param latency       the time from receiving the frame to the end of processing it [ns]
+	 * @param lateThreshold frames with a higher latency are late [ns]
+	 * @return true, if the frame is late
+	 */
+	public boolean addProcessedFrame(final long latency, final long lateThreshold)
+	{
+		if (latency > lateThreshold)
+		{
+			numLateFrames.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * @param stage
+	 * @return the latency histogram of the given stage
+	 */
+	public LatencyHistogram getHistogram(final EAutoRefPipelineStage stage)
+	{
+		return histograms.get(stage);
+	}
+
+
+	/**
+	 * @return the number of frames that were handed to the pipeline
+	 */
+	public long getNumReceivedFrames()
+	{
+		return numReceivedFrames.get();
+	}
+
+
+	/**
+	 * @return the number of frames that were skipped without being processed
+	 */
+	public long getNumSkippedFrames()
+	{
+		return numSkippedFrames.get();
+	}
+
+
+	/**
+	 * @return the number of frames that were processed too late
+	 */
+	public long getNumLateFrames()
+	{
+		return numLateFrames.get();
+	}
+
+
+	/**
+	 * Reset all counters and histograms.
+	 */
+	public void reset()
+	{
+		histograms.values().forEach(LatencyHistogram::reset);
+		numReceivedFrames.set(0);
+		numSkippedFrames.set(0);
+		numLateFrames.set(0);
+	}
+}
@@ -3,54 +3,108 @@
  */
 package edu.tigers.autoreferee.module;
 
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import edu.tigers.autoreferee.AutoRefFrame;
 import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.AutoRefMetrics;
+import edu.tigers.autoreferee.EAutoRefShapesLayer;
 import edu.tigers.autoreferee.engine.ActiveAutoRefEngine;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
 import edu.tigers.autoreferee.engine.IAutoRefEngineObserver;
 import edu.tigers.autoreferee.engine.PassiveAutoRefEngine;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.drawable.DrawableBorderText;
+import edu.tigers.sumatra.drawable.IDrawableShape;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
+import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.ELatencyStage;
+import edu.tigers.sumatra.time.ILatencyTraceObserver;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import edu.tigers.sumatra.time.LatencyStatistics;
+import edu.tigers.sumatra.time.LatencyTrace;
 import edu.tigers.sumatra.wp.AWorldPredictor;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang.Validate;
 
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
-import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 
 /**
- * Start the autoRef in a new thread and run an engine respective to the {@link EAutoRefMode}.
+ * Run the autoRef in a pipeline of two threads: The first one runs the {@link AutoRefFramePreprocessor},
+ * the second one runs an engine respective to the {@link EAutoRefMode}.
+ * <p>
+ * The stages are connected by small ring buffers. If the preprocessor can not keep up, new world frames are
+ * handled according to the configured {@link EAutoRefFramePolicy}. All preprocessed frames are passed to the engine,
+ * so that the detectors always compare a frame with its actual previous frame.
+ * Skipped and late frames are counted in the {@link AutoRefPipelineStatistics}.
  */
 @Log4j2
-public class AutoRefRunner implements Runnable, IWorldFrameObserver
+public class AutoRefRunner implements IWorldFrameObserver
 {
 	private static final String AUTO_REF = "AutoRef";
 	private static final ShapeMapSource SHAPE_MAP_SOURCE = ShapeMapSource.of(AUTO_REF);
+	/** [ns] the latency shapes are only updated with this interval */
+	private static final long LATENCY_SHAPES_UPDATE_INTERVAL = 200_000_000L;
+
+	@Configurable(
+			defValue = "DROP_OLDEST",
+			comment = "What to do with new frames, if the AutoRef can not keep up. Simulation always blocks.")
+	private static EAutoRefFramePolicy framePolicy = EAutoRefFramePolicy.DROP_OLDEST;
+
+	@Configurable(defValue = "4", comment = "Number of frames buffered between the pipeline stages (applied on start)")
+	private static int frameBufferSize = 4;
+
+	@Configurable(
+			defValue = "0.05",
+			comment = "[s] Frames that take longer from receiving to the end of the engine are late")
+	private static double lateFrameThreshold = 0.05;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", AutoRefRunner.class);
+	}
 
-	private final BlockingDeque<WorldFrameWrapper> consumableFrames = new LinkedBlockingDeque<>(1);
 	private final Set<EGameEventDetectorType> activeDetectors = EGameEventDetectorType.valuesEnabledByDefault();
 
+	private AutoRefFrameBuffer<WorldFrameWrapper> worldFrames = new AutoRefFrameBuffer<>(frameBufferSize);
+	private AutoRefFrameBuffer<PreprocessedFrame> preprocessedFrames = new AutoRefFrameBuffer<>(frameBufferSize);
 	private AutoRefFramePreprocessor preprocessor;
-	private ExecutorService executorService;
+	private ExecutorService preprocessorService;
+	private ExecutorService engineService;
 	private AutoRefEngine engine = new AutoRefEngine(activeDetectors);
 	private final IAutoRefEngineObserver callback;
-	private EAutoRefMode mode = EAutoRefMode.OFF;
+	private volatile EAutoRefMode mode = EAutoRefMode.OFF;
 	private final Object engineSync = new Object();
+	private final LatencyStatistics latencyStatistics = new LatencyStatistics();
+	private final AutoRefPipelineStatistics pipelineStatistics = new AutoRefPipelineStatistics();
+	private final AutoRefMetrics metrics = new AutoRefMetrics();
+	private final ILatencyTraceObserver latencyTraceObserver;
+	private boolean gameEventDetected = false;
+	private List<IDrawableShape> latencyShapes = List.of();
+	private List<IDrawableShape> metricsShapes = List.of();
+	private long lastLatencyShapesUpdate;
 
 
-	public AutoRefRunner(IAutoRefEngineObserver callback)
+	public AutoRefRunner(IAutoRefEngineObserver callback, ILatencyTraceObserver latencyTraceObserver)
 	{
-		this.callback = callback;
+		this.callback = gameEvent -> {
+			gameEventDetected = true;
+			callback.onNewGameEventDetected(gameEvent);
+		};
+		this.latencyTraceObserver = latencyTraceObserver;
 	}
 
 
@@ -71,14 +125,23 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	 */
 	public void start()
 	{
-		preprocessor = new AutoRefFramePreprocessor();
+		// frames are released by the engine stage, when it is done with them
+		preprocessor = new AutoRefFramePreprocessor(false);
+		preprocessor.setMetrics(metrics);
+		worldFrames = new AutoRefFrameBuffer<>(frameBufferSize);
+		preprocessedFrames = new AutoRefFrameBuffer<>(frameBufferSize);
+		latencyStatistics.reset();
+		pipelineStatistics.reset();
+		metrics.reset();
 		// make sure, the engine is initially in a clean off state
 		changeMode(EAutoRefMode.OFF);
 		// register to WP frames
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(this);
-		// start runner thread
-		executorService = Executors.newSingleThreadExecutor(new NamedThreadFactory(AUTO_REF));
-		executorService.execute(this);
+		// start pipeline threads
+		preprocessorService = Executors.newSingleThreadExecutor(new NamedThreadFactory(AUTO_REF + "-Preprocessor"));
+		engineService = Executors.newSingleThreadExecutor(new NamedThreadFactory(AUTO_REF));
+		preprocessorService.execute(() -> runStage(preprocessorService, this::preprocess));
+		engineService.execute(() -> runStage(engineService, this::runEngine));
 	}
 
 
@@ -93,20 +156,41 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).removeObserver(this);
 		// clear auto ref shape map
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).notifyRemoveSourceFromShapeMap(SHAPE_MAP_SOURCE);
+		shutdown(preprocessorService);
+		shutdown(engineService);
+		// Remove any remaining frames and wake up a preprocessor that waits for the engine
+		worldFrames.clear();
+		preprocessedFrames.clear();
 		try
 		{
-			if (executorService != null)
-			{
-				executorService.shutdown();
-				Validate.isTrue(executorService.awaitTermination(2, TimeUnit.SECONDS));
-			}
+			awaitTermination(preprocessorService);
+			awaitTermination(engineService);
 		} catch (InterruptedException e)
 		{
 			log.error("Interrupted while awaiting termination", e);
 			Thread.currentThread().interrupt();
 		}
-		// Remove any remaining frames
-		consumableFrames.pollLast();
+		worldFrames.clear();
+		preprocessedFrames.clear();
+		metrics.reset();
+	}
+
+
+	private void shutdown(final ExecutorService service)
+	{
+		if (service != null)
+		{
+			service.shutdown();
+		}
+	}
+
+
+	private void awaitTermination(final ExecutorService service) throws InterruptedException
+	{
+		if (service != null)
+		{
+			Validate.isTrue(service.awaitTermination(2, TimeUnit.SECONDS));
+		}
 	}
 
 
@@ -123,25 +207,21 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 						case PASSIVE -> new PassiveAutoRefEngine(activeDetectors);
 					};
 			this.mode = mode;
+			engine.setMetrics(metrics);
 			engine.addObserver(callback);
 			engine.start();
 		}
 	}
 
 
-	@Override
 	@SuppressWarnings("java:S1181") // catching throwables here intentionally
-	public void run()
+	private void runStage(final ExecutorService service, final IPipelineStage stage)
 	{
-		while (!executorService.isShutdown())
+		while (!service.isShutdown())
 		{
 			try
 			{
-				WorldFrameWrapper frame = consumableFrames.poll(10, TimeUnit.MILLISECONDS);
-				if (frame != null)
-				{
-					consumeWorldFrame(frame);
-				}
+				stage.process();
 			} catch (InterruptedException e)
 			{
 				Thread.currentThread().interrupt();
@@ -153,38 +233,140 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	}
 
 
-	private void consumeWorldFrame(final WorldFrameWrapper frame)
+	private void preprocess() throws InterruptedException
 	{
+		AutoRefFrameBuffer.Entry<WorldFrameWrapper> entry = worldFrames.poll(10, TimeUnit.MILLISECONDS);
+		if (entry == null)
+		{
+			return;
+		}
+		long tStart = System.nanoTime();
+		pipelineStatistics.addLatency(EAutoRefPipelineStage.PREPROCESSOR_QUEUE, tStart - entry.enqueueTime());
+
+		WorldFrameWrapper frame = entry.item();
 		AutoRefFrame currentFrame = preprocessor.process(frame);
+		LatencyTrace latencyTrace = frame.getLatencyTrace().stamp(ELatencyStage.AUTO_REF_FRAME);
+		long preprocessingTime = System.nanoTime() - tStart;
+		pipelineStatistics.addLatency(EAutoRefPipelineStage.PREPROCESSOR, preprocessingTime);
+
+		// never skip preprocessed frames, as the engine relies on the previous frame
+		preprocessedFrames.put(
+				new PreprocessedFrame(frame, currentFrame, latencyTrace, entry.enqueueTime(), preprocessingTime),
+				EAutoRefFramePolicy.BLOCK);
+	}
+
+
+	private void runEngine() throws InterruptedException
+	{
+		AutoRefFrameBuffer.Entry<PreprocessedFrame> entry = preprocessedFrames.poll(10, TimeUnit.MILLISECONDS);
+		if (entry == null)
+		{
+			return;
+		}
+		long tStart = System.nanoTime();
+		pipelineStatistics.addLatency(EAutoRefPipelineStage.ENGINE_QUEUE, tStart - entry.enqueueTime());
+
+		PreprocessedFrame preprocessedFrame = entry.item();
+		AutoRefFrame currentFrame = preprocessedFrame.autoRefFrame();
+		LatencyTrace latencyTrace = preprocessedFrame.latencyTrace();
 		if (currentFrame.getPreviousFrame() != null)
 		{
 			synchronized (engineSync)
 			{
 				engine.process(currentFrame);
 			}
+			currentFrame.cleanUp();
 		}
+		if (gameEventDetected)
+		{
+			// the engine has sent all game events of this frame when it returns
+			latencyTrace = latencyTrace.stamp(ELatencyStage.GAME_EVENT);
+			gameEventDetected = false;
+		}
+		long tEnd = System.nanoTime();
+		pipelineStatistics.addLatency(EAutoRefPipelineStage.ENGINE, tEnd - tStart);
+		metrics.addFrame(preprocessedFrame.preprocessingTime() + tEnd - tStart);
+		pipelineStatistics.addProcessedFrame(tEnd - preprocessedFrame.tReceived(), (long) (lateFrameThreshold * 1e9));
+		latencyStatistics.add(latencyTrace);
+
+		WorldFrameWrapper frame = preprocessedFrame.worldFrameWrapper();
+		latencyTraceObserver.onNewLatencyTrace(frame.getTimestamp(), latencyTrace);
+
+		currentFrame.getShapes().get(EAutoRefShapesLayer.MODE).add(
+				new DrawableBorderText(Vector2.fromXY(1, 6), "AutoRef: " + mode).setColor(Color.WHITE));
+		if (tEnd - lastLatencyShapesUpdate > LATENCY_SHAPES_UPDATE_INTERVAL)
+		{
+			// formatting all histograms is too expensive for every frame
+			lastLatencyShapesUpdate = tEnd;
+			latencyShapes = createLatencyShapes();
+			metricsShapes = metrics.createShapes(30);
+		}
+		currentFrame.getShapes().get(EAutoRefShapesLayer.LATENCY).addAll(latencyShapes);
+		currentFrame.getShapes().get(EAutoRefShapesLayer.METRICS).addAll(metricsShapes);
 		SumatraModel.getInstance().getModule(AWorldPredictor.class)
 				.notifyNewShapeMap(frame.getTimestamp(), currentFrame.getShapes(), SHAPE_MAP_SOURCE);
 	}
 
 
-	@Override
-	public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
+	private List<IDrawableShape> createLatencyShapes()
 	{
-		if (SumatraModel.getInstance().isSimulation())
+		List<IDrawableShape> shapes = new ArrayList<>();
+		double posY = 10;
+		for (ELatencyStage stage : ELatencyStage.values())
 		{
-			// process all frames, waiting and blocking if necessary
-			try
+			LatencyHistogram histogram = latencyStatistics.getHistogram(stage);
+			if (histogram.getNumSamples() > 0)
 			{
-				consumableFrames.putFirst(wFrameWrapper);
-			} catch (InterruptedException e)
-			{
-				Thread.currentThread().interrupt();
+				shapes.add(createLatencyShape(stage.getLabel(), histogram, posY, Color.WHITE));
+				posY += 1;
 			}
-		} else
+		}
+		shapes.add(createLatencyShape("Total", latencyStatistics.getTotal(), posY, Color.ORANGE));
+		posY += 2;
+		for (EAutoRefPipelineStage stage : EAutoRefPipelineStage.values())
 		{
-			consumableFrames.pollLast();
-			consumableFrames.addFirst(wFrameWrapper);
+			shapes.add(createLatencyShape(stage.getLabel(), pipelineStatistics.getHistogram(stage), posY, Color.WHITE));
+			posY += 1;
+		}
+		String text = String.format(Locale.ENGLISH, "Pipeline (%s): %d frames, %d skipped, %d late",
+				currentFramePolicy(), pipelineStatistics.getNumReceivedFrames(),
+				pipelineStatistics.getNumSkippedFrames(), pipelineStatistics.getNumLateFrames());
+		Color color = pipelineStatistics.getNumSkippedFrames() > 0 ? Color.RED : Color.ORANGE;
+		shapes.add(new DrawableBorderText(Vector2.fromXY(1, posY), text).setColor(color));
+		return shapes;
+	}
+
+
+	private IDrawableShape createLatencyShape(String label, LatencyHistogram histogram, double posY, Color color)
+	{
+		String text = String.format(Locale.ENGLISH, "%s: %.2fms p50, %.2fms p99, %.2fms max (%d frames)",
+				label, histogram.getPercentile(0.5) * 1e3, histogram.getPercentile(0.99) * 1e3,
+				histogram.getMax() * 1e3, histogram.getNumSamples());
+		return new DrawableBorderText(Vector2.fromXY(1, posY), text).setColor(color);
+	}
+
+
+	private EAutoRefFramePolicy currentFramePolicy()
+	{
+		if (SumatraModel.getInstance().isSimulation())
+		{
+			// process all frames, waiting and blocking if necessary
+			return EAutoRefFramePolicy.BLOCK;
+		}
+		return framePolicy;
+	}
+
+
+	@Override
+	public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
+	{
+		pipelineStatistics.addReceivedFrame();
+		try
+		{
+			pipelineStatistics.addSkippedFrames(worldFrames.put(wFrameWrapper, currentFramePolicy()));
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -199,4 +381,39 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	{
 		return mode;
 	}
+
+
+	public LatencyStatistics getLatencyStatistics()
+	{
+		return latencyStatistics;
+	}
+
+
+	public AutoRefPipelineStatistics getPipelineStatistics()
+	{
+		return pipelineStatistics;
+	}
+
+
+	public AutoRefMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+
+	@FunctionalInterface
+	private interface IPipelineStage
+	{
+		void process() throws InterruptedException;
+	}
+
+	private record PreprocessedFrame(
+			WorldFrameWrapper worldFrameWrapper,
+			AutoRefFrame autoRefFrame,
+			LatencyTrace latencyTrace,
+			long tReceived,
+			long preprocessingTime
+	)
+	{
+	}
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.module;
+
+/**
+ * What to do with a new world frame, if the AutoRef can not keep up and its frame buffer is full.
+ */
+public enum EAutoRefFramePolicy
+{
+	/**
+	 * Wait until there is space in the buffer. No frame is skipped, but the world predictor is slowed down.
+	 */
+	BLOCK,
+	/**
+	 * Skip the oldest frame in the buffer.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Skip all frames in the buffer, so that only the newest frame is processed next.
+	 */
+	COALESCE
+}
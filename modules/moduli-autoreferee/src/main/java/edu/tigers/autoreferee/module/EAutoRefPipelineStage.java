@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.module;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * The stages of the AutoRef pipeline. The queue stages measure how long a frame waited for the next stage.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EAutoRefPipelineStage
+{
+	PREPROCESSOR_QUEUE("Preprocessor queue"),
+	PREPROCESSOR("Preprocessor"),
+	ENGINE_QUEUE("Engine queue"),
+	ENGINE("Engine"),
+
+	;
+
+	private final String label;
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.offline;
+
+import edu.tigers.autoreferee.AutoRefFrame;
+import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.engine.PassiveAutoRefEngine;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.cam.GameLogCam;
+import edu.tigers.sumatra.cam.ICamFrameObserver;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.gamelog.BlockGameLog;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.gamelog.GameLogPlayer;
+import edu.tigers.sumatra.gamelog.GameLogPlayerObserver;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.MappedGameLog;
+import edu.tigers.sumatra.gamelog.RandomAccessGameLog;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.vision.VisionFilterImpl;
+import edu.tigers.sumatra.wp.IWorldFrameObserver;
+import edu.tigers.sumatra.wp.WorldInfoCollector;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Run the AutoRef on recorded game logs without the module system.
+ * <p>
+ * For each game log, a new chain of {@link GameLogCam}, {@link VisionFilterImpl}, {@link WorldInfoCollector},
+ * {@link AutoRefFramePreprocessor} and {@link PassiveAutoRefEngine} is wired with plain objects. All messages are
+ * processed synchronously on the calling thread in a separate {@link Geometry.Scope}, so the geometry and the
+ * negative half team of the log do not leak into other pipelines or into the global geometry.
+ * Thus, multiple game logs can be processed in parallel in the same JVM.
+ * <p>
+ * Note that the configuration (configurable fields) is still shared by all pipelines.
+ */
+@Log4j2
+public class OfflineAutoRefPipeline
+{
+	private final Set<EGameEventDetectorType> activeDetectors;
+
+
+	/**
+	 * Create a pipeline with all detectors that are enabled by default.
+	 */
+	public OfflineAutoRefPipeline()
+	{
+		this(EGameEventDetectorType.valuesEnabledByDefault());
+	}
+
+
+	/**
+	 * @param activeDetectors the detectors to run
+	 */
+	public OfflineAutoRefPipeline(final Set<EGameEventDetectorType> activeDetectors)
+	{
+		this.activeDetectors = activeDetectors.isEmpty()
+				? EnumSet.noneOf(EGameEventDetectorType.class)
+				: EnumSet.copyOf(activeDetectors);
+	}
+
+
+	/**
+	 * Load and process a single game log.
+	 * Uncompressed logs are memory mapped, block compressed logs are read block by block and gzipped logs are
+	 * loaded into memory.
+	 *
+	 * @param logFile the game log
+	 * @return all detected game events in the order of detection
+	 * @throws IOException if the game log could not be read
+	 */
+	public List<IGameEvent> process(final Path logFile) throws IOException
+	{
+		if (logFile.toString().endsWith(".gz"))
+		{
+			GameLogReader logReader = new GameLogReader();
+			logReader.loadFileBlocking(logFile.toAbsolutePath().toString());
+			return process(logFile, logReader);
+		}
+		if (BlockGameLog.isBlockGameLog(logFile))
+		{
+			try (BlockGameLog gameLog = BlockGameLog.open(logFile))
+			{
+				return process(logFile, gameLog);
+			}
+		}
+		try (MappedGameLog gameLog = MappedGameLog.open(logFile, List.of()))
+		{
+			return process(logFile, gameLog);
+		}
+	}
+
+
+	private List<IGameEvent> process(final Path logFile, final RandomAccessGameLog gameLog)
+	{
+		if (gameLog.getNumMessages() == 0)
+		{
+			log.warn("No messages in game log {}", logFile);
+		}
+		return process(gameLog);
+	}
+
+
+	/**
+	 * Process all messages of a game log.
+	 *
+	 * @param gameLog the game log
+	 * @return all detected game events in the order of detection
+	 */
+	public List<IGameEvent> process(final RandomAccessGameLog gameLog)
+	{
+		return Geometry.newScope().get(() -> new Run().process(gameLog));
+	}
+
+
+	/**
+	 * Process the given game logs in parallel.
+	 * Compressed logs are loaded completely into memory while they are processed, so the parallelism also limits
+	 * the memory usage.
+	 *
+	 * @param logFiles    the game logs
+	 * @param parallelism the number of game logs that are processed at the same time
+	 * @return the detected game events by game log, in the order of the given logs. Logs that failed are missing.
+	 * @throws InterruptedException if interrupted while waiting for the results
+	 */
+	public Map<Path, List<IGameEvent>> processAll(final Collection<Path> logFiles, final int parallelism)
+			throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory("OfflineAutoRef"));
+		try
+		{
+			Map<Path, Future<List<IGameEvent>>> futures = new LinkedHashMap<>();
+			for (Path logFile : logFiles)
+			{
+				futures.put(logFile, executor.submit(() -> process(logFile)));
+			}
+
+			Map<Path, List<IGameEvent>> gameEvents = new LinkedHashMap<>();
+			for (Map.Entry<Path, Future<List<IGameEvent>>> entry : futures.entrySet())
+			{
+				try
+				{
+					gameEvents.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException e)
+				{
+					log.error("Could not process game log {}", entry.getKey(), e.getCause());
+				}
+			}
+			return gameEvents;
+		} finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * The components for processing a single game log.
+	 */
+	private class Run implements IWorldFrameObserver
+	{
+		private final GameLogPlayer player = new GameLogPlayer();
+		private final GameLogCam cam = new GameLogCam();
+		private final VisionFilterImpl visionFilter = new VisionFilterImpl();
+		private final WorldInfoCollector worldInfoCollector = new WorldInfoCollector();
+		private final AutoRefFramePreprocessor preprocessor = new AutoRefFramePreprocessor();
+		private final PassiveAutoRefEngine engine = new PassiveAutoRefEngine(activeDetectors);
+		private final List<IGameEvent> gameEvents = new ArrayList<>();
+
+
+		private Run()
+		{
+			// game log -> camera -> vision filter -> world info collector -> AutoRef
+			player.addObserver(cam);
+			player.addObserver(new RefereeForwarder(worldInfoCollector));
+			cam.addObserver(new GeometryForwarder());
+			cam.addObserver(visionFilter);
+			cam.addObserver(worldInfoCollector);
+			visionFilter.addObserver(worldInfoCollector);
+			worldInfoCollector.initStandalone(visionFilter, false);
+			worldInfoCollector.addObserver(this);
+			engine.addObserver(gameEvents::add);
+		}
+
+
+		private List<IGameEvent> process(final RandomAccessGameLog gameLog)
+		{
+			engine.start();
+			try
+			{
+				player.playlogFast(gameLog);
+			} finally
+			{
+				engine.stop();
+				visionFilter.stopModule();
+			}
+			return gameEvents;
+		}
+
+
+		@Override
+		public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
+		{
+			boolean hasLastFrame = preprocessor.hasLastFrame();
+			AutoRefFrame frame = preprocessor.process(wFrameWrapper);
+			if (hasLastFrame)
+			{
+				engine.process(frame);
+			}
+		}
+	}
+
+	/**
+	 * Update the geometry of the current scope, like the GeometryUpdater module does for the global geometry.
+	 */
+	private static class GeometryForwarder implements ICamFrameObserver
+	{
+		@Override
+		public void onNewCameraGeometry(final CamGeometry geometry)
+		{
+			Geometry.update(geometry);
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class RefereeForwarder implements GameLogPlayerObserver
+	{
+		private final WorldInfoCollector worldInfoCollector;
+
+
+		@Override
+		public void onNewGameLogMessage(final GameLogMessage message, final int index)
+		{
+			if (message.getType() != EMessageType.SSL_REFBOX_2013)
+			{
+				return;
+			}
+
+			try
+			{
+				worldInfoCollector.onNewRefereeMsg(SslGcRefereeMessage.Referee.parseFrom(message.getData()));
+			} catch (Exception err)
+			{
+				log.error("Invalid SSL_REFBOX_2013 package.", err);
+			}
+		}
+
+
+		@Override
+		public void onGameLogTimeJump()
+		{
+			// No action required.
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee;
+
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+public class AutoRefMetricsTest
+{
+	private static final double DEFAULT_FRAME_BUDGET = 0.01;
+
+	private final AutoRefMetrics metrics = new AutoRefMetrics();
+
+
+	@Before
+	public void setUp()
+	{
+		AutoRefMetrics.setEnabled(true);
+		AutoRefMetrics.setFrameBudget(DEFAULT_FRAME_BUDGET);
+	}
+
+
+	@After
+	public void tearDown()
+	{
+		AutoRefMetrics.setEnabled(false);
+		AutoRefMetrics.setFrameBudget(DEFAULT_FRAME_BUDGET);
+	}
+
+
+	@Test
+	public void testBudgetCounter()
+	{
+		metrics.addFrame(5_000_000);
+		assertThat(metrics.getNumBudgetExceeded()).isZero();
+
+		metrics.addFrame(15_000_000);
+		metrics.addFrame(20_000_000);
+		metrics.addFrame(10_000_000);
+		assertThat(metrics.getNumBudgetExceeded()).isEqualTo(2);
+
+		AutoRefMetrics.setFrameBudget(0.001);
+		metrics.addFrame(5_000_000);
+		assertThat(metrics.getNumBudgetExceeded()).isEqualTo(3);
+
+		metrics.reset();
+		assertThat(metrics.getNumBudgetExceeded()).isZero();
+		assertThat(metrics.createSnapshots()).isEmpty();
+	}
+
+
+	@Test
+	public void testSnapshots()
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			metrics.addDetector(EGameEventDetectorType.BALL_SPEEDING, 1_000_000);
+		}
+		for (int i = 0; i < 10; i++)
+		{
+			metrics.addDetector(EGameEventDetectorType.GOAL, 5_000_000);
+		}
+		metrics.addCalculator("calculator", 2_000_000);
+		metrics.addFrame(3_000_000);
+		metrics.addFrame(3_000_000);
+
+		List<AutoRefMetrics.MetricSnapshot> snapshots = metrics.createSnapshots();
+		// the slowest first, metrics without samples are omitted
+		assertThat(snapshots.stream().map(AutoRefMetrics.MetricSnapshot::name).toList())
+				.containsExactly("GOAL", "Frame", "String", "BALL_SPEEDING");
+
+		AutoRefMetrics.MetricSnapshot goal = snapshots.get(0);
+		assertThat(goal.numSamples()).isEqualTo(10);
+		assertThat(goal.mean()).isCloseTo(0.005, within(1e-9));
+		assertThat(goal.p50()).isCloseTo(0.005, within(1e-9));
+		assertThat(goal.p99()).isCloseTo(0.005, within(1e-9));
+		assertThat(goal.max()).isCloseTo(0.005, within(1e-9));
+		assertThat(goal.format()).isEqualTo("GOAL: 5.00ms p50, 5.00ms p99, 5.00ms max (10)");
+		assertThat(snapshots.get(3).format()).isEqualTo("BALL_SPEEDING: 1.00ms p50, 1.00ms p99, 1.00ms max (100)");
+	}
+
+
+	@Test
+	public void testPercentiles()
+	{
+		for (int i = 0; i < 98; i++)
+		{
+			metrics.addDetector(EGameEventDetectorType.GOAL, 1_000_000);
+		}
+		metrics.addDetector(EGameEventDetectorType.GOAL, 8_000_000);
+		metrics.addDetector(EGameEventDetectorType.GOAL, 50_000_000);
+
+		AutoRefMetrics.MetricSnapshot goal = metrics.createSnapshots().get(0);
+		assertThat(goal.max()).isCloseTo(0.05, within(1e-9));
+		assertThat(goal.mean()).isCloseTo((98 * 0.001 + 0.008 + 0.05) / 100, within(1e-9));
+		// percentiles have the resolution of the histogram buckets
+		assertThat(goal.p50()).isCloseTo(0.001, within(0.0001));
+		assertThat(goal.p99()).isCloseTo(0.008, within(0.0008));
+	}
+
+
+	@Test
+	public void testShapes()
+	{
+		metrics.addDetector(EGameEventDetectorType.GOAL, 5_000_000);
+		metrics.addFrame(3_000_000);
+		assertThat(metrics.createShapes(30)).hasSize(3);
+	}
+
+
+	@Test
+	public void testDisabled()
+	{
+		AutoRefMetrics.setEnabled(false);
+		assertThat(AutoRefMetrics.isEnabled()).isFalse();
+		metrics.addFrame(20_000_000);
+
+		// frames over budget are always counted, but the histograms are not formatted
+		assertThat(metrics.getNumBudgetExceeded()).isEqualTo(1);
+		assertThat(metrics.createShapes(30)).hasSize(1);
+	}
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.engine;
+
+import edu.tigers.autoreferee.EAutoRefShapesLayer;
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
+import edu.tigers.autoreferee.generic.BotPosition;
+import edu.tigers.autoreferee.generic.BotSpatialIndex;
+import edu.tigers.sumatra.drawable.DrawableBorderText;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.referee.gameevent.BoundaryCrossing;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class GameEventEngineTest
+{
+	private static final int NUM_DETECTORS = 8;
+	private static final int NUM_FRAMES = 20;
+
+
+	@After
+	public void tearDown()
+	{
+		GameEventEngine.setParallelDetectors(false);
+	}
+
+
+	private static List<IGameEventDetector> createDetectors(final int failingDetector)
+	{
+		List<IGameEventDetector> detectors = new ArrayList<>();
+		for (int i = 0; i < NUM_DETECTORS; i++)
+		{
+			detectors.add(new TestDetector(EGameEventDetectorType.values()[i], i, i == failingDetector));
+		}
+		return detectors;
+	}
+
+
+	private static Set<EGameEventDetectorType> allTypes()
+	{
+		return EnumSet.allOf(EGameEventDetectorType.class);
+	}
+
+
+	/**
+	 * Run the engine over a sequence of frames and collect its game events and shapes.
+	 */
+	private static Result run(final GameEventEngine engine)
+	{
+		Result result = new Result();
+		TestFrame previous = new TestFrame(GameState.STOP, null);
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			TestFrame frame = new TestFrame(GameState.RUNNING, previous);
+			result.gameEvents.add(engine.update(frame));
+			for (IShapeLayerIdentifier id : frame.getShapes().getAllShapeLayersIdentifiers())
+			{
+				result.shapes.computeIfAbsent(id.getId(), k -> new ArrayList<>()).addAll(frame.getShapes().get(id));
+			}
+			previous = frame;
+		}
+		return result;
+	}
+
+
+	@Test
+	public void testParallelMatchesSequentialDetectors()
+	{
+		List<IGameEventDetector> detectors = createDetectors(-1);
+
+		GameEventEngine.setParallelDetectors(false);
+		Result sequential = run(new GameEventEngine(detectors, allTypes()));
+		GameEventEngine.setParallelDetectors(true);
+		Result parallel = run(new GameEventEngine(detectors, allTypes()));
+
+		assertThat(sequential.gameEvents).hasSize(NUM_FRAMES);
+		assertThat(sequential.gameEvents.get(0)).hasSize(5);
+		assertThat(parallel.gameEvents).isEqualTo(sequential.gameEvents);
+
+		assertThat(sequential.shapes).hasSize(2);
+		assertThat(parallel.shapes.keySet()).isEqualTo(sequential.shapes.keySet());
+		for (String layer : sequential.shapes.keySet())
+		{
+			assertThat(parallel.shapes.get(layer)).containsExactlyElementsOf(sequential.shapes.get(layer));
+		}
+		// the shapes are drawn in the order of the detectors
+		List<IDrawableShape> expectedEngineShapes = detectors.stream()
+				.map(detector -> ((TestDetector) detector).engineShape)
+				.toList();
+		assertThat(parallel.shapes.get(EAutoRefShapesLayer.ENGINE.getId()).subList(0, NUM_DETECTORS))
+				.containsExactlyElementsOf(expectedEngineShapes);
+	}
+
+
+	@Test
+	public void testFailingDetector()
+	{
+		Result expected = run(new GameEventEngine(createDetectors(-1), allTypes()));
+		for (boolean parallel : List.of(false, true))
+		{
+			GameEventEngine.setParallelDetectors(parallel);
+			Result result = run(new GameEventEngine(createDetectors(2), allTypes()));
+
+			// the failing detector does not abort the frame, the other detectors still report their game events
+			assertThat(result.gameEvents).hasSize(NUM_FRAMES);
+			for (int i = 0; i < NUM_FRAMES; i++)
+			{
+				List<IGameEvent> expectedEvents = expected.gameEvents.get(i).stream()
+						.filter(event -> !event.equals(TestDetector.gameEvent(2)))
+						.toList();
+				assertThat(result.gameEvents.get(i)).isEqualTo(expectedEvents);
+			}
+		}
+	}
+
+
+	@Test
+	public void testOnlyActiveDetectorsAreUpdated()
+	{
+		List<IGameEventDetector> detectors = createDetectors(-1);
+		Set<EGameEventDetectorType> activeTypes = EnumSet.of(EGameEventDetectorType.values()[1],
+				EGameEventDetectorType.values()[2]);
+
+		Result result = run(new GameEventEngine(detectors, activeTypes));
+
+		assertThat(result.gameEvents.get(0)).containsExactly(TestDetector.gameEvent(1), TestDetector.gameEvent(2));
+		assertThat(((TestDetector) detectors.get(0)).numUpdates).isZero();
+		assertThat(((TestDetector) detectors.get(1)).numUpdates).isEqualTo(NUM_FRAMES);
+		assertThat(((TestDetector) detectors.get(1)).numResets).isEqualTo(1);
+	}
+
+
+	private static class Result
+	{
+		private final List<List<IGameEvent>> gameEvents = new ArrayList<>();
+		private final Map<String, List<IDrawableShape>> shapes = new LinkedHashMap<>();
+	}
+
+	/**
+	 * A detector that reports a game event on every frame, except for every third detector, and draws shapes.
+	 * The detectors take different amounts of time, so that concurrent detectors finish in a different order.
+	 */
+	private static class TestDetector implements IGameEventDetector
+	{
+		private final EGameEventDetectorType type;
+		private final int index;
+		private final boolean failing;
+		private final IDrawableShape engineShape;
+		private final IDrawableShape distanceShape;
+		private int numUpdates;
+		private int numResets;
+
+
+		TestDetector(final EGameEventDetectorType type, final int index, final boolean failing)
+		{
+			this.type = type;
+			this.index = index;
+			this.failing = failing;
+			engineShape = new DrawableBorderText(Vector2.fromXY(index, 0), "engine " + index);
+			distanceShape = new DrawableBorderText(Vector2.fromXY(index, 1), "distance " + index);
+		}
+
+
+		static IGameEvent gameEvent(final int index)
+		{
+			return new BoundaryCrossing(ETeamColor.YELLOW, Vector2.fromXY(index, 0));
+		}
+
+
+		@Override
+		public boolean isActiveIn(final EGameState state)
+		{
+			return state == EGameState.RUNNING;
+		}
+
+
+		@Override
+		public Optional<IGameEvent> update(final IAutoRefFrame frame)
+		{
+			numUpdates++;
+			try
+			{
+				Thread.sleep(NUM_DETECTORS - index);
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			frame.getShapes().get(EAutoRefShapesLayer.ENGINE).add(engineShape);
+			if (index % 2 == 0)
+			{
+				frame.getShapes().get(EAutoRefShapesLayer.VIOLATED_DISTANCES).add(distanceShape);
+			}
+			if (failing)
+			{
+				throw new IllegalStateException("Detector " + index + " failed");
+			}
+			return index % 3 == 0 ? Optional.empty() : Optional.of(gameEvent(index));
+		}
+
+
+		@Override
+		public void reset()
+		{
+			numResets++;
+		}
+
+
+		@Override
+		public EGameEventDetectorType getType()
+		{
+			return type;
+		}
+	}
+
+	private static class TestFrame implements IAutoRefFrame
+	{
+		private final GameState gameState;
+		private final IAutoRefFrame previousFrame;
+		private final ShapeMap shapes = new ShapeMap();
+
+
+		TestFrame(final GameState gameState, final IAutoRefFrame previousFrame)
+		{
+			this.gameState = gameState;
+			this.previousFrame = previousFrame;
+		}
+
+
+		@Override
+		public IAutoRefFrame getPreviousFrame()
+		{
+			return previousFrame;
+		}
+
+
+		@Override
+		public SimpleWorldFrame getWorldFrame()
+		{
+			return null;
+		}
+
+
+		@Override
+		public BotSpatialIndex getBotIndex()
+		{
+			return null;
+		}
+
+
+		@Override
+		public GameState getGameState()
+		{
+			return gameState;
+		}
+
+
+		@Override
+		public List<BotPosition> getBotsLastTouchedBall()
+		{
+			return List.of();
+		}
+
+
+		@Override
+		public List<BotPosition> getBotsTouchingBall()
+		{
+			return List.of();
+		}
+
+
+		@Override
+		public Optional<BallLeftFieldPosition> getBallLeftFieldPos()
+		{
+			return Optional.empty();
+		}
+
+
+		@Override
+		public boolean isBallInsideField()
+		{
+			return true;
+		}
+
+
+		@Override
+		public RefereeMsg getRefereeMsg()
+		{
+			return null;
+		}
+
+
+		@Override
+		public List<GameState> getStateHistory()
+		{
+			return List.of(gameState);
+		}
+
+
+		@Override
+		public long getTimestamp()
+		{
+			return 0;
+		}
+
+
+		@Override
+		public void cleanUp()
+		{
+			// nothing to clean up
+		}
+
+
+		@Override
+		public ShapeMap getShapes()
+		{
+			return shapes;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.generic;
+
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.rectangle.IRectangle;
+import edu.tigers.sumatra.math.rectangle.Rectangle;
+import edu.tigers.sumatra.math.tube.ITube;
+import edu.tigers.sumatra.math.tube.Tube;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector2f;
+import edu.tigers.sumatra.wp.data.ITrackedBot;
+import edu.tigers.sumatra.wp.data.TrackedBot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class BotSpatialIndexTest
+{
+	private static final IRectangle BOUNDS = Rectangle.fromCenter(Vector2f.ZERO_VECTOR, 2000, 1000);
+	private static final double CELL_SIZE = 250;
+
+
+	private static ITrackedBot bot(final int number, final ETeamColor color, final double x, final double y)
+	{
+		return TrackedBot.stubBuilder(BotID.createBotId(number, color), 0)
+				.withPos(Vector2.fromXY(x, y))
+				.build();
+	}
+
+
+	private static List<ITrackedBot> randomBots(final Random rnd)
+	{
+		List<ITrackedBot> bots = new ArrayList<>();
+		for (ETeamColor color : ETeamColor.yellowBlueValues())
+		{
+			for (int number = 0; number < 11; number++)
+			{
+				// some of the bots are outside the bounds
+				bots.add(bot(number, color, rnd.nextDouble() * 2600 - 1300, rnd.nextDouble() * 1600 - 800));
+			}
+		}
+		// the index must not depend on the order of the bots
+		Collections.shuffle(bots, rnd);
+		return bots;
+	}
+
+
+	@Test
+	public void testRadiusQueryMatchesBruteForce()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < 200; i++)
+		{
+			List<ITrackedBot> bots = randomBots(rnd);
+			BotSpatialIndex index = BotSpatialIndex.of(bots, BOUNDS, CELL_SIZE);
+			IVector2 center = Vector2.fromXY(rnd.nextDouble() * 3000 - 1500, rnd.nextDouble() * 2000 - 1000);
+			double radius = rnd.nextDouble() * 800;
+
+			List<ITrackedBot> expected = bots.stream()
+					.filter(bot -> bot.getPos().distanceTo(center) <= radius)
+					.toList();
+			assertThat(index.getBotsInRadius(center, radius)).containsExactlyElementsOf(expected);
+
+			List<ITrackedBot> expectedBlue = expected.stream()
+					.filter(bot -> bot.getTeamColor() == ETeamColor.BLUE)
+					.toList();
+			assertThat(index.getBotsInRadius(center, radius, ETeamColor.BLUE)).containsExactlyElementsOf(expectedBlue);
+		}
+	}
+
+
+	@Test
+	public void testTubeQueryMatchesBruteForce()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < 200; i++)
+		{
+			List<ITrackedBot> bots = randomBots(rnd);
+			BotSpatialIndex index = BotSpatialIndex.of(bots, BOUNDS, CELL_SIZE);
+			IVector2 start = Vector2.fromXY(rnd.nextDouble() * 3000 - 1500, rnd.nextDouble() * 2000 - 1000);
+			IVector2 end = Vector2.fromXY(rnd.nextDouble() * 3000 - 1500, rnd.nextDouble() * 2000 - 1000);
+			ITube tube = Tube.create(start, end, rnd.nextDouble() * 300);
+
+			List<ITrackedBot> expected = bots.stream()
+					.filter(bot -> bot.getTeamColor() == ETeamColor.YELLOW)
+					.filter(bot -> tube.isPointInShape(bot.getPos()))
+					.toList();
+			assertThat(index.getBotsInTube(tube, ETeamColor.YELLOW)).containsExactlyElementsOf(expected);
+		}
+	}
+
+
+	@Test
+	public void testNearestBotMatchesBruteForce()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < 200; i++)
+		{
+			List<ITrackedBot> bots = randomBots(rnd);
+			BotSpatialIndex index = BotSpatialIndex.of(bots, BOUNDS, CELL_SIZE);
+			// some of the positions are outside the bounds
+			IVector2 pos = Vector2.fromXY(rnd.nextDouble() * 4000 - 2000, rnd.nextDouble() * 3000 - 1500);
+
+			assertThat(index.getNearestBot(pos, bot -> true))
+					.isEqualTo(bots.stream().min(Comparator.comparingDouble(bot -> bot.getPos().distanceTo(pos))));
+
+			Predicate<ITrackedBot> filter = bot -> bot.getTeamColor() == ETeamColor.BLUE
+					&& bot.getBotId().getNumber() > 5;
+			assertThat(index.getNearestBot(pos, filter)).isEqualTo(bots.stream()
+					.filter(filter)
+					.min(Comparator.comparingDouble(bot -> bot.getPos().distanceTo(pos))));
+		}
+	}
+
+
+	@Test
+	public void testNearestBotEdgeCases()
+	{
+		ITrackedBot farOutside = bot(0, ETeamColor.BLUE, 5000, -3000);
+		ITrackedBot right = bot(1, ETeamColor.YELLOW, 300, 0);
+		ITrackedBot left = bot(2, ETeamColor.YELLOW, -300, 0);
+		BotSpatialIndex index = BotSpatialIndex.of(List.of(farOutside, right, left), BOUNDS, CELL_SIZE);
+
+		// the first of the equally distant bots is returned
+		assertThat(index.getNearestBot(Vector2f.ZERO_VECTOR, bot -> true)).contains(right);
+		assertThat(BotSpatialIndex.of(List.of(left, right), BOUNDS, CELL_SIZE)
+				.getNearestBot(Vector2f.ZERO_VECTOR, bot -> true)).contains(left);
+		// a bot far outside of the bounds is found from inside and from outside
+		assertThat(index.getNearestBot(Vector2f.ZERO_VECTOR, bot -> bot.getTeamColor() == ETeamColor.BLUE))
+				.contains(farOutside);
+		assertThat(index.getNearestBot(Vector2.fromXY(6000, -3000), bot -> true)).contains(farOutside);
+		assertThat(index.getNearestBot(Vector2.fromXY(-6000, 0), bot -> true)).contains(left);
+
+		assertThat(index.getNearestBot(Vector2f.ZERO_VECTOR, bot -> false)).isEmpty();
+		assertThat(BotSpatialIndex.of(List.of(), BOUNDS, CELL_SIZE).getNearestBot(Vector2f.ZERO_VECTOR, bot -> true))
+				.isEmpty();
+	}
+
+
+	@Test
+	public void testResultsKeepOrderOfBots()
+	{
+		// all bots in different cells, in reverse cell order
+		List<ITrackedBot> bots = List.of(
+				bot(0, ETeamColor.YELLOW, 900, 400),
+				bot(1, ETeamColor.YELLOW, 0, 0),
+				bot(2, ETeamColor.YELLOW, -900, -400));
+		BotSpatialIndex index = BotSpatialIndex.of(bots, BOUNDS, CELL_SIZE);
+
+		assertThat(index.getBots()).containsExactlyElementsOf(bots);
+		assertThat(index.getBotsInRadius(Vector2f.ZERO_VECTOR, 2000)).containsExactlyElementsOf(bots);
+		assertThat(index.getBotsInTube(Tube.create(Vector2.fromXY(-900, -400), Vector2.fromXY(900, 400), 10),
+				ETeamColor.YELLOW)).containsExactlyElementsOf(bots);
+	}
+
+
+	@Test
+	public void testBotsOutsideOfBoundsAreFound()
+	{
+		ITrackedBot farOutside = bot(0, ETeamColor.BLUE, 5000, -3000);
+		ITrackedBot atCorner = bot(1, ETeamColor.BLUE, 1000, -500);
+		BotSpatialIndex index = BotSpatialIndex.of(List.of(farOutside, atCorner), BOUNDS, CELL_SIZE);
+
+		assertThat(index.getBotsInRadius(Vector2.fromXY(5000, -3000), 10)).containsExactly(farOutside);
+		assertThat(index.getBotsInRadius(Vector2.fromXY(1000, -500), 10)).containsExactly(atCorner);
+		// the query starts inside the bounds and reaches the bot outside of them
+		assertThat(index.getBotsInRadius(Vector2.fromXY(900, -400), 6000, ETeamColor.BLUE))
+				.containsExactly(farOutside, atCorner);
+		assertThat(index.getBotsInTube(Tube.create(Vector2.fromXY(2000, -3000), Vector2.fromXY(6000, -3000), 100),
+				ETeamColor.BLUE)).containsExactly(farOutside);
+	}
+
+
+	@Test
+	public void testEmptyResults()
+	{
+		BotSpatialIndex empty = BotSpatialIndex.of(List.of(), BOUNDS, CELL_SIZE);
+		assertThat(empty.getBotsInRadius(Vector2f.ZERO_VECTOR, 1000)).isEmpty();
+
+		BotSpatialIndex index = BotSpatialIndex.of(List.of(bot(0, ETeamColor.YELLOW, 0, 0)), BOUNDS, CELL_SIZE);
+		assertThat(index.getBotsInRadius(Vector2f.ZERO_VECTOR, 1000, ETeamColor.BLUE)).isEmpty();
+		assertThat(index.getBotsInRadius(Vector2.fromXY(500, 0), 499)).isEmpty();
+		assertThat(index.getBotsInRadius(Vector2.fromXY(500, 0), 500)).hasSize(1);
+	}
+}
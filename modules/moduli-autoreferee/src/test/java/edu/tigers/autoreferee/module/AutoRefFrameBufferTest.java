@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.autoreferee.module;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class AutoRefFrameBufferTest
+{
+	private static List<Integer> drain(final AutoRefFrameBuffer<Integer> buffer) throws InterruptedException
+	{
+		List<Integer> items = new ArrayList<>();
+		AutoRefFrameBuffer.Entry<Integer> entry;
+		while ((entry = buffer.poll(0, TimeUnit.MILLISECONDS)) != null)
+		{
+			items.add(entry.item());
+		}
+		return items;
+	}
+
+
+	@Test
+	public void testFifoOrder() throws InterruptedException
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(4);
+		for (int i = 0; i < 4; i++)
+		{
+			assertThat(buffer.put(i, EAutoRefFramePolicy.DROP_OLDEST)).isZero();
+		}
+		assertThat(drain(buffer)).containsExactly(0, 1, 2, 3);
+	}
+
+
+	@Test
+	public void testDropOldest() throws InterruptedException
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(3);
+		int skipped = 0;
+		for (int i = 0; i < 5; i++)
+		{
+			skipped += buffer.put(i, EAutoRefFramePolicy.DROP_OLDEST);
+		}
+		assertThat(skipped).isEqualTo(2);
+		assertThat(drain(buffer)).containsExactly(2, 3, 4);
+	}
+
+
+	@Test
+	public void testCoalesce() throws InterruptedException
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(3);
+		assertThat(buffer.put(0, EAutoRefFramePolicy.COALESCE)).isZero();
+		assertThat(buffer.put(1, EAutoRefFramePolicy.COALESCE)).isEqualTo(1);
+		assertThat(buffer.put(2, EAutoRefFramePolicy.DROP_OLDEST)).isZero();
+		assertThat(buffer.put(3, EAutoRefFramePolicy.COALESCE)).isEqualTo(2);
+		assertThat(drain(buffer)).containsExactly(3);
+	}
+
+
+	@Test
+	public void testBlockWaitsForSpace() throws Exception
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(1);
+		buffer.put(0, EAutoRefFramePolicy.BLOCK);
+		CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> put(buffer, 1));
+
+		Thread.sleep(50);
+		assertThat(blocked).isNotDone();
+		assertThat(buffer.poll(1, TimeUnit.SECONDS).item()).isZero();
+		assertThat(blocked.get(1, TimeUnit.SECONDS)).isZero();
+		assertThat(drain(buffer)).containsExactly(1);
+	}
+
+
+	@Test
+	public void testClearWakesBlockedProducer() throws Exception
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(1);
+		buffer.put(0, EAutoRefFramePolicy.BLOCK);
+		CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> put(buffer, 1));
+
+		Thread.sleep(50);
+		buffer.clear();
+		assertThat(blocked.get(1, TimeUnit.SECONDS)).isZero();
+		assertThat(drain(buffer)).containsExactly(1);
+	}
+
+
+	@Test
+	public void testPollTimeout() throws InterruptedException
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(2);
+		assertThat(buffer.poll(10, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+
+	@Test
+	public void testEnqueueTime() throws InterruptedException
+	{
+		AutoRefFrameBuffer<Integer> buffer = new AutoRefFrameBuffer<>(2);
+		long tBefore = System.nanoTime();
+		buffer.put(0, EAutoRefFramePolicy.BLOCK);
+		long tAfter = System.nanoTime();
+		assertThat(buffer.poll(0, TimeUnit.MILLISECONDS).enqueueTime()).isBetween(tBefore, tAfter);
+	}
+
+
+	@Test
+	public void testLateFrames()
+	{
+		AutoRefPipelineStatistics statistics = new AutoRefPipelineStatistics();
+		assertThat(statistics.addProcessedFrame(10, 50)).isFalse();
+		assertThat(statistics.addProcessedFrame(50, 50)).isFalse();
+		assertThat(statistics.addProcessedFrame(51, 50)).isTrue();
+		assertThat(statistics.getNumLateFrames()).isEqualTo(1);
+
+		statistics.reset();
+		assertThat(statistics.getNumLateFrames()).isZero();
+	}
+
+
+	private static int put(final AutoRefFrameBuffer<Integer> buffer, final int item)
+	{
+		try
+		{
+			return buffer.put(item, EAutoRefFramePolicy.BLOCK);
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -9,6 +9,8 @@ import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.cam.data.CamObjectFilterParams;
 import edu.tigers.sumatra.cam.proto.SslVisionDetection.SSL_DetectionFrame;
 import edu.tigers.sumatra.cam.proto.SslVisionWrapper.SSL_WrapperPacket;
+import edu.tigers.sumatra.time.ELatencyStage;
+import edu.tigers.sumatra.time.LatencyTrace;
 
 import java.util.List;
 import java.util.Optional;
@@ -59,7 +61,18 @@ public abstract class ACam extends AModule
 
 	protected void notifyNewCameraFrame(final SSL_DetectionFrame frame)
 	{
-		CamDetectionFrame camDetectionFrame = camDetectionConverter.convertDetectionFrame(frame);
+		notifyNewCameraFrame(frame, LatencyTrace.start(ELatencyStage.RECEIVED));
+	}
+
+
+	/**
+	 * @param frame        the received detection frame
+	 * @param latencyTrace the latency trace of the received packet, stamped at least with
+	 *                     {@link ELatencyStage#RECEIVED}
+	 */
+	protected void notifyNewCameraFrame(final SSL_DetectionFrame frame, final LatencyTrace latencyTrace)
+	{
+		CamDetectionFrame camDetectionFrame = camDetectionConverter.convertDetectionFrame(frame, latencyTrace);
 		camDetectionFrame = camObjectFilter.filter(camDetectionFrame);
 		for (ICamFrameObserver observer : observers)
 		{
@@ -15,6 +15,7 @@ import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.ids.ETeamColor;
 import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector3;
+import edu.tigers.sumatra.time.LatencyTrace;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -66,6 +67,18 @@ public class CamDetectionConverter
 	 * @return a cam detection frame based on the SSL vision frame
 	 */
 	public CamDetectionFrame convertDetectionFrame(final SslVisionDetection.SSL_DetectionFrame detectionFrame)
+	{
+		return convertDetectionFrame(detectionFrame, LatencyTrace.empty());
+	}
+
+
+	/**
+	 * @param detectionFrame SSL vision frame from a single camera
+	 * @param latencyTrace   the latency trace of the received packet
+	 * @return a cam detection frame based on the SSL vision frame
+	 */
+	public CamDetectionFrame convertDetectionFrame(final SslVisionDetection.SSL_DetectionFrame detectionFrame,
+			final LatencyTrace latencyTrace)
 	{
 		double dtCaptureCam;
 		if (detectionFrame.hasTCaptureCamera() && useCameraCaptureTimestamp)
@@ -114,7 +127,7 @@ public class CamDetectionConverter
 
 		return new CamDetectionFrame(localCaptureNs, localSentNs, localCaptureCameraNs, detectionFrame.getCameraId(),
 				detectionFrame.getFrameNumber(),
-				frameId++, balls, yellows, blues);
+				frameId++, balls, yellows, blues, latencyTrace);
 	}
 
 
@@ -7,26 +7,31 @@ import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import com.github.g3force.configurable.IConfigClient;
 import com.github.g3force.configurable.IConfigObserver;
+import com.google.protobuf.CodedInputStream;
 import edu.tigers.moduli.exceptions.InitModuleException;
 import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection.SSL_DetectionFrame;
 import edu.tigers.sumatra.cam.proto.SslVisionWrapper.SSL_WrapperPacket;
 import edu.tigers.sumatra.clock.NanoTime;
 import edu.tigers.sumatra.gamelog.EMessageType;
 import edu.tigers.sumatra.gamelog.GameLogMessage;
 import edu.tigers.sumatra.gamelog.GameLogRecorder;
 import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.network.EMulticastReceiveMode;
 import edu.tigers.sumatra.network.IReceiverObserver;
 import edu.tigers.sumatra.network.MulticastUDPReceiver;
 import edu.tigers.sumatra.network.NetworkUtility;
+import edu.tigers.sumatra.time.ELatencyStage;
+import edu.tigers.sumatra.time.LatencyTrace;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang.StringUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.Optional;
 
@@ -39,7 +44,6 @@ import java.util.Optional;
 public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, IConfigObserver
 {
 	private static final int BUFFER_SIZE = 10000;
-	private final byte[] bufferArr = new byte[BUFFER_SIZE];
 
 	@Setter
 	private static int customPort;
@@ -50,6 +54,12 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	@Configurable(comment = "Enter a network address to limit network to a certain network interface")
 	private static String network = "";
 
+	@Configurable(defValue = "SHARED_SOCKET", comment = "Use one socket for all network interfaces or one socket per interface")
+	private static EMulticastReceiveMode receiveMode = EMulticastReceiveMode.SHARED_SOCKET;
+
+	@Configurable(defValue = "0", comment = "Receive buffer size (SO_RCVBUF) per socket in bytes, 0 for OS default")
+	private static int receiveBufferSize = 0;
+
 	static
 	{
 		ConfigRegistration.registerClass("user", SSLVisionCam.class);
@@ -85,11 +95,11 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 		if (nif == null)
 		{
 			log.debug("No nif for vision-cam specified, will try all.");
-			receiver = new MulticastUDPReceiver(address, port);
+			receiver = new MulticastUDPReceiver(address, port, receiveMode, receiveBufferSize);
 		} else
 		{
 			log.debug("Chose nif for vision-cam: " + nif.getDisplayName());
-			receiver = new MulticastUDPReceiver(address, port, nif);
+			receiver = new MulticastUDPReceiver(address, port, nif, receiveBufferSize);
 		}
 		receiver.addObserver(this);
 
@@ -113,8 +123,8 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	@Override
 	public void run()
 	{
-		// Create new buffer
-		final ByteBuffer buffer = ByteBuffer.wrap(bufferArr);
+		// reuse a single direct buffer for all packets to avoid any allocation on the receive path
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
 
 		while (!Thread.currentThread().isInterrupted())
 		{
@@ -122,30 +132,33 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 			{
 				buffer.clear();
 
-				// Fetch packet
-				final DatagramPacket packet = new DatagramPacket(buffer.array(), buffer.capacity());
-
 				if (receiver == null)
 				{
 					break;
 				}
-				receiver.receive(packet);
+				final SocketAddress sender = receiver.receive(buffer);
+				final long tReceived = System.nanoTime();
+				final long timestamp = NanoTime.getTimestampNow();
+				buffer.flip();
 
-				visionAddress = packet.getAddress();
-				final ByteArrayInputStream packetIn = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
+				if (sender instanceof InetSocketAddress inetSocketAddress)
+				{
+					visionAddress = inetSocketAddress.getAddress();
+				}
 
 				// Translate
 				final SSL_WrapperPacket sslPacket;
 				try
 				{
-					sslPacket = SSL_WrapperPacket.parseFrom(packetIn);
+					sslPacket = SSL_WrapperPacket.parseFrom(CodedInputStream.newInstance(buffer));
 				} catch (Exception err)
 				{
 					log.error("invalid ssl package", err);
 					continue;
 				}
 
-				publishData(sslPacket);
+				publishData(sslPacket, tReceived);
+				recordRawPacket(buffer, timestamp);
 			} catch (final IOException err)
 			{
 				if (!expectIOE)
@@ -164,12 +177,12 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	}
 
 
-	private void publishData(final SSL_WrapperPacket sslPacket)
+	private void publishData(final SSL_WrapperPacket sslPacket, final long tReceived)
 	{
 		// start with sending out the detection. It is most time critical
 		if (sslPacket.hasDetection())
 		{
-			notifyNewCameraFrame(sslPacket.getDetection());
+			notifyNewCameraFrame(sslPacket.getDetection(), createLatencyTrace(sslPacket.getDetection(), tReceived));
 		}
 
 		if (sslPacket.hasGeometry())
@@ -180,10 +193,36 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 		}
 
 		notifyNewVisionPacket(sslPacket);
+	}
+
+
+	/**
+	 * The capture time is derived from the processing time reported by SSL-Vision, as its clock is not synchronized.
+	 * The network transfer time can not be measured this way and is not included.
+	 */
+	private LatencyTrace createLatencyTrace(final SSL_DetectionFrame detection, final long tReceived)
+	{
+		long visionProcessingTime = (long) ((detection.getTSent() - detection.getTCapture()) * 1e9);
+		return LatencyTrace.empty()
+				.stamp(ELatencyStage.CAPTURED, tReceived - visionProcessingTime)
+				.stamp(ELatencyStage.RECEIVED, tReceived);
+	}
 
-		if(gameLogRecorder != null)
+
+	/**
+	 * Forward the original bytes of the received packet to the gamelog recorder.
+	 * The packet is only copied while a gamelog is actually being recorded.
+	 *
+	 * @param buffer    the flipped receive buffer containing the raw packet
+	 * @param timestamp the receive timestamp
+	 */
+	private void recordRawPacket(final ByteBuffer buffer, final long timestamp)
+	{
+		if (gameLogRecorder != null && gameLogRecorder.isRecording())
 		{
-			gameLogRecorder.writeMessage(new GameLogMessage(NanoTime.getTimestampNow(), EMessageType.SSL_VISION_2014, sslPacket.toByteArray()));
+			byte[] data = new byte[buffer.limit()];
+			buffer.get(0, data);
+			gameLogRecorder.writeMessage(new GameLogMessage(timestamp, EMessageType.SSL_VISION_2014, data));
 		}
 	}
 
@@ -206,6 +245,7 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 		if (receiver != null)
 		{
 			expectIOE = true;
+			receiver.getInterfaceStats().forEach(stats -> log.debug("Vision receiver stats: {}", stats));
 			receiver.close();
 			receiver = null;
 		}
@@ -3,6 +3,8 @@
  */
 package edu.tigers.sumatra.cam.data;
 
+import edu.tigers.sumatra.time.ELatencyStage;
+import edu.tigers.sumatra.time.LatencyTrace;
 import lombok.Getter;
 
 import java.util.ArrayList;
@@ -53,6 +55,12 @@ public class CamDetectionFrame
 	private final List<CamRobot> robotsBlue;
 	private final transient List<CamRobot> robots = new ArrayList<>();
 
+	/**
+	 * Latency trace of this frame, stamped up to {@link ELatencyStage#CAM_FRAME}
+	 */
+	@Getter
+	private final transient LatencyTrace latencyTrace;
+
 
 	protected CamDetectionFrame()
 	{
@@ -66,6 +74,7 @@ public class CamDetectionFrame
 		balls = null;
 		robotsYellow = Collections.emptyList();
 		robotsBlue = Collections.emptyList();
+		latencyTrace = LatencyTrace.empty();
 	}
 
 
@@ -83,6 +92,28 @@ public class CamDetectionFrame
 	public CamDetectionFrame(final long tCapture, final long tSent, final Long tCaptureCamera, final int cameraId,
 			final long camFrameNumber, final long frameNumber,
 			final List<CamBall> balls, final List<CamRobot> yellowBots, final List<CamRobot> blueBots)
+	{
+		this(tCapture, tSent, tCaptureCamera, cameraId, camFrameNumber, frameNumber, balls, yellowBots, blueBots,
+				LatencyTrace.empty());
+	}
+
+
+	/**
+	 * @param tCapture
+	 * @param tSent
+	 * @param cameraId
+	 * @param camFrameNumber
+	 * @param frameNumber
+	 * @param balls
+	 * @param yellowBots
+	 * @param blueBots
+	 * @param latencyTrace the trace of the received packet, will be stamped with {@link ELatencyStage#CAM_FRAME}
+	 */
+	@SuppressWarnings("squid:S00107") // number of parameters - we accept this for performance reasons here
+	public CamDetectionFrame(final long tCapture, final long tSent, final Long tCaptureCamera, final int cameraId,
+			final long camFrameNumber, final long frameNumber,
+			final List<CamBall> balls, final List<CamRobot> yellowBots, final List<CamRobot> blueBots,
+			final LatencyTrace latencyTrace)
 	{
 		// Fields
 		this.tCapture = tCapture;
@@ -98,6 +129,7 @@ public class CamDetectionFrame
 		robotsBlue = blueBots;
 
 		tAssembly = System.nanoTime();
+		this.latencyTrace = latencyTrace.stamp(ELatencyStage.CAM_FRAME, tAssembly);
 	}
 
 
@@ -110,6 +142,7 @@ public class CamDetectionFrame
 		tSent = f.tSent;
 		tCaptureCamera = f.tCaptureCamera;
 		tAssembly = f.tAssembly;
+		latencyTrace = f.latencyTrace;
 		cameraId = f.cameraId;
 		camFrameNumber = f.camFrameNumber;
 		frameNumber = f.frameNumber;
@@ -132,6 +165,7 @@ public class CamDetectionFrame
 		tSent = f.tSent;
 		tCaptureCamera = f.tCaptureCamera;
 		tAssembly = f.tAssembly;
+		latencyTrace = f.latencyTrace;
 		cameraId = f.cameraId;
 		camFrameNumber = f.camFrameNumber;
 		frameNumber = f.frameNumber;
@@ -166,6 +200,7 @@ public class CamDetectionFrame
 		tSent = f.tSent;
 		tCaptureCamera = f.tCaptureCamera;
 		tAssembly = f.tAssembly;
+		latencyTrace = f.latencyTrace;
 		cameraId = f.cameraId;
 		camFrameNumber = f.camFrameNumber;
 		frameNumber = f.frameNumber;
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2009 - 2022, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.cam;
+
+import com.google.protobuf.CodedInputStream;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection.SSL_DetectionBall;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection.SSL_DetectionFrame;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection.SSL_DetectionRobot;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper.SSL_WrapperPacket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compare the former stream based receive path of {@link SSLVisionCam} with the direct buffer based one.
+ * The network itself is not part of the benchmark, the packet is copied into the receive buffer instead.
+ * Run with '-prof gc' to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class SSLVisionReceiveBenchmark
+{
+	private static final int BUFFER_SIZE = 10000;
+	private static final int NUM_ROBOTS_PER_TEAM = 8;
+
+	private final byte[] rawPacket = createPacket().toByteArray();
+
+	private final byte[] bufferArr = new byte[BUFFER_SIZE];
+	private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	@Benchmark
+	public int streamParseAndReserialize() throws IOException
+	{
+		final DatagramPacket packet = new DatagramPacket(bufferArr, bufferArr.length);
+		System.arraycopy(rawPacket, 0, packet.getData(), 0, rawPacket.length);
+		packet.setLength(rawPacket.length);
+
+		final ByteArrayInputStream packetIn = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
+		final SSL_WrapperPacket sslPacket = SSL_WrapperPacket.parseFrom(packetIn);
+		return sslPacket.getDetection().getRobotsBlueCount() + sslPacket.toByteArray().length;
+	}
+
+
+	@Benchmark
+	public int directBufferParse() throws IOException
+	{
+		directBuffer.clear();
+		directBuffer.put(rawPacket);
+		directBuffer.flip();
+
+		final SSL_WrapperPacket sslPacket = SSL_WrapperPacket.parseFrom(CodedInputStream.newInstance(directBuffer));
+		return sslPacket.getDetection().getRobotsBlueCount() + directBuffer.limit();
+	}
+
+
+	@Benchmark
+	public int directBufferParseAndRecord() throws IOException
+	{
+		directBuffer.clear();
+		directBuffer.put(rawPacket);
+		directBuffer.flip();
+
+		final SSL_WrapperPacket sslPacket = SSL_WrapperPacket.parseFrom(CodedInputStream.newInstance(directBuffer));
+		final byte[] data = new byte[directBuffer.limit()];
+		directBuffer.get(0, data);
+		return sslPacket.getDetection().getRobotsBlueCount() + data.length;
+	}
+
+
+	private static SSL_WrapperPacket createPacket()
+	{
+		Random rnd = new Random(42);
+		SSL_DetectionFrame.Builder frame = SSL_DetectionFrame.newBuilder()
+				.setFrameNumber(4242)
+				.setCameraId(1)
+				.setTCapture(1.0)
+				.setTSent(1.01)
+				.addBalls(SSL_DetectionBall.newBuilder()
+						.setConfidence(0.9f)
+						.setX(rnd.nextFloat() * 6000)
+						.setY(rnd.nextFloat() * 4500)
+						.setPixelX(rnd.nextFloat() * 1000)
+						.setPixelY(rnd.nextFloat() * 1000));
+		for (int id = 0; id < NUM_ROBOTS_PER_TEAM; id++)
+		{
+			frame.addRobotsYellow(createRobot(rnd, id));
+			frame.addRobotsBlue(createRobot(rnd, id));
+		}
+		return SSL_WrapperPacket.newBuilder().setDetection(frame).build();
+	}
+
+
+	private static SSL_DetectionRobot createRobot(Random rnd, int id)
+	{
+		return SSL_DetectionRobot.newBuilder()
+				.setConfidence(0.9f)
+				.setRobotId(id)
+				.setX(rnd.nextFloat() * 6000)
+				.setY(rnd.nextFloat() * 4500)
+				.setOrientation(rnd.nextFloat() * 3)
+				.setPixelX(rnd.nextFloat() * 1000)
+				.setPixelY(rnd.nextFloat() * 1000)
+				.setHeight(150)
+				.build();
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Writes game log messages on a dedicated thread, so that receiver threads are never blocked by the disk.
+ * <p>
+ * Messages are put into a bounded lock-free queue. If the writer thread can not keep up and the queue is full,
+ * new messages are dropped and counted. The output can be compressed and rotated to a new file after a maximum
+ * size or duration. Each rotated file is a complete game log with its own header.
+ * <p>
+ * The writer thread parks while the queue is empty and is only unparked by producers, if it is waiting.
+ * Closing waits for producers that are just queuing a message, so every accepted message is written to the
+ * file that was open when it was accepted and never to the next recording.
+ */
+@Log4j2
+public class AsyncGameLogWriter
+{
+	/** timestamp, type and size of a message */
+	private static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+	private static final long FLUSH_INTERVAL_NS = 100_000_000;
+
+	private final GameLogWriter writer;
+	private final MpscRingBuffer<GameLogMessage> queue;
+	private final AtomicLong numDropped = new AtomicLong();
+	private final AtomicLong numWritten = new AtomicLong();
+	/** number of threads that are in {@link #write(GameLogMessage)} */
+	private final AtomicInteger numActiveProducers = new AtomicInteger();
+
+	/** rotate to a new file after this number of bytes, 0 to disable */
+	@Setter
+	private long maxFileSize = 0;
+	/** rotate to a new file after this duration, zero to disable */
+	@Setter
+	private Duration maxFileDuration = Duration.ZERO;
+
+	private volatile boolean running = false;
+	private volatile Thread writerThread;
+	/** true, if the writer thread is about to park and needs to be unparked for new messages */
+	private volatile boolean waiting = false;
+
+	// only accessed by the writer thread while running
+	private String filename;
+	private int filePart;
+	private long fileSize;
+	private long fileOpenedNs;
+
+
+	/**
+	 * @param fileType      the type of the game log
+	 * @param queueCapacity the maximum number of messages that wait for being written
+	 */
+	public AsyncGameLogWriter(final GameLogType fileType, final int queueCapacity)
+	{
+		writer = new GameLogWriter(fileType);
+		queue = new MpscRingBuffer<>(queueCapacity);
+	}
+
+
+	/**
+	 * @param compress write gzip compressed files
+	 */
+	public void setCompress(final boolean compress)
+	{
+		writer.setCompress(compress);
+	}
+
+
+	/**
+	 * Open a gamelog for writing using current date/time as filename.
+	 */
+	public void open(String matchType, String stage, String teamYellow, String teamBlue)
+	{
+		open(GameLogWriter.createFilename(matchType, stage, teamYellow, teamBlue));
+	}
+
+
+	/**
+	 * Open a gamelog for writing and start the writer thread.
+	 *
+	 * @param filename the filename without extension, relative to the gamelog folder
+	 */
+	public synchronized void open(final String filename)
+	{
+		if (running)
+		{
+			return;
+		}
+		writer.open(filename);
+		if (!writer.isOpen())
+		{
+			return;
+		}
+		this.filename = filename;
+		filePart = 1;
+		fileSize = 0;
+		fileOpenedNs = System.nanoTime();
+		numDropped.set(0);
+		numWritten.set(0);
+
+		running = true;
+		writerThread = new Thread(this::run, "GameLogWriter");
+		writerThread.start();
+	}
+
+
+	/**
+	 * @return true, if messages are accepted
+	 */
+	public boolean isOpen()
+	{
+		return running;
+	}
+
+
+	/**
+	 * Write all queued messages, stop the writer thread and close the file.
+	 */
+	public synchronized void close()
+	{
+		if (!running)
+		{
+			return;
+		}
+		running = false;
+		// producers that passed the running check before still queue their message, which is then written below
+		while (numActiveProducers.get() > 0)
+		{
+			Thread.onSpinWait();
+		}
+		LockSupport.unpark(writerThread);
+		try
+		{
+			writerThread.join();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		writerThread = null;
+		if (numDropped.get() > 0)
+		{
+			log.warn("Dropped {} of {} game log messages", numDropped.get(), numDropped.get() + numWritten.get());
+		}
+	}
+
+
+	/**
+	 * Queue a message for writing. Never blocks. May be called from any thread.
+	 *
+	 * @param msg the message
+	 */
+	public void write(final GameLogMessage msg)
+	{
+		numActiveProducers.incrementAndGet();
+		try
+		{
+			if (!running)
+			{
+				return;
+			}
+			if (!queue.offer(msg))
+			{
+				long dropped = numDropped.incrementAndGet();
+				if (dropped == 1 || dropped % 1000 == 0)
+				{
+					log.warn("Game log queue is full, {} messages dropped so far", dropped);
+				}
+			} else if (waiting)
+			{
+				LockSupport.unpark(writerThread);
+			}
+		} finally
+		{
+			numActiveProducers.decrementAndGet();
+		}
+	}
+
+
+	/**
+	 * @return the number of messages that wait for being written
+	 */
+	public int getQueueDepth()
+	{
+		return queue.size();
+	}
+
+
+	/**
+	 * @return the maximum number of messages that can wait for being written
+	 */
+	public int getQueueCapacity()
+	{
+		return queue.capacity();
+	}
+
+
+	/**
+	 * @return the number of messages that were dropped, because the queue was full
+	 */
+	public long getNumDropped()
+	{
+		return numDropped.get();
+	}
+
+
+	/**
+	 * @return the number of messages that were written
+	 */
+	public long getNumWritten()
+	{
+		return numWritten.get();
+	}
+
+
+	private void run()
+	{
+		long lastFlush = System.nanoTime();
+		boolean flushRequired = false;
+		while (running)
+		{
+			GameLogMessage msg = queue.poll();
+			if (msg != null)
+			{
+				writeToFile(msg);
+				flushRequired = true;
+				continue;
+			}
+
+			long sinceFlush = System.nanoTime() - lastFlush;
+			if (flushRequired && sinceFlush >= FLUSH_INTERVAL_NS)
+			{
+				writer.flush();
+				lastFlush = System.nanoTime();
+				flushRequired = false;
+			}
+			awaitMessages(flushRequired ? FLUSH_INTERVAL_NS - sinceFlush : 0);
+		}
+
+		GameLogMessage msg;
+		while ((msg = queue.poll()) != null)
+		{
+			writeToFile(msg);
+		}
+		writer.close();
+	}
+
+
+	/**
+	 * Park until a message is queued, the writer is closed or the timeout elapsed.
+	 *
+	 * @param timeoutNs the timeout, 0 to wait without timeout
+	 */
+	private void awaitMessages(final long timeoutNs)
+	{
+		waiting = true;
+		// check again after announcing the wait, as a producer may have missed it
+		if (queue.isEmpty() && running)
+		{
+			if (timeoutNs > 0)
+			{
+				LockSupport.parkNanos(this, timeoutNs);
+			} else
+			{
+				LockSupport.park(this);
+			}
+		}
+		waiting = false;
+	}
+
+
+	private void writeToFile(final GameLogMessage msg)
+	{
+		rotateIfRequired();
+		writer.write(msg);
+		fileSize += MESSAGE_HEADER_SIZE + msg.getData().length;
+		numWritten.incrementAndGet();
+	}
+
+
+	private void rotateIfRequired()
+	{
+		boolean sizeExceeded = maxFileSize > 0 && fileSize >= maxFileSize;
+		boolean durationExceeded = !maxFileDuration.isZero()
+				&& System.nanoTime() - fileOpenedNs >= maxFileDuration.toNanos();
+		if (!sizeExceeded && !durationExceeded)
+		{
+			return;
+		}
+
+		writer.close();
+		filePart++;
+		writer.open(filename + "-part" + filePart);
+		log.info("Continue game log in part {}", filePart);
+		fileSize = 0;
+		fileOpenedNs = System.nanoTime();
+	}
+}
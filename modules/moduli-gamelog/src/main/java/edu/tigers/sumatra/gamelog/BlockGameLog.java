@@ -0,0 +1,534 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.BlockGameLogFormat.BlockInfo;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+
+/**
+ * Random access to a file of type {@link GameLogType#BLOCK_LOG_FILE}.
+ * <p>
+ * Only the block index is read on open. Messages are read by decompressing their block, so seeking only
+ * needs to decompress a single block. The most recently used block is kept decompressed.
+ * If the index is missing or invalid, like for an interrupted recording, it is rebuilt by decompressing all blocks
+ * up to the first incomplete one.
+ * Reading messages is thread-safe.
+ */
+@Log4j2
+public class BlockGameLog implements RandomAccessGameLog, Closeable
+{
+	private final FileChannel channel;
+	private final GameLogHeader header;
+	private final BlockInfo[] blocks;
+	/** index of the first message of each block */
+	private final int[] firstMessages;
+	private final int numMessages;
+
+	private volatile DecodedBlock lastBlock;
+
+
+	private BlockGameLog(final FileChannel channel, final GameLogHeader header, final BlockInfo[] blocks)
+	{
+		this.channel = channel;
+		this.header = header;
+		this.blocks = blocks;
+		firstMessages = new int[blocks.length];
+		int n = 0;
+		for (int i = 0; i < blocks.length; i++)
+		{
+			firstMessages[i] = n;
+			n += blocks[i].numMessages();
+		}
+		numMessages = n;
+	}
+
+
+	/**
+	 * Open a block compressed game log and read its index. A missing or invalid index is rebuilt.
+	 *
+	 * @param path the path of the game log
+	 * @return the game log that must be closed by the caller
+	 * @throws IOException if the file could not be read or is not block compressed
+	 */
+	public static BlockGameLog open(final Path path) throws IOException
+	{
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try
+		{
+			// do not close the stream, as it would close the channel as well
+			GameLogHeader header = GameLogHeader.read(new DataInputStream(Channels.newInputStream(channel)));
+			if (header.fileType() != GameLogType.BLOCK_LOG_FILE)
+			{
+				throw new IOException("Not a block compressed game log: " + path);
+			}
+			return new BlockGameLog(channel, header, readOrScanIndex(channel, header));
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * @param path the path of a game log
+	 * @return true, if the file is block compressed
+	 */
+	public static boolean isBlockGameLog(final Path path)
+	{
+		if (path.toString().endsWith(".gz"))
+		{
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			return GameLogHeader.read(in).fileType() == GameLogType.BLOCK_LOG_FILE;
+		} catch (IOException e)
+		{
+			return false;
+		}
+	}
+
+
+	private static BlockInfo[] readOrScanIndex(final FileChannel channel, final GameLogHeader header)
+			throws IOException
+	{
+		try
+		{
+			return readIndex(channel, header.length());
+		} catch (IOException e)
+		{
+			log.warn("Could not read the block index, the recording was probably interrupted: {}", e.getMessage());
+		}
+		BlockInfo[] blocks = scanBlocks(channel, header.length());
+		log.info("Rebuilt the block index with {} blocks", blocks.length);
+		return blocks;
+	}
+
+
+	private static BlockInfo[] readIndex(final FileChannel channel, final long firstBlockOffset) throws IOException
+	{
+		long footerOffset = channel.size() - BlockGameLogFormat.FOOTER_SIZE;
+		if (footerOffset < firstBlockOffset)
+		{
+			throw new IOException("No block index");
+		}
+		ByteBuffer footer = ByteBuffer.allocate(BlockGameLogFormat.FOOTER_SIZE);
+		readFully(channel, footer, footerOffset);
+		long indexOffset = footer.getLong(0);
+		// terminator and number of blocks
+		long indexHeaderSize = 2L * Integer.BYTES;
+		if (indexOffset < firstBlockOffset || indexOffset + indexHeaderSize > footerOffset)
+		{
+			throw new IOException("Invalid block index offset " + indexOffset);
+		}
+
+		channel.position(indexOffset);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+		if (in.readInt() != BlockGameLogFormat.END_OF_BLOCKS)
+		{
+			throw new IOException("Invalid block index at offset " + indexOffset);
+		}
+		int numBlocks = in.readInt();
+		if (numBlocks < 0
+				|| indexOffset + indexHeaderSize + (long) numBlocks * BlockGameLogFormat.BLOCK_INFO_SIZE != footerOffset)
+		{
+			throw new IOException("Invalid number of blocks in index: " + numBlocks);
+		}
+		BlockInfo[] blocks = new BlockInfo[numBlocks];
+		long nextOffset = firstBlockOffset;
+		for (int i = 0; i < blocks.length; i++)
+		{
+			BlockInfo block = BlockInfo.read(in);
+			if (block.offset() != nextOffset || block.compressedSize() < 0 || block.uncompressedSize() < 0
+					|| block.numMessages() < 0)
+			{
+				throw new IOException("Invalid block info: " + block);
+			}
+			nextOffset = block.offset() + BlockGameLogFormat.BLOCK_HEADER_SIZE + block.compressedSize();
+			blocks[i] = block;
+		}
+		if (nextOffset != indexOffset)
+		{
+			throw new IOException("Block index does not match the blocks");
+		}
+		return blocks;
+	}
+
+
+	/**
+	 * Build the index by decompressing the blocks one after another.
+	 * Scanning stops at the index, the end of the file or the first incomplete or corrupt block.
+	 */
+	private static BlockInfo[] scanBlocks(final FileChannel channel, final long firstBlockOffset) throws IOException
+	{
+		List<BlockInfo> blocks = new ArrayList<>();
+		long fileSize = channel.size();
+		long offset = firstBlockOffset;
+		ByteBuffer blockHeader = ByteBuffer.allocate(BlockGameLogFormat.BLOCK_HEADER_SIZE);
+		while (offset + BlockGameLogFormat.BLOCK_HEADER_SIZE <= fileSize)
+		{
+			readFully(channel, blockHeader.clear(), offset);
+			int compressedSize = blockHeader.getInt(0);
+			int uncompressedSize = blockHeader.getInt(Integer.BYTES);
+			if (compressedSize == BlockGameLogFormat.END_OF_BLOCKS)
+			{
+				break;
+			}
+			if (compressedSize < 0 || uncompressedSize < 0
+					|| uncompressedSize > (long) compressedSize * BlockGameLogFormat.MAX_COMPRESSION_RATIO
+					|| offset + BlockGameLogFormat.BLOCK_HEADER_SIZE + compressedSize > fileSize)
+			{
+				log.info("Game log ends with an incomplete block at offset {}", offset);
+				break;
+			}
+
+			ByteBuffer compressed = ByteBuffer.allocate(compressedSize);
+			readFully(channel, compressed, offset + BlockGameLogFormat.BLOCK_HEADER_SIZE);
+			try
+			{
+				byte[] data = BlockGameLogFormat.inflate(compressed.array(), uncompressedSize);
+				blocks.add(scanMessages(offset, compressedSize, data));
+			} catch (IOException e)
+			{
+				log.warn("Game log ends with a corrupt block at offset {}", offset, e);
+				break;
+			}
+			offset += BlockGameLogFormat.BLOCK_HEADER_SIZE + compressedSize;
+		}
+		return blocks.toArray(new BlockInfo[0]);
+	}
+
+
+	private static BlockInfo scanMessages(final long offset, final int compressedSize, final byte[] data)
+			throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		int numMessages = 0;
+		long firstTimestamp = 0;
+		long lastTimestamp = 0;
+		long messageTypes = 0;
+		while (buffer.hasRemaining())
+		{
+			if (buffer.remaining() < BlockGameLogFormat.MESSAGE_HEADER_SIZE)
+			{
+				throw new IOException("Incomplete message header");
+			}
+			lastTimestamp = buffer.getLong();
+			messageTypes |= BlockGameLogFormat.typeBit(EMessageType.getMessageTypeConstant(buffer.getInt()));
+			int size = buffer.getInt();
+			if (size < 0 || size > buffer.remaining())
+			{
+				throw new IOException("Invalid message size " + size);
+			}
+			buffer.position(buffer.position() + size);
+			if (numMessages == 0)
+			{
+				firstTimestamp = lastTimestamp;
+			}
+			numMessages++;
+		}
+		return new BlockInfo(offset, compressedSize, data.length, numMessages, firstTimestamp, lastTimestamp,
+				messageTypes);
+	}
+
+
+	private static void readFully(final FileChannel channel, final ByteBuffer dst, final long position)
+			throws IOException
+	{
+		long pos = position;
+		while (dst.hasRemaining())
+		{
+			int n = channel.read(dst, pos);
+			if (n < 0)
+			{
+				throw new IOException("Unexpected end of file at offset " + pos);
+			}
+			pos += n;
+		}
+	}
+
+
+	public GameLogType getFileType()
+	{
+		return header.fileType();
+	}
+
+
+	public int getVersionNumber()
+	{
+		return header.versionNumber();
+	}
+
+
+	/**
+	 * @return the number of blocks
+	 */
+	public int getNumBlocks()
+	{
+		return blocks.length;
+	}
+
+
+	@Override
+	public int getNumMessages()
+	{
+		return numMessages;
+	}
+
+
+	@Override
+	public GameLogMessage getMessage(final int index)
+	{
+		int blockIndex = findBlock(index);
+		return getBlock(blockIndex).getMessage(index - firstMessages[blockIndex]);
+	}
+
+
+	@Override
+	public long getTimestampNs(final int index)
+	{
+		int blockIndex = findBlock(index);
+		return getBlock(blockIndex).timestamps[index - firstMessages[blockIndex]];
+	}
+
+
+	@Override
+	public EMessageType getType(final int index)
+	{
+		int blockIndex = findBlock(index);
+		return getBlock(blockIndex).types[index - firstMessages[blockIndex]];
+	}
+
+
+	/**
+	 * Find the block with the index first and decompress only this block.
+	 */
+	@Override
+	public int findMessage(final long timestampNs)
+	{
+		int low = 0;
+		int high = blocks.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (blocks[mid].lastTimestampNs() < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		if (low == blocks.length)
+		{
+			return numMessages;
+		}
+
+		long[] timestamps = getBlock(low).timestamps;
+		int first = 0;
+		int last = timestamps.length;
+		while (first < last)
+		{
+			int mid = (first + last) >>> 1;
+			if (timestamps[mid] < timestampNs)
+			{
+				first = mid + 1;
+			} else
+			{
+				last = mid;
+			}
+		}
+		return firstMessages[low] + first;
+	}
+
+
+	/**
+	 * Pass all messages of the given types to the consumer in the order of the log.
+	 * Blocks are decompressed in parallel and blocks without any of the types are skipped.
+	 *
+	 * @param types       the message types
+	 * @param parallelism the number of threads for decompressing
+	 * @param consumer    the consumer, called on the calling thread
+	 * @throws IOException if a block could not be read
+	 */
+	public void forEachMessage(final Set<EMessageType> types, final int parallelism,
+			final Consumer<GameLogMessage> consumer) throws IOException
+	{
+		long typeMask = 0;
+		for (EMessageType type : types)
+		{
+			typeMask |= BlockGameLogFormat.typeBit(type);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try
+		{
+			// keep a limited number of blocks in flight to bound the memory usage
+			Deque<Future<DecodedBlock>> pending = new ArrayDeque<>();
+			int nextBlock = 0;
+			while (nextBlock < blocks.length || !pending.isEmpty())
+			{
+				while (nextBlock < blocks.length && pending.size() < 2 * parallelism)
+				{
+					if ((blocks[nextBlock].messageTypes() & typeMask) != 0)
+					{
+						int blockIndex = nextBlock;
+						pending.add(executor.submit(() -> decode(blockIndex)));
+					}
+					nextBlock++;
+				}
+				if (!pending.isEmpty())
+				{
+					DecodedBlock block = pending.poll().get();
+					for (int i = 0; i < block.types.length; i++)
+					{
+						if (types.contains(block.types[i]))
+						{
+							consumer.accept(block.getMessage(i));
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading blocks", e);
+		} catch (ExecutionException e)
+		{
+			throw new IOException("Could not read block", e.getCause());
+		} finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+
+	private int findBlock(final int index)
+	{
+		if (index < 0 || index >= numMessages)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + numMessages + " messages");
+		}
+		int low = 0;
+		int high = blocks.length - 1;
+		while (low < high)
+		{
+			int mid = (low + high + 1) >>> 1;
+			if (firstMessages[mid] <= index)
+			{
+				low = mid;
+			} else
+			{
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+
+	private DecodedBlock getBlock(final int blockIndex)
+	{
+		DecodedBlock block = lastBlock;
+		if (block == null || block.blockIndex != blockIndex)
+		{
+			try
+			{
+				block = decode(blockIndex);
+			} catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+			lastBlock = block;
+		}
+		return block;
+	}
+
+
+	private DecodedBlock decode(final int blockIndex) throws IOException
+	{
+		BlockInfo blockInfo = blocks[blockIndex];
+		ByteBuffer compressed = ByteBuffer.allocate(blockInfo.compressedSize());
+		readFully(channel, compressed, blockInfo.offset() + BlockGameLogFormat.BLOCK_HEADER_SIZE);
+		byte[] data = BlockGameLogFormat.inflate(compressed.array(), blockInfo.uncompressedSize());
+		return new DecodedBlock(blockIndex, data, blockInfo.numMessages());
+	}
+
+
+	/**
+	 * Close the file.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+
+	/**
+	 * The uncompressed messages of a block with the location of each message.
+	 */
+	private static class DecodedBlock
+	{
+		private final int blockIndex;
+		private final byte[] data;
+		private final long[] timestamps;
+		private final EMessageType[] types;
+		private final int[] offsets;
+		private final int[] sizes;
+
+
+		private DecodedBlock(final int blockIndex, final byte[] data, final int numMessages)
+		{
+			this.blockIndex = blockIndex;
+			this.data = data;
+			timestamps = new long[numMessages];
+			types = new EMessageType[numMessages];
+			offsets = new int[numMessages];
+			sizes = new int[numMessages];
+
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			for (int i = 0; i < numMessages; i++)
+			{
+				timestamps[i] = buffer.getLong();
+				types[i] = EMessageType.getMessageTypeConstant(buffer.getInt());
+				sizes[i] = buffer.getInt();
+				offsets[i] = buffer.position();
+				buffer.position(offsets[i] + sizes[i]);
+			}
+		}
+
+
+		private GameLogMessage getMessage(final int i)
+		{
+			byte[] payload = new byte[sizes[i]];
+			System.arraycopy(data, offsets[i], payload, 0, sizes[i]);
+			return new GameLogMessage(timestamps[i], types[i], payload);
+		}
+	}
+}
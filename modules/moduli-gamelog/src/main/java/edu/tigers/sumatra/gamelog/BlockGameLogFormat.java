@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Layout of the {@link GameLogType#BLOCK_LOG_FILE} format.
+ * <p>
+ * After the usual header, the file contains blocks of messages. Each block starts with its compressed and
+ * uncompressed size, followed by the deflate compressed messages in the same layout as in a
+ * {@link GameLogType#LOG_FILE}. Messages never span multiple blocks.
+ * The blocks are terminated by {@link #END_OF_BLOCKS}, followed by the number of blocks, a {@link BlockInfo}
+ * for each block and finally the file offset of the terminator, so that the index can be found from the end.
+ */
+final class BlockGameLogFormat
+{
+	/** written instead of the compressed size of a block after the last block */
+	static final int END_OF_BLOCKS = -1;
+	/** compressed and uncompressed size of a block */
+	static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+	/** timestamp, type and size of a message */
+	static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+	/** the offset of the index at the end of the file */
+	static final int FOOTER_SIZE = Long.BYTES;
+	/** the size of a {@link BlockInfo} in the index */
+	static final int BLOCK_INFO_SIZE = Long.BYTES + 3 * Integer.BYTES + 3 * Long.BYTES;
+	/** deflate can not compress better than about 1:1032, larger uncompressed sizes are corrupt */
+	static final int MAX_COMPRESSION_RATIO = 1100;
+
+
+	private BlockGameLogFormat()
+	{
+	}
+
+
+	/**
+	 * @param compressed       the compressed block
+	 * @param uncompressedSize the size of the uncompressed block
+	 * @return the uncompressed block
+	 * @throws IOException if the block is corrupt
+	 */
+	static byte[] inflate(final byte[] compressed, final int uncompressedSize) throws IOException
+	{
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(compressed);
+			byte[] data = new byte[uncompressedSize];
+			int length = 0;
+			while (length < uncompressedSize && !inflater.finished())
+			{
+				int n = inflater.inflate(data, length, uncompressedSize - length);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+				{
+					break;
+				}
+				length += n;
+			}
+			if (length != uncompressedSize)
+			{
+				throw new IOException("Corrupt block: expected " + uncompressedSize + " bytes, got " + length);
+			}
+			return data;
+		} catch (DataFormatException e)
+		{
+			throw new IOException("Corrupt block", e);
+		} finally
+		{
+			inflater.end();
+		}
+	}
+
+
+	/**
+	 * @param type a message type
+	 * @return the bit of the type in {@link BlockInfo#messageTypes()}
+	 */
+	static long typeBit(final EMessageType type)
+	{
+		return 1L << type.ordinal();
+	}
+
+
+	/**
+	 * An entry of the block index.
+	 *
+	 * @param offset           the file offset of the block header
+	 * @param compressedSize   the size of the compressed messages [bytes]
+	 * @param uncompressedSize the size of the uncompressed messages [bytes]
+	 * @param numMessages      the number of messages in the block
+	 * @param firstTimestampNs the timestamp of the first message [ns]
+	 * @param lastTimestampNs  the timestamp of the last message [ns]
+	 * @param messageTypes     a bit mask of the message types in the block, see {@link #typeBit(EMessageType)}
+	 */
+	record BlockInfo(long offset, int compressedSize, int uncompressedSize, int numMessages,
+			long firstTimestampNs, long lastTimestampNs, long messageTypes)
+	{
+		void write(final DataOutput out) throws IOException
+		{
+			out.writeLong(offset);
+			out.writeInt(compressedSize);
+			out.writeInt(uncompressedSize);
+			out.writeInt(numMessages);
+			out.writeLong(firstTimestampNs);
+			out.writeLong(lastTimestampNs);
+			out.writeLong(messageTypes);
+		}
+
+
+		static BlockInfo read(final DataInput in) throws IOException
+		{
+			return new BlockInfo(in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readLong(), in.readLong(),
+					in.readLong());
+		}
+	}
+}
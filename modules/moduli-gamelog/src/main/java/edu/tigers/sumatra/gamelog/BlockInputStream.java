@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Reads the blocks of a {@link GameLogType#BLOCK_LOG_FILE} sequentially and provides their uncompressed content
+ * as a continuous stream of messages. The stream ends at the block index.
+ */
+class BlockInputStream extends InputStream
+{
+	private final DataInputStream in;
+	private byte[] block = new byte[0];
+	private int blockPosition = 0;
+	private boolean endOfBlocks = false;
+
+
+	/**
+	 * @param in the input of the file, positioned after the header
+	 */
+	BlockInputStream(final DataInputStream in)
+	{
+		this.in = in;
+	}
+
+
+	@Override
+	public int read() throws IOException
+	{
+		if (!nextBlockIfRequired())
+		{
+			return -1;
+		}
+		return block[blockPosition++] & 0xFF;
+	}
+
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+		if (!nextBlockIfRequired())
+		{
+			return -1;
+		}
+		int n = Math.min(len, block.length - blockPosition);
+		System.arraycopy(block, blockPosition, b, off, n);
+		blockPosition += n;
+		return n;
+	}
+
+
+	@Override
+	public long skip(final long n)
+	{
+		long skipped = Math.min(n, block.length - blockPosition);
+		blockPosition += (int) skipped;
+		return skipped;
+	}
+
+
+	@Override
+	public int available()
+	{
+		return block.length - blockPosition;
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		in.close();
+	}
+
+
+	private boolean nextBlockIfRequired() throws IOException
+	{
+		while (blockPosition == block.length)
+		{
+			if (endOfBlocks)
+			{
+				return false;
+			}
+			int compressedSize = in.readInt();
+			if (compressedSize == BlockGameLogFormat.END_OF_BLOCKS)
+			{
+				endOfBlocks = true;
+				return false;
+			}
+			int uncompressedSize = in.readInt();
+			byte[] compressed = new byte[compressedSize];
+			in.readFully(compressed);
+			block = BlockGameLogFormat.inflate(compressed, uncompressedSize);
+			blockPosition = 0;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.BlockGameLogFormat.BlockInfo;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+
+/**
+ * Collects the messages of a {@link GameLogType#BLOCK_LOG_FILE} in blocks and writes them compressed.
+ * {@link #startMessage(long, EMessageType, int)} must be called before the bytes of each message are written,
+ * so that messages do not span blocks and the index can be built. The index is written on {@link #close()}.
+ */
+class BlockOutputStream extends OutputStream
+{
+	/** default uncompressed size of a block [bytes] */
+	static final int DEFAULT_BLOCK_SIZE = 2 << 20;
+
+	private final DataOutputStream out;
+	private final int blockSize;
+	private final Deflater deflater = new Deflater();
+	private final List<BlockInfo> index = new ArrayList<>();
+
+	/** file offset of the next block */
+	private long position;
+
+	private byte[] block;
+	private int blockLength = 0;
+	private int numMessages = 0;
+	private long firstTimestamp;
+	private long lastTimestamp;
+	private long messageTypes = 0;
+	private byte[] compressed = new byte[0];
+
+
+	/**
+	 * @param out       the output of the file, after the header is written
+	 * @param position  the current file offset, i.e. the size of the header
+	 * @param blockSize the uncompressed size of a block, unless a single message is larger [bytes]
+	 */
+	BlockOutputStream(final DataOutputStream out, final long position, final int blockSize)
+	{
+		this.out = out;
+		this.position = position;
+		this.blockSize = blockSize;
+		block = new byte[blockSize];
+	}
+
+
+	/**
+	 * Announce the next message. Starts a new block if the message does not fit into the current one.
+	 *
+	 * @param timestampNs the timestamp of the message
+	 * @param type        the type of the message
+	 * @param size        the size of the payload of the message
+	 * @throws IOException if a finished block could not be written
+	 */
+	void startMessage(final long timestampNs, final EMessageType type, final int size) throws IOException
+	{
+		if (blockLength > 0 && blockLength + BlockGameLogFormat.MESSAGE_HEADER_SIZE + size > blockSize)
+		{
+			finishBlock();
+		}
+		if (numMessages == 0)
+		{
+			firstTimestamp = timestampNs;
+		}
+		lastTimestamp = timestampNs;
+		messageTypes |= BlockGameLogFormat.typeBit(type);
+		numMessages++;
+	}
+
+
+	@Override
+	public void write(final int b)
+	{
+		ensureCapacity(1);
+		block[blockLength++] = (byte) b;
+	}
+
+
+	@Override
+	public void write(final byte[] b, final int off, final int len)
+	{
+		ensureCapacity(len);
+		System.arraycopy(b, off, block, blockLength, len);
+		blockLength += len;
+	}
+
+
+	private void ensureCapacity(final int len)
+	{
+		if (blockLength + len > block.length)
+		{
+			// a single large message
+			block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + len));
+		}
+	}
+
+
+	/**
+	 * Flush the finished blocks to the file. The current block is only written when it is full or on close.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		out.flush();
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			finishBlock();
+			out.writeInt(BlockGameLogFormat.END_OF_BLOCKS);
+			out.writeInt(index.size());
+			for (BlockInfo blockInfo : index)
+			{
+				blockInfo.write(out);
+			}
+			out.writeLong(position);
+		} finally
+		{
+			deflater.end();
+			out.close();
+		}
+	}
+
+
+	private void finishBlock() throws IOException
+	{
+		if (numMessages == 0)
+		{
+			return;
+		}
+
+		deflater.reset();
+		deflater.setInput(block, 0, blockLength);
+		deflater.finish();
+		int compressedLength = 0;
+		while (!deflater.finished())
+		{
+			if (compressedLength == compressed.length)
+			{
+				compressed = Arrays.copyOf(compressed, Math.max(1024, compressed.length * 2));
+			}
+			compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+		}
+
+		out.writeInt(compressedLength);
+		out.writeInt(blockLength);
+		out.write(compressed, 0, compressedLength);
+		index.add(new BlockInfo(position, compressedLength, blockLength, numMessages, firstTimestamp, lastTimestamp,
+				messageTypes));
+		position += BlockGameLogFormat.BLOCK_HEADER_SIZE + compressedLength;
+
+		if (block.length > blockSize)
+		{
+			block = new byte[blockSize];
+		}
+		blockLength = 0;
+		numMessages = 0;
+		messageTypes = 0;
+	}
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+/**
+ * Kinds of events in a game log that can be sought with a {@link GameLogSeekIndex}.
+ */
+public enum EGameLogMarkerType
+{
+	/** the referee command changed */
+	REFEREE_COMMAND,
+	/** the stage of the game changed */
+	STAGE,
+	/** a new game event was issued */
+	GAME_EVENT
+}
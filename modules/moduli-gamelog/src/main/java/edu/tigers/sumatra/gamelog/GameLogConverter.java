@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * Converts game logs between the file formats, e.g. from a (gzipped) {@link GameLogType#LOG_FILE} to a
+ * {@link GameLogType#BLOCK_LOG_FILE}. The input is streamed, so logs of any size can be converted.
+ */
+@Log4j2
+public final class GameLogConverter
+{
+	private GameLogConverter()
+	{
+	}
+
+
+	/**
+	 * Convert a game log.
+	 *
+	 * @param input      the path of the input log of any supported format
+	 * @param output     the path of the output log. For {@link GameLogType#LOG_FILE}, a name ending with .gz is
+	 *                   compressed.
+	 * @param outputType the format of the output log
+	 * @throws IOException if the input could not be read
+	 */
+	public static void convert(final String input, final String output, final GameLogType outputType)
+			throws IOException
+	{
+		GameLogWriter writer = new GameLogWriter(outputType);
+		try (GameLogStreamReader reader = GameLogStreamReader.open(input, List.of()))
+		{
+			writer.openPath(output);
+			if (!writer.isOpen())
+			{
+				throw new IOException("Could not open output file " + output);
+			}
+			long numMessages = 0;
+			while (reader.hasNext())
+			{
+				writer.write(reader.next());
+				numMessages++;
+			}
+			log.info("Converted {} messages from {} to {}", numMessages, input, output);
+		} finally
+		{
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import com.google.common.primitives.Bytes;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The header at the start of a file in SSL game log format.
+ *
+ * @param fileType      the type of the file
+ * @param versionNumber the version of the file format
+ * @param length        the number of bytes of the header
+ */
+@Log4j2
+record GameLogHeader(GameLogType fileType, int versionNumber, int length)
+{
+	/**
+	 * Read the header from the start of a game log.
+	 *
+	 * @param input the input that is positioned at the start of the file
+	 * @return the header
+	 * @throws IOException if the header could not be read or is unknown
+	 */
+	static GameLogHeader read(final DataInput input) throws IOException
+	{
+		byte[] nextBytes = new byte[4];
+		input.readFully(nextBytes);
+		String startHeader = new String(nextBytes).toUpperCase();
+
+		if (!"SSL_".equals(startHeader))
+		{
+			log.warn("Unknown header: {}", startHeader);
+			throw new IOException("Unhandled log file type.");
+		}
+
+		List<Byte> middleHeaderBuilder = new ArrayList<>();
+		byte nextByte = input.readByte();
+		while ((char) nextByte != '_')
+		{
+			middleHeaderBuilder.add(nextByte);
+			nextByte = input.readByte();
+		}
+
+		nextBytes = new byte[4];
+		input.readFully(nextBytes);
+		String endHeader = new String(nextBytes).toUpperCase();
+
+		String headerString =
+				startHeader + new String(Bytes.toArray(middleHeaderBuilder)).toUpperCase() + "_" + endHeader;
+
+		GameLogType fileType = Arrays.stream(GameLogType.values())
+				.filter(logFileType -> logFileType.getHeader().equals(headerString))
+				.findFirst()
+				.orElse(GameLogType.UNKNOWN);
+
+		int versionNumber = input.readInt();
+		log.info("Logfile header: {}, Version: {}", headerString, versionNumber);
+
+		// start, middle, separator, end and version
+		int length = 4 + middleHeaderBuilder.size() + 1 + 4 + Integer.BYTES;
+		return new GameLogHeader(fileType, versionNumber, length);
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+/**
+ * An event in a game log.
+ *
+ * @param messageIndex the index of the message that contains the event
+ * @param timestampNs  the receiver timestamp of the message [ns]
+ * @param type         the kind of the event
+ * @param value        the new value, like the name of the referee command or of the game event type
+ */
+public record GameLogMarker(int messageIndex, long timestampNs, EGameLogMarkerType type, String value)
+{
+}
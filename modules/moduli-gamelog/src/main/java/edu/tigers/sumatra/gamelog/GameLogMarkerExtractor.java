@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.util.List;
+
+
+/**
+ * Finds the markers of a {@link GameLogSeekIndex} in game log messages.
+ * The messages are passed in the order of the log, so extractors may keep state to detect changes.
+ */
+public interface GameLogMarkerExtractor
+{
+	/**
+	 * @return the type of the messages that this extractor needs. Other messages are not even read.
+	 */
+	EMessageType getMessageType();
+
+
+	/**
+	 * @param message the message
+	 * @param index   the index of the message in the log
+	 * @return the markers of this message, usually none
+	 */
+	List<GameLogMarker> extract(GameLogMessage message, int index);
+}
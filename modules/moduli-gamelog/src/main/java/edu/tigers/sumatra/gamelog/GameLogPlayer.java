@@ -12,6 +12,7 @@ import lombok.extern.log4j.Log4j2;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 
 
 /**
@@ -26,7 +27,7 @@ public class GameLogPlayer extends AModule
 
 	private Thread player;
 
-	private GameLogReader newLogfile;
+	private RandomAccessGameLog newLogfile;
 
 	@Setter
 	private boolean pause = false;
@@ -38,8 +39,11 @@ public class GameLogPlayer extends AModule
 	@Setter
 	private int position = -1;
 
+	private long seekTimestampNs = -1;
+
 	private int doSteps = 0;
 	private Function<GameLogMessage, GameLogCompareResult> seekCondition;
+	private IntUnaryOperator markerSeek;
 
 	private int currentFrame = 0;
 
@@ -67,7 +71,7 @@ public class GameLogPlayer extends AModule
 	}
 
 
-	public void setLogfile(final GameLogReader logfile)
+	public void setLogfile(final RandomAccessGameLog logfile)
 	{
 		newLogfile = logfile;
 	}
@@ -84,6 +88,17 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	/**
+	 * Jump to the first message that is not older than the given timestamp.
+	 *
+	 * @param timestampNs the receiver timestamp [ns]
+	 */
+	public void seekToTimestamp(final long timestampNs)
+	{
+		seekTimestampNs = timestampNs;
+	}
+
+
 	/**
 	 * Seeks forward until the supplied functional returns MATCH.
 	 * If the condition is MATCH for the current frame it seeks forward to the next occurrence.
@@ -96,6 +111,23 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	/**
+	 * Jump to the next marker after the current frame. Nothing happens, if there is no such marker.
+	 *
+	 * @param index the seek index of the current log
+	 * @param type  the type of the marker
+	 * @param value the value of the marker, or null for any value of the given type
+	 */
+	public void seekToNextMarker(final GameLogSeekIndex index, final EGameLogMarkerType type, final String value)
+	{
+		markerSeek = frame -> (value == null
+				? index.findNextMarker(frame, type)
+				: index.findNextMarker(frame, type, value))
+				.map(GameLogMarker::messageIndex)
+				.orElse(-1);
+	}
+
+
 	public void addObserver(final GameLogPlayerObserver observer)
 	{
 		observers.add(observer);
@@ -113,7 +145,7 @@ public class GameLogPlayer extends AModule
 		while (!Thread.interrupted())
 		{
 			// take new logfile if we have one
-			GameLogReader currentLog = newLogfile;
+			RandomAccessGameLog currentLog = newLogfile;
 			newLogfile = null;
 
 			// no log to play? nothing to do!
@@ -136,13 +168,13 @@ public class GameLogPlayer extends AModule
 		}
 	}
 
-	public void playlogFast(final GameLogReader log)
+	public void playlogFast(final RandomAccessGameLog log)
 	{
 		long lastTimestamp = 0;
 
-		for (int frameId = 0; frameId < log.getMessages().size(); frameId++)
+		for (int frameId = 0; frameId < log.getNumMessages(); frameId++)
 		{
-			var msg = log.getMessages().get(frameId);
+			var msg = log.getMessage(frameId);
 
 			int finalCurrentFrame = frameId;
 			observers.forEach(o -> o.onNewGameLogMessage(msg, finalCurrentFrame));
@@ -169,9 +201,9 @@ public class GameLogPlayer extends AModule
 	}
 
 
-	private void playLog(final GameLogReader currentLog)
+	private void playLog(final RandomAccessGameLog currentLog)
 	{
-		for (currentFrame = 0; currentFrame < currentLog.getMessages().size(); currentFrame++)
+		for (currentFrame = 0; currentFrame < currentLog.getNumMessages(); currentFrame++)
 		{
 			if (newLogfile != null)
 			{
@@ -185,14 +217,14 @@ public class GameLogPlayer extends AModule
 				return;
 			}
 
-			publishFrameAndSleep(currentLog.getMessages().get(currentFrame));
+			publishFrameAndSleep(currentLog.getMessage(currentFrame));
 		}
 	}
 
 
-	private void adjustCurrentFrame(final GameLogReader currentLog)
+	private void adjustCurrentFrame(final RandomAccessGameLog currentLog)
 	{
-		final int numPackets = currentLog.getMessages().size();
+		final int numPackets = currentLog.getNumMessages();
 
 		while (pause)
 		{
@@ -217,6 +249,16 @@ public class GameLogPlayer extends AModule
 			seekCondition = null;
 		}
 
+		if (markerSeek != null)
+		{
+			int target = markerSeek.applyAsInt(currentFrame);
+			if (target >= 0)
+			{
+				setPosition(target);
+			}
+			markerSeek = null;
+		}
+
 		if (doSteps != 0)
 		{
 			currentFrame += doSteps - 1;
@@ -244,10 +286,17 @@ public class GameLogPlayer extends AModule
 			lastFrameTimestamp = 0;
 			position = -1;
 		}
+
+		if (seekTimestampNs >= 0)
+		{
+			currentFrame = Math.min(currentLog.findMessage(seekTimestampNs), numPackets - 1);
+			lastFrameTimestamp = 0;
+			seekTimestampNs = -1;
+		}
 	}
 
 
-	private void seekForwardTo(final GameLogReader currentLog, Function<GameLogMessage, GameLogCompareResult> condition)
+	private void seekForwardTo(final RandomAccessGameLog currentLog, Function<GameLogMessage, GameLogCompareResult> condition)
 	{
 		// seek forward until condition is no longer true (in case we are in the seek state already)
 		int start = findFrameWithCondition(currentLog, currentFrame, condition, GameLogCompareResult.MISMATCH);
@@ -267,12 +316,12 @@ public class GameLogPlayer extends AModule
 	}
 
 
-	private int findFrameWithCondition(final GameLogReader currentLog, final int startFrame,
+	private int findFrameWithCondition(final RandomAccessGameLog currentLog, final int startFrame,
 			final Function<GameLogMessage, GameLogCompareResult> condition, GameLogCompareResult requiredVerdict)
 	{
-		for (int frame = startFrame; frame < currentLog.getMessages().size(); frame++)
+		for (int frame = startFrame; frame < currentLog.getNumMessages(); frame++)
 		{
-			GameLogMessage msg = currentLog.getMessages().get(frame);
+			GameLogMessage msg = currentLog.getMessage(frame);
 			if(condition.apply(msg) == requiredVerdict)
 			{
 				return frame;
@@ -4,27 +4,26 @@
 
 package edu.tigers.sumatra.gamelog;
 
-import com.google.common.primitives.Bytes;
 import edu.tigers.sumatra.gamelog.filters.MessageFilter;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
-import java.io.DataInputStream;
-import java.io.EOFException;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.zip.GZIPInputStream;
 
 
 /**
  * Reads file in SSL game log format.
+ * All messages are loaded into memory. Use {@link GameLogStreamReader} to process large logs sequentially
+ * or {@link MappedGameLog} and {@link BlockGameLog} for random access to large logs.
+ * The blocks of block compressed logs are decompressed in parallel.
  */
 @Log4j2
-public class GameLogReader
+public class GameLogReader implements RandomAccessGameLog
 {
 	@Getter
 	private GameLogType fileType = GameLogType.UNKNOWN;
@@ -69,30 +68,18 @@ public class GameLogReader
 
 	public void loadFileBlocking(final String path)
 	{
-		try (FileInputStream fileInStream = new FileInputStream(path))
+		try
 		{
-			DataInputStream fileStream;
-			if (path.endsWith(".gz"))
+			if (BlockGameLog.isBlockGameLog(Path.of(path)))
 			{
-				final GZIPInputStream gzipInputStream = new GZIPInputStream(fileInStream);
-				fileStream = new DataInputStream(gzipInputStream);
+				loadBlockFile(path);
 			} else
 			{
-				fileStream = new DataInputStream(fileInStream);
+				loadStream(path);
 			}
-
-			if (!parseHeader(fileStream))
-				throw new IOException("Unhandled log file type.");
-
-			parseMessages(fileStream);
-
-			fileStream.close();
-			notifyLoadComplete(true);
-		} catch (EOFException e1)
-		{
+			log.info("Loading logfile complete");
 			notifyLoadComplete(true);
-			log.info("Loading logfile complete", e1);
-		} catch (IOException e1)
+		} catch (IOException | UncheckedIOException e1)
 		{
 			notifyLoadComplete(false);
 			log.error("Loading logfile failed", e1);
@@ -100,73 +87,51 @@ public class GameLogReader
 	}
 
 
-	public void addFilter(final MessageFilter filter)
+	private void loadStream(final String path) throws IOException
 	{
-		filters.add(filter);
+		try (GameLogStreamReader reader = GameLogStreamReader.open(path, filters))
+		{
+			fileType = reader.getFileType();
+			versionNumber = reader.getVersionNumber();
+			reader.forEachRemaining(messages::add);
+		}
 	}
 
 
-	private boolean parseHeader(DataInputStream fileStream) throws IOException
+	private void loadBlockFile(final String path) throws IOException
 	{
-		byte[] nextBytes = new byte[4];
-		fileStream.readFully(nextBytes);
-		String startHeader = new String(nextBytes).toUpperCase();
-
-		if (!"SSL_".equals(startHeader))
+		try (BlockGameLog blockLog = BlockGameLog.open(Path.of(path)))
 		{
-			log.warn("Unknown header: {}", startHeader);
-			return false;
+			fileType = blockLog.getFileType();
+			versionNumber = blockLog.getVersionNumber();
+			blockLog.forEachMessage(EnumSet.allOf(EMessageType.class), Runtime.getRuntime().availableProcessors(),
+					msg -> {
+						if (filters.stream().allMatch(f -> f.filter(msg.getTimestampNs(), msg.getType())))
+						{
+							messages.add(msg);
+						}
+					});
 		}
+	}
 
-		List<Byte> middleHeaderBuilder = new ArrayList<>();
-		byte nextByte = fileStream.readByte();
-		while ((char) nextByte != '_')
-		{
-			middleHeaderBuilder.add(nextByte);
-			nextByte = fileStream.readByte();
-		}
-
-		nextBytes = new byte[4];
-		fileStream.readFully(nextBytes);
-		String endHeader = new String(nextBytes).toUpperCase();
-
-		String headerString =
-				startHeader + new String(Bytes.toArray(middleHeaderBuilder)).toUpperCase() + "_" + endHeader;
-
-		Optional<GameLogType> optionalLogFileType = Arrays.stream(GameLogType.values())
-				.filter(logFileType -> logFileType.getHeader().equals(headerString)).findFirst();
-
-
-		versionNumber = fileStream.readInt();
-		log.info("Logfile header: {}, Version: {}", headerString, versionNumber);
-
-		fileType = optionalLogFileType.orElse(GameLogType.UNKNOWN);
 
-		return true;
+	public void addFilter(final MessageFilter filter)
+	{
+		filters.add(filter);
 	}
 
 
-	private void parseMessages(DataInputStream fileStream) throws IOException
+	@Override
+	public int getNumMessages()
 	{
-		while (fileStream.available() > 0)
-		{
-			long timestamp = fileStream.readLong();
-			EMessageType msgType = EMessageType.getMessageTypeConstant(fileStream.readInt());
-			int msgSize = fileStream.readInt();
+		return messages.size();
+	}
 
-			boolean isFiltered = filters.stream().anyMatch(f -> !f.filter(timestamp, msgType));
-			if (isFiltered)
-			{
-				fileStream.skipBytes(msgSize);
-			} else
-			{
-				byte[] data = new byte[msgSize];
-				fileStream.readFully(data);
 
-				GameLogMessage message = new GameLogMessage(timestamp, msgType, data);
-				messages.add(message);
-			}
-		}
+	@Override
+	public GameLogMessage getMessage(final int index)
+	{
+		return messages.get(index);
 	}
 
 
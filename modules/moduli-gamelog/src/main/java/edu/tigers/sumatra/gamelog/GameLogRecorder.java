@@ -5,11 +5,21 @@
 package edu.tigers.sumatra.gamelog;
 
 import edu.tigers.moduli.AModule;
+import org.apache.commons.configuration.SubnodeConfiguration;
 
+import java.time.Duration;
 
+
+/**
+ * Records game log messages from the receiver threads asynchronously.
+ * The writer is configured in the module config with the optional parameters
+ * queueCapacity, compress, maxFileSizeMb and maxFileMinutes.
+ */
 public class GameLogRecorder extends AModule
 {
-	private final GameLogWriter writer = new GameLogWriter(GameLogType.LOG_FILE);
+	private static final int DEFAULT_QUEUE_CAPACITY = 1 << 14;
+
+	private AsyncGameLogWriter writer = new AsyncGameLogWriter(GameLogType.LOG_FILE, DEFAULT_QUEUE_CAPACITY);
 	private String matchType = "";
 	private String matchStage = "";
 	private String teamYellow = "";
@@ -31,6 +41,17 @@ public class GameLogRecorder extends AModule
 	}
 
 
+	@Override
+	public void initModule()
+	{
+		SubnodeConfiguration config = getSubnodeConfiguration();
+		writer = new AsyncGameLogWriter(GameLogType.LOG_FILE, config.getInt("queueCapacity", DEFAULT_QUEUE_CAPACITY));
+		writer.setCompress(config.getBoolean("compress", false));
+		writer.setMaxFileSize(config.getLong("maxFileSizeMb", 0) * 1024 * 1024);
+		writer.setMaxFileDuration(Duration.ofMinutes(config.getLong("maxFileMinutes", 0)));
+	}
+
+
 	@Override
 	public void stopModule()
 	{
@@ -53,8 +74,40 @@ public class GameLogRecorder extends AModule
 	}
 
 
+	/**
+	 * @return true, if messages are currently written to a gamelog file
+	 */
+	public boolean isRecording()
+	{
+		return writer.isOpen();
+	}
+
+
+	/**
+	 * Queue a message for recording. Never blocks.
+	 *
+	 * @param msg the message
+	 */
 	public void writeMessage(final GameLogMessage msg)
 	{
 		writer.write(msg);
 	}
+
+
+	/**
+	 * @return the number of messages that wait for being written
+	 */
+	public int getQueueDepth()
+	{
+		return writer.getQueueDepth();
+	}
+
+
+	/**
+	 * @return the number of messages that were dropped during the current recording, because the disk was too slow
+	 */
+	public long getNumDropped()
+	{
+		return writer.getNumDropped();
+	}
 }
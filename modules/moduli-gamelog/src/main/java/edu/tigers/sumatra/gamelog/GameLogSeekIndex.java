@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Index of the markers (referee commands, stages, game events) of a game log for fast seeking.
+ * <p>
+ * The index is built once by passing the relevant messages to {@link GameLogMarkerExtractor}s and can be stored
+ * in a file next to the log, so that it does not need to be built again. Markers are looked up with a binary search.
+ * To seek by time, use {@link RandomAccessGameLog#findMessage(long)}.
+ */
+@Log4j2
+public class GameLogSeekIndex
+{
+	private static final String FILE_HEADER = "SSL_LOG_SEEK_INDEX";
+	private static final int FILE_VERSION = 1;
+	private static final String FILE_SUFFIX = ".idx";
+	private static final EGameLogMarkerType[] MARKER_TYPES = EGameLogMarkerType.values();
+
+	private final int numMessages;
+	private final Map<EGameLogMarkerType, List<GameLogMarker>> markersByType = new EnumMap<>(EGameLogMarkerType.class);
+	private final Map<EGameLogMarkerType, Map<String, List<GameLogMarker>>> markersByValue = new EnumMap<>(
+			EGameLogMarkerType.class);
+
+
+	private GameLogSeekIndex(final int numMessages, final List<GameLogMarker> markers)
+	{
+		this.numMessages = numMessages;
+		for (EGameLogMarkerType type : MARKER_TYPES)
+		{
+			markersByType.put(type, new ArrayList<>());
+			markersByValue.put(type, new HashMap<>());
+		}
+		// markers are added in the order of the log, so all lists are sorted by message index
+		for (GameLogMarker marker : markers)
+		{
+			markersByType.get(marker.type()).add(marker);
+			markersByValue.get(marker.type()).computeIfAbsent(marker.value(), v -> new ArrayList<>()).add(marker);
+		}
+	}
+
+
+	/**
+	 * Build the index by reading all messages that are relevant for the given extractors.
+	 *
+	 * @param gameLog    the game log
+	 * @param extractors the extractors of the markers
+	 * @return the new index
+	 */
+	public static GameLogSeekIndex build(final RandomAccessGameLog gameLog, final List<GameLogMarkerExtractor> extractors)
+	{
+		long tStart = System.nanoTime();
+		List<GameLogMarker> markers = new ArrayList<>();
+		for (int i = 0; i < gameLog.getNumMessages(); i++)
+		{
+			EMessageType type = gameLog.getType(i);
+			GameLogMessage message = null;
+			for (GameLogMarkerExtractor extractor : extractors)
+			{
+				if (extractor.getMessageType() == type)
+				{
+					if (message == null)
+					{
+						message = gameLog.getMessage(i);
+					}
+					markers.addAll(extractor.extract(message, i));
+				}
+			}
+		}
+		log.info("Built seek index with {} markers in {} ms", markers.size(), (System.nanoTime() - tStart) / 1_000_000);
+		return new GameLogSeekIndex(gameLog.getNumMessages(), markers);
+	}
+
+
+	/**
+	 * Load the index from the file next to the log, or build and store it, if there is no up-to-date index file.
+	 *
+	 * @param logFile    the path of the game log
+	 * @param gameLog    the loaded game log
+	 * @param extractors the extractors of the markers
+	 * @return the index
+	 */
+	public static GameLogSeekIndex loadOrBuild(final Path logFile, final RandomAccessGameLog gameLog,
+			final List<GameLogMarkerExtractor> extractors)
+	{
+		Path indexFile = getIndexFile(logFile);
+		if (Files.exists(indexFile))
+		{
+			try
+			{
+				Optional<GameLogSeekIndex> index = load(indexFile, logFile)
+						.filter(i -> i.numMessages == gameLog.getNumMessages());
+				if (index.isPresent())
+				{
+					return index.get();
+				}
+				log.info("Seek index {} is outdated", indexFile);
+			} catch (IOException e)
+			{
+				log.warn("Could not read seek index {}", indexFile, e);
+			}
+		}
+
+		GameLogSeekIndex index = build(gameLog, extractors);
+		try
+		{
+			index.save(indexFile, logFile);
+		} catch (IOException e)
+		{
+			log.warn("Could not write seek index {}", indexFile, e);
+		}
+		return index;
+	}
+
+
+	/**
+	 * @param logFile the path of the game log
+	 * @return the path of the index file of the game log
+	 */
+	public static Path getIndexFile(final Path logFile)
+	{
+		return logFile.resolveSibling(logFile.getFileName() + FILE_SUFFIX);
+	}
+
+
+	/**
+	 * Load an index file.
+	 *
+	 * @param indexFile the index file
+	 * @param logFile   the game log that the index belongs to
+	 * @return the index, or empty, if the game log was modified after the index was stored
+	 * @throws IOException if the file could not be read
+	 */
+	public static Optional<GameLogSeekIndex> load(final Path indexFile, final Path logFile) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile))))
+		{
+			if (!FILE_HEADER.equals(in.readUTF()) || in.readInt() != FILE_VERSION)
+			{
+				return Optional.empty();
+			}
+			if (in.readLong() != Files.size(logFile)
+					|| in.readLong() != Files.getLastModifiedTime(logFile).toMillis())
+			{
+				return Optional.empty();
+			}
+			int numMessages = in.readInt();
+			int numMarkers = in.readInt();
+			if (numMessages < 0 || numMarkers < 0)
+			{
+				throw new IOException("Invalid seek index with " + numMarkers + " markers");
+			}
+			List<GameLogMarker> markers = new ArrayList<>();
+			for (int i = 0; i < numMarkers; i++)
+			{
+				int messageIndex = in.readInt();
+				long timestampNs = in.readLong();
+				int type = in.readUnsignedByte();
+				if (type >= MARKER_TYPES.length)
+				{
+					throw new IOException("Unknown marker type " + type);
+				}
+				markers.add(new GameLogMarker(messageIndex, timestampNs, MARKER_TYPES[type], in.readUTF()));
+			}
+			return Optional.of(new GameLogSeekIndex(numMessages, markers));
+		}
+	}
+
+
+	/**
+	 * Store this index.
+	 *
+	 * @param indexFile the index file
+	 * @param logFile   the game log that the index belongs to
+	 * @throws IOException if the file could not be written
+	 */
+	public void save(final Path indexFile, final Path logFile) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile))))
+		{
+			out.writeUTF(FILE_HEADER);
+			out.writeInt(FILE_VERSION);
+			out.writeLong(Files.size(logFile));
+			out.writeLong(Files.getLastModifiedTime(logFile).toMillis());
+			out.writeInt(numMessages);
+			out.writeInt(markersByType.values().stream().mapToInt(List::size).sum());
+			for (List<GameLogMarker> markers : markersByType.values())
+			{
+				for (GameLogMarker marker : markers)
+				{
+					out.writeInt(marker.messageIndex());
+					out.writeLong(marker.timestampNs());
+					out.writeByte(marker.type().ordinal());
+					out.writeUTF(marker.value());
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * @param type the marker type
+	 * @return all markers of the given type in the order of the log
+	 */
+	public List<GameLogMarker> getMarkers(final EGameLogMarkerType type)
+	{
+		return Collections.unmodifiableList(markersByType.get(type));
+	}
+
+
+	/**
+	 * @param afterMessage the index of the message to start after, e.g. the current position
+	 * @param type         the marker type
+	 * @return the first marker of the given type after the given message
+	 */
+	public Optional<GameLogMarker> findNextMarker(final int afterMessage, final EGameLogMarkerType type)
+	{
+		return findNext(markersByType.get(type), afterMessage);
+	}
+
+
+	/**
+	 * @param afterMessage the index of the message to start after, e.g. the current position
+	 * @param type         the marker type
+	 * @param value        the value of the marker, like "STOP" or "BALL_LEFT_FIELD_GOAL_LINE"
+	 * @return the first marker of the given type and value after the given message
+	 */
+	public Optional<GameLogMarker> findNextMarker(final int afterMessage, final EGameLogMarkerType type,
+			final String value)
+	{
+		return findNext(markersByValue.get(type).getOrDefault(value, List.of()), afterMessage);
+	}
+
+
+	/**
+	 * @param beforeMessage the index of the message to start before, e.g. the current position
+	 * @param type          the marker type
+	 * @return the last marker of the given type before the given message
+	 */
+	public Optional<GameLogMarker> findPreviousMarker(final int beforeMessage, final EGameLogMarkerType type)
+	{
+		List<GameLogMarker> markers = markersByType.get(type);
+		int i = findFirstAfter(markers, beforeMessage - 1);
+		return i > 0 ? Optional.of(markers.get(i - 1)) : Optional.empty();
+	}
+
+
+	private Optional<GameLogMarker> findNext(final List<GameLogMarker> markers, final int afterMessage)
+	{
+		int i = findFirstAfter(markers, afterMessage);
+		return i < markers.size() ? Optional.of(markers.get(i)) : Optional.empty();
+	}
+
+
+	/**
+	 * @return the index of the first marker with a message index greater than the given one
+	 */
+	private int findFirstAfter(final List<GameLogMarker> markers, final int messageIndex)
+	{
+		int low = 0;
+		int high = markers.size();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (markers.get(mid).messageIndex() <= messageIndex)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Reads the messages of a file in SSL game log format one after another, without loading the whole file.
+ * Messages that do not pass the filters are skipped without reading their payload.
+ * Files of type {@link GameLogType#BLOCK_LOG_FILE} are decompressed block by block.
+ * <p>
+ * Read errors during iteration are thrown as {@link UncheckedIOException}.
+ * A truncated last message ends the iteration, as it is common for logs of an interrupted recording.
+ * Invalid message sizes are thrown as {@link IOException}.
+ */
+@Log4j2
+public class GameLogStreamReader implements Iterator<GameLogMessage>, Closeable
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final DataInputStream fileStream;
+	private final List<MessageFilter> filters;
+	private final GameLogHeader header;
+	private GameLogMessage nextMessage;
+	private boolean endOfFile = false;
+
+
+	private GameLogStreamReader(final DataInputStream fileStream, final List<MessageFilter> filters,
+			final GameLogHeader header)
+	{
+		this.fileStream = fileStream;
+		this.filters = List.copyOf(filters);
+		this.header = header;
+	}
+
+
+	/**
+	 * Open a game log and read its header. Files ending with .gz and block compressed files are decompressed
+	 * on the fly.
+	 *
+	 * @param path    the path of the game log
+	 * @param filters messages are only read if all filters return true for them
+	 * @return a new reader that must be closed by the caller
+	 * @throws IOException if the file could not be opened or has an unknown header
+	 */
+	public static GameLogStreamReader open(final String path, final List<MessageFilter> filters) throws IOException
+	{
+		InputStream fileInStream = new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE);
+		try
+		{
+			if (path.endsWith(".gz"))
+			{
+				fileInStream = new BufferedInputStream(new GZIPInputStream(fileInStream, BUFFER_SIZE), BUFFER_SIZE);
+			}
+			DataInputStream fileStream = new DataInputStream(fileInStream);
+			GameLogHeader header = GameLogHeader.read(fileStream);
+			if (header.fileType() == GameLogType.BLOCK_LOG_FILE)
+			{
+				fileStream = new DataInputStream(new BlockInputStream(fileStream));
+			}
+			return new GameLogStreamReader(fileStream, filters, header);
+		} catch (IOException e)
+		{
+			fileInStream.close();
+			throw e;
+		}
+	}
+
+
+	public GameLogType getFileType()
+	{
+		return header.fileType();
+	}
+
+
+	public int getVersionNumber()
+	{
+		return header.versionNumber();
+	}
+
+
+	@Override
+	public boolean hasNext()
+	{
+		if (nextMessage == null && !endOfFile)
+		{
+			try
+			{
+				nextMessage = readNextMessage();
+			} catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+		return nextMessage != null;
+	}
+
+
+	@Override
+	public GameLogMessage next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		GameLogMessage message = nextMessage;
+		nextMessage = null;
+		return message;
+	}
+
+
+	/**
+	 * @return a sequential stream of the remaining messages that closes this reader when it is closed
+	 */
+	public Stream<GameLogMessage> stream()
+	{
+		return StreamSupport.stream(
+						Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(this::closeQuietly);
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		fileStream.close();
+	}
+
+
+	private void closeQuietly()
+	{
+		try
+		{
+			close();
+		} catch (IOException e)
+		{
+			log.warn("Could not close game log", e);
+		}
+	}
+
+
+	private GameLogMessage readNextMessage() throws IOException
+	{
+		try
+		{
+			while (true)
+			{
+				long timestamp = fileStream.readLong();
+				EMessageType msgType = EMessageType.getMessageTypeConstant(fileStream.readInt());
+				int msgSize = fileStream.readInt();
+				if (msgSize < 0)
+				{
+					throw new IOException("Invalid message size: " + msgSize);
+				}
+
+				if (isFiltered(timestamp, msgType))
+				{
+					skipFully(msgSize);
+				} else
+				{
+					return new GameLogMessage(timestamp, msgType, readPayload(msgSize));
+				}
+			}
+		} catch (EOFException e)
+		{
+			endOfFile = true;
+			log.debug("Reached end of game log", e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Large payloads are read in chunks, so that a corrupt size does not allocate more memory than the file has.
+	 */
+	private byte[] readPayload(final int msgSize) throws IOException
+	{
+		if (msgSize <= BUFFER_SIZE)
+		{
+			byte[] data = new byte[msgSize];
+			fileStream.readFully(data);
+			return data;
+		}
+		byte[] data = fileStream.readNBytes(msgSize);
+		if (data.length < msgSize)
+		{
+			throw new EOFException("Message of " + msgSize + " bytes ends after " + data.length + " bytes");
+		}
+		return data;
+	}
+
+
+	private boolean isFiltered(final long timestamp, final EMessageType msgType)
+	{
+		for (MessageFilter filter : filters)
+		{
+			if (!filter.filter(timestamp, msgType))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	private void skipFully(final int numBytes) throws IOException
+	{
+		int remaining = numBytes;
+		while (remaining > 0)
+		{
+			int skipped = fileStream.skipBytes(remaining);
+			if (skipped <= 0)
+			{
+				// skipBytes may skip less without reaching the end of the file, so check with a read
+				fileStream.readByte();
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+}
@@ -11,6 +11,8 @@ public enum GameLogType
 {
 	LOG_FILE("SSL_LOG_FILE"),
 	LABELER_FILE("SSL_LABELER_DATA"),
+	/** messages in independently compressed blocks with a trailing block index */
+	BLOCK_LOG_FILE("SSL_BLOCKLOG_FILE"),
 	UNKNOWN(""),
 	;
 
@@ -4,19 +4,25 @@
 package edu.tigers.sumatra.gamelog;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.zip.GZIPOutputStream;
 
 
 /**
  * Logs arbitrary game log messages. Mostly a binary blob with timestamp and type info.
+ * Messages are buffered, so they are only guaranteed to be on disk after {@link #flush()} or {@link #close()}.
+ * For writing from time critical threads, use the {@link AsyncGameLogWriter}.
  */
 @Log4j2
 @RequiredArgsConstructor
@@ -24,21 +30,32 @@ public class GameLogWriter
 {
 	private static final String GAMELOG_PATH = "data/gamelog";
 	private static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 1 << 18;
 
 	private DataOutputStream outputStream;
+	private BlockOutputStream blockStream;
 
 	private final GameLogType fileType;
 
+	/** write gzip compressed files when opened by filename, not applicable to block compressed files */
+	@Setter
+	private boolean compress = false;
+
 
 	/**
 	 * Open a gamelog for writing using current date/time as filename.
 	 */
 	public void open(String matchType, String stage, String teamYellow, String teamBlue)
+	{
+		open(createFilename(matchType, stage, teamYellow, teamBlue));
+	}
+
+
+	static String createFilename(String matchType, String stage, String teamYellow, String teamBlue)
 	{
 		SimpleDateFormat dt = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 		dt.setTimeZone(TimeZone.getDefault());
-		String filename = dt.format(new Date()) + String.format("-%s-%s-%s-vs-%s", matchType, stage, teamYellow, teamBlue);
-		open(filename);
+		return dt.format(new Date()) + String.format("-%s-%s-%s-vs-%s", matchType, stage, teamYellow, teamBlue);
 	}
 
 
@@ -51,7 +68,8 @@ public class GameLogWriter
 	@SuppressWarnings({ "squid:S2095", "squid:S899" })
 	public void open(final String filename)
 	{
-		String fullName = GAMELOG_PATH + "/" + filename + ".log";
+		boolean gzip = compress && fileType != GameLogType.BLOCK_LOG_FILE;
+		String fullName = GAMELOG_PATH + "/" + filename + (gzip ? ".log.gz" : ".log");
 
 		try
 		{
@@ -60,9 +78,10 @@ public class GameLogWriter
 			folder.mkdirs();
 
 			// open file
-			outputStream = new DataOutputStream(new FileOutputStream(fullName, false));
+			outputStream = createOutputStream(fullName);
 
 			writeHeader();
+			startBlocksIfRequired();
 		} catch (IOException e)
 		{
 			log.error("Exception on opening gamelog file", e);
@@ -71,7 +90,7 @@ public class GameLogWriter
 
 
 	/**
-	 * Open a gamelog for writing.
+	 * Open a gamelog for writing. Files ending with .gz are compressed.
 	 * Suppress missing finally block and status code return ignorance
 	 *
 	 * @param fullName
@@ -82,21 +101,45 @@ public class GameLogWriter
 		try
 		{
 			// open file
-			outputStream = new DataOutputStream(new FileOutputStream(fullName, false));
+			outputStream = createOutputStream(fullName);
 
 			writeHeader();
+			startBlocksIfRequired();
 		} catch (IOException e)
 		{
 			log.error("Exception on opening gamelog file", e);
 		}
 	}
 
+
+	private DataOutputStream createOutputStream(final String fullName) throws IOException
+	{
+		OutputStream out = new FileOutputStream(fullName, false);
+		if (fullName.endsWith(".gz"))
+		{
+			// compress large blocks, the buffer below collects the small writes of the messages
+			out = new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+		return new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+	}
+
+
 	private void writeHeader() throws IOException
 	{
 		outputStream.writeBytes(fileType.getHeader());
 		outputStream.writeInt(VERSION);
 	}
 
+
+	private void startBlocksIfRequired()
+	{
+		if (fileType == GameLogType.BLOCK_LOG_FILE)
+		{
+			blockStream = new BlockOutputStream(outputStream, outputStream.size(), BlockOutputStream.DEFAULT_BLOCK_SIZE);
+			outputStream = new DataOutputStream(blockStream);
+		}
+	}
+
 	/**
 	 * @return
 	 */
@@ -106,6 +149,24 @@ public class GameLogWriter
 	}
 
 
+	/**
+	 * Write all buffered messages to the file.
+	 */
+	public synchronized void flush()
+	{
+		if (outputStream != null)
+		{
+			try
+			{
+				outputStream.flush();
+			} catch (IOException e)
+			{
+				log.error("Exception on flushing gamelog file", e);
+			}
+		}
+	}
+
+
 	/**
 	 * Close gamelog.
 	 */
@@ -121,6 +182,7 @@ public class GameLogWriter
 				log.error("Exception on closing gamelog file", e);
 			}
 			outputStream = null;
+			blockStream = null;
 		}
 	}
 
@@ -139,6 +201,10 @@ public class GameLogWriter
 
 		try
 		{
+			if (blockStream != null)
+			{
+				blockStream.startMessage(msg.getTimestampNs(), msg.getType(), msg.getData().length);
+			}
 			outputStream.writeLong(msg.getTimestampNs());
 			outputStream.writeInt(msg.getType().getId());
 			outputStream.writeInt(msg.getData().length);
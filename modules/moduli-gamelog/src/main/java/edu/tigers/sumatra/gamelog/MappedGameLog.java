@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Random access to an uncompressed file in SSL game log format through memory mapping.
+ * <p>
+ * Opening the log only scans the message headers and builds an index with the offset, size, timestamp and type
+ * of each message that passes the filters. Payloads are read from the mapped file when a message is requested,
+ * so the heap usage does not depend on the size of the log.
+ * Reading messages is thread-safe.
+ */
+@Log4j2
+public class MappedGameLog implements RandomAccessGameLog, Closeable
+{
+	/** maximum size of a single mapping */
+	private static final long CHUNK_SIZE = 1L << 30;
+	/** timestamp, type and size of a message */
+	private static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+	private static final EMessageType[] MESSAGE_TYPES = EMessageType.values();
+
+	private final FileChannel channel;
+	private final GameLogHeader header;
+	private final long chunkSize;
+	private final MappedByteBuffer[] chunks;
+
+	private int numMessages = 0;
+	private long[] offsets = new long[1024];
+	private long[] timestamps = new long[1024];
+	private int[] sizes = new int[1024];
+	private byte[] types = new byte[1024];
+
+
+	private MappedGameLog(final FileChannel channel, final GameLogHeader header, final long chunkSize)
+			throws IOException
+	{
+		this.channel = channel;
+		this.header = header;
+		this.chunkSize = chunkSize;
+		long fileSize = channel.size();
+		chunks = new MappedByteBuffer[(int) ((fileSize + chunkSize - 1) / chunkSize)];
+		for (int i = 0; i < chunks.length; i++)
+		{
+			long position = i * chunkSize;
+			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkSize, fileSize - position));
+		}
+	}
+
+
+	/**
+	 * Map a game log and build its index.
+	 *
+	 * @param path    the path of the uncompressed game log
+	 * @param filters messages are only indexed if all filters return true for them
+	 * @return the mapped game log that must be closed by the caller
+	 * @throws IOException if the file could not be mapped, is compressed or has an unknown header
+	 */
+	public static MappedGameLog open(final Path path, final List<MessageFilter> filters) throws IOException
+	{
+		return open(path, filters, CHUNK_SIZE);
+	}
+
+
+	/**
+	 * Map a game log with a custom maximum size of a single mapping, e.g. to read messages across mappings.
+	 *
+	 * @param path      the path of the uncompressed game log
+	 * @param filters   messages are only indexed if all filters return true for them
+	 * @param chunkSize the maximum size of a single mapping [bytes]
+	 * @return the mapped game log that must be closed by the caller
+	 * @throws IOException if the file could not be mapped, is compressed or has an unknown header
+	 */
+	static MappedGameLog open(final Path path, final List<MessageFilter> filters, final long chunkSize)
+			throws IOException
+	{
+		if (path.toString().endsWith(".gz"))
+		{
+			throw new IOException("Compressed game logs can not be memory mapped: " + path);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try
+		{
+			// do not close the stream, as it would close the channel as well
+			GameLogHeader header = GameLogHeader.read(new DataInputStream(Channels.newInputStream(channel)));
+			if (header.fileType() == GameLogType.BLOCK_LOG_FILE)
+			{
+				throw new IOException("Block compressed game logs can not be memory mapped: " + path);
+			}
+			MappedGameLog gameLog = new MappedGameLog(channel, header, chunkSize);
+			gameLog.buildIndex(filters);
+			return gameLog;
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	private void buildIndex(final List<MessageFilter> filters) throws IOException
+	{
+		long fileSize = channel.size();
+		byte[] messageHeader = new byte[MESSAGE_HEADER_SIZE];
+		ByteBuffer messageHeaderBuffer = ByteBuffer.wrap(messageHeader);
+		long position = header.length();
+		while (position + MESSAGE_HEADER_SIZE <= fileSize)
+		{
+			read(position, messageHeader, 0, MESSAGE_HEADER_SIZE);
+			long timestamp = messageHeaderBuffer.getLong(0);
+			EMessageType msgType = EMessageType.getMessageTypeConstant(messageHeaderBuffer.getInt(Long.BYTES));
+			int msgSize = messageHeaderBuffer.getInt(Long.BYTES + Integer.BYTES);
+			long payloadOffset = position + MESSAGE_HEADER_SIZE;
+			if (msgSize < 0 || payloadOffset + msgSize > fileSize)
+			{
+				log.info("Game log ends with a truncated message at offset {}", position);
+				break;
+			}
+			if (filters.stream().allMatch(f -> f.filter(timestamp, msgType)))
+			{
+				addToIndex(payloadOffset, timestamp, msgSize, msgType);
+			}
+			position = payloadOffset + msgSize;
+		}
+		log.debug("Indexed {} messages", numMessages);
+	}
+
+
+	private void addToIndex(final long offset, final long timestamp, final int size, final EMessageType type)
+	{
+		if (numMessages == offsets.length)
+		{
+			int capacity = offsets.length * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+			types = Arrays.copyOf(types, capacity);
+		}
+		offsets[numMessages] = offset;
+		timestamps[numMessages] = timestamp;
+		sizes[numMessages] = size;
+		types[numMessages] = (byte) type.ordinal();
+		numMessages++;
+	}
+
+
+	private void read(final long position, final byte[] dst, final int offset, final int length)
+	{
+		long pos = position;
+		int dstOffset = offset;
+		int remaining = length;
+		while (remaining > 0)
+		{
+			MappedByteBuffer chunk = chunks[(int) (pos / chunkSize)];
+			int chunkPos = (int) (pos % chunkSize);
+			int len = Math.min(remaining, chunk.limit() - chunkPos);
+			// absolute bulk get does not modify the buffer, so concurrent reads are safe
+			chunk.get(chunkPos, dst, dstOffset, len);
+			pos += len;
+			dstOffset += len;
+			remaining -= len;
+		}
+	}
+
+
+	public GameLogType getFileType()
+	{
+		return header.fileType();
+	}
+
+
+	public int getVersionNumber()
+	{
+		return header.versionNumber();
+	}
+
+
+	@Override
+	public int getNumMessages()
+	{
+		return numMessages;
+	}
+
+
+	@Override
+	public GameLogMessage getMessage(final int index)
+	{
+		byte[] data = new byte[getSize(index)];
+		read(offsets[index], data, 0, data.length);
+		return new GameLogMessage(timestamps[index], getType(index), data);
+	}
+
+
+	@Override
+	public long getTimestampNs(final int index)
+	{
+		checkIndex(index);
+		return timestamps[index];
+	}
+
+
+	/**
+	 * @param index the index of the message
+	 * @return the type of the message, without reading its payload
+	 */
+	@Override
+	public EMessageType getType(final int index)
+	{
+		checkIndex(index);
+		return MESSAGE_TYPES[types[index]];
+	}
+
+
+	/**
+	 * @param index the index of the message
+	 * @return the size of the payload of the message [bytes]
+	 */
+	public int getSize(final int index)
+	{
+		checkIndex(index);
+		return sizes[index];
+	}
+
+
+	private void checkIndex(final int index)
+	{
+		if (index < 0 || index >= numMessages)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + numMessages + " messages");
+		}
+	}
+
+
+	/**
+	 * Close the file. The mapping itself is released by the garbage collector, so messages must not be read anymore.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
@@ -3,13 +3,17 @@
  */
 package edu.tigers.sumatra.gamelog;
 
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 
 /**
@@ -20,9 +24,15 @@ import java.util.stream.Collectors;
 @Log4j2
 public class MergeTool
 {
+	private static final long PROGRESS_INTERVAL = 1_000_000;
+
 	private List<String>				inputs;
 	private String						output;
 	private Function<GameLogMessage, GameLogCompareResult> filter;
+	private List<MessageFilter> messageFilters = List.of();
+
+	private long removeStartTimestamp;
+	private long timeOffset;
 
 
 	/**
@@ -47,6 +57,11 @@ public class MergeTool
 	}
 
 
+	/**
+	 * @param filter messages are removed from a MATCH until the next MISMATCH, a range that is still open at the end
+	 *               of the logfiles is removed, too
+	 * @return this
+	 */
 	public MergeTool withFilter(final Function<GameLogMessage, GameLogCompareResult> filter)
 	{
 		this.filter = filter;
@@ -54,6 +69,17 @@ public class MergeTool
 	}
 
 
+	/**
+	 * @param messageFilters messages are only merged if all filters return true for them, e.g. to select types
+	 * @return this
+	 */
+	public MergeTool withMessageFilters(final List<MessageFilter> messageFilters)
+	{
+		this.messageFilters = messageFilters;
+		return this;
+	}
+
+
 	/**
 	 * Merge files.
 	 */
@@ -64,7 +90,8 @@ public class MergeTool
 
 
 	/**
-	 * Merge files.
+	 * Merge files by the timestamps of their messages.
+	 * The input files are streamed, so the memory usage does not depend on their size.
 	 */
 	public void mergeBlocking()
 	{
@@ -73,64 +100,133 @@ public class MergeTool
 			return;
 		}
 
-		log.info("Loading logfiles files");
+		removeStartTimestamp = -1;
+		timeOffset = 0;
+		List<MergeInput> mergeInputs = new ArrayList<>();
+		GameLogWriter writer = new GameLogWriter(GameLogType.LOG_FILE);
+		try
+		{
+			PriorityQueue<MergeInput> queue = new PriorityQueue<>(Comparator
+					.comparingLong((MergeInput in) -> in.message.getTimestampNs())
+					.thenComparingInt(in -> in.index));
+			for (String input : inputs)
+			{
+				MergeInput mergeInput = new MergeInput(mergeInputs.size(), GameLogStreamReader.open(input, messageFilters));
+				mergeInputs.add(mergeInput);
+				if (mergeInput.next())
+				{
+					queue.add(mergeInput);
+				}
+			}
 
-		// load all logfiles, sort by timestamp, combine into single list
-		List<GameLogMessage> fullLog = inputs.stream()
-				.map(i -> {
-					GameLogReader reader = new GameLogReader();
-					reader.loadFileBlocking(i);
-					return reader.getMessages();
-				})
-				.sorted(Comparator.comparingLong(l -> l.get(0).getTimestampNs()))
-				.flatMap(List::stream)
-				.collect(Collectors.toCollection(LinkedList::new));
+			writer.openPath(output);
+			if (!writer.isOpen())
+			{
+				return;
+			}
 
-		log.info("Loading done, processing filter verdicts...");
+			log.info("Merging {} logfiles", inputs.size());
+			long tStart = System.nanoTime();
+			long numMessages = 0;
+			long numBytes = 0;
+			while (!queue.isEmpty())
+			{
+				MergeInput mergeInput = queue.poll();
+				GameLogMessage msg = mergeInput.message;
+				if (mergeInput.next())
+				{
+					queue.add(mergeInput);
+				}
+
+				if (filter == null || keepMessage(msg))
+				{
+					writer.write(msg);
+					numMessages++;
+					numBytes += msg.getData().length;
+					if (numMessages % PROGRESS_INTERVAL == 0)
+					{
+						log.info("Merged {} messages", numMessages);
+					}
+				}
+			}
+			writer.close();
 
-		if (filter != null)
+			double duration = (System.nanoTime() - tStart) / 1e9;
+			log.info("Write complete: {} messages, {} MB in {} s ({} messages/s, {} MB/s)",
+					numMessages, oneDecimal(numBytes / 1e6), oneDecimal(duration), Math.round(numMessages / duration),
+					oneDecimal(numBytes / 1e6 / duration));
+		} catch (IOException | UncheckedIOException e)
+		{
+			log.error("Could not merge logfiles", e);
+		} finally
 		{
-			removeFilteredMessages(fullLog);
+			mergeInputs.forEach(MergeInput::close);
+			writer.close();
 		}
+	}
 
-		log.info("Processing complete. Writing output file.");
 
-		GameLogWriter writer = new GameLogWriter(GameLogType.LOG_FILE);
-		writer.openPath(output);
-		fullLog.forEach(writer::write);
-		writer.close();
+	private static double oneDecimal(final double value)
+	{
+		return Math.round(value * 10) / 10.0;
+	}
 
-		log.info("Write complete");
+
+	/**
+	 * Remove the messages from the first MATCH until the next MISMATCH of the filter and shift the following
+	 * messages, so that there is no gap in time. A range without MISMATCH is removed until the end.
+	 */
+	private boolean keepMessage(final GameLogMessage msg)
+	{
+		var verdict = filter.apply(msg);
+
+		if (verdict == GameLogCompareResult.MATCH && removeStartTimestamp < 0)
+		{
+			removeStartTimestamp = msg.getTimestampNs();
+		}
+
+		if (verdict == GameLogCompareResult.MISMATCH && removeStartTimestamp >= 0)
+		{
+			timeOffset -= msg.getTimestampNs() - removeStartTimestamp;
+			removeStartTimestamp = -1;
+		}
+
+		if (removeStartTimestamp >= 0)
+		{
+			return false;
+		}
+		msg.adjustTimestamp(timeOffset);
+		return true;
 	}
 
 
-	@SuppressWarnings("squid:ForLoopCounterChangedCheck")
-	private void removeFilteredMessages(final List<GameLogMessage> fullLog)
+	/**
+	 * An input file with its next message.
+	 */
+	@RequiredArgsConstructor
+	private static class MergeInput
 	{
-		long timeOffset = 0;
-		int removeStartIndex = -1;
-		for (int index = 0; index < fullLog.size(); index++)
+		private final int index;
+		private final GameLogStreamReader reader;
+		private GameLogMessage message;
+
+
+		private boolean next()
 		{
-			GameLogMessage msg = fullLog.get(index);
-			var verdict = filter.apply(msg);
+			message = reader.hasNext() ? reader.next() : null;
+			return message != null;
+		}
 
-			if(verdict == GameLogCompareResult.MATCH && removeStartIndex < 0)
-			{
-				removeStartIndex = index;
-			}
 
-			if(verdict == GameLogCompareResult.MISMATCH && removeStartIndex > 0)
+		private void close()
+		{
+			try
+			{
+				reader.close();
+			} catch (IOException e)
 			{
-				long timeAdjust = msg.getTimestampNs() - fullLog.get(removeStartIndex).getTimestampNs();
-				timeOffset -= timeAdjust;
-				fullLog.subList(removeStartIndex, index).clear();
-				index = removeStartIndex;
-				removeStartIndex = -1;
+				log.warn("Could not close logfile", e);
 			}
-
-			msg.adjustTimestamp(timeOffset);
 		}
 	}
-
-
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Bounded lock-free queue for multiple producers and a single consumer.
+ * <p>
+ * Each slot has a sequence number that tells producers and the consumer whose turn it is. Producers claim a slot
+ * by incrementing the tail with a CAS, so they never block each other and {@link #offer(Object)} fails immediately
+ * if the buffer is full.
+ *
+ * @param <T> the type of the elements
+ */
+class MpscRingBuffer<T>
+{
+	private final int mask;
+	private final AtomicReferenceArray<T> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+
+	/**
+	 * @param capacity the minimum capacity, rounded up to the next power of two
+	 */
+	MpscRingBuffer(final int capacity)
+	{
+		if (capacity < 1 || capacity > (1 << 30))
+		{
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		size = Math.max(size, 1);
+		mask = size - 1;
+		elements = new AtomicReferenceArray<>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+		{
+			sequences.set(i, i);
+		}
+	}
+
+
+	/**
+	 * Add an element. May be called from any thread.
+	 *
+	 * @param element the element
+	 * @return false, if the buffer is full
+	 */
+	boolean offer(final T element)
+	{
+		while (true)
+		{
+			long pos = tail.get();
+			int slot = (int) (pos & mask);
+			long diff = sequences.get(slot) - pos;
+			if (diff == 0)
+			{
+				if (tail.compareAndSet(pos, pos + 1))
+				{
+					elements.lazySet(slot, element);
+					// publish the element to the consumer
+					sequences.set(slot, pos + 1);
+					return true;
+				}
+			} else if (diff < 0)
+			{
+				return false;
+			}
+			// another producer claimed the slot, try the next one
+		}
+	}
+
+
+	/**
+	 * Remove the oldest element. Must only be called from the consumer thread.
+	 *
+	 * @return the element or null, if the buffer is empty
+	 */
+	T poll()
+	{
+		long pos = head.get();
+		int slot = (int) (pos & mask);
+		if (sequences.get(slot) != pos + 1)
+		{
+			return null;
+		}
+		T element = elements.get(slot);
+		elements.lazySet(slot, null);
+		head.lazySet(pos + 1);
+		// release the slot for the producers of the next round
+		sequences.set(slot, pos + mask + 1);
+		return element;
+	}
+
+
+	/**
+	 * Must only be called from the consumer thread.
+	 *
+	 * @return true, if there is no element to poll
+	 */
+	boolean isEmpty()
+	{
+		long pos = head.get();
+		return sequences.get((int) (pos & mask)) != pos + 1;
+	}
+
+
+	/**
+	 * @return the number of elements in the buffer, only an estimate while producers are active
+	 */
+	int size()
+	{
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+
+	/**
+	 * @return the capacity of the buffer
+	 */
+	int capacity()
+	{
+		return mask + 1;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+/**
+ * Access to the messages of a game log by their index.
+ */
+public interface RandomAccessGameLog
+{
+	/**
+	 * @return the number of messages
+	 */
+	int getNumMessages();
+
+
+	/**
+	 * @param index the index of the message
+	 * @return the message including its payload
+	 */
+	GameLogMessage getMessage(int index);
+
+
+	/**
+	 * @param index the index of the message
+	 * @return the receiver timestamp of the message [ns]
+	 */
+	default long getTimestampNs(int index)
+	{
+		return getMessage(index).getTimestampNs();
+	}
+
+
+	/**
+	 * @param index the index of the message
+	 * @return the type of the message
+	 */
+	default EMessageType getType(int index)
+	{
+		return getMessage(index).getType();
+	}
+
+
+	/**
+	 * Find a message by its timestamp with a binary search.
+	 * Messages are expected to be sorted by their timestamps, like they are recorded.
+	 *
+	 * @param timestampNs the receiver timestamp [ns]
+	 * @return the index of the first message that is not older than the given timestamp,
+	 * or the number of messages if there is none
+	 */
+	default int findMessage(long timestampNs)
+	{
+		int low = 0;
+		int high = getNumMessages();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (getTimestampNs(mid) < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
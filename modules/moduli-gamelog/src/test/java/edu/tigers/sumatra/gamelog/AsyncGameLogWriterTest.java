@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class AsyncGameLogWriterTest
+{
+	/** the writer stores its files in the game log folder of the working directory */
+	private static final Path GAMELOG_PATH = Path.of("data", "gamelog");
+
+	private final String filename = "AsyncGameLogWriterTest-" + System.nanoTime();
+	private final AsyncGameLogWriter writer = new AsyncGameLogWriter(GameLogType.LOG_FILE, 1 << 12);
+
+
+	@After
+	public void after() throws IOException
+	{
+		writer.close();
+		try (Stream<Path> files = Files.list(GAMELOG_PATH))
+		{
+			for (Path file : files.filter(f -> f.getFileName().toString().startsWith(filename)).toList())
+			{
+				Files.delete(file);
+			}
+		}
+	}
+
+
+	private List<GameLogMessage> read(final String name) throws IOException
+	{
+		Path path = GAMELOG_PATH.resolve(name + ".log");
+		try (Stream<GameLogMessage> messages = GameLogStreamReader.open(path.toString(), List.of()).stream())
+		{
+			return messages.toList();
+		}
+	}
+
+
+	@Test
+	public void testWriteAndClose() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(100);
+		writer.open(filename);
+		assertThat(writer.isOpen()).isTrue();
+		messages.forEach(writer::write);
+		writer.close();
+
+		assertThat(writer.isOpen()).isFalse();
+		assertThat(writer.getNumWritten()).isEqualTo(messages.size());
+		assertThat(writer.getNumDropped()).isZero();
+		TestGameLogs.assertSameMessages(read(filename), messages);
+	}
+
+
+	@Test
+	public void testMessagesAfterCloseAreIgnored() throws IOException
+	{
+		writer.open(filename);
+		writer.write(TestGameLogs.messages(1).get(0));
+		writer.close();
+		writer.write(TestGameLogs.messages(2).get(1));
+
+		String next = filename + "-next";
+		writer.open(next);
+		writer.close();
+
+		assertThat(read(filename)).hasSize(1);
+		assertThat(read(next)).isEmpty();
+	}
+
+
+	@Test
+	public void testMultipleProducers() throws IOException, InterruptedException
+	{
+		int numProducers = 3;
+		int numMessagesPerProducer = 1000;
+		writer.open(filename);
+
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < numProducers; p++)
+		{
+			int producer = p;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < numMessagesPerProducer; i++)
+				{
+					byte[] data = ByteBuffer.allocate(2 * Integer.BYTES).putInt(producer).putInt(i).array();
+					writer.write(new GameLogMessage(System.nanoTime(), EMessageType.UNKNOWN, data));
+					if (i % 100 == 0)
+					{
+						// let the writer thread run out of messages and park
+						sleepQuietly();
+					}
+				}
+			}, "Producer" + p);
+			thread.start();
+			producers.add(thread);
+		}
+		for (Thread producer : producers)
+		{
+			producer.join();
+		}
+		writer.close();
+
+		assertThat(writer.getNumDropped()).isZero();
+		assertThat(writer.getNumWritten()).isEqualTo(numProducers * numMessagesPerProducer);
+		int[] nextExpected = new int[numProducers];
+		for (GameLogMessage message : read(filename))
+		{
+			ByteBuffer data = ByteBuffer.wrap(message.getData());
+			int producer = data.getInt();
+			// the messages of each producer are written in order, without gaps
+			assertThat(data.getInt()).isEqualTo(nextExpected[producer]);
+			nextExpected[producer]++;
+		}
+		for (int n : nextExpected)
+		{
+			assertThat(n).isEqualTo(numMessagesPerProducer);
+		}
+	}
+
+
+	private static void sleepQuietly()
+	{
+		try
+		{
+			Thread.sleep(1);
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
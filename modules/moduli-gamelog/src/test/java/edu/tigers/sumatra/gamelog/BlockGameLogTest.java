@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class BlockGameLogTest
+{
+	private static final int BLOCK_SIZE = 256;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<GameLogMessage> messages = TestGameLogs.messages(100);
+
+
+	private Path writeLog() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.writeBlockLog(path, messages, BLOCK_SIZE);
+		return path;
+	}
+
+
+	private List<GameLogMessage> readAll(final RandomAccessGameLog gameLog)
+	{
+		List<GameLogMessage> read = new ArrayList<>();
+		for (int i = 0; i < gameLog.getNumMessages(); i++)
+		{
+			read.add(gameLog.getMessage(i));
+		}
+		return read;
+	}
+
+
+	private List<GameLogMessage> readWithReader(final Path path)
+	{
+		GameLogReader reader = new GameLogReader();
+		reader.loadFileBlocking(path.toString());
+		return reader.getMessages();
+	}
+
+
+	private List<GameLogMessage> readWithStreamReader(final Path path) throws IOException
+	{
+		try (Stream<GameLogMessage> stream = GameLogStreamReader.open(path.toString(), List.of()).stream())
+		{
+			return stream.toList();
+		}
+	}
+
+
+	/**
+	 * Overwrite the end of the file with the given bytes
+	 */
+	private void overwriteEnd(final Path path, final ByteBuffer data) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.write(data, channel.size() - data.remaining());
+		}
+	}
+
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		Path path = writeLog();
+		assertThat(BlockGameLog.isBlockGameLog(path)).isTrue();
+
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			assertThat(gameLog.getFileType()).isEqualTo(GameLogType.BLOCK_LOG_FILE);
+			assertThat(gameLog.getNumBlocks()).isGreaterThan(5);
+			assertThat(gameLog.getNumMessages()).isEqualTo(messages.size());
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+			for (int i = messages.size() - 1; i >= 0; i -= 7)
+			{
+				assertThat(gameLog.getTimestampNs(i)).isEqualTo(messages.get(i).getTimestampNs());
+				assertThat(gameLog.getType(i)).isEqualTo(messages.get(i).getType());
+				assertThat(gameLog.findMessage(messages.get(i).getTimestampNs())).isEqualTo(i);
+				assertThat(gameLog.findMessage(messages.get(i).getTimestampNs() - 1)).isEqualTo(i);
+			}
+			assertThat(gameLog.findMessage(Long.MAX_VALUE)).isEqualTo(messages.size());
+
+			List<GameLogMessage> refereeMessages = new ArrayList<>();
+			gameLog.forEachMessage(EnumSet.of(EMessageType.SSL_REFBOX_2013), 2, refereeMessages::add);
+			TestGameLogs.assertSameMessages(refereeMessages,
+					messages.stream().filter(m -> m.getType() == EMessageType.SSL_REFBOX_2013).toList());
+		}
+
+		TestGameLogs.assertSameMessages(readWithReader(path), messages);
+		TestGameLogs.assertSameMessages(readWithStreamReader(path), messages);
+	}
+
+
+	@Test
+	public void testRoundTripWithWriter() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.BLOCK_LOG_FILE, messages);
+
+		TestGameLogs.assertSameMessages(readWithReader(path), messages);
+		TestGameLogs.assertSameMessages(readWithStreamReader(path), messages);
+	}
+
+
+	@Test
+	public void testEmptyLog() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.writeBlockLog(path, List.of(), BLOCK_SIZE);
+
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			assertThat(gameLog.getNumBlocks()).isZero();
+			assertThat(gameLog.getNumMessages()).isZero();
+			assertThat(gameLog.findMessage(0)).isZero();
+		}
+	}
+
+
+	@Test
+	public void testTruncatedLog() throws IOException
+	{
+		Path path = writeLog();
+		// an interrupted recording: no index and an incomplete last block
+		TestGameLogs.truncate(path, (int) (Files.size(path) / 2));
+
+		List<GameLogMessage> read;
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			read = readAll(gameLog);
+		}
+		assertThat(read).isNotEmpty();
+		assertThat(read.size()).isLessThan(messages.size());
+		TestGameLogs.assertSameMessages(read, messages.subList(0, read.size()));
+		TestGameLogs.assertSameMessages(readWithReader(path), read);
+		TestGameLogs.assertSameMessages(readWithStreamReader(path), read);
+	}
+
+
+	@Test
+	public void testMissingIndex() throws IOException
+	{
+		Path path = writeLog();
+		int numBlocks;
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			numBlocks = gameLog.getNumBlocks();
+		}
+		// all blocks are complete, but the terminator, the index and the footer are missing
+		TestGameLogs.truncate(path, 2 * Integer.BYTES + numBlocks * BlockGameLogFormat.BLOCK_INFO_SIZE
+				+ BlockGameLogFormat.FOOTER_SIZE);
+
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			assertThat(gameLog.getNumBlocks()).isEqualTo(numBlocks);
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+			assertThat(gameLog.findMessage(messages.get(42).getTimestampNs())).isEqualTo(42);
+		}
+		TestGameLogs.assertSameMessages(readWithReader(path), messages);
+	}
+
+
+	@Test
+	public void testInvalidIndexOffset() throws IOException
+	{
+		Path path = writeLog();
+		overwriteEnd(path, ByteBuffer.allocate(Long.BYTES).putLong(0, Long.MAX_VALUE));
+
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+		}
+	}
+
+
+	@Test
+	public void testInvalidNumberOfBlocks() throws IOException
+	{
+		Path path = writeLog();
+		long indexOffset;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			ByteBuffer footer = ByteBuffer.allocate(Long.BYTES);
+			channel.read(footer, channel.size() - Long.BYTES);
+			indexOffset = footer.getLong(0);
+			// a huge number of blocks must not be allocated
+			channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), indexOffset + Integer.BYTES);
+		}
+
+		try (BlockGameLog gameLog = BlockGameLog.open(path))
+		{
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.moduli.exceptions.StartModuleException;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class GameLogPlayerTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final GameLogPlayer player = new GameLogPlayer();
+	private final BlockingQueue<Integer> publishedFrames = new LinkedBlockingQueue<>();
+
+
+	@After
+	public void after()
+	{
+		player.stopModule();
+	}
+
+
+	/**
+	 * Start the paused player and publish the first frame after the seek
+	 */
+	private int playFirstFrameAfterSeek(final RandomAccessGameLog gameLog, final long timestampNs)
+			throws InterruptedException, StartModuleException
+	{
+		player.addObserver(new GameLogPlayerObserver()
+		{
+			@Override
+			public void onNewGameLogMessage(final GameLogMessage message, final int index)
+			{
+				publishedFrames.add(index);
+			}
+
+
+			@Override
+			public void onGameLogTimeJump()
+			{
+				// not relevant
+			}
+		});
+		player.setPause(true);
+		player.seekToTimestamp(timestampNs);
+		player.doSteps(1);
+		player.setLogfile(gameLog);
+		player.startModule();
+
+		Integer frame = publishedFrames.poll(5, TimeUnit.SECONDS);
+		assertThat(frame).isNotNull();
+		return frame;
+	}
+
+
+	@Test
+	public void testSeekToTimestamp() throws IOException, InterruptedException, StartModuleException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(30);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			// between two messages, the later one is played
+			assertThat(playFirstFrameAfterSeek(gameLog, messages.get(12).getTimestampNs() - 1)).isEqualTo(12);
+		}
+	}
+
+
+	@Test
+	public void testSeekBehindLastMessage() throws IOException, InterruptedException, StartModuleException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(30);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			assertThat(playFirstFrameAfterSeek(gameLog, Long.MAX_VALUE)).isEqualTo(messages.size() - 1);
+		}
+	}
+}
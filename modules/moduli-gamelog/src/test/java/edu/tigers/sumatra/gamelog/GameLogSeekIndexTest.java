@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class GameLogSeekIndexTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final CountingExtractor extractor = new CountingExtractor();
+
+
+	/**
+	 * Creates a referee command marker for each referee message, with the index of the message as value
+	 */
+	private static class CountingExtractor implements GameLogMarkerExtractor
+	{
+		private int numExtracted = 0;
+
+
+		@Override
+		public EMessageType getMessageType()
+		{
+			return EMessageType.SSL_REFBOX_2013;
+		}
+
+
+		@Override
+		public List<GameLogMarker> extract(final GameLogMessage message, final int index)
+		{
+			numExtracted++;
+			return List.of(new GameLogMarker(index, message.getTimestampNs(), EGameLogMarkerType.REFEREE_COMMAND,
+					String.valueOf(index)));
+		}
+	}
+
+
+	private Path writeLog(final List<GameLogMessage> messages) throws IOException
+	{
+		Path path = folder.getRoot().toPath().resolve("test.log");
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		return path;
+	}
+
+
+	private GameLogSeekIndex loadOrBuild(final Path path) throws IOException
+	{
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			return GameLogSeekIndex.loadOrBuild(path, gameLog, List.of(extractor));
+		}
+	}
+
+
+	@Test
+	public void testBuild() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			GameLogSeekIndex index = GameLogSeekIndex.build(gameLog, List.of(extractor));
+
+			// every third message is a referee message
+			assertThat(extractor.numExtracted).isEqualTo(10);
+			assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND)).hasSize(10);
+			assertThat(index.getMarkers(EGameLogMarkerType.GAME_EVENT)).isEmpty();
+			assertThat(index.findNextMarker(3, EGameLogMarkerType.REFEREE_COMMAND).map(GameLogMarker::messageIndex))
+					.contains(6);
+			assertThat(index.findNextMarker(0, EGameLogMarkerType.REFEREE_COMMAND, "9")
+					.map(GameLogMarker::messageIndex)).contains(9);
+			assertThat(index.findNextMarker(27, EGameLogMarkerType.REFEREE_COMMAND)).isEmpty();
+			assertThat(index.findPreviousMarker(6, EGameLogMarkerType.REFEREE_COMMAND).map(GameLogMarker::messageIndex))
+					.contains(3);
+			assertThat(index.findPreviousMarker(0, EGameLogMarkerType.REFEREE_COMMAND)).isEmpty();
+		}
+	}
+
+
+	@Test
+	public void testSaveAndLoad() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+		Path indexFile = GameLogSeekIndex.getIndexFile(path);
+		assertThat(indexFile.getFileName()).hasToString("test.log.idx");
+
+		GameLogSeekIndex built = loadOrBuild(path);
+		assertThat(indexFile).exists();
+		assertThat(extractor.numExtracted).isEqualTo(10);
+
+		GameLogSeekIndex loaded = loadOrBuild(path);
+		assertThat(extractor.numExtracted).as("index is loaded, not built again").isEqualTo(10);
+		for (EGameLogMarkerType type : EGameLogMarkerType.values())
+		{
+			assertThat(loaded.getMarkers(type)).isEqualTo(built.getMarkers(type));
+		}
+		assertThat(loaded.findNextMarker(0, EGameLogMarkerType.REFEREE_COMMAND, "12")
+				.map(GameLogMarker::timestampNs)).isEqualTo(
+				built.findNextMarker(0, EGameLogMarkerType.REFEREE_COMMAND, "12").map(GameLogMarker::timestampNs));
+	}
+
+
+	@Test
+	public void testRebuildIfLogChanged() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+		loadOrBuild(path);
+		assertThat(extractor.numExtracted).isEqualTo(10);
+
+		// a longer log, e.g. a recording that continued
+		FileTime lastModified = Files.getLastModifiedTime(path);
+		writeLog(TestGameLogs.messages(60));
+		Files.setLastModifiedTime(path, lastModified);
+		GameLogSeekIndex index = loadOrBuild(path);
+		assertThat(extractor.numExtracted).isEqualTo(10 + 20);
+		assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND)).hasSize(20);
+
+		// the rebuilt index is stored and up-to-date again
+		assertThat(GameLogSeekIndex.load(GameLogSeekIndex.getIndexFile(path), path)).isPresent();
+	}
+
+
+	@Test
+	public void testRebuildIfLogModified() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+		Path indexFile = GameLogSeekIndex.getIndexFile(path);
+		loadOrBuild(path);
+		assertThat(GameLogSeekIndex.load(indexFile, path)).isPresent();
+
+		// same size, but modified later
+		Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 2000));
+		assertThat(GameLogSeekIndex.load(indexFile, path)).isEmpty();
+
+		loadOrBuild(path);
+		assertThat(extractor.numExtracted).isEqualTo(2 * 10);
+		assertThat(GameLogSeekIndex.load(indexFile, path)).isPresent();
+	}
+
+
+	@Test
+	public void testRebuildIfIndexInvalid() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+		Path indexFile = GameLogSeekIndex.getIndexFile(path);
+
+		// unknown header
+		Files.write(indexFile, new byte[] { 0, 3, 'a', 'b', 'c' });
+		GameLogSeekIndex index = loadOrBuild(path);
+		assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND)).hasSize(10);
+		assertThat(GameLogSeekIndex.load(indexFile, path)).isPresent();
+
+		// truncated index
+		byte[] valid = Files.readAllBytes(indexFile);
+		Files.write(indexFile, Arrays.copyOf(valid, valid.length - 3));
+		index = loadOrBuild(path);
+		assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND)).hasSize(10);
+		assertThat(extractor.numExtracted).isEqualTo(2 * 10);
+
+		// corrupt marker type of the last marker, which has a value of two characters
+		byte[] corrupt = Files.readAllBytes(indexFile);
+		corrupt[corrupt.length - 5] = (byte) 0xFF;
+		Files.write(indexFile, corrupt);
+		index = loadOrBuild(path);
+		assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND)).hasSize(10);
+		assertThat(extractor.numExtracted).isEqualTo(3 * 10);
+	}
+
+
+	@Test
+	public void testRebuildIfNumberOfMessagesDiffers() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(30));
+		loadOrBuild(path);
+
+		// the same file, but loaded with a filter
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of((timestamp, type) -> type == EMessageType.SSL_REFBOX_2013)))
+		{
+			GameLogSeekIndex index = GameLogSeekIndex.loadOrBuild(path, gameLog, List.of(extractor));
+			assertThat(extractor.numExtracted).isEqualTo(2 * 10);
+			assertThat(index.getMarkers(EGameLogMarkerType.REFEREE_COMMAND).get(1).messageIndex()).isEqualTo(1);
+		}
+	}
+}
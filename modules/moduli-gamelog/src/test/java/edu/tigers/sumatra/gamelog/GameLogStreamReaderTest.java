@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class GameLogStreamReaderTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	private List<GameLogMessage> readAll(final Path path, final List<MessageFilter> filters) throws IOException
+	{
+		try (Stream<GameLogMessage> stream = GameLogStreamReader.open(path.toString(), filters).stream())
+		{
+			return stream.toList();
+		}
+	}
+
+
+	private static void appendMessageHeader(final Path path, final int msgSize) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND)))
+		{
+			out.writeLong(2_000_000_000L);
+			out.writeInt(EMessageType.SSL_VISION_2014.getId());
+			out.writeInt(msgSize);
+		}
+	}
+
+
+	@Test
+	public void testReadAllMessages() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(50);
+		for (String name : List.of("test.log", "test.log.gz"))
+		{
+			Path path = folder.getRoot().toPath().resolve(name);
+			TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+
+			TestGameLogs.assertSameMessages(readAll(path, List.of()), messages);
+		}
+	}
+
+
+	@Test
+	public void testHeader() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, TestGameLogs.messages(1));
+
+		try (GameLogStreamReader reader = GameLogStreamReader.open(path.toString(), List.of()))
+		{
+			assertThat(reader.getFileType()).isEqualTo(GameLogType.LOG_FILE);
+			assertThat(reader.getVersionNumber()).isEqualTo(1);
+		}
+	}
+
+
+	@Test
+	public void testUnknownHeader() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		Files.write(path, "NOT_A_LOG_FILE".getBytes());
+
+		assertThatThrownBy(() -> GameLogStreamReader.open(path.toString(), List.of()))
+				.isInstanceOf(IOException.class);
+	}
+
+
+	@Test
+	public void testTruncatedLastMessage() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(20);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		TestGameLogs.truncate(path, 3);
+
+		try (GameLogStreamReader reader = GameLogStreamReader.open(path.toString(), List.of()))
+		{
+			for (int i = 0; i < messages.size() - 1; i++)
+			{
+				assertThat(reader.hasNext()).isTrue();
+				assertThat(reader.next().getTimestampNs()).isEqualTo(messages.get(i).getTimestampNs());
+			}
+			assertThat(reader.hasNext()).isFalse();
+			assertThatThrownBy(reader::next).isInstanceOf(NoSuchElementException.class);
+		}
+	}
+
+
+	@Test
+	public void testNegativeMessageSize() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(5);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		appendMessageHeader(path, -1);
+
+		try (GameLogStreamReader reader = GameLogStreamReader.open(path.toString(), List.of()))
+		{
+			for (int i = 0; i < messages.size(); i++)
+			{
+				assertThat(reader.next().getTimestampNs()).isEqualTo(messages.get(i).getTimestampNs());
+			}
+			assertThatThrownBy(reader::hasNext)
+					.isInstanceOf(UncheckedIOException.class)
+					.hasCauseInstanceOf(IOException.class);
+		}
+	}
+
+
+	@Test
+	public void testMessageSizeBeyondEndOfFile() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(5);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		appendMessageHeader(path, Integer.MAX_VALUE);
+		Files.write(path, new byte[100], StandardOpenOption.APPEND);
+
+		// read like a truncated last message, without allocating the size of the corrupt header
+		TestGameLogs.assertSameMessages(readAll(path, List.of()), messages);
+
+		Path gzPath = folder.getRoot().toPath().resolve("test.log.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzPath)))
+		{
+			out.write(Files.readAllBytes(path));
+		}
+		TestGameLogs.assertSameMessages(readAll(gzPath, List.of()), messages);
+	}
+
+
+	@Test
+	public void testFilter() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(30);
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+
+		List<GameLogMessage> visionMessages = messages.stream()
+				.filter(m -> m.getType() == EMessageType.SSL_VISION_2014)
+				.toList();
+		TestGameLogs.assertSameMessages(
+				readAll(path, List.of(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_VISION_2014)))),
+				visionMessages);
+
+		// skipping the truncated payload of a filtered message ends the iteration without an error
+		TestGameLogs.truncate(path, 3);
+		assertThat(readAll(path, List.of((timestamp, type) -> false))).isEmpty();
+	}
+
+
+	@Test
+	public void testEmptyLog() throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, List.of());
+
+		assertThat(readAll(path, List.of())).isEmpty();
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class MappedGameLogTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	private Path writeLog(final List<GameLogMessage> messages) throws IOException
+	{
+		Path path = folder.newFile("test.log").toPath();
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		return path;
+	}
+
+
+	private List<GameLogMessage> readAll(final RandomAccessGameLog gameLog)
+	{
+		List<GameLogMessage> messages = new ArrayList<>();
+		for (int i = 0; i < gameLog.getNumMessages(); i++)
+		{
+			messages.add(gameLog.getMessage(i));
+		}
+		return messages;
+	}
+
+
+	@Test
+	public void testReadAllMessages() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(50);
+		Path path = writeLog(messages);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			assertThat(gameLog.getFileType()).isEqualTo(GameLogType.LOG_FILE);
+			assertThat(gameLog.getNumMessages()).isEqualTo(messages.size());
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+			for (int i = 0; i < messages.size(); i++)
+			{
+				assertThat(gameLog.getTimestampNs(i)).isEqualTo(messages.get(i).getTimestampNs());
+				assertThat(gameLog.getType(i)).isEqualTo(messages.get(i).getType());
+				assertThat(gameLog.getSize(i)).isEqualTo(messages.get(i).getData().length);
+			}
+		}
+	}
+
+
+	@Test
+	public void testMessagesAcrossChunks() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(50);
+		Path path = writeLog(messages);
+
+		// chunks smaller than a message header, smaller than most messages and larger than most messages
+		for (long chunkSize : new long[] { 7, 37, 100 })
+		{
+			try (MappedGameLog gameLog = MappedGameLog.open(path, List.of(), chunkSize))
+			{
+				assertThat(gameLog.getNumMessages()).isEqualTo(messages.size());
+				TestGameLogs.assertSameMessages(readAll(gameLog), messages);
+			}
+		}
+	}
+
+
+	@Test
+	public void testTruncatedLastMessage() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(20);
+		Path path = writeLog(messages);
+		TestGameLogs.truncate(path, 3);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of(), 64))
+		{
+			assertThat(gameLog.getNumMessages()).isEqualTo(messages.size() - 1);
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages.subList(0, messages.size() - 1));
+		}
+	}
+
+
+	@Test
+	public void testTruncatedMessageHeader() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(20);
+		Path path = writeLog(messages);
+		GameLogMessage last = messages.get(messages.size() - 1);
+		TestGameLogs.truncate(path, last.getData().length + TestGameLogs.MESSAGE_HEADER_SIZE - 5);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			TestGameLogs.assertSameMessages(readAll(gameLog), messages.subList(0, messages.size() - 1));
+		}
+	}
+
+
+	@Test
+	public void testFilter() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(30);
+		Path path = writeLog(messages);
+		List<GameLogMessage> refereeMessages = messages.stream()
+				.filter(m -> m.getType() == EMessageType.SSL_REFBOX_2013)
+				.toList();
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path,
+				List.of(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_REFBOX_2013))), 37))
+		{
+			TestGameLogs.assertSameMessages(readAll(gameLog), refereeMessages);
+		}
+
+		// all filters have to accept a message
+		long maxTimestamp = messages.get(15).getTimestampNs();
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of(
+				new MessageTypeFilter(EnumSet.of(EMessageType.SSL_REFBOX_2013)),
+				(timestamp, type) -> timestamp <= maxTimestamp)))
+		{
+			TestGameLogs.assertSameMessages(readAll(gameLog),
+					refereeMessages.stream().filter(m -> m.getTimestampNs() <= maxTimestamp).toList());
+		}
+	}
+
+
+	@Test
+	public void testFindMessage() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(30);
+		Path path = writeLog(messages);
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			assertThat(gameLog.findMessage(0)).isZero();
+			assertThat(gameLog.findMessage(messages.get(0).getTimestampNs())).isZero();
+			assertThat(gameLog.findMessage(messages.get(10).getTimestampNs())).isEqualTo(10);
+			assertThat(gameLog.findMessage(messages.get(10).getTimestampNs() + 1)).isEqualTo(11);
+			assertThat(gameLog.findMessage(Long.MAX_VALUE)).isEqualTo(messages.size());
+		}
+	}
+
+
+	@Test
+	public void testIndexOutOfBounds() throws IOException
+	{
+		Path path = writeLog(TestGameLogs.messages(3));
+
+		try (MappedGameLog gameLog = MappedGameLog.open(path, List.of()))
+		{
+			assertThatThrownBy(() -> gameLog.getMessage(3)).isInstanceOf(IndexOutOfBoundsException.class);
+			assertThatThrownBy(() -> gameLog.getTimestampNs(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+		}
+	}
+
+
+	@Test
+	public void testCompressedLogIsRejected() throws IOException
+	{
+		Path path = folder.getRoot().toPath().resolve("test.log.gz");
+		TestGameLogs.write(path, GameLogType.LOG_FILE, TestGameLogs.messages(3));
+
+		assertThatThrownBy(() -> MappedGameLog.open(path, List.of())).isInstanceOf(IOException.class);
+	}
+}
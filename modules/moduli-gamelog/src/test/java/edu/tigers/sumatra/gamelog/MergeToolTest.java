@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class MergeToolTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	private static GameLogMessage message(final long timestampNs, final EMessageType type, final int id)
+	{
+		return new GameLogMessage(timestampNs, type, new byte[] { (byte) id });
+	}
+
+
+	private Path write(final String name, final List<GameLogMessage> messages)
+	{
+		Path path = folder.getRoot().toPath().resolve(name);
+		TestGameLogs.write(path, GameLogType.LOG_FILE, messages);
+		return path;
+	}
+
+
+	private List<GameLogMessage> merge(final MergeTool mergeTool, final Path... inputs) throws IOException
+	{
+		Path output = folder.getRoot().toPath().resolve("merged.log");
+		mergeTool.withInputFiles(Stream.of(inputs).map(Path::toString).toList())
+				.withOutputFile(output.toString())
+				.mergeBlocking();
+		try (Stream<GameLogMessage> stream = GameLogStreamReader.open(output.toString(), List.of()).stream())
+		{
+			return stream.toList();
+		}
+	}
+
+
+	private static List<Integer> ids(final List<GameLogMessage> messages)
+	{
+		return messages.stream().map(m -> (int) m.getData()[0]).toList();
+	}
+
+
+	private static List<Long> timestamps(final List<GameLogMessage> messages)
+	{
+		return messages.stream().map(GameLogMessage::getTimestampNs).toList();
+	}
+
+
+	@Test
+	public void testInterleaveByTimestamp() throws IOException
+	{
+		Path first = write("first.log", List.of(
+				message(100, EMessageType.SSL_VISION_2014, 1),
+				message(300, EMessageType.SSL_VISION_2014, 3),
+				message(500, EMessageType.SSL_VISION_2014, 5)));
+		Path second = write("second.log", List.of(
+				message(200, EMessageType.SSL_VISION_2014, 2),
+				message(400, EMessageType.SSL_VISION_2014, 4),
+				message(600, EMessageType.SSL_VISION_2014, 6)));
+
+		List<GameLogMessage> merged = merge(new MergeTool(), second, first);
+
+		assertThat(ids(merged)).containsExactly(1, 2, 3, 4, 5, 6);
+		assertThat(timestamps(merged)).containsExactly(100L, 200L, 300L, 400L, 500L, 600L);
+	}
+
+
+	@Test
+	public void testEqualTimestampsInInputOrder() throws IOException
+	{
+		Path first = write("first.log", List.of(
+				message(100, EMessageType.SSL_VISION_2014, 1),
+				message(200, EMessageType.SSL_VISION_2014, 3)));
+		Path second = write("second.log", List.of(
+				message(100, EMessageType.SSL_VISION_2014, 2),
+				message(200, EMessageType.SSL_VISION_2014, 4)));
+
+		assertThat(ids(merge(new MergeTool(), first, second))).containsExactly(1, 2, 3, 4);
+		assertThat(ids(merge(new MergeTool(), second, first))).containsExactly(2, 1, 4, 3);
+	}
+
+
+	@Test
+	public void testMergeGeneratedLogs() throws IOException
+	{
+		List<GameLogMessage> messages = TestGameLogs.messages(40);
+		Path even = write("even.log", messages.stream().filter(m -> messages.indexOf(m) % 2 == 0).toList());
+		Path odd = write("odd.log", messages.stream().filter(m -> messages.indexOf(m) % 2 == 1).toList());
+
+		TestGameLogs.assertSameMessages(merge(new MergeTool(), odd, even), messages);
+	}
+
+
+	@Test
+	public void testMessageFilters() throws IOException
+	{
+		Path first = write("first.log", List.of(
+				message(100, EMessageType.SSL_REFBOX_2013, 1),
+				message(300, EMessageType.SSL_VISION_2014, 3)));
+		Path second = write("second.log", List.of(
+				message(200, EMessageType.SSL_VISION_2014, 2),
+				message(400, EMessageType.SSL_REFBOX_2013, 4)));
+
+		List<GameLogMessage> merged = merge(new MergeTool()
+				.withMessageFilters(List.of(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_REFBOX_2013)))),
+				first, second);
+
+		assertThat(ids(merged)).containsExactly(1, 4);
+	}
+
+
+	@Test
+	public void testRemoveFilteredRange() throws IOException
+	{
+		// refbox messages start (id 2) and end (id 5) the range to remove
+		Path first = write("first.log", List.of(
+				message(100, EMessageType.SSL_VISION_2014, 1),
+				message(200, EMessageType.SSL_REFBOX_2013, 2),
+				message(400, EMessageType.SSL_VISION_2014, 4),
+				message(600, EMessageType.SSL_VISION_2014, 6)));
+		Path second = write("second.log", List.of(
+				message(300, EMessageType.SSL_VISION_2014, 3),
+				message(500, EMessageType.SSL_REFBOX_2013, 5),
+				message(700, EMessageType.SSL_VISION_2014, 7)));
+
+		List<GameLogMessage> merged = merge(new MergeTool().withFilter(this::startStopFilter), first, second);
+
+		assertThat(ids(merged)).containsExactly(1, 5, 6, 7);
+		assertThat(timestamps(merged)).containsExactly(100L, 200L, 300L, 400L);
+	}
+
+
+	@Test
+	public void testRemoveOpenRangeAtEnd() throws IOException
+	{
+		Path first = write("first.log", List.of(
+				message(100, EMessageType.SSL_VISION_2014, 1),
+				message(300, EMessageType.SSL_REFBOX_2013, 2),
+				message(500, EMessageType.SSL_VISION_2014, 4)));
+		Path second = write("second.log", List.of(
+				message(200, EMessageType.SSL_VISION_2014, 3),
+				message(400, EMessageType.SSL_VISION_2014, 5)));
+
+		List<GameLogMessage> merged = merge(new MergeTool().withFilter(this::startStopFilter), first, second);
+
+		assertThat(ids(merged)).containsExactly(1, 3);
+		assertThat(timestamps(merged)).containsExactly(100L, 200L);
+	}
+
+
+	@Test
+	public void testMissingInputWritesNoOutput() throws IOException
+	{
+		Path first = write("first.log", TestGameLogs.messages(3));
+		Path output = folder.getRoot().toPath().resolve("merged.log");
+
+		new MergeTool()
+				.withInputFiles(List.of(first.toString(), folder.getRoot().toPath().resolve("missing.log").toString()))
+				.withOutputFile(output.toString())
+				.mergeBlocking();
+
+		assertThat(Files.exists(output)).isFalse();
+	}
+
+
+	/**
+	 * Refbox messages with an even id open a range, the ones with an odd id close it.
+	 */
+	private GameLogCompareResult startStopFilter(final GameLogMessage msg)
+	{
+		if (msg.getType() != EMessageType.SSL_REFBOX_2013)
+		{
+			return GameLogCompareResult.IGNORE;
+		}
+		return msg.getData()[0] % 2 == 0 ? GameLogCompareResult.MATCH : GameLogCompareResult.MISMATCH;
+	}
+}
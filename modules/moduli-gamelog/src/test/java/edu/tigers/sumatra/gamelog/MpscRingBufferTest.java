@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class MpscRingBufferTest
+{
+	@Test
+	public void testCapacity()
+	{
+		assertThat(new MpscRingBuffer<>(1).capacity()).isEqualTo(1);
+		assertThat(new MpscRingBuffer<>(5).capacity()).isEqualTo(8);
+		assertThat(new MpscRingBuffer<>(8).capacity()).isEqualTo(8);
+		assertThatThrownBy(() -> new MpscRingBuffer<>(0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void testSingleProducer()
+	{
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+		assertThat(buffer.isEmpty()).isTrue();
+		assertThat(buffer.poll()).isNull();
+
+		// wrap around a few times
+		for (int round = 0; round < 3; round++)
+		{
+			for (int i = 0; i < 4; i++)
+			{
+				assertThat(buffer.offer(round * 10 + i)).isTrue();
+			}
+			assertThat(buffer.offer(-1)).as("buffer is full").isFalse();
+			assertThat(buffer.size()).isEqualTo(4);
+			assertThat(buffer.isEmpty()).isFalse();
+
+			for (int i = 0; i < 4; i++)
+			{
+				assertThat(buffer.poll()).isEqualTo(round * 10 + i);
+			}
+			assertThat(buffer.poll()).isNull();
+			assertThat(buffer.isEmpty()).isTrue();
+			assertThat(buffer.size()).isZero();
+		}
+	}
+
+
+	@Test
+	public void testMultipleProducers() throws InterruptedException
+	{
+		int numProducers = 4;
+		int numElementsPerProducer = 50_000;
+		// a small buffer, so that it is full and wraps around often
+		MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < numProducers; p++)
+		{
+			long producer = p;
+			Thread thread = new Thread(() -> {
+				awaitQuietly(start);
+				for (long i = 0; i < numElementsPerProducer; i++)
+				{
+					Long element = producer << 32 | i;
+					while (!buffer.offer(element))
+					{
+						// let the consumer run, even on a single core
+						Thread.yield();
+					}
+				}
+			}, "Producer" + p);
+			thread.start();
+			producers.add(thread);
+		}
+
+		start.countDown();
+		long[] nextExpected = new long[numProducers];
+		long numReceived = 0;
+		while (numReceived < (long) numProducers * numElementsPerProducer)
+		{
+			Long element = buffer.poll();
+			if (element == null)
+			{
+				Thread.yield();
+				continue;
+			}
+			int producer = (int) (element >>> 32);
+			long sequence = element & 0xFFFFFFFFL;
+			// the elements of each producer are received in order, without gaps
+			assertThat(sequence).isEqualTo(nextExpected[producer]);
+			nextExpected[producer]++;
+			numReceived++;
+		}
+
+		for (Thread producer : producers)
+		{
+			producer.join();
+		}
+		assertThat(buffer.poll()).isNull();
+		for (long n : nextExpected)
+		{
+			assertThat(n).isEqualTo(numElementsPerProducer);
+		}
+	}
+
+
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
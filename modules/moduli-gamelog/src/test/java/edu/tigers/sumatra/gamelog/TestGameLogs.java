@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.gamelog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Creates game logs with generated messages for tests.
+ */
+final class TestGameLogs
+{
+	/** timestamp, type and size of a message */
+	static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+
+	private TestGameLogs()
+	{
+	}
+
+
+	/**
+	 * Generate messages with ascending timestamps, alternating types and different payload sizes.
+	 *
+	 * @param numMessages the number of messages
+	 * @return the messages
+	 */
+	static List<GameLogMessage> messages(final int numMessages)
+	{
+		List<GameLogMessage> messages = new ArrayList<>(numMessages);
+		for (int i = 0; i < numMessages; i++)
+		{
+			EMessageType type = i % 3 == 0 ? EMessageType.SSL_REFBOX_2013 : EMessageType.SSL_VISION_2014;
+			byte[] data = new byte[5 + (i * 7) % 40];
+			for (int j = 0; j < data.length; j++)
+			{
+				data[j] = (byte) (i * 31 + j);
+			}
+			messages.add(new GameLogMessage(1_000_000_000L + i * 10_000_000L, type, data));
+		}
+		return messages;
+	}
+
+
+	/**
+	 * @param path     the file to write
+	 * @param fileType the type of the file
+	 * @param messages the messages to write
+	 */
+	static void write(final Path path, final GameLogType fileType, final List<GameLogMessage> messages)
+	{
+		GameLogWriter writer = new GameLogWriter(fileType);
+		writer.openPath(path.toString());
+		assertThat(writer.isOpen()).isTrue();
+		messages.forEach(writer::write);
+		writer.close();
+	}
+
+
+	/**
+	 * Write a block compressed game log with small blocks.
+	 *
+	 * @param path      the file to write
+	 * @param messages  the messages to write
+	 * @param blockSize the uncompressed size of a block [bytes]
+	 * @throws IOException if the file could not be written
+	 */
+	static void writeBlockLog(final Path path, final List<GameLogMessage> messages, final int blockSize)
+			throws IOException
+	{
+		DataOutputStream fileStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+		fileStream.writeBytes(GameLogType.BLOCK_LOG_FILE.getHeader());
+		fileStream.writeInt(1);
+		BlockOutputStream blockStream = new BlockOutputStream(fileStream, fileStream.size(), blockSize);
+		try (DataOutputStream out = new DataOutputStream(blockStream))
+		{
+			for (GameLogMessage message : messages)
+			{
+				blockStream.startMessage(message.getTimestampNs(), message.getType(), message.getData().length);
+				out.writeLong(message.getTimestampNs());
+				out.writeInt(message.getType().getId());
+				out.writeInt(message.getData().length);
+				out.write(message.getData());
+			}
+		}
+	}
+
+
+	/**
+	 * Cut off the end of a file, like an interrupted recording does.
+	 *
+	 * @param path     the file
+	 * @param numBytes the number of bytes to remove
+	 * @throws IOException if the file could not be truncated
+	 */
+	static void truncate(final Path path, final int numBytes) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.truncate(channel.size() - numBytes);
+		}
+	}
+
+
+	/**
+	 * Check that the messages have the same timestamps, types and payloads.
+	 */
+	static void assertSameMessages(final List<GameLogMessage> actual, final List<GameLogMessage> expected)
+	{
+		assertThat(actual).hasSize(expected.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertThat(actual.get(i).getTimestampNs()).isEqualTo(expected.get(i).getTimestampNs());
+			assertThat(actual.get(i).getType()).isEqualTo(expected.get(i).getType());
+			assertThat(actual.get(i).getData()).isEqualTo(expected.get(i).getData());
+		}
+	}
+}
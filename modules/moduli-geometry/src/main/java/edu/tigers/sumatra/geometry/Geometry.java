@@ -29,10 +29,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 
 /**
  * Configuration object for geometry parameters.
+ * <p>
+ * There is one global geometry for the whole application. Independent pipelines that process different data in the
+ * same JVM (like offline game log analysis) can run in their own {@link Scope} instead.
  */
 @Log4j2
 public class Geometry
@@ -43,6 +48,9 @@ public class Geometry
 	private static double opponentCenter2DribblerDist = 85;
 	private static Geometry instance = defaultInstance();
 	private static ETeamColor negativeHalfTeam = ETeamColor.BLUE;
+	private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+	// keep the lookup of the global geometry free of thread locals, as long as no scope is used
+	private static volatile boolean scopesUsed = false;
 
 	static
 	{
@@ -151,6 +159,12 @@ public class Geometry
 	 */
 	public static synchronized void update(final CamGeometry geometry)
 	{
+		Scope scope = currentScopeOrNull();
+		if (scope != null)
+		{
+			scope.geometry = new Geometry(scope.geometry.lastCamGeometry.merge(geometry));
+			return;
+		}
 		var oldGeometry = instance;
 		instance = new Geometry(instance.lastCamGeometry.merge(geometry));
 		if (!oldGeometry.ballParameters.equals(instance.ballParameters))
@@ -219,7 +233,7 @@ public class Geometry
 	 */
 	public static Goal getGoalOur()
 	{
-		return instance.goalOur;
+		return current().goalOur;
 	}
 
 
@@ -230,7 +244,7 @@ public class Geometry
 	 */
 	public static Goal getGoalTheir()
 	{
-		return instance.goalTheir;
+		return current().goalTheir;
 	}
 
 
@@ -319,7 +333,7 @@ public class Geometry
 	 */
 	public static IRectangle getField()
 	{
-		return instance.field;
+		return current().field;
 	}
 
 
@@ -330,7 +344,7 @@ public class Geometry
 	 */
 	public static IRectangle getFieldWBorders()
 	{
-		return instance.fieldWBorders;
+		return current().fieldWBorders;
 	}
 
 
@@ -348,7 +362,7 @@ public class Geometry
 	 */
 	public static ICircle getCenterCircle()
 	{
-		return instance.centerCircle;
+		return current().centerCircle;
 	}
 
 
@@ -357,7 +371,7 @@ public class Geometry
 	 */
 	public static IPenaltyArea getPenaltyAreaOur()
 	{
-		return instance.penaltyAreaOur;
+		return current().penaltyAreaOur;
 	}
 
 
@@ -366,7 +380,7 @@ public class Geometry
 	 */
 	public static IPenaltyArea getPenaltyAreaTheir()
 	{
-		return instance.penaltyAreaTheir;
+		return current().penaltyAreaTheir;
 	}
 
 
@@ -375,7 +389,7 @@ public class Geometry
 	 */
 	public static IRectangle getFieldHalfOur()
 	{
-		return instance.ourHalf;
+		return current().ourHalf;
 	}
 
 
@@ -384,7 +398,7 @@ public class Geometry
 	 */
 	public static IRectangle getFieldHalfTheir()
 	{
-		return instance.theirHalf;
+		return current().theirHalf;
 	}
 
 
@@ -437,31 +451,122 @@ public class Geometry
 	 */
 	public static CamGeometry getLastCamGeometry()
 	{
-		return instance.lastCamGeometry;
+		return current().lastCamGeometry;
 	}
 
 
 	public static BallParameters getBallParameters()
 	{
-		return instance.ballParameters;
+		return current().ballParameters;
 	}
 
 
 	public static BallFactory getBallFactory()
 	{
-		return instance.ballFactory;
+		return current().ballFactory;
 	}
 
 
 	public static ETeamColor getNegativeHalfTeam()
 	{
-		return negativeHalfTeam;
+		Scope scope = currentScopeOrNull();
+		return scope == null ? negativeHalfTeam : scope.negativeHalfTeam;
 	}
 
 
 	public static void setNegativeHalfTeam(ETeamColor negativeHalfTeam)
 	{
-		Geometry.negativeHalfTeam = negativeHalfTeam;
+		Scope scope = currentScopeOrNull();
+		if (scope == null)
+		{
+			Geometry.negativeHalfTeam = negativeHalfTeam;
+		} else
+		{
+			scope.negativeHalfTeam = negativeHalfTeam;
+		}
+	}
+
+
+	/**
+	 * Create a new scope that starts with a copy of the current geometry.
+	 *
+	 * @return a new scope
+	 */
+	public static Scope newScope()
+	{
+		scopesUsed = true;
+		return new Scope(current(), getNegativeHalfTeam());
+	}
+
+
+	/**
+	 * Bind a task to the scope of the calling thread, so that it uses the same geometry when it is executed
+	 * on another thread.
+	 *
+	 * @param task the task to bind
+	 * @param <T>  the result type of the task
+	 * @return the bound task, or the task itself if the calling thread does not run in a scope
+	 */
+	public static <T> Callable<T> bindToCurrentScope(final Callable<T> task)
+	{
+		Scope scope = currentScopeOrNull();
+		if (scope == null)
+		{
+			return task;
+		}
+		return () -> {
+			Scope previous = scope.enter();
+			try
+			{
+				return task.call();
+			} finally
+			{
+				exit(previous);
+			}
+		};
+	}
+
+
+	/**
+	 * Bind a task to the scope of the calling thread, so that it uses the same geometry when it is executed
+	 * on another thread.
+	 *
+	 * @param task the task to bind
+	 * @return the bound task, or the task itself if the calling thread does not run in a scope
+	 */
+	public static Runnable bindToCurrentScope(final Runnable task)
+	{
+		Scope scope = currentScopeOrNull();
+		if (scope == null)
+		{
+			return task;
+		}
+		return () -> scope.run(task);
+	}
+
+
+	private static Scope currentScopeOrNull()
+	{
+		return scopesUsed ? SCOPE.get() : null;
+	}
+
+
+	private static Geometry current()
+	{
+		Scope scope = currentScopeOrNull();
+		return scope == null ? instance : scope.geometry;
+	}
+
+
+	private static void exit(final Scope previous)
+	{
+		if (previous == null)
+		{
+			SCOPE.remove();
+		} else
+		{
+			SCOPE.set(previous);
+		}
 	}
 
 
@@ -488,4 +593,68 @@ public class Geometry
 		}
 		return newBallParameters;
 	}
+
+
+	/**
+	 * Geometry and negative half team that are used instead of the global ones by all threads that run in this scope.
+	 * Geometry updates and changes of the negative half team within the scope do not affect the global geometry.
+	 */
+	public static final class Scope
+	{
+		private volatile Geometry geometry;
+		private volatile ETeamColor negativeHalfTeam;
+
+
+		private Scope(final Geometry geometry, final ETeamColor negativeHalfTeam)
+		{
+			this.geometry = geometry;
+			this.negativeHalfTeam = negativeHalfTeam;
+		}
+
+
+		/**
+		 * Run the given runnable in this scope on the calling thread.
+		 *
+		 * @param runnable the runnable
+		 */
+		public void run(final Runnable runnable)
+		{
+			Scope previous = enter();
+			try
+			{
+				runnable.run();
+			} finally
+			{
+				exit(previous);
+			}
+		}
+
+
+		/**
+		 * Get a result in this scope on the calling thread.
+		 *
+		 * @param supplier the supplier of the result
+		 * @param <T>      the result type
+		 * @return the result of the supplier
+		 */
+		public <T> T get(final Supplier<T> supplier)
+		{
+			Scope previous = enter();
+			try
+			{
+				return supplier.get();
+			} finally
+			{
+				exit(previous);
+			}
+		}
+
+
+		private Scope enter()
+		{
+			Scope previous = SCOPE.get();
+			SCOPE.set(this);
+			return previous;
+		}
+	}
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.geometry;
+
+import edu.tigers.sumatra.cam.data.CamFieldSize;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.ids.ETeamColor;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class GeometryScopeTest
+{
+	@Test
+	public void testUpdateInScope()
+	{
+		double globalLength = Geometry.getFieldLength();
+		Geometry.Scope scope = Geometry.newScope();
+
+		double scopedLength = scope.get(() -> {
+			Geometry.update(createGeometry(globalLength + 1000));
+			return Geometry.getFieldLength();
+		});
+
+		assertEquals(globalLength + 1000, scopedLength, 1e-6);
+		assertEquals(globalLength + 1000, scope.get(() -> Geometry.getField().xExtent()), 1e-6);
+		assertEquals(globalLength, Geometry.getFieldLength(), 1e-6);
+	}
+
+
+	@Test
+	public void testNegativeHalfTeamInScope()
+	{
+		ETeamColor globalTeam = Geometry.getNegativeHalfTeam();
+		Geometry.Scope scope = Geometry.newScope();
+
+		scope.run(() -> Geometry.setNegativeHalfTeam(globalTeam.opposite()));
+
+		assertEquals(globalTeam.opposite(), scope.get(Geometry::getNegativeHalfTeam));
+		assertEquals(globalTeam, Geometry.getNegativeHalfTeam());
+	}
+
+
+	@Test
+	public void testBindToCurrentScope() throws Exception
+	{
+		double globalLength = Geometry.getFieldLength();
+		Geometry.Scope scope = Geometry.newScope();
+		scope.run(() -> Geometry.update(createGeometry(globalLength + 500)));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			double unboundLength = scope.get(() -> submit(executor, false));
+			double boundLength = scope.get(() -> submit(executor, true));
+
+			assertEquals(globalLength, unboundLength, 1e-6);
+			assertEquals(globalLength + 500, boundLength, 1e-6);
+			// the worker thread must not keep the scope
+			assertEquals(globalLength, executor.submit(Geometry::getFieldLength).get(), 1e-6);
+		} finally
+		{
+			executor.shutdown();
+		}
+	}
+
+
+	@Test
+	public void testBindRunnableToCurrentScope() throws Exception
+	{
+		double globalLength = Geometry.getFieldLength();
+		Geometry.Scope scope = Geometry.newScope();
+		scope.run(() -> Geometry.update(createGeometry(globalLength + 500)));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			double[] length = new double[1];
+			Runnable task = () -> length[0] = Geometry.getFieldLength();
+			Future<?> future = scope.get(() -> executor.submit(Geometry.bindToCurrentScope(task)));
+			future.get();
+
+			assertEquals(globalLength + 500, length[0], 1e-6);
+			assertEquals(globalLength, executor.submit(Geometry::getFieldLength).get(), 1e-6);
+		} finally
+		{
+			executor.shutdown();
+		}
+	}
+
+
+	private double submit(final ExecutorService executor, final boolean bind)
+	{
+		try
+		{
+			if (bind)
+			{
+				return executor.submit(Geometry.bindToCurrentScope(Geometry::getFieldLength)).get();
+			}
+			return executor.submit(Geometry::getFieldLength).get();
+		} catch (Exception e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	private CamGeometry createGeometry(final double fieldLength)
+	{
+		CamFieldSize fieldSize = Geometry.getLastCamGeometry().getFieldSize();
+		return Geometry.getLastCamGeometry().toBuilder()
+				.fieldSize(CamFieldSize.builder()
+						.fieldLength(fieldLength)
+						.fieldWidth(fieldSize.getFieldWidth())
+						.goalWidth(fieldSize.getGoalWidth())
+						.goalDepth(fieldSize.getGoalDepth())
+						.boundaryWidth(fieldSize.getBoundaryWidth())
+						.penaltyAreaDepth(fieldSize.getPenaltyAreaDepth())
+						.penaltyAreaWidth(fieldSize.getPenaltyAreaWidth())
+						.centerCircleRadius(fieldSize.getCenterCircleRadius())
+						.lineThickness(fieldSize.getLineThickness())
+						.goalCenterToPenaltyMark(fieldSize.getGoalCenterToPenaltyMark())
+						.goalHeight(fieldSize.getGoalHeight())
+						.ballRadius(fieldSize.getBallRadius())
+						.robotRadius(fieldSize.getRobotRadius())
+						.build())
+				.build();
+	}
+}
@@ -7,6 +7,8 @@ package edu.tigers.sumatra.persistence;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 
 
@@ -41,19 +43,22 @@ public abstract class ABufferedPersistenceRecorder<T extends PersistenceTable.IE
 		}
 	}
 
+	/**
+	 * Write all buffered objects to the table as a single batch.
+	 */
 	@Override
 	public void flush()
 	{
-		T object;
-		synchronized (buffer) {
-			object = buffer.poll();
-		}
-		while(object != null)
+		List<T> batch;
+		synchronized (buffer)
 		{
-			table.write(object);
-			synchronized (buffer) {
-				object = buffer.poll();
+			if (buffer.isEmpty())
+			{
+				return;
 			}
+			batch = new ArrayList<>(buffer);
+			buffer.clear();
 		}
+		table.write(batch);
 	}
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.extern.log4j.Log4j2;
+import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.model.FileHeader;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * A zip file of a database that can be read without extracting it.
+ * <p>
+ * Database files are stored as uncompressed entries containing a {@link PersistenceBlockFile}, which is compressed
+ * in parallel. Index files are stored uncompressed, so they can be mapped. All other files are deflated as usual.
+ * Archives created by older versions only contain deflated files and have to be extracted. An extracted archive
+ * of this format is read from its block compressed database files.
+ */
+@Log4j2
+public class PersistenceArchive implements AutoCloseable
+{
+	static final String BLOCK_FILE_SUFFIX = ".blocks";
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int LOCAL_HEADER_NAME_LENGTH_OFFSET = 26;
+
+	private final FileChannel channel;
+	/** uncompressed entries by name */
+	private final Map<String, StoredEntry> entries;
+
+
+	private PersistenceArchive(FileChannel channel, Map<String, StoredEntry> entries)
+	{
+		this.channel = channel;
+		this.entries = entries;
+	}
+
+
+	/**
+	 * Open an archive for reading in place.
+	 *
+	 * @param zipFile the path of the archive
+	 * @return the archive or null, if it does not contain block compressed database files
+	 * @throws IOException if the archive could not be read
+	 */
+	public static PersistenceArchive open(Path zipFile) throws IOException
+	{
+		List<FileHeader> headers;
+		try (ZipFile zip = new ZipFile(zipFile.toFile()))
+		{
+			headers = zip.getFileHeaders();
+		}
+		if (headers.stream().noneMatch(h -> h.getFileName().endsWith(BLOCK_FILE_SUFFIX)))
+		{
+			return null;
+		}
+
+		FileChannel channel = FileChannel.open(zipFile, StandardOpenOption.READ);
+		try
+		{
+			Map<String, StoredEntry> entries = new HashMap<>();
+			for (FileHeader header : headers)
+			{
+				if (header.getCompressionMethod() == CompressionMethod.STORE)
+				{
+					entries.put(header.getFileName(),
+							new StoredEntry(dataOffset(channel, header.getOffsetLocalHeader()), header.getCompressedSize()));
+				}
+			}
+			return new PersistenceArchive(channel, entries);
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * The data of an entry follows its local header, which has a variable length
+	 */
+	private static long dataOffset(FileChannel channel, long localHeaderOffset) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		while (header.hasRemaining())
+		{
+			if (channel.read(header, localHeaderOffset + header.position()) < 0)
+			{
+				throw new IOException("Unexpected end of zip file");
+			}
+		}
+		int nameLength = Short.toUnsignedInt(header.getShort(LOCAL_HEADER_NAME_LENGTH_OFFSET));
+		int extraLength = Short.toUnsignedInt(header.getShort(LOCAL_HEADER_NAME_LENGTH_OFFSET + Short.BYTES));
+		return localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+	}
+
+
+	/**
+	 * @param name the name of the database file, e.g. WorldFrameWrapper.db
+	 * @return the block compressed database file or null, if it is not in the archive
+	 * @throws IOException if the block index could not be read
+	 */
+	PersistenceBlockFile openBlockFile(String name) throws IOException
+	{
+		StoredEntry entry = entries.get(name + BLOCK_FILE_SUFFIX);
+		if (entry == null)
+		{
+			return null;
+		}
+		return new PersistenceBlockFile(channel, entry.offset(), entry.size());
+	}
+
+
+	/**
+	 * @param name the name of the file, e.g. WorldFrameWrapper.index
+	 * @return a read-only mapping of the file or null, if it is not in the archive
+	 * @throws IOException if the file could not be mapped
+	 */
+	ByteBuffer map(String name) throws IOException
+	{
+		StoredEntry entry = entries.get(name);
+		if (entry == null)
+		{
+			return null;
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, entry.offset(), entry.size());
+	}
+
+
+	@Override
+	public void close()
+	{
+		try
+		{
+			channel.close();
+		} catch (IOException e)
+		{
+			log.error("Could not close archive", e);
+		}
+	}
+
+
+	/**
+	 * Create an archive of a database folder.
+	 *
+	 * @param dbPath  the database folder
+	 * @param zipFile the archive to create
+	 * @throws IOException if the archive could not be written
+	 */
+	public static void create(Path dbPath, Path zipFile) throws IOException
+	{
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(dbPath))
+		{
+			files = stream.filter(path -> !Files.isDirectory(path)).sorted().toList();
+		}
+
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				new NamedThreadFactory("PersistenceCompression"));
+		try (ZipOutputStream zs = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile))))
+		{
+			for (Path path : files)
+			{
+				String name = dbPath.relativize(path).toString();
+				try
+				{
+					if (name.endsWith(".db"))
+					{
+						addBlockFile(zs, path, name, zipFile, executor, parallelism);
+					} else if (name.endsWith(".index"))
+					{
+						addStored(zs, path, name, Files.size(path), crc(path));
+					} else
+					{
+						zs.putNextEntry(new ZipEntry(name));
+						Files.copy(path, zs);
+						zs.closeEntry();
+					}
+				} catch (IOException e)
+				{
+					log.error("Could not compress file {}", path, e);
+				}
+			}
+		} finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+
+	private static void addBlockFile(ZipOutputStream zs, Path path, String name, Path zipFile,
+			ExecutorService executor, int parallelism) throws IOException
+	{
+		Path blockFile = Files.createTempFile(zipFile.toAbsolutePath().getParent(), path.getFileName().toString(),
+				BLOCK_FILE_SUFFIX);
+		try
+		{
+			PersistenceBlockFile.CompressedFile compressed = PersistenceBlockFile.compress(path, blockFile, executor,
+					parallelism);
+			addStored(zs, blockFile, name + BLOCK_FILE_SUFFIX, compressed.size(), compressed.crc());
+		} finally
+		{
+			Files.deleteIfExists(blockFile);
+		}
+	}
+
+
+	private static void addStored(ZipOutputStream zs, Path path, String name, long size, long crc)
+			throws IOException
+	{
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(size);
+		entry.setCompressedSize(size);
+		entry.setCrc(crc);
+		zs.putNextEntry(entry);
+		Files.copy(path, zs);
+		zs.closeEntry();
+	}
+
+
+	private static long crc(Path path) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		try (InputStream in = new CheckedInputStream(Files.newInputStream(path), crc))
+		{
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return crc.getValue();
+	}
+
+
+	private record StoredEntry(long offset, long size)
+	{
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * A seekable, block compressed copy of a database file of a {@link PersistenceTable}.
+ * <p>
+ * The file is split into blocks of {@link #BLOCK_SIZE} bytes that are compressed independently, followed by
+ * the block index and a footer:
+ * <pre>
+ * block*
+ * long uncompressedSize, int numBlocks, long blockOffset[numBlocks + 1]
+ * long indexOffset, int MAGIC
+ * </pre>
+ * Reading a range only decompresses the blocks of this range. Recently decompressed blocks are cached.
+ */
+class PersistenceBlockFile
+{
+	static final int BLOCK_SIZE = 1 << 20;
+	private static final int MAGIC = 0x53424C4B;
+	private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+	private static final long BLOCK_CACHE_CAPACITY = 8L * BLOCK_SIZE;
+
+	private final FileChannel channel;
+	private final long offset;
+	private final long uncompressedSize;
+	private final long[] blockOffsets;
+	private final PersistenceEntryCache<byte[]> blockCache = new PersistenceEntryCache<>(BLOCK_CACHE_CAPACITY);
+
+
+	/**
+	 * Open a block file that is stored in a part of a file, e.g. an uncompressed entry of a zip file.
+	 *
+	 * @param channel the channel of the file, it is not closed by this class
+	 * @param offset  the offset of the block file
+	 * @param length  the length of the block file
+	 * @throws IOException if the block index could not be read
+	 */
+	PersistenceBlockFile(FileChannel channel, long offset, long length) throws IOException
+	{
+		this.channel = channel;
+		this.offset = offset;
+
+		ByteBuffer footer = read(channel, offset + length - FOOTER_SIZE, FOOTER_SIZE);
+		long indexOffset = footer.getLong();
+		if (footer.getInt() != MAGIC)
+		{
+			throw new IOException("Not a block compressed database file");
+		}
+
+		ByteBuffer header = read(channel, offset + indexOffset, Long.BYTES + Integer.BYTES);
+		uncompressedSize = header.getLong();
+		int numBlocks = header.getInt();
+		ByteBuffer index = read(channel, offset + indexOffset + header.capacity(), (numBlocks + 1) * Long.BYTES);
+		blockOffsets = new long[numBlocks + 1];
+		index.asLongBuffer().get(blockOffsets);
+	}
+
+
+	/**
+	 * Compress a database file. The blocks are compressed in parallel.
+	 *
+	 * @param source      the database file
+	 * @param target      the block file to create
+	 * @param executor    the executor for compressing the blocks
+	 * @param parallelism the number of threads of the executor
+	 * @return the size and the CRC-32 of the block file
+	 * @throws IOException if the files could not be read or written
+	 */
+	static CompressedFile compress(Path source, Path target, ExecutorService executor, int parallelism)
+			throws IOException
+	{
+		CRC32 crc = new CRC32();
+		List<Long> offsets = new ArrayList<>();
+		long size = 0;
+		long uncompressed = 0;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(source));
+				DataOutputStream out = new DataOutputStream(
+						new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(target)), crc)))
+		{
+			// keep a limited number of blocks in flight to bound the memory usage
+			Deque<Future<byte[]>> pending = new ArrayDeque<>();
+			boolean endOfFile = false;
+			while (!endOfFile || !pending.isEmpty())
+			{
+				while (!endOfFile && pending.size() < 2 * parallelism)
+				{
+					byte[] block = in.readNBytes(BLOCK_SIZE);
+					uncompressed += block.length;
+					endOfFile = block.length < BLOCK_SIZE;
+					if (block.length > 0)
+					{
+						pending.add(executor.submit(() -> deflate(block)));
+					}
+				}
+				if (!pending.isEmpty())
+				{
+					byte[] compressed = pending.poll().get();
+					offsets.add(size);
+					out.write(compressed);
+					size += compressed.length;
+				}
+			}
+
+			long indexOffset = size;
+			out.writeLong(uncompressed);
+			out.writeInt(offsets.size());
+			for (long blockOffset : offsets)
+			{
+				out.writeLong(blockOffset);
+			}
+			// the end of the last block
+			out.writeLong(indexOffset);
+			out.writeLong(indexOffset);
+			out.writeInt(MAGIC);
+			size = indexOffset + Long.BYTES + Integer.BYTES + (offsets.size() + 1L) * Long.BYTES + FOOTER_SIZE;
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing " + source, e);
+		} catch (ExecutionException e)
+		{
+			throw new IOException("Could not compress " + source, e.getCause());
+		}
+		return new CompressedFile(size, crc.getValue());
+	}
+
+
+	private static byte[] deflate(byte[] data)
+	{
+		Deflater deflater = new Deflater();
+		try
+		{
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+			byte[] buffer = new byte[1 << 16];
+			while (!deflater.finished())
+			{
+				int n = deflater.deflate(buffer);
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally
+		{
+			deflater.end();
+		}
+	}
+
+
+	private static byte[] inflate(byte[] compressed, int uncompressedSize) throws IOException
+	{
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(compressed);
+			byte[] data = new byte[uncompressedSize];
+			int n = 0;
+			while (n < uncompressedSize && !inflater.finished())
+			{
+				n += inflater.inflate(data, n, uncompressedSize - n);
+				if (inflater.needsInput())
+				{
+					break;
+				}
+			}
+			if (n != uncompressedSize)
+			{
+				throw new IOException("Invalid block: expected " + uncompressedSize + " bytes, got " + n);
+			}
+			return data;
+		} catch (DataFormatException e)
+		{
+			throw new IOException("Invalid block", e);
+		} finally
+		{
+			inflater.end();
+		}
+	}
+
+
+	private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		long pos = position;
+		while (buffer.hasRemaining())
+		{
+			int n = channel.read(buffer, pos);
+			if (n < 0)
+			{
+				throw new EOFException("Unexpected end of file at offset " + pos);
+			}
+			pos += n;
+		}
+		return buffer.flip();
+	}
+
+
+	/**
+	 * @return the size of the original database file
+	 */
+	long getUncompressedSize()
+	{
+		return uncompressedSize;
+	}
+
+
+	/**
+	 * Read a range of the original database file. Reading is thread-safe.
+	 *
+	 * @param address the address in the original database file
+	 * @param size    the size of the range
+	 * @return the data of the range
+	 * @throws IOException if a block could not be read
+	 */
+	ByteBuffer read(long address, int size) throws IOException
+	{
+		int firstBlock = (int) (address / BLOCK_SIZE);
+		int lastBlock = (int) ((address + size - 1) / BLOCK_SIZE);
+		int start = (int) (address - (long) firstBlock * BLOCK_SIZE);
+		if (firstBlock == lastBlock)
+		{
+			// no copy required, if the range is within a single block
+			return ByteBuffer.wrap(getBlock(firstBlock), start, size).slice();
+		}
+
+		ByteBuffer data = ByteBuffer.allocate(size);
+		for (int i = firstBlock; i <= lastBlock; i++)
+		{
+			byte[] block = getBlock(i);
+			int from = i == firstBlock ? start : 0;
+			data.put(block, from, Math.min(block.length - from, data.remaining()));
+		}
+		return data.flip();
+	}
+
+
+	private byte[] getBlock(int blockIndex) throws IOException
+	{
+		if (blockIndex < 0 || blockIndex >= blockOffsets.length - 1)
+		{
+			throw new EOFException("Block " + blockIndex + " is out of range");
+		}
+		byte[] block = blockCache.get(blockIndex);
+		if (block == null)
+		{
+			int compressedSize = (int) (blockOffsets[blockIndex + 1] - blockOffsets[blockIndex]);
+			byte[] compressed = read(channel, offset + blockOffsets[blockIndex], compressedSize).array();
+			int blockSize = (int) Math.min(BLOCK_SIZE, uncompressedSize - (long) blockIndex * BLOCK_SIZE);
+			block = inflate(compressed, blockSize);
+			blockCache.put(blockIndex, block, block.length);
+		}
+		return block;
+	}
+
+
+	/**
+	 * The result of a compression
+	 *
+	 * @param size the size of the block file
+	 * @param crc  the CRC-32 of the block file
+	 */
+	record CompressedFile(long size, long crc)
+	{
+	}
+}
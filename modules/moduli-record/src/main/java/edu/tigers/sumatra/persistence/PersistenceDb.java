@@ -13,7 +13,6 @@ import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
@@ -24,9 +23,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.TimeZone;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 
 /**
@@ -38,6 +34,8 @@ public class PersistenceDb
 	private final Path dbPath;
 
 	private final Map<Class<?>, PersistenceTable<?>> tables = new HashMap<>();
+	/** the archive, if the database is read in place from a zip file */
+	private final PersistenceArchive archive;
 
 	@Setter
 	private boolean compressOnClose = false;
@@ -48,27 +46,54 @@ public class PersistenceDb
 	 */
 	public PersistenceDb(final Path dbPath)
 	{
+		PersistenceArchive inPlaceArchive = null;
 		if (dbPath.toString().endsWith(".zip"))
 		{
 			this.dbPath = Paths.get(dbPath.toString().substring(0, dbPath.toString().length() - 4));
-			if (!this.dbPath.toFile().exists())
+			if (this.dbPath.toFile().exists())
 			{
-				unpackDatabase(dbPath.toFile());
+				log.info("Database is already extracted, using: {}", this.dbPath);
 			} else
 			{
-				log.info("Database is already extracted, using: {}", this.dbPath);
+				inPlaceArchive = openArchive(dbPath);
+				if (inPlaceArchive == null)
+				{
+					unpackDatabase(dbPath.toFile());
+				}
 			}
 		} else
 		{
 			this.dbPath = dbPath;
 		}
+		this.archive = inPlaceArchive;
 
 		File folder = this.dbPath.toFile();
-		if (!folder.exists() && !folder.mkdirs())
+		if (archive == null && !folder.exists() && !folder.mkdirs())
 			log.warn("Could not create folder for database {}", this.dbPath);
 	}
 
 
+	/**
+	 * @return the archive for reading in place or null, if it has to be extracted
+	 */
+	private static PersistenceArchive openArchive(final Path zipFile)
+	{
+		try
+		{
+			PersistenceArchive archive = PersistenceArchive.open(zipFile);
+			if (archive != null)
+			{
+				log.info("Reading database in place: {}", zipFile);
+			}
+			return archive;
+		} catch (IOException e)
+		{
+			log.warn("Could not read database in place, extracting it: {}", zipFile, e);
+			return null;
+		}
+	}
+
+
 	private String determineFolderName(final File file)
 	{
 		String name = file.getName();
@@ -132,6 +157,11 @@ public class PersistenceDb
 	{
 		try
 		{
+			if (archive != null)
+			{
+				tables.put(clazz, new PersistenceTable<>(clazz, archive, keyType));
+				return;
+			}
 			tables.put(clazz, new PersistenceTable<>(clazz, dbPath, keyType));
 		} catch (IOException e)
 		{
@@ -183,6 +213,11 @@ public class PersistenceDb
 	{
 		tables.values().forEach(PersistenceTable::close);
 		tables.clear();
+		if (archive != null)
+		{
+			archive.close();
+			return;
+		}
 
 		if (compressOnClose)
 		{
@@ -213,38 +248,20 @@ public class PersistenceDb
 
 
 	/**
-	 * Compress the database
+	 * Compress the database into a zip file, which can be read in place.
+	 * The database files are compressed in parallel.
 	 *
 	 * @throws IOException
 	 */
 	public void compress() throws IOException
 	{
-		log.info("Compressing database {}", this.dbPath);
-		//https://stackoverflow.com/a/32052016 CC BY-SA 3.0 by Nikita Koksharov
-		try (ZipOutputStream zs = new ZipOutputStream(
-				Files.newOutputStream(dbPath.resolveSibling(dbPath.getFileName().toString() + ".zip"))))
+		if (archive != null)
 		{
-			try (Stream<Path> stream = Files.walk(dbPath))
-			{
-				stream
-						.filter(path -> !Files.isDirectory(path))
-						.forEach(path -> {
-							ZipEntry zipEntry = new ZipEntry(dbPath.relativize(path).toString());
-							try
-							{
-								zs.putNextEntry(zipEntry);
-								Files.copy(path, zs);
-								zs.closeEntry();
-							} catch (IOException e)
-							{
-								log.error("Could not compress file {}", path, e);
-							}
-						});
-			} catch (RuntimeException e)
-			{
-				throw new IOException(e);
-			}
+			log.info("Database is already compressed: {}", this.dbPath);
+			return;
 		}
+		log.info("Compressing database {}", this.dbPath);
+		PersistenceArchive.create(dbPath, dbPath.resolveSibling(dbPath.getFileName().toString() + ".zip"));
 		log.info("Compressed database {}", this.dbPath);
 	}
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A least recently used cache of decoded entries of a {@link PersistenceTable}.
+ * The cache is bounded by the sum of the weights of the entries, which is the serialized size of an entry.
+ * Each invalidation starts a new generation. An entry that was decoded in an older generation might miss data
+ * written since then, so it is not added.
+ * All methods are thread-safe.
+ *
+ * @param <T> the type of the entries
+ */
+class PersistenceEntryCache<T>
+{
+	private final Map<Long, Weighted<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private long capacity;
+	private long weight = 0;
+	private long generation = 0;
+
+
+	PersistenceEntryCache(long capacity)
+	{
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * @param key the key of the entry
+	 * @return the cached entry or null, if it is not cached
+	 */
+	synchronized T get(long key)
+	{
+		Weighted<T> entry = entries.get(key);
+		if (entry == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry.value();
+	}
+
+
+	/**
+	 * Add an entry and evict the least recently used entries, if the capacity is exceeded.
+	 * Entries heavier than the capacity are not cached.
+	 *
+	 * @param key         the key of the entry
+	 * @param value       the decoded entry
+	 * @param entryWeight the weight of the entry
+	 */
+	synchronized void put(long key, T value, long entryWeight)
+	{
+		if (entryWeight > capacity)
+		{
+			return;
+		}
+		Weighted<T> previous = entries.put(key, new Weighted<>(value, entryWeight));
+		if (previous != null)
+		{
+			weight -= previous.weight();
+		}
+		weight += entryWeight;
+		evict();
+	}
+
+
+	/**
+	 * Add an entry like {@link #put(long, Object, long)}, if no entry was invalidated since the given generation.
+	 *
+	 * @param key         the key of the entry
+	 * @param value       the decoded entry
+	 * @param entryWeight the weight of the entry
+	 * @param generation  the generation before the entry was decoded, see {@link #getGeneration()}
+	 */
+	synchronized void put(long key, T value, long entryWeight, long generation)
+	{
+		if (generation == this.generation)
+		{
+			put(key, value, entryWeight);
+		}
+	}
+
+
+	/**
+	 * Remove the entries of the keys, e.g. after elements with these keys were written.
+	 *
+	 * @param keys  the keys
+	 * @param count the number of keys in the array
+	 */
+	synchronized void invalidate(long[] keys, int count)
+	{
+		generation++;
+		for (int i = 0; i < count; i++)
+		{
+			Weighted<T> previous = entries.remove(keys[i]);
+			if (previous != null)
+			{
+				weight -= previous.weight();
+			}
+		}
+	}
+
+
+	/**
+	 * @return the current generation, which has to be taken before an entry is decoded
+	 */
+	synchronized long getGeneration()
+	{
+		return generation;
+	}
+
+
+	synchronized void setCapacity(long capacity)
+	{
+		this.capacity = capacity;
+		evict();
+	}
+
+
+	synchronized int size()
+	{
+		return entries.size();
+	}
+
+
+	synchronized long getWeight()
+	{
+		return weight;
+	}
+
+
+	long getHits()
+	{
+		return hits.get();
+	}
+
+
+	long getMisses()
+	{
+		return misses.get();
+	}
+
+
+	private void evict()
+	{
+		Iterator<Weighted<T>> iterator = entries.values().iterator();
+		while (weight > capacity && iterator.hasNext())
+		{
+			weight -= iterator.next().weight();
+			iterator.remove();
+		}
+	}
+
+
+	private record Weighted<T>(T value, long weight)
+	{
+	}
+}
@@ -6,18 +6,16 @@ package edu.tigers.sumatra.persistence;
 
 import lombok.extern.log4j.Log4j2;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 
 
 /**
@@ -25,94 +23,472 @@ import java.util.TreeMap;
  * The file consists of a series of long value pairs (long key, long address),
  * with each pair corresponding to one entry, sorted by ascending address order.
  * Multiple entries are permitted per key (resolution has to be done by the PersistenceTable.IEntry.merge method).
+ * <p>
+ * The entries of the file are memory mapped when the index is opened, entries appended later are kept in compact
+ * arrays. Keys are looked up with a binary search. If the keys are not in ascending order, like for entries that
+ * were recorded out of order, the keys are copied in key order. Entries appended after the last lookup are sorted
+ * and merged into this copy on the next lookup.
+ * An index of a database in an archive is read-only.
+ * All methods are thread-safe.
  */
 @Log4j2
 public class PersistenceIndex
 {
+	private static final int ENTRY_SIZE = 2 * Long.BYTES;
 
-	private final Path path;
-	private final DataOutputStream appendStream;
-
-	// Lazy loaded as it can get large over time (~11 MiB one simulation halftime measured)
-	private NavigableMap<Long, List<Range>> map = null;
+	private final FileChannel appendChannel;
+	private ByteBuffer appendBuffer = ByteBuffer.allocate(64 * ENTRY_SIZE);
 
+	/** the database file, null for a read-only index */
 	private final FileChannel db;
+	/** the size of the database file of a read-only index */
+	private final long dbSize;
+
+	/** the (key, address) pairs of the file when it was opened */
+	private final LongBuffer mapped;
+	private final int numMapped;
+
+	/** entries appended after the file was opened */
+	private long[] tailKeys = new long[0];
+	private long[] tailAddresses = new long[0];
+	private int[] tailSizes = new int[0];
+	private int numTail = 0;
+
+	/** true, if the keys of the entries are ascending in address order */
+	private boolean inKeyOrder = true;
+	/** the keys and the entries of the first numSorted entries in key order, only used if not in key order already */
+	private long[] sortedKeys = new long[0];
+	private int[] sortedEntries = new int[0];
+	private int numSorted = 0;
+	/** the number of distinct keys of the entries in key order */
+	private int numKeys = 0;
 
 
 	PersistenceIndex(Path path, FileChannel db)
 			throws IOException
 	{
-		this.path = path;
 		this.db = db;
-		this.appendStream = new DataOutputStream(
-				Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
-		);
+		this.dbSize = 0;
+		this.appendChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+
+		// the mapping stays valid after the channel is closed. An incomplete entry at the end of the file is ignored
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			numMapped = (int) (channel.size() / ENTRY_SIZE);
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) numMapped * ENTRY_SIZE).asLongBuffer();
+		}
+		for (int i = 0; i < numMapped; i++)
+		{
+			updateKeyOrder(i);
+		}
 	}
 
 
-	public NavigableMap<Long, List<Range>> get()
+	/**
+	 * Create a read-only index, e.g. for a database in an archive.
+	 *
+	 * @param entries the content of an index file
+	 * @param dbSize  the size of the database file
+	 */
+	PersistenceIndex(ByteBuffer entries, long dbSize)
 	{
-		if (map != null)
+		this.db = null;
+		this.dbSize = dbSize;
+		this.appendChannel = null;
+		numMapped = entries.remaining() / ENTRY_SIZE;
+		mapped = entries.slice(entries.position(), numMapped * ENTRY_SIZE).asLongBuffer();
+		for (int i = 0; i < numMapped; i++)
 		{
-			return map;
+			updateKeyOrder(i);
 		}
+	}
+
+
+	/**
+	 * @return the number of distinct keys
+	 */
+	public synchronized int size()
+	{
+		sort();
+		return numKeys;
+	}
 
-		NavigableMap<Long, List<Range>> index = new TreeMap<>();
 
-		try (DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				Files.newInputStream(path, StandardOpenOption.READ)
-		)))
+	/**
+	 * @param key the key
+	 * @return the locations of all entries of the key in address order, empty if there is none
+	 */
+	public synchronized List<Range> getRanges(long key)
+	{
+		sort();
+		List<Range> ranges = new ArrayList<>(1);
+		for (int p = lowerBound(key); p < numEntries() && keyAt(p) == key; p++)
 		{
-			long key = 0;
-			long address = -1;
+			int entry = entryAt(p);
+			ranges.add(new Range(address(entry), size(entry)));
+		}
+		return ranges;
+	}
+
 
-			// repeated FileInputStream.available() is too slow
-			for (long available = stream.available(); available > 0; available -= 2 * Long.BYTES)
+	public synchronized Long firstKey()
+	{
+		sort();
+		return numEntries() > 0 ? keyAt(0) : null;
+	}
+
+
+	public synchronized Long lastKey()
+	{
+		sort();
+		return numEntries() > 0 ? keyAt(numEntries() - 1) : null;
+	}
+
+
+	/**
+	 * @return the greatest key strictly less than the given key, or null if there is no such key
+	 */
+	public synchronized Long lowerKey(long key)
+	{
+		sort();
+		return keyOrNull(lowerBound(key) - 1);
+	}
+
+
+	/**
+	 * @return the greatest key less than or equal to the given key, or null if there is no such key
+	 */
+	public synchronized Long floorKey(long key)
+	{
+		sort();
+		return keyOrNull(upperBound(key) - 1);
+	}
+
+
+	/**
+	 * @return the least key greater than or equal to the given key, or null if there is no such key
+	 */
+	public synchronized Long ceilingKey(long key)
+	{
+		sort();
+		return keyOrNull(lowerBound(key));
+	}
+
+
+	/**
+	 * @return the least key strictly greater than the given key, or null if there is no such key
+	 */
+	public synchronized Long higherKey(long key)
+	{
+		sort();
+		return keyOrNull(upperBound(key));
+	}
+
+
+	/**
+	 * Append the entries of a batch with a single write.
+	 *
+	 * @param keys      the keys of the entries
+	 * @param addresses the addresses of the entries in the database file, in ascending order
+	 * @param sizes     the sizes of the entries in the database file
+	 * @param count     the number of entries in the arrays
+	 * @throws IOException if the index file could not be written
+	 */
+	public synchronized void append(long[] keys, long[] addresses, int[] sizes, int count) throws IOException
+	{
+		if (appendChannel == null)
+		{
+			throw new IOException("The index is read-only");
+		}
+		if (appendBuffer.capacity() < count * ENTRY_SIZE)
+		{
+			appendBuffer = ByteBuffer.allocate(count * ENTRY_SIZE);
+		}
+		appendBuffer.clear();
+		for (int i = 0; i < count; i++)
+		{
+			appendBuffer.putLong(keys[i]);
+			appendBuffer.putLong(addresses[i]);
+		}
+		appendBuffer.flip();
+		while (appendBuffer.hasRemaining())
+		{
+			appendChannel.write(appendBuffer);
+		}
+
+		if (tailKeys.length < numTail + count)
+		{
+			int capacity = Math.max(numTail + count, 2 * tailKeys.length);
+			tailKeys = Arrays.copyOf(tailKeys, capacity);
+			tailAddresses = Arrays.copyOf(tailAddresses, capacity);
+			tailSizes = Arrays.copyOf(tailSizes, capacity);
+		}
+		for (int i = 0; i < count; i++)
+		{
+			tailKeys[numTail] = keys[i];
+			tailAddresses[numTail] = addresses[i];
+			tailSizes[numTail] = sizes[i];
+			numTail++;
+			updateKeyOrder(numEntries() - 1);
+		}
+	}
+
+
+	/**
+	 * Must be called after an entry was added.
+	 *
+	 * @param entry the added entry
+	 */
+	private void updateKeyOrder(int entry)
+	{
+		if (!inKeyOrder)
+		{
+			return;
+		}
+
+		long key = key(entry);
+		if (entry == 0 || key > key(entry - 1))
+		{
+			numKeys++;
+		} else if (key < key(entry - 1))
+		{
+			// the previous entries are still in key order, the added one is merged on the next lookup
+			inKeyOrder = false;
+			sortedKeys = new long[entry];
+			sortedEntries = new int[entry];
+			for (int i = 0; i < entry; i++)
 			{
-				long nextKey = stream.readLong();
-				long nextAddress = stream.readLong();
+				sortedKeys[i] = key(i);
+				sortedEntries[i] = i;
+			}
+			numSorted = entry;
+		}
+	}
+
+
+	/**
+	 * Merge the entries that were added since the last lookup into the entries in key order.
+	 */
+	private void sort()
+	{
+		int n = numEntries();
+		if (inKeyOrder || numSorted == n)
+		{
+			return;
+		}
+
+		int count = n - numSorted;
+		long[] newKeys = new long[count];
+		int[] newEntries = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			newKeys[i] = key(numSorted + i);
+			newEntries[i] = numSorted + i;
+		}
+		sortByKey(newKeys, newEntries);
 
-				if (address != -1)
+		if (sortedKeys.length < n)
+		{
+			int capacity = Math.max(n, 2 * sortedKeys.length);
+			sortedKeys = Arrays.copyOf(sortedKeys, capacity);
+			sortedEntries = Arrays.copyOf(sortedEntries, capacity);
+		}
+		// merge from the end, so that no additional buffer is required.
+		// For equal keys, the new entries have the greater addresses and go last
+		int i = numSorted - 1;
+		int j = count - 1;
+		for (int p = n - 1; j >= 0; p--)
+		{
+			if (i >= 0 && sortedKeys[i] > newKeys[j])
+			{
+				sortedKeys[p] = sortedKeys[i];
+				sortedEntries[p] = sortedEntries[i];
+				i--;
+			} else
+			{
+				if ((j == count - 1 || newKeys[j] != newKeys[j + 1]) && (i < 0 || sortedKeys[i] != newKeys[j]))
 				{
-					index.computeIfAbsent(
-							key, k -> new ArrayList<>(1)
-					).add(new Range(address, (int) (nextAddress - address)));
+					numKeys++;
 				}
-
-				key = nextKey;
-				address = nextAddress;
+				sortedKeys[p] = newKeys[j];
+				sortedEntries[p] = newEntries[j];
+				j--;
 			}
+		}
+		numSorted = n;
+	}
+
 
-			if (address != -1)
+	/**
+	 * Stable bottom-up merge sort of entries by their keys
+	 */
+	private static void sortByKey(long[] keys, int[] entries)
+	{
+		int count = keys.length;
+		long[] fromKeys = keys;
+		int[] fromEntries = entries;
+		long[] toKeys = new long[count];
+		int[] toEntries = new int[count];
+		for (int width = 1; width < count; width *= 2)
+		{
+			for (int low = 0; low < count; low += 2 * width)
 			{
-				index.computeIfAbsent(
-						key, k -> new ArrayList<>(1)
-				).add(new Range(address, (int) (db.size() - address)));
+				int mid = Math.min(low + width, count);
+				int high = Math.min(low + 2 * width, count);
+				int i = low;
+				int j = mid;
+				for (int p = low; p < high; p++)
+				{
+					if (i < mid && (j >= high || fromKeys[i] <= fromKeys[j]))
+					{
+						toKeys[p] = fromKeys[i];
+						toEntries[p] = fromEntries[i++];
+					} else
+					{
+						toKeys[p] = fromKeys[j];
+						toEntries[p] = fromEntries[j++];
+					}
+				}
 			}
-		} catch (IOException e)
+			long[] swapKeys = fromKeys;
+			fromKeys = toKeys;
+			toKeys = swapKeys;
+			int[] swapEntries = fromEntries;
+			fromEntries = toEntries;
+			toEntries = swapEntries;
+		}
+		if (fromKeys != keys)
 		{
-			log.error("Could not read index", e);
+			System.arraycopy(fromKeys, 0, keys, 0, count);
+			System.arraycopy(fromEntries, 0, entries, 0, count);
 		}
+	}
 
-		this.map = index;
-		return map;
+
+	private int numEntries()
+	{
+		return numMapped + numTail;
 	}
 
 
-	public void append(long key, long address) throws IOException
+	private long key(int entry)
 	{
-		this.map = null; // Invalidate index
+		return entry < numMapped ? mapped.get(2 * entry) : tailKeys[entry - numMapped];
+	}
+
 
-		appendStream.writeLong(key);
-		appendStream.writeLong(address);
+	private long address(int entry)
+	{
+		return entry < numMapped ? mapped.get(2 * entry + 1) : tailAddresses[entry - numMapped];
+	}
+
+
+	private int size(int entry)
+	{
+		if (entry >= numMapped)
+		{
+			return tailSizes[entry - numMapped];
+		}
+		// the entries of the file do not store their size, it is given by the address of the next entry
+		long next;
+		if (entry + 1 < numEntries())
+		{
+			next = address(entry + 1);
+		} else if (db == null)
+		{
+			next = dbSize;
+		} else
+		{
+			try
+			{
+				next = db.size();
+			} catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+		return (int) (next - address(entry));
+	}
+
+
+	/**
+	 * Requires the entries to be sorted, see {@link #sort()}.
+	 *
+	 * @param p the position in key order
+	 * @return the entry at the position
+	 */
+	private int entryAt(int p)
+	{
+		return inKeyOrder ? p : sortedEntries[p];
+	}
+
+
+	private long keyAt(int p)
+	{
+		return inKeyOrder ? key(p) : sortedKeys[p];
+	}
+
+
+	private Long keyOrNull(int p)
+	{
+		return p >= 0 && p < numEntries() ? keyAt(p) : null;
+	}
+
+
+	/**
+	 * @return the first position in key order with a key greater than or equal to the given key
+	 */
+	private int lowerBound(long key)
+	{
+		int low = 0;
+		int high = numEntries();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (keyAt(mid) < key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * @return the first position in key order with a key greater than the given key
+	 */
+	private int upperBound(long key)
+	{
+		int low = 0;
+		int high = numEntries();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (keyAt(mid) <= key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
 	}
 
 
 	public void close()
 	{
+		if (appendChannel == null)
+		{
+			return;
+		}
 		try
 		{
-			appendStream.close();
+			appendChannel.close();
 		} catch (IOException e)
 		{
 			log.error("Could not close db", e);
@@ -7,28 +7,29 @@ package edu.tigers.sumatra.persistence;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.fury.Fury;
+import org.apache.fury.ThreadSafeFury;
 import org.apache.fury.config.Language;
 import org.apache.fury.logging.LoggerFactory;
 import org.apache.fury.memory.MemoryBuffer;
 
-import java.io.FileOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.function.LongSupplier;
 
 
 @Log4j2
@@ -46,38 +47,124 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 		LoggerFactory.useSlf4jLogging(true);
 	}
 
+	private static final int INITIAL_WRITE_BUFFER_SIZE = 1 << 16;
+	/** larger write buffers are released after a batch to not keep the memory of rare large batches */
+	private static final int MAX_RETAINED_WRITE_BUFFER_SIZE = 16 << 20;
+	/** default capacity of the cache of decoded entries, in serialized bytes */
+	private static final long DEFAULT_CACHE_CAPACITY = 16 << 20;
+
 	@Getter
 	private final EPersistenceKeyType keyType;
 
-	private final Fury fury;
+	private final ThreadSafeFury fury;
 
 	private final PersistenceIndex index;
 
-	private final FileOutputStream appendStream;
+	// null for a read-only table
+	private final FileChannel appendChannel;
+	// null for a read-only table in an archive
 	private final FileChannel file;
+	// only for a read-only table, null if the archive does not contain the table
+	private final PersistenceBlockFile blockFile;
+
+	// mapping of the database file for reading, remapped when the file grew
+	private final Object readMapLock = new Object();
+	private volatile MappedByteBuffer readMap;
+
+	private final PersistenceEntryCache<T> cache = new PersistenceEntryCache<>(DEFAULT_CACHE_CAPACITY);
 
+	// reused for all batches, guarded by this
+	private MemoryBuffer writeBuffer = MemoryBuffer.newHeapBuffer(INITIAL_WRITE_BUFFER_SIZE);
+	private long[] batchKeys = new long[0];
+	private long[] batchAddresses = new long[0];
+	private int[] batchSizes = new int[0];
 
+
+	/**
+	 * Open a table in a database folder. The table is read-only, if the folder is an extracted archive, which
+	 * contains the block compressed database file instead of the database file.
+	 */
 	public PersistenceTable(Class<T> clazz, Path dbPath, EPersistenceKeyType keyType)
 			throws IOException
 	{
 		this.keyType = keyType;
+		this.fury = createFury();
+		register(new HashSet<>(), clazz);
+
+		Path dbFile = dbPath.resolve(clazz.getSimpleName() + ".db");
+		Path indexFile = dbPath.resolve(clazz.getSimpleName() + ".index");
+		Path extractedBlockFile = dbPath.resolve(dbFile.getFileName() + PersistenceArchive.BLOCK_FILE_SUFFIX);
+		if (!Files.exists(dbFile) && Files.exists(extractedBlockFile))
+		{
+			// an extracted archive, which is read-only like the archive itself
+			this.appendChannel = null;
+			this.file = FileChannel.open(extractedBlockFile, StandardOpenOption.READ);
+			try
+			{
+				this.blockFile = new PersistenceBlockFile(file, 0, file.size());
+				this.index = new PersistenceIndex(mapIfExists(indexFile), blockFile.getUncompressedSize());
+			} catch (IOException e)
+			{
+				file.close();
+				throw e;
+			}
+			return;
+		}
+
+		this.appendChannel = FileChannel.open(dbFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		this.file = FileChannel.open(dbFile, StandardOpenOption.READ);
+		this.blockFile = null;
+
+		this.index = new PersistenceIndex(indexFile, file);
+	}
+
+
+	/**
+	 * Open a read-only table in an archive. The table is empty, if the archive does not contain it.
+	 */
+	PersistenceTable(Class<T> clazz, PersistenceArchive archive, EPersistenceKeyType keyType)
+			throws IOException
+	{
+		this.keyType = keyType;
+		this.fury = createFury();
+		register(new HashSet<>(), clazz);
+
+		this.appendChannel = null;
+		this.file = null;
+		this.blockFile = archive.openBlockFile(clazz.getSimpleName() + ".db");
+
+		ByteBuffer indexFile = archive.map(clazz.getSimpleName() + ".index");
+		this.index = new PersistenceIndex(
+				blockFile == null || indexFile == null ? ByteBuffer.allocate(0) : indexFile,
+				blockFile == null ? 0 : blockFile.getUncompressedSize());
+	}
+
+
+	private static ByteBuffer mapIfExists(Path path) throws IOException
+	{
+		if (!Files.exists(path))
+		{
+			return ByteBuffer.allocate(0);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
 
-		fury = Fury.builder()
+	private static ThreadSafeFury createFury()
+	{
+		return Fury.builder()
 				// Reduce buffer size requirements by serializing in interpreter mode until the JIT code is generated
 				.withAsyncCompilation(true)
 				// No cross-language compatibility required
 				.withLanguage(Language.JAVA)
 				// Allows for serialization of arbitrary classes
 				.requireClassRegistration(false)
-				.build();
-
-		register(new HashSet<>(), clazz);
-
-		Path dbFile = dbPath.resolve(clazz.getSimpleName() + ".db");
-		this.appendStream = new FileOutputStream(dbFile.toFile(), true);
-		this.file = FileChannel.open(dbFile, StandardOpenOption.READ);
-
-		this.index = new PersistenceIndex(dbPath.resolve(clazz.getSimpleName() + ".index"), file);
+				// Allows for concurrent reads, e.g. by the replay and while recording
+				.buildThreadSafeFury();
 	}
 
 
@@ -109,37 +196,96 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 	}
 
 
-	public void write(final Collection<T> elements)
+	/**
+	 * Write the elements as a batch: all elements are serialized into a reused buffer, which is written to the
+	 * database file with a single write, followed by a single write of their index entries.
+	 *
+	 * @param elements the elements to write
+	 */
+	public synchronized void write(final Collection<T> elements)
 	{
-		elements.forEach(this::write);
-	}
-
+		if (elements.isEmpty())
+		{
+			return;
+		}
+		if (appendChannel == null)
+		{
+			log.error("Could not write to read-only table");
+			return;
+		}
+		ensureBatchCapacity(elements.size());
 
-	public void write(T element)
-	{
 		try
 		{
-			long id = element.getKey();
-			long startIndex = appendStream.getChannel().position();
+			long address = appendChannel.position();
+			writeBuffer.writerIndex(0);
+			int count = 0;
+			for (T element : elements)
+			{
+				int start = writeBuffer.writerIndex();
+				try
+				{
+					fury.serialize(writeBuffer, element);
+				} catch (RuntimeException e)
+				{
+					log.error("Could not serialize {}", element.getClass().getName(), e);
+					writeBuffer.writerIndex(start);
+					continue;
+				}
+				batchKeys[count] = element.getKey();
+				batchAddresses[count] = address + start;
+				batchSizes[count] = writeBuffer.writerIndex() - start;
+				count++;
+			}
 
-			fury.serialize(appendStream, element);
-			index.append(id, startIndex);
+			ByteBuffer data = writeBuffer.sliceAsByteBuffer(0, writeBuffer.writerIndex());
+			while (data.hasRemaining())
+			{
+				appendChannel.write(data);
+			}
+			index.append(batchKeys, batchAddresses, batchSizes, count);
+			// a cached entry would miss the new element, if there are multiple elements per key.
+			// Invalidating after the index was extended also drops entries that are decoded concurrently
+			cache.invalidate(batchKeys, count);
 		} catch (RuntimeException | IOException e)
 		{
 			log.error("Could not write to db", e);
 		}
+
+		if (writeBuffer.size() > MAX_RETAINED_WRITE_BUFFER_SIZE)
+		{
+			writeBuffer = MemoryBuffer.newHeapBuffer(INITIAL_WRITE_BUFFER_SIZE);
+		}
+	}
+
+
+	public void write(T element)
+	{
+		write(List.of(element));
+	}
+
+
+	private void ensureBatchCapacity(int size)
+	{
+		if (batchKeys.length < size)
+		{
+			int capacity = Math.max(size, 2 * batchKeys.length);
+			batchKeys = new long[capacity];
+			batchAddresses = new long[capacity];
+			batchSizes = new int[capacity];
+		}
 	}
 
 
 	public int size()
 	{
-		return index.get().size();
+		return index.size();
 	}
 
 
 	public void forEach(Consumer<T> consumer)
 	{
-		for (long key : index.get().navigableKeySet())
+		for (Long key = index.firstKey(); key != null; key = index.higherKey(key))
 		{
 			consumer.accept(get(key));
 		}
@@ -154,10 +300,26 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 	}
 
 
+	/**
+	 * Get the element of a key. Recently used elements are cached and the same instance is returned to all
+	 * callers, so the returned element must be treated as read-only. Callers that need to modify it have to copy it.
+	 *
+	 * @param key the key
+	 * @return the element or null, if there is no element with this key
+	 */
 	@SuppressWarnings("unchecked")
 	public T get(long key)
 	{
-		if (!index.get().containsKey(key))
+		T cached = cache.get(key);
+		if (cached != null)
+		{
+			return cached;
+		}
+
+		// taken before the index is read, so that an element missing a concurrent write is not cached
+		long generation = cache.getGeneration();
+		List<PersistenceIndex.Range> ranges = index.getRanges(key);
+		if (ranges.isEmpty())
 		{
 			return null;
 		}
@@ -165,14 +327,11 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 		try
 		{
 			T element = null;
-			for (PersistenceIndex.Range range : index.get().get(key))
+			long size = 0;
+			for (PersistenceIndex.Range range : ranges)
 			{
-				file.position(range.address());
-				ByteBuffer buf = ByteBuffer.allocate(range.size());
-				file.read(buf);
-				buf.position(0);
-
-				T entry = (T) fury.deserialize(MemoryBuffer.fromByteBuffer(buf));
+				T entry = (T) fury.deserialize(MemoryBuffer.fromByteBuffer(read(range)));
+				size += range.size();
 				if (element != null)
 				{
 					element.merge(entry);
@@ -181,6 +340,7 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 					element = entry;
 				}
 			}
+			cache.put(key, element, size, generation);
 			return element;
 		} catch (RuntimeException | IOException e)
 		{
@@ -190,34 +350,109 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 	}
 
 
+	/**
+	 * Read a range without copying from a mapping of the database file.
+	 * Ranges beyond the maximum size of a mapping are read with a positional read.
+	 * Neither changes the position of the file, so reads are thread-safe.
+	 * Tables in an archive decompress the blocks of the range instead.
+	 */
+	private ByteBuffer read(PersistenceIndex.Range range) throws IOException
+	{
+		if (blockFile != null)
+		{
+			return blockFile.read(range.address(), range.size());
+		}
+
+		long end = range.address() + range.size();
+		if (end <= Integer.MAX_VALUE)
+		{
+			return mapUpTo(end).slice((int) range.address(), range.size());
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(range.size());
+		long position = range.address();
+		while (buf.hasRemaining())
+		{
+			int n = file.read(buf, position);
+			if (n < 0)
+			{
+				throw new EOFException("Unexpected end of db at " + position);
+			}
+			position += n;
+		}
+		return buf.flip();
+	}
+
+
+	private MappedByteBuffer mapUpTo(long end) throws IOException
+	{
+		MappedByteBuffer map = readMap;
+		if (map == null || map.capacity() < end)
+		{
+			synchronized (readMapLock)
+			{
+				map = readMap;
+				if (map == null || map.capacity() < end)
+				{
+					// map the whole file, so that the mapping only changes when new elements are read
+					map = file.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(file.size(), Integer.MAX_VALUE));
+					readMap = map;
+				}
+			}
+		}
+		return map;
+	}
+
+
+	/**
+	 * @param capacity the capacity of the cache of decoded elements in serialized bytes, 0 to disable the cache
+	 */
+	public void setCacheCapacity(long capacity)
+	{
+		cache.setCapacity(capacity);
+	}
+
+
+	public long getCacheHits()
+	{
+		return cache.getHits();
+	}
+
+
+	public long getCacheMisses()
+	{
+		return cache.getMisses();
+	}
+
+
 	public Long getFirstKey()
 	{
-		return noSuchElement(index.get()::firstKey);
+		return index.firstKey();
 	}
 
 
 	public Long getLastKey()
 	{
-		return noSuchElement(index.get()::lastKey);
+		return index.lastKey();
 	}
 
 
 	public Long getPreviousKey(long key)
 	{
-		return index.get().lowerKey(key);
+		return index.lowerKey(key);
 	}
 
 
 	public Long getNextKey(long key)
 	{
-		return index.get().higherKey(key);
+		return index.higherKey(key);
 	}
 
 
 	public Long getNearestKey(long key)
 	{
-		Long neighbour = index.get().floorKey(key);
-		Long ceil = index.get().ceilingKey(key);
+		Long neighbour = index.floorKey(key);
+		Long ceil = index.ceilingKey(key);
 		if (ceil != null && (neighbour == null || Math.abs(ceil - key) < Math.abs(neighbour - key)))
 			return ceil;
 
@@ -229,8 +464,22 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 	{
 		try
 		{
-			appendStream.close();
-			file.close();
+			log.debug("Closing table with {} cache hits and {} cache misses", cache.getHits(), cache.getMisses());
+			if (appendChannel != null)
+			{
+				appendChannel.close();
+			}
+			if (file != null)
+			{
+				file.close();
+			}
+			synchronized (readMapLock)
+			{
+				// the mapping is released once it is not referenced anymore. Unmapping it explicitly would crash
+				// concurrent reads of its slices
+				readMap = null;
+			}
+			cache.setCapacity(0);
 			index.close();
 		} catch (IOException e)
 		{
@@ -239,28 +488,26 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>>
 	}
 
 
-	private Long noSuchElement(LongSupplier supplier)
-	{
-		try
-		{
-			return supplier.getAsLong();
-		} catch (NoSuchElementException e)
-		{
-			return null;
-		}
-	}
-
-
 	public boolean isSumatraTimestampBased()
 	{
 		return keyType == EPersistenceKeyType.SUMATRA_TIMESTAMP;
 	}
 
 
+	/**
+	 * An element of a table. Elements read from a table are shared, so they must not be modified after reading.
+	 *
+	 * @param <S> the type of the element
+	 */
 	public interface IEntry<S>
 	{
 		long getKey();
 
+		/**
+		 * Merge another element with the same key into this one. Only called for elements that were just decoded.
+		 *
+		 * @param other the element written after this one
+		 */
 		default void merge(S other)
 		{
 			log.warn("Entry merge attempted for class {}", getClass().getName());
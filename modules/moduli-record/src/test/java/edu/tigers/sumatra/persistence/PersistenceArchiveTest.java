@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import net.lingala.zip4j.ZipFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class PersistenceArchiveTest
+{
+	private static final int NUM_FRAMES = 200;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path dbPath;
+	private Path zipFile;
+
+
+	@Before
+	public void setUp()
+	{
+		dbPath = folder.getRoot().toPath().resolve("db");
+		zipFile = folder.getRoot().toPath().resolve("db.zip");
+	}
+
+
+	private static void addTables(PersistenceDb db)
+	{
+		db.add(Frame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(Event.class, EPersistenceKeyType.ARBITRARY);
+		db.add(EmptyFrame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+	}
+
+
+	private void writeDb()
+	{
+		PersistenceDb db = new PersistenceDb(dbPath);
+		addTables(db);
+		List<Frame> frames = new ArrayList<>();
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			frames.add(new Frame(1_000_000_000L + i * 16_000_000L, "frame " + i));
+		}
+		db.getTable(Frame.class).write(frames);
+		db.getTable(Event.class).write(List.of(new Event(3, "event 3"), new Event(1, "event 1")));
+		db.close();
+	}
+
+
+	private static Content read(PersistenceDb db)
+	{
+		addTables(db);
+		Content content = new Content(
+				db.getTable(Frame.class).load(),
+				db.getTable(Event.class).load(),
+				db.getTable(EmptyFrame.class).load(),
+				db.getFirstKey(),
+				db.getLastKey(),
+				db.getNextKey(1_000_000_000L));
+		db.close();
+		return content;
+	}
+
+
+	private void deleteDb() throws IOException
+	{
+		new PersistenceDb(dbPath).delete();
+		assertThat(Files.exists(dbPath)).isFalse();
+	}
+
+
+	@Test
+	public void testReadInPlace() throws IOException
+	{
+		writeDb();
+		Content baseline = read(new PersistenceDb(dbPath));
+		assertThat(baseline.frames()).hasSize(NUM_FRAMES);
+		assertThat(baseline.events()).hasSize(2);
+		assertThat(baseline.emptyFrames()).isEmpty();
+
+		new PersistenceDb(dbPath).compress();
+		deleteDb();
+		try (PersistenceArchive archive = PersistenceArchive.open(zipFile))
+		{
+			assertThat(archive).isNotNull();
+		}
+
+		assertThat(read(new PersistenceDb(zipFile))).isEqualTo(baseline);
+		// read in place, nothing is extracted
+		assertThat(Files.exists(dbPath)).isFalse();
+	}
+
+
+	@Test
+	public void testReadExtracted() throws IOException
+	{
+		writeDb();
+		Content baseline = read(new PersistenceDb(dbPath));
+		new PersistenceDb(dbPath).compress();
+		deleteDb();
+
+		// the extracted folder contains the block compressed database files
+		try (ZipFile zip = new ZipFile(zipFile.toFile()))
+		{
+			zip.extractAll(dbPath.toString());
+		}
+		assertThat(Files.exists(dbPath.resolve("Frame.db"))).isFalse();
+		assertThat(Files.exists(dbPath.resolve("Frame.db" + PersistenceArchive.BLOCK_FILE_SUFFIX))).isTrue();
+
+		assertThat(read(new PersistenceDb(zipFile))).isEqualTo(baseline);
+		assertThat(read(new PersistenceDb(dbPath))).isEqualTo(baseline);
+	}
+
+
+	@Test
+	public void testLegacyArchive() throws IOException
+	{
+		writeDb();
+		Content baseline = read(new PersistenceDb(dbPath));
+
+		// older versions deflated all files
+		try (ZipOutputStream zs = new ZipOutputStream(Files.newOutputStream(zipFile)))
+		{
+			for (String name : List.of("Frame.db", "Frame.index", "Event.db", "Event.index"))
+			{
+				zs.putNextEntry(new ZipEntry(name));
+				Files.copy(dbPath.resolve(name), zs);
+				zs.closeEntry();
+			}
+		}
+		deleteDb();
+		assertThat(PersistenceArchive.open(zipFile)).isNull();
+
+		assertThat(read(new PersistenceDb(zipFile))).isEqualTo(baseline);
+		assertThat(Files.exists(dbPath.resolve("Frame.db"))).isTrue();
+	}
+
+
+	private record Content(List<Frame> frames, List<Event> events, List<EmptyFrame> emptyFrames,
+			Long firstKey, Long lastKey, Long nextKey)
+	{
+	}
+
+	private record Frame(long key, String data) implements PersistenceTable.IEntry<Frame>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+
+	private record Event(long key, String data) implements PersistenceTable.IEntry<Event>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+
+	private record EmptyFrame(long key) implements PersistenceTable.IEntry<EmptyFrame>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+import static edu.tigers.sumatra.persistence.PersistenceBlockFile.BLOCK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+public class PersistenceBlockFileTest
+{
+	private static final int PARALLELISM = 2;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+	private FileChannel channel;
+
+
+	@After
+	public void tearDown() throws IOException
+	{
+		executor.shutdownNow();
+		if (channel != null)
+		{
+			channel.close();
+		}
+	}
+
+
+	/**
+	 * @return compressible data, which differs between the blocks
+	 */
+	private static byte[] data(int size)
+	{
+		Random random = new Random(42);
+		byte[] data = new byte[size];
+		for (int i = 0; i < size; i++)
+		{
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return data;
+	}
+
+
+	private PersistenceBlockFile compressAndOpen(byte[] data) throws IOException
+	{
+		Path source = folder.newFile("test.db").toPath();
+		Path target = folder.getRoot().toPath().resolve("test.db.blocks");
+		Files.write(source, data);
+
+		PersistenceBlockFile.CompressedFile compressed = PersistenceBlockFile.compress(source, target, executor,
+				PARALLELISM);
+		assertThat(compressed.size()).isEqualTo(Files.size(target));
+		CRC32 crc = new CRC32();
+		crc.update(Files.readAllBytes(target));
+		assertThat(compressed.crc()).isEqualTo(crc.getValue());
+
+		channel = FileChannel.open(target, StandardOpenOption.READ);
+		PersistenceBlockFile blockFile = new PersistenceBlockFile(channel, 0, channel.size());
+		assertThat(blockFile.getUncompressedSize()).isEqualTo(data.length);
+		return blockFile;
+	}
+
+
+	private static void assertRange(PersistenceBlockFile blockFile, byte[] data, int address, int size)
+			throws IOException
+	{
+		ByteBuffer range = blockFile.read(address, size);
+		byte[] actual = new byte[range.remaining()];
+		range.get(actual);
+		assertThat(actual).isEqualTo(Arrays.copyOfRange(data, address, address + size));
+	}
+
+
+	@Test
+	public void testReadAcrossBlocks() throws IOException
+	{
+		byte[] data = data(2 * BLOCK_SIZE + BLOCK_SIZE / 2 + 17);
+		PersistenceBlockFile blockFile = compressAndOpen(data);
+
+		assertRange(blockFile, data, 0, 100);
+		assertRange(blockFile, data, BLOCK_SIZE + 5, 1000);
+		assertRange(blockFile, data, BLOCK_SIZE - 10, 20);
+		// the whole second block and parts of its neighbours
+		assertRange(blockFile, data, BLOCK_SIZE - 5, BLOCK_SIZE + 10);
+		assertRange(blockFile, data, data.length - 10, 10);
+		assertRange(blockFile, data, 0, data.length);
+	}
+
+
+	@Test
+	public void testExactMultipleOfBlockSize() throws IOException
+	{
+		byte[] data = data(2 * BLOCK_SIZE);
+		PersistenceBlockFile blockFile = compressAndOpen(data);
+
+		assertRange(blockFile, data, BLOCK_SIZE - 1, 2);
+		assertRange(blockFile, data, 2 * BLOCK_SIZE - 10, 10);
+		assertThatThrownBy(() -> blockFile.read(2L * BLOCK_SIZE, 1)).isInstanceOf(EOFException.class);
+	}
+
+
+	@Test
+	public void testEmptyFile() throws IOException
+	{
+		PersistenceBlockFile blockFile = compressAndOpen(new byte[0]);
+
+		assertThat(blockFile.getUncompressedSize()).isZero();
+		assertThatThrownBy(() -> blockFile.read(0, 1)).isInstanceOf(EOFException.class);
+	}
+
+
+	@Test
+	public void testEmbeddedInFile() throws IOException
+	{
+		byte[] data = data(BLOCK_SIZE + 100);
+		compressAndOpen(data);
+		byte[] blocks = Files.readAllBytes(folder.getRoot().toPath().resolve("test.db.blocks"));
+
+		// like a stored entry of a zip file
+		Path container = folder.newFile("container").toPath();
+		byte[] prefix = new byte[123];
+		byte[] suffix = new byte[45];
+		Files.write(container, prefix);
+		Files.write(container, blocks, StandardOpenOption.APPEND);
+		Files.write(container, suffix, StandardOpenOption.APPEND);
+
+		try (FileChannel containerChannel = FileChannel.open(container, StandardOpenOption.READ))
+		{
+			PersistenceBlockFile blockFile = new PersistenceBlockFile(containerChannel, prefix.length, blocks.length);
+			assertRange(blockFile, data, BLOCK_SIZE - 50, 100);
+		}
+	}
+}
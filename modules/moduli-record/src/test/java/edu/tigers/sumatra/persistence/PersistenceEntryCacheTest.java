@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class PersistenceEntryCacheTest
+{
+	@Test
+	public void testLeastRecentlyUsedEviction()
+	{
+		PersistenceEntryCache<String> cache = new PersistenceEntryCache<>(30);
+		cache.put(1, "a", 10);
+		cache.put(2, "b", 10);
+		cache.put(3, "c", 10);
+		assertThat(cache.get(1)).isEqualTo("a");
+
+		cache.put(4, "d", 10);
+		assertThat(cache.get(2)).isNull();
+		assertThat(cache.get(1)).isEqualTo("a");
+		assertThat(cache.getWeight()).isEqualTo(30);
+		assertThat(cache.getHits()).isEqualTo(2);
+		assertThat(cache.getMisses()).isEqualTo(1);
+
+		cache.put(5, "e", 31);
+		assertThat(cache.get(5)).isNull();
+		cache.setCapacity(0);
+		assertThat(cache.size()).isZero();
+		assertThat(cache.getWeight()).isZero();
+	}
+
+
+	@Test
+	public void testInvalidate()
+	{
+		PersistenceEntryCache<String> cache = new PersistenceEntryCache<>(100);
+		cache.put(1, "a", 10);
+		cache.put(2, "b", 10);
+		cache.put(3, "c", 10);
+
+		cache.invalidate(new long[] { 1, 3, 4 }, 2);
+		assertThat(cache.get(1)).isNull();
+		assertThat(cache.get(2)).isEqualTo("b");
+		assertThat(cache.get(3)).isNull();
+		assertThat(cache.getWeight()).isEqualTo(10);
+	}
+
+
+	@Test
+	public void testEntryDecodedBeforeInvalidationIsNotAdded()
+	{
+		PersistenceEntryCache<String> cache = new PersistenceEntryCache<>(100);
+		long generation = cache.getGeneration();
+		cache.put(1, "a", 10, generation);
+		assertThat(cache.get(1)).isEqualTo("a");
+
+		// a write of another key happened while the entry was decoded
+		cache.invalidate(new long[] { 2 }, 1);
+		cache.put(3, "c", 10, generation);
+		assertThat(cache.get(3)).isNull();
+
+		cache.put(3, "c", 10, cache.getGeneration());
+		assertThat(cache.get(3)).isEqualTo("c");
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.persistence;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class PersistenceIndexTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private FileChannel db;
+	private PersistenceIndex index;
+	private long address = 0;
+	/** the expected addresses per key */
+	private final TreeMap<Long, List<Long>> expected = new TreeMap<>();
+
+
+	private PersistenceIndex open() throws IOException
+	{
+		Path dbFile = folder.getRoot().toPath().resolve("test.db");
+		if (db == null)
+		{
+			db = FileChannel.open(dbFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		return new PersistenceIndex(folder.getRoot().toPath().resolve("test.index"), db);
+	}
+
+
+	@After
+	public void tearDown() throws IOException
+	{
+		if (index != null)
+		{
+			index.close();
+		}
+		if (db != null)
+		{
+			db.close();
+		}
+	}
+
+
+	private void append(long... keys) throws IOException
+	{
+		long[] addresses = new long[keys.length];
+		int[] sizes = new int[keys.length];
+		for (int i = 0; i < keys.length; i++)
+		{
+			addresses[i] = address;
+			sizes[i] = 10;
+			expected.computeIfAbsent(keys[i], k -> new ArrayList<>()).add(address);
+			address += sizes[i];
+		}
+		index.append(keys, addresses, sizes, keys.length);
+	}
+
+
+	private void assertIndex(PersistenceIndex actual)
+	{
+		assertThat(actual.size()).isEqualTo(expected.size());
+		if (expected.isEmpty())
+		{
+			assertThat(actual.firstKey()).isNull();
+			assertThat(actual.lastKey()).isNull();
+			return;
+		}
+		assertThat(actual.firstKey()).isEqualTo(expected.firstKey());
+		assertThat(actual.lastKey()).isEqualTo(expected.lastKey());
+		for (Map.Entry<Long, List<Long>> entry : expected.entrySet())
+		{
+			long key = entry.getKey();
+			assertThat(actual.getRanges(key).stream().map(PersistenceIndex.Range::address).toList())
+					.isEqualTo(entry.getValue());
+			if (!expected.containsKey(key + 1))
+			{
+				assertThat(actual.getRanges(key + 1)).isEmpty();
+			}
+			assertThat(actual.floorKey(key)).isEqualTo(key);
+			assertThat(actual.ceilingKey(key)).isEqualTo(key);
+			assertThat(actual.lowerKey(key)).isEqualTo(expected.lowerKey(key));
+			assertThat(actual.higherKey(key)).isEqualTo(expected.higherKey(key));
+			assertThat(actual.floorKey(key + 1)).isEqualTo(expected.floorKey(key + 1));
+			assertThat(actual.ceilingKey(key - 1)).isEqualTo(expected.ceilingKey(key - 1));
+		}
+	}
+
+
+	@Test
+	public void testInKeyOrder() throws IOException
+	{
+		index = open();
+		assertIndex(index);
+		append(1, 2, 2, 5);
+		append(7, 8);
+		assertIndex(index);
+	}
+
+
+	@Test
+	public void testOutOfOrder() throws IOException
+	{
+		index = open();
+		append(10, 20, 30);
+		assertIndex(index);
+		append(15, 40, 5);
+		assertIndex(index);
+		// equal keys stay in address order
+		append(20, 15, 50, 15);
+		assertIndex(index);
+		append(60);
+		append(1);
+		assertIndex(index);
+	}
+
+
+	@Test
+	public void testRandomAppends() throws IOException
+	{
+		Random random = new Random(42);
+		index = open();
+		for (int batch = 0; batch < 50; batch++)
+		{
+			long[] keys = new long[random.nextInt(20)];
+			for (int i = 0; i < keys.length; i++)
+			{
+				keys[i] = 1_000_000_000_000L + random.nextInt(300);
+			}
+			append(keys);
+			if (random.nextBoolean())
+			{
+				assertThat(index.size()).isEqualTo(expected.size());
+			}
+		}
+		assertIndex(index);
+	}
+
+
+	@Test
+	public void testReopen() throws IOException
+	{
+		index = open();
+		append(3, 1, 2, 2);
+		append(5, 4);
+		// the address of the last entry in the file is given by the size of the database file
+		db.write(ByteBuffer.allocate((int) address), 0);
+		index.close();
+
+		index = open();
+		assertIndex(index);
+		assertThat(index.getRanges(4)).containsExactly(new PersistenceIndex.Range(50, 10));
+		append(0, 6);
+		assertIndex(index);
+	}
+
+
+	@Test
+	public void testReopenInKeyOrder() throws IOException
+	{
+		index = open();
+		append(1, 2, 3, 3, 4);
+		db.write(ByteBuffer.allocate((int) address), 0);
+		index.close();
+
+		index = open();
+		assertIndex(index);
+	}
+}
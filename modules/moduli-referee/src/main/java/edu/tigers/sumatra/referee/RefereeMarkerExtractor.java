@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.referee;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import edu.tigers.sumatra.gamelog.EGameLogMarkerType;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMarker;
+import edu.tigers.sumatra.gamelog.GameLogMarkerExtractor;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.referee.proto.SslGcGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Extract markers for new referee commands, stages and game events from referee messages.
+ * <p>
+ * Markers are only created for changes compared to the previous message, so an instance must only be used for
+ * a single pass over a game log.
+ */
+@Log4j2
+public class RefereeMarkerExtractor implements GameLogMarkerExtractor
+{
+	private SslGcRefereeMessage.Referee.Command lastCommand;
+	private SslGcRefereeMessage.Referee.Stage lastStage;
+	private Set<SslGcGameEvent.GameEvent> lastGameEvents = Set.of();
+
+
+	@Override
+	public EMessageType getMessageType()
+	{
+		return EMessageType.SSL_REFBOX_2013;
+	}
+
+
+	@Override
+	public List<GameLogMarker> extract(final GameLogMessage message, final int index)
+	{
+		SslGcRefereeMessage.Referee referee;
+		try
+		{
+			referee = SslGcRefereeMessage.Referee.parseFrom(message.getData());
+		} catch (InvalidProtocolBufferException e)
+		{
+			log.warn("Invalid SSL_REFBOX_2013 package at index {}", index, e);
+			return List.of();
+		}
+
+		List<GameLogMarker> markers = new ArrayList<>();
+		long timestamp = message.getTimestampNs();
+		if (referee.getCommand() != lastCommand)
+		{
+			lastCommand = referee.getCommand();
+			markers.add(new GameLogMarker(index, timestamp, EGameLogMarkerType.REFEREE_COMMAND, lastCommand.name()));
+		}
+		if (referee.getStage() != lastStage)
+		{
+			lastStage = referee.getStage();
+			markers.add(new GameLogMarker(index, timestamp, EGameLogMarkerType.STAGE, lastStage.name()));
+		}
+
+		Set<SslGcGameEvent.GameEvent> gameEvents = new HashSet<>(referee.getGameEventsList());
+		for (SslGcGameEvent.GameEvent gameEvent : referee.getGameEventsList())
+		{
+			if (!lastGameEvents.contains(gameEvent))
+			{
+				markers.add(new GameLogMarker(index, timestamp, EGameLogMarkerType.GAME_EVENT,
+						gameEvent.getType().name()));
+			}
+		}
+		lastGameEvents = gameEvents;
+		return markers;
+	}
+}
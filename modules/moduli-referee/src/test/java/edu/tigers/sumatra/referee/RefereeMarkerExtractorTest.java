@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2009 - 2023, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.referee;
+
+import edu.tigers.sumatra.gamelog.EGameLogMarkerType;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMarker;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.referee.proto.SslGcCommon;
+import edu.tigers.sumatra.referee.proto.SslGcGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import org.junit.Test;
+
+import static edu.tigers.sumatra.referee.data.RefereeMsgBuilder.aRefereeMsg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class RefereeMarkerExtractorTest
+{
+	private final RefereeMarkerExtractor extractor = new RefereeMarkerExtractor();
+
+
+	@Test
+	public void extractChanges()
+	{
+		var stop = aRefereeMsg().withCommand(SslGcRefereeMessage.Referee.Command.STOP).build();
+		assertThat(extractor.extract(message(10, stop), 0)).containsExactly(
+				new GameLogMarker(0, 10, EGameLogMarkerType.REFEREE_COMMAND, "STOP"),
+				new GameLogMarker(0, 10, EGameLogMarkerType.STAGE, "NORMAL_FIRST_HALF"));
+
+		assertThat(extractor.extract(message(20, stop), 1)).isEmpty();
+
+		var gameEvent = SslGcGameEvent.GameEvent.newBuilder()
+				.setType(SslGcGameEvent.GameEvent.Type.BALL_LEFT_FIELD_GOAL_LINE)
+				.setBallLeftFieldGoalLine(SslGcGameEvent.GameEvent.BallLeftField.newBuilder()
+						.setByTeam(SslGcCommon.Team.BLUE))
+				.build();
+		var stopWithEvent = stop.toBuilder().addGameEvents(gameEvent).build();
+		assertThat(extractor.extract(message(30, stopWithEvent), 2)).containsExactly(
+				new GameLogMarker(2, 30, EGameLogMarkerType.GAME_EVENT, "BALL_LEFT_FIELD_GOAL_LINE"));
+
+		assertThat(extractor.extract(message(40, stopWithEvent), 3)).isEmpty();
+	}
+
+
+	@Test
+	public void ignoreInvalidMessage()
+	{
+		var message = new GameLogMessage(0, EMessageType.SSL_REFBOX_2013, new byte[] { 1, 2, 3 });
+		assertThat(extractor.extract(message, 0)).isEmpty();
+	}
+
+
+	private GameLogMessage message(final long timestamp, final SslGcRefereeMessage.Referee referee)
+	{
+		return new GameLogMessage(timestamp, EMessageType.SSL_REFBOX_2013, referee.toByteArray());
+	}
+}
@@ -8,6 +8,7 @@ import edu.tigers.moduli.AModule;
 import edu.tigers.sumatra.bot.RobotInfo;
 import edu.tigers.sumatra.cam.ICamFrameObserver;
 import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector3;
@@ -21,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
 
 
 /**
@@ -31,6 +33,7 @@ public abstract class AVisionFilter extends AModule implements ICamFrameObserver
 {
 	private Map<BotID, RobotInfo> robotInfoMap = new HashMap<>();
 	private final Set<IVisionFilterObserver> observers = new CopyOnWriteArraySet<>();
+	private final Set<Predicate<IShapeLayerIdentifier>> shapeLayerSubscribers = new CopyOnWriteArraySet<>();
 	@Setter
 	private IBallPlacer ballPlacer;
 
@@ -151,6 +154,43 @@ public abstract class AVisionFilter extends AModule implements ICamFrameObserver
 	}
 
 
+	/**
+	 * Subscribe to shape layers. Filters may skip generating debug shapes that nobody subscribed to.
+	 *
+	 * @param subscriber returns true for each layer that the subscriber is interested in
+	 */
+	public final void addShapeLayerSubscriber(final Predicate<IShapeLayerIdentifier> subscriber)
+	{
+		shapeLayerSubscribers.add(subscriber);
+	}
+
+
+	/**
+	 * @param subscriber to unsubscribe
+	 */
+	public final void removeShapeLayerSubscriber(final Predicate<IShapeLayerIdentifier> subscriber)
+	{
+		shapeLayerSubscribers.remove(subscriber);
+	}
+
+
+	/**
+	 * @param layer the shape layer
+	 * @return true, if any subscriber is interested in the given layer
+	 */
+	protected final boolean isShapeLayerSubscribed(final IShapeLayerIdentifier layer)
+	{
+		for (Predicate<IShapeLayerIdentifier> subscriber : shapeLayerSubscribers)
+		{
+			if (subscriber.test(layer))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
 	@Override
 	public void stopModule()
 	{
@@ -7,6 +7,7 @@ import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import edu.tigers.sumatra.ball.BallState;
 import edu.tigers.sumatra.bot.RobotInfo;
+import edu.tigers.sumatra.drawable.DrawableBorderText;
 import edu.tigers.sumatra.drawable.DrawableCircle;
 import edu.tigers.sumatra.drawable.DrawableLine;
 import edu.tigers.sumatra.drawable.IDrawableShape;
@@ -16,7 +17,9 @@ import edu.tigers.sumatra.math.AngleMath;
 import edu.tigers.sumatra.math.line.ILineSegment;
 import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
 import edu.tigers.sumatra.vision.data.FilteredVisionBall;
 import edu.tigers.sumatra.vision.data.FilteredVisionBot;
 import edu.tigers.sumatra.vision.data.IBallModelIdentificationObserver;
@@ -28,7 +31,10 @@ import edu.tigers.sumatra.vision.kick.estimators.EKickEstimatorType;
 import edu.tigers.sumatra.vision.kick.estimators.IBallModelIdentResult;
 import edu.tigers.sumatra.vision.kick.estimators.IKickEstimator;
 import edu.tigers.sumatra.vision.kick.estimators.KickFitResult;
+import edu.tigers.sumatra.vision.kick.estimators.KickSolverLatency;
+import edu.tigers.sumatra.vision.kick.estimators.KickSolverMetrics;
 import edu.tigers.sumatra.vision.kick.estimators.StraightKickEstimator;
+import edu.tigers.sumatra.vision.kick.estimators.TimedKickEstimator;
 import edu.tigers.sumatra.vision.tracker.BallTracker;
 import edu.tigers.sumatra.vision.tracker.BallTracker.MergedBall;
 import lombok.RequiredArgsConstructor;
@@ -40,9 +46,14 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 
@@ -59,6 +70,10 @@ public class BallFilterPreprocessor
 	private static double minSearchRadius = 300.0;
 	@Configurable(defValue = "0.2", comment = "Factor by which a estimator must be better than the last one to use it")
 	private static double estimatorSwitchHysteresis = 0.2;
+	@Configurable(defValue = "false", comment = "Run the solvers of all kick estimators concurrently on a solver pool")
+	private static boolean parallelKickEstimators = false;
+	@Configurable(defValue = "0.004", comment = "Max. time to wait for parallel kick estimators per frame [s]")
+	private static double kickEstimatorDeadline = 0.004;
 
 	static
 	{
@@ -136,6 +151,24 @@ public class BallFilterPreprocessor
 	}
 
 
+	/**
+	 * @return the solver latency of the kick estimators per estimator type
+	 */
+	public Map<EKickEstimatorType, KickSolverLatency> getKickSolverLatencies()
+	{
+		return kickEstimators.metrics.getLatencies();
+	}
+
+
+	/**
+	 * Stop the solver pool of the kick estimators. It will be recreated on demand.
+	 */
+	public void shutdown()
+	{
+		kickEstimators.shutdown();
+	}
+
+
 	public List<IDrawableShape> getShapes()
 	{
 		List<IDrawableShape> shapes = new ArrayList<>();
@@ -332,8 +365,10 @@ public class BallFilterPreprocessor
 
 	private class KickEstimators
 	{
-		private final List<IKickEstimator> estimators = new ArrayList<>();
-		private IKickEstimator lastBestEstimator;
+		private final List<TimedKickEstimator> estimators = new ArrayList<>();
+		private final KickSolverMetrics metrics = new KickSolverMetrics();
+		private ExecutorService solverPool;
+		private TimedKickEstimator lastBestEstimator;
 		private long lastKickTimestamp = 0;
 		private CircularFifoQueue<KickEvent> kickEventHistory = new CircularFifoQueue<>(10);
 		private CircularFifoQueue<FilteredVisionBall> filteredBallHistory = new CircularFifoQueue<>(20);
@@ -362,6 +397,10 @@ public class BallFilterPreprocessor
 			{
 				// add cam ball to all estimators
 				estimators.forEach(k -> k.addCamBall(ball.getLatestCamBall().get()));
+
+				// wait for parallel estimators, but not longer than the deadline
+				long deadline = System.nanoTime() + (long) (kickEstimatorDeadline * 1e9);
+				estimators.forEach(k -> k.await(deadline));
 			}
 
 			// run completed check
@@ -369,7 +408,7 @@ public class BallFilterPreprocessor
 			{
 				estimators.stream()
 						.filter(e -> e.isDone(mergedRobots, timestamp))
-						.map(IKickEstimator::getModelIdentResult)
+						.map(TimedKickEstimator::getModelIdentResult)
 						.flatMap(List::stream)
 						.forEach(this::notifyBallModelIdentificationResult);
 			}
@@ -408,11 +447,11 @@ public class BallFilterPreprocessor
 			}
 
 			// we have a kick event
-			IKickEstimator chipEstimator = estimators.stream()
+			TimedKickEstimator chipEstimator = estimators.stream()
 					.filter(e -> e.getType() == EKickEstimatorType.CHIP)
 					.findFirst().orElse(null);
 
-			IKickEstimator flatEstimator = estimators.stream()
+			TimedKickEstimator flatEstimator = estimators.stream()
 					.filter(e -> e.getType() == EKickEstimatorType.FLAT)
 					.findFirst().orElse(null);
 
@@ -436,9 +475,9 @@ public class BallFilterPreprocessor
 				log.debug("Speed: {}", kickRobotInfo.getKickSpeed() * 1000.0);
 
 				// always spawn a new chip estimator if there is a kicking robot nearby
-				chipEstimator = new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(),
+				chipEstimator = wrap(new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(),
 						kickEvent, kickRobotInfo.getKickSpeed() * 1000.0,
-						kickRobotInfo.getBotParams().getKickerSpecs().getChipAngle());
+						kickRobotInfo.getBotParams().getKickerSpecs().getChipAngle()));
 
 				log.debug("Spawned chip estimator with prior knowledge from RobotInfo");
 			}
@@ -446,15 +485,16 @@ public class BallFilterPreprocessor
 			if ((chipEstimator == null) && !kickEvent.isEarlyDetection())
 			{
 				// spawn a new chip estimator if this is a slow kick detection event and no estimator exists yet
-				chipEstimator = new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(), kickEvent);
+				chipEstimator = wrap(
+						new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(), kickEvent));
 
 				log.debug("Spawned chip estimator");
 			}
 
 			if (flatEstimator == null)
 			{
-				flatEstimator = new StraightKickEstimator(kickEvent,
-						filteredBallHistory.stream().toList());
+				flatEstimator = wrap(new StraightKickEstimator(kickEvent,
+						filteredBallHistory.stream().toList()));
 
 				log.debug("Spawned flat estimator");
 			}
@@ -470,8 +510,8 @@ public class BallFilterPreprocessor
 								> 500.0))
 				{
 					// large angle deviation or some distance away from last kick, spawn new estimator
-					flatEstimator = new StraightKickEstimator(kickEvent,
-							filteredBallHistory.stream().toList());
+					flatEstimator = wrap(new StraightKickEstimator(kickEvent,
+							filteredBallHistory.stream().toList()));
 					log.debug("Spawned flat estimator due to angle/pos deviation");
 				} else
 				{
@@ -490,15 +530,31 @@ public class BallFilterPreprocessor
 		}
 
 
+		private TimedKickEstimator wrap(final IKickEstimator estimator)
+		{
+			if (!parallelKickEstimators)
+			{
+				return new TimedKickEstimator(estimator, metrics, null);
+			}
+			if (solverPool == null)
+			{
+				int numThreads = EKickEstimatorType.values().length;
+				solverPool = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+						new ArrayBlockingQueue<>(numThreads * 2), new NamedThreadFactory("VisionFilter KickSolver"));
+			}
+			return new TimedKickEstimator(estimator, metrics, solverPool);
+		}
+
+
 		private KickFitResult getBestKickFitResult(final long timestamp)
 		{
-			Optional<IKickEstimator> bestEstimator = estimators.stream()
+			Optional<TimedKickEstimator> bestEstimator = estimators.stream()
 					.filter(k -> k.getFitResult().isPresent())
 					.min(Comparator.comparingDouble(k -> k.getFitResult().get().getAvgDistance()));
 
 			if (bestEstimator.isPresent())
 			{
-				IKickEstimator est = bestEstimator.get();
+				TimedKickEstimator est = bestEstimator.get();
 				boolean noLastBestEstimator = (lastBestEstimator == null) || !estimators.contains(lastBestEstimator);
 				if (noLastBestEstimator || ((est != lastBestEstimator) && (est.getFitResult().orElseThrow()
 						.getAvgDistance() < (lastBestEstimator.getFitResult().orElseThrow().getAvgDistance()
@@ -538,6 +594,7 @@ public class BallFilterPreprocessor
 			List<IDrawableShape> shapes = new ArrayList<>();
 
 			estimators.forEach(k -> shapes.addAll(k.getShapes()));
+			shapes.addAll(getSolverLatencyShapes());
 
 			for (KickEvent kick : kickEventHistory)
 			{
@@ -564,6 +621,36 @@ public class BallFilterPreprocessor
 		}
 
 
+		private List<IDrawableShape> getSolverLatencyShapes()
+		{
+			List<IDrawableShape> shapes = new ArrayList<>();
+			double posY = 14.0;
+			for (var entry : metrics.getLatencies().entrySet())
+			{
+				KickSolverLatency latency = entry.getValue();
+				String text = String.format(Locale.ENGLISH, "%s solver: %.2fms avg, %.2fms max, %d late",
+						entry.getKey(), latency.avgLatency() * 1e3, latency.maxLatency() * 1e3,
+						latency.numDeadlineMisses());
+				shapes.add(new DrawableBorderText(Vector2.fromXY(1.0, posY), text)
+						.setColor(latency.numDeadlineMisses() > 0 ? Color.ORANGE : Color.WHITE));
+				posY += 1.1;
+			}
+			return shapes;
+		}
+
+
+		private void shutdown()
+		{
+			if (solverPool != null)
+			{
+				solverPool.shutdownNow();
+				solverPool = null;
+			}
+			estimators.clear();
+			lastBestEstimator = null;
+		}
+
+
 		private void reset()
 		{
 			estimators.clear();
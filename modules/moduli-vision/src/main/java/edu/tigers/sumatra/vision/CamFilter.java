@@ -19,6 +19,7 @@ import edu.tigers.sumatra.drawable.IDrawableShape;
 import edu.tigers.sumatra.filter.FirstOrderMultiSampleEstimator;
 import edu.tigers.sumatra.geometry.Geometry;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.rectangle.Rectangle;
@@ -72,7 +73,8 @@ public class CamFilter
 	private Optional<IRectangle> fieldRect = Optional.empty();
 	private Optional<IRectangle> viewport = Optional.empty();
 
-	private final Map<BotID, RobotTracker> robots = new ConcurrentHashMap<>();
+	/** written by the vision thread only, read concurrently by the publisher */
+	private final Map<BotID, RobotTracker> robots = new BotIdMap<>();
 
 	private final List<BallTracker> balls = Collections.synchronizedList(new ArrayList<>());
 
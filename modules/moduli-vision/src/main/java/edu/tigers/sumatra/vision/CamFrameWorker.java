@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.vision;
+
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+
+/**
+ * Processes the detection frames of a single camera on a dedicated thread.
+ * Frames are buffered in a bounded queue. If the queue is full, the oldest frame is dropped and counted.
+ */
+@Log4j2
+class CamFrameWorker
+{
+	@Getter
+	private final int camId;
+	private final BlockingDeque<CamDetectionFrame> queue;
+	private final Consumer<CamDetectionFrame> processor;
+	private final AtomicLong numDroppedFrames = new AtomicLong();
+	private final Thread thread;
+	private volatile boolean running = true;
+
+
+	/**
+	 * @param camId      the camera id
+	 * @param bufferSize the max number of queued frames
+	 * @param processor  the consumer that processes the frames on the worker thread
+	 */
+	CamFrameWorker(final int camId, final int bufferSize, final Consumer<CamDetectionFrame> processor)
+	{
+		this.camId = camId;
+		this.queue = new LinkedBlockingDeque<>(bufferSize);
+		this.processor = processor;
+		this.thread = new Thread(this::run, "VisionFilter Processor Cam " + camId);
+	}
+
+
+	void start()
+	{
+		thread.start();
+	}
+
+
+	/**
+	 * Add a new frame to the queue, dropping the oldest frame, if the queue is full.
+	 *
+	 * @param frame
+	 */
+	void enqueue(final CamDetectionFrame frame)
+	{
+		while (!queue.offerFirst(frame))
+		{
+			if (queue.pollLast() != null)
+			{
+				numDroppedFrames.incrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * @return the number of frames that were dropped, because the queue was full
+	 */
+	long getNumDroppedFrames()
+	{
+		return numDroppedFrames.get();
+	}
+
+
+	void stop()
+	{
+		running = false;
+		thread.interrupt();
+		queue.clear();
+	}
+
+
+	private void run()
+	{
+		while (running)
+		{
+			try
+			{
+				var camFrame = queue.pollLast(15, TimeUnit.MILLISECONDS);
+				if (camFrame != null)
+				{
+					processor.accept(camFrame);
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Throwable e)
+			{
+				log.error("Uncaught exception while processing cam frame of cam " + camId, e);
+			}
+		}
+	}
+}
@@ -8,10 +8,10 @@ import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import edu.tigers.sumatra.cam.data.CamRobot;
 import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdMap;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 
 
@@ -31,7 +31,7 @@ public class RobotQualityInspector
 		ConfigRegistration.registerClass("vision", RobotQualityInspector.class);
 	}
 
-	private final Map<BotID, List<Long>> measurements = new HashMap<>();
+	private final Map<BotID, Deque<Long>> measurements = new BotIdMap<>();
 
 	private long initialTimestamp;
 	private double maxPossibleDetectionsPerCam;
@@ -51,7 +51,7 @@ public class RobotQualityInspector
 		avgDt = 0.01;
 		for (BotID botID : BotID.getAll())
 		{
-			measurements.put(botID, new ArrayList<>());
+			measurements.put(botID, new ArrayDeque<>());
 		}
 	}
 
@@ -74,17 +74,11 @@ public class RobotQualityInspector
 	public synchronized void prune(long currentTimestamp)
 	{
 		long timestamp = currentTimestamp - (long) (trackingTimeHorizon * 1e9);
-		for (List<Long> timestamps : measurements.values())
+		for (Deque<Long> timestamps : measurements.values())
 		{
-			while (!timestamps.isEmpty())
+			while (!timestamps.isEmpty() && timestamps.peekFirst() < timestamp)
 			{
-				if (timestamps.get(0) < timestamp)
-				{
-					timestamps.remove(0);
-				} else
-				{
-					break;
-				}
+				timestamps.pollFirst();
 			}
 		}
 	}
@@ -14,7 +14,9 @@ import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.drawable.DrawableAnnotation;
 import edu.tigers.sumatra.drawable.DrawableCircle;
 import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
 import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.ids.AObjectID;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector2;
@@ -23,6 +25,8 @@ import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.ELatencyStage;
+import edu.tigers.sumatra.time.LatencyTrace;
 import edu.tigers.sumatra.util.Safe;
 import edu.tigers.sumatra.vision.BallFilter.BallFilterOutput;
 import edu.tigers.sumatra.vision.BallFilterPreprocessor.BallFilterPreprocessorOutput;
@@ -42,13 +46,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -64,6 +72,15 @@ public class VisionFilterImpl extends AVisionFilter
 	@Configurable(defValue = "0.0125", comment = "Publish frequency (requires restart)")
 	private static double publishDt = 0.0125;
 
+	@Configurable(defValue = "false", comment = "Process the frames of each camera on a separate thread (requires restart)")
+	private static boolean processCamsInParallel = false;
+
+	@Configurable(defValue = "5", comment = "Max. number of queued frames per camera, if cameras are processed in parallel")
+	private static int perCamFrameBufferSize = 5;
+
+	@Configurable(defValue = "false", comment = "Only generate debug shapes of layers that are subscribed (e.g. by visualizer or recorder)")
+	private static boolean leanPublish = false;
+
 	static
 	{
 		ConfigRegistration.registerClass("vision", VisionFilterImpl.class);
@@ -76,8 +93,9 @@ public class VisionFilterImpl extends AVisionFilter
 	private final RobotQualityInspector robotQualityInspector = new RobotQualityInspector();
 	private final VirtualBallProducer virtualBallProducer = new VirtualBallProducer();
 
-	private Map<Integer, CamFilter> cams = new ConcurrentHashMap<>();
-	private FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
+	// sorted by camera id to keep the merge of all cameras deterministic
+	private Map<Integer, CamFilter> cams = new ConcurrentSkipListMap<>();
+	private volatile FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
 	private BallFilterOutput lastBallFilterOutput = new BallFilterOutput(
 			lastFrame.getBall(),
 			null,
@@ -88,6 +106,12 @@ public class VisionFilterImpl extends AVisionFilter
 	private ScheduledExecutorService scheduledExecutorService;
 	private final BlockingDeque<CamDetectionFrame> camDetectionFrameQueue = new LinkedBlockingDeque<>(
 			CAM_FRAME_BUFFER_SIZE);
+	private final Map<Integer, CamFrameWorker> camFrameWorkers = new ConcurrentHashMap<>();
+	private final Map<Integer, AtomicLong> droppedCamFrames = new ConcurrentHashMap<>();
+	private final Object viewportLock = new Object();
+	private final List<List<RobotTracker>> trackersByBotIndex = createTrackersByBotIndex();
+	// trace of the latest processed cam frame that was not published yet
+	private final AtomicReference<LatencyTrace> pendingLatencyTrace = new AtomicReference<>();
 
 
 	private void publish()
@@ -126,6 +150,7 @@ public class VisionFilterImpl extends AVisionFilter
 				.withBots(extrapolatedBots)
 				.withKick(frame.getKick().orElse(null))
 				.withShapeMap(frame.getShapeMap())
+				.withLatencyTrace(frame.getLatencyTrace())
 				.build();
 	}
 
@@ -142,17 +167,47 @@ public class VisionFilterImpl extends AVisionFilter
 		{
 			processCamDetectionFrame(camDetectionFrame);
 			publish();
+		} else if (processCamsInParallel)
+		{
+			camFrameWorkers.computeIfAbsent(camDetectionFrame.getCameraId(), this::createCamFrameWorker)
+					.enqueue(camDetectionFrame);
 		} else
 		{
-			if (camDetectionFrameQueue.size() >= CAM_FRAME_BUFFER_SIZE)
+			while (!camDetectionFrameQueue.offerFirst(camDetectionFrame))
 			{
-				camDetectionFrameQueue.pollLast();
+				var droppedFrame = camDetectionFrameQueue.pollLast();
+				if (droppedFrame != null)
+				{
+					droppedCamFrames.computeIfAbsent(droppedFrame.getCameraId(), id -> new AtomicLong()).incrementAndGet();
+				}
 			}
-			camDetectionFrameQueue.addFirst(camDetectionFrame);
 		}
 	}
 
 
+	private CamFrameWorker createCamFrameWorker(final int camId)
+	{
+		var worker = new CamFrameWorker(camId, perCamFrameBufferSize, this::processCamDetectionFrame);
+		worker.start();
+		log.debug("Started frame processor for cam {}", camId);
+		return worker;
+	}
+
+
+	/**
+	 * Get the number of detection frames per camera that were dropped, because the processing could not keep up.
+	 *
+	 * @return number of dropped frames by camera id
+	 */
+	public Map<Integer, Long> getDroppedCamFrames()
+	{
+		Map<Integer, Long> dropped = new TreeMap<>();
+		droppedCamFrames.forEach((camId, num) -> dropped.put(camId, num.get()));
+		camFrameWorkers.forEach((camId, worker) -> dropped.merge(camId, worker.getNumDroppedFrames(), Long::sum));
+		return dropped;
+	}
+
+
 	private void processCamFrameQueue()
 	{
 		while (scheduledExecutorService != null && !scheduledExecutorService.isShutdown())
@@ -179,14 +234,18 @@ public class VisionFilterImpl extends AVisionFilter
 	{
 		int camId = camDetectionFrame.getCameraId();
 
-		// let viewport architect adjust
-		viewportArchitect.newDetectionFrame(camDetectionFrame);
-
 		// add camera if it does not exist yet
 		var camFilter = cams.computeIfAbsent(camId, CamFilter::new);
 
-		// set viewport
-		camFilter.updateViewport(viewportArchitect.getViewport(camId));
+		// the viewport architect adjusts the viewports of all cameras, so cameras must not update it concurrently
+		synchronized (viewportLock)
+		{
+			// let viewport architect adjust
+			viewportArchitect.newDetectionFrame(camDetectionFrame);
+
+			// set viewport
+			camFilter.updateViewport(viewportArchitect.getViewport(camId));
+		}
 
 		// update robot infos on all camera filters
 		camFilter.setRobotInfoMap(getRobotInfoMap());
@@ -196,35 +255,52 @@ public class VisionFilterImpl extends AVisionFilter
 
 		// update robot quality inspector
 		camDetectionFrame.getRobots().forEach(robotQualityInspector::addDetection);
+
+		pendingLatencyTrace.set(camDetectionFrame.getLatencyTrace().stamp(ELatencyStage.VISION_PROCESSED));
+	}
+
+
+	/**
+	 * Only the first filtered frame after new camera data carries its trace, so that no latency is counted twice.
+	 */
+	private LatencyTrace nextLatencyTrace()
+	{
+		LatencyTrace trace = pendingLatencyTrace.getAndSet(null);
+		return (trace == null ? LatencyTrace.empty() : trace).stamp(ELatencyStage.FILTERED_FRAME);
 	}
 
 
-	private FilteredVisionFrame constructFilteredVisionFrame(FilteredVisionFrame lastFrame)
+	FilteredVisionFrame constructFilteredVisionFrame(FilteredVisionFrame lastFrame)
 	{
 		// remove old camera filters (taking care of overflow in average())
-		long avgTimestamp = (long) (cams.values().stream()
-				.mapToDouble(c -> c.getTimestamp() / 1e9)
-				.average()
-				.orElse(0) * 1e9);
+		long avgTimestamp = getAverageCamTimestamp();
 		cams.values().removeIf(f -> Math.abs(avgTimestamp - f.getTimestamp()) / 1e9 > 0.5);
 
-		long timestamp = cams.values().stream().mapToLong(CamFilter::getTimestamp).max().orElse(lastFrame.getTimestamp());
-
 		// use newest timestamp to prevent negative delta time in filtered frames
-		timestamp = Math.max(lastFrame.getTimestamp(), timestamp);
+		long timestamp = lastFrame.getTimestamp();
+		double averageDt = cams.isEmpty() ? 0.01 : 0;
+		for (CamFilter camFilter : cams.values())
+		{
+			timestamp = Math.max(timestamp, camFilter.getTimestamp());
+			averageDt = Math.max(averageDt, camFilter.getAverageFrameDt());
+		}
 
 		// merge all camera filters (robots on multiple cams)
 		List<FilteredVisionBot> mergedRobots = mergeRobots(cams.values(), timestamp);
 
 		// update robot quality inspector
 		robotQualityInspector.prune(timestamp);
-		final double averageDt = cams.values().stream().mapToDouble(CamFilter::getAverageFrameDt).max().orElse(0.01);
 		robotQualityInspector.updateAverageDt(averageDt);
 
 		// filter merged robots by quality
-		List<FilteredVisionBot> filteredRobots = mergedRobots.stream()
-				.filter(b -> robotQualityInspector.passesQualityInspection(b.getBotID()))
-				.collect(Collectors.toList());
+		List<FilteredVisionBot> filteredRobots = new ArrayList<>(mergedRobots.size());
+		for (FilteredVisionBot bot : mergedRobots)
+		{
+			if (robotQualityInspector.passesQualityInspection(bot.getBotID()))
+			{
+				filteredRobots.add(bot);
+			}
+		}
 
 		// check robot quality
 		qualityInspector.inspectRobots(cams.values(), timestamp);
@@ -240,6 +316,7 @@ public class VisionFilterImpl extends AVisionFilter
 				.withBots(filteredRobots)
 				.withKick(lastBallFilterOutput.getFilteredKick())
 				.withShapeMap(new ShapeMap())
+				.withLatencyTrace(nextLatencyTrace())
 				.build();
 
 		// forward frame for inspection
@@ -249,37 +326,83 @@ public class VisionFilterImpl extends AVisionFilter
 		viewportArchitect.updateCameras(cams.keySet());
 
 		// add debug and info shapes for visualizer
-		frame.getShapeMap().get(EVisionFilterShapesLayer.VIEWPORT_SHAPES).addAll(viewportArchitect.getInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.QUALITY_SHAPES).addAll(qualityInspector.getInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.CAM_INFO_SHAPES).addAll(getCamInfoShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.BALL_TRACKER_SHAPES_IMPORTANT)
-				.addAll(ballFilterPreprocessor.getShapes());
-		frame.getShapeMap().get(EVisionFilterShapesLayer.ROBOT_TRACKER_SHAPES)
-				.addAll(getRobotTrackerShapes(timestamp));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.BALL_TRACKER_SHAPES)
-				.addAll(getBallTrackerShapes(timestamp));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.ROBOT_QUALITY_INSPECTOR)
-				.addAll(getRobotQualityInspectorShapes(mergedRobots));
-		frame.getShapeMap().get(EVisionFilterShapesLayer.VIRTUAL_BALL_SHAPES)
-				.addAll(getVirtualBallShapes());
+		final long shapeTimestamp = timestamp;
+		addShapes(frame, EVisionFilterShapesLayer.VIEWPORT_SHAPES, viewportArchitect::getInfoShapes);
+		addShapes(frame, EVisionFilterShapesLayer.QUALITY_SHAPES, qualityInspector::getInfoShapes);
+		addShapes(frame, EVisionFilterShapesLayer.CAM_INFO_SHAPES, this::getCamInfoShapes);
+		addShapes(frame, EVisionFilterShapesLayer.BALL_TRACKER_SHAPES_IMPORTANT, ballFilterPreprocessor::getShapes);
+		addShapes(frame, EVisionFilterShapesLayer.ROBOT_TRACKER_SHAPES, () -> getRobotTrackerShapes(shapeTimestamp));
+		addShapes(frame, EVisionFilterShapesLayer.BALL_TRACKER_SHAPES, () -> getBallTrackerShapes(shapeTimestamp));
+		addShapes(frame, EVisionFilterShapesLayer.ROBOT_QUALITY_INSPECTOR,
+				() -> getRobotQualityInspectorShapes(mergedRobots));
+		addShapes(frame, EVisionFilterShapesLayer.VIRTUAL_BALL_SHAPES, this::getVirtualBallShapes);
 
 		return frame;
 	}
 
 
+	private long getAverageCamTimestamp()
+	{
+		if (cams.isEmpty())
+		{
+			return 0;
+		}
+		double sum = 0;
+		for (CamFilter camFilter : cams.values())
+		{
+			sum += camFilter.getTimestamp() / 1e9;
+		}
+		return (long) (sum / cams.size() * 1e9);
+	}
+
+
+	/**
+	 * Add the shapes of a layer to the frame, but only generate them if anyone is interested in them.
+	 * The layer itself is always created, so that it can be discovered (and subscribed).
+	 */
+	private void addShapes(FilteredVisionFrame frame, IShapeLayerIdentifier layer,
+			Supplier<Collection<? extends IDrawableShape>> shapeSupplier)
+	{
+		List<IDrawableShape> shapes = frame.getShapeMap().get(layer);
+		if (!leanPublish || isShapeLayerSubscribed(layer))
+		{
+			shapes.addAll(shapeSupplier.get());
+		}
+	}
+
+
+	private static List<List<RobotTracker>> createTrackersByBotIndex()
+	{
+		List<List<RobotTracker>> trackers = new ArrayList<>(AObjectID.BOT_ID_MAX_BS + 1);
+		for (int i = 0; i <= AObjectID.BOT_ID_MAX_BS; i++)
+		{
+			trackers.add(new ArrayList<>());
+		}
+		return trackers;
+	}
+
+
 	private List<FilteredVisionBot> mergeRobots(final Collection<CamFilter> camFilters, final long timestamp)
 	{
-		Map<BotID, List<RobotTracker>> trackersById = camFilters.stream()
-				.flatMap(f -> f.getValidRobots().values().stream())
-				// group trackers by BotID
-				.collect(Collectors.groupingBy(RobotTracker::getBotId));
+		// group trackers by BotID, using the dense bot index and reused lists
+		trackersByBotIndex.forEach(List::clear);
+		for (CamFilter camFilter : camFilters)
+		{
+			for (RobotTracker tracker : camFilter.getValidRobots().values())
+			{
+				trackersByBotIndex.get(tracker.getBotId().getNumberWithColorOffsetBS()).add(tracker);
+			}
+		}
 
-		List<FilteredVisionBot> mergedBots = new ArrayList<>();
+		List<FilteredVisionBot> mergedBots = new ArrayList<>(trackersByBotIndex.size());
 
 		// merge all trackers in each group and get filtered vision bot from it
-		for (Entry<BotID, List<RobotTracker>> entry : trackersById.entrySet())
+		for (List<RobotTracker> trackers : trackersByBotIndex)
 		{
-			mergedBots.add(RobotTracker.mergeRobotTrackers(entry.getKey(), entry.getValue(), timestamp));
+			if (!trackers.isEmpty())
+			{
+				mergedBots.add(RobotTracker.mergeRobotTrackers(trackers.get(0).getBotId(), trackers, timestamp));
+			}
 		}
 
 		return mergedBots;
@@ -292,9 +415,11 @@ public class VisionFilterImpl extends AVisionFilter
 			List<FilteredVisionBot> mergedRobots,
 			FilteredVisionBall lastBall)
 	{
-		List<BallTracker> allTrackers = camFilters.stream()
-				.flatMap(f -> f.getBalls().stream())
-				.collect(Collectors.toList());
+		List<BallTracker> allTrackers = new ArrayList<>();
+		for (CamFilter camFilter : camFilters)
+		{
+			allTrackers.addAll(camFilter.getBalls());
+		}
 
 		BallFilterPreprocessorOutput preOutput = ballFilterPreprocessor.update(lastBall, allTrackers,
 				mergedRobots, getRobotInfoMap(), timestamp);
@@ -352,10 +477,13 @@ public class VisionFilterImpl extends AVisionFilter
 		{
 			scheduledExecutorService = Executors
 					.newSingleThreadScheduledExecutor(new NamedThreadFactory("VisionFilter Publisher"));
-			new Thread(this::processCamFrameQueue, "VisionFilter Processor").start();
+			if (!processCamsInParallel)
+			{
+				new Thread(this::processCamFrameQueue, "VisionFilter Processor").start();
+			}
 			scheduledExecutorService
 					.scheduleAtFixedRate(() -> Safe.run(this::publish), 0, (long) (publishDt * 1e9), TimeUnit.NANOSECONDS);
-			log.info("Using threaded VisionFilter");
+			log.info("Using threaded VisionFilter{}", processCamsInParallel ? " with parallel cameras" : "");
 		}
 	}
 
@@ -364,18 +492,24 @@ public class VisionFilterImpl extends AVisionFilter
 	public void stopModule()
 	{
 		super.stopModule();
-		SumatraModel.getInstance().getModule(ACam.class).removeObserver(this);
+		// the filter may also be used without the module system
+		SumatraModel.getInstance().getModuleOpt(ACam.class).ifPresent(c -> c.removeObserver(this));
 		if (scheduledExecutorService != null)
 		{
 			scheduledExecutorService.shutdown();
 			scheduledExecutorService = null;
 			camDetectionFrameQueue.clear();
 		}
+		camFrameWorkers.values().forEach(CamFrameWorker::stop);
+		camFrameWorkers.clear();
+		droppedCamFrames.clear();
 		cams.clear();
 		viewportArchitect.removeObserver(this);
 		ballFilterPreprocessor.removeObserver(this);
 		ballFilterPreprocessor.clear();
+		ballFilterPreprocessor.shutdown();
 		robotQualityInspector.reset();
+		pendingLatencyTrace.set(null);
 		lastFrame = FilteredVisionFrame.createEmptyFrame();
 	}
 
@@ -422,9 +556,22 @@ public class VisionFilterImpl extends AVisionFilter
 
 	private List<IDrawableShape> getCamInfoShapes()
 	{
-		return cams.values().stream()
+		List<IDrawableShape> shapes = cams.values().stream()
 				.flatMap(c -> c.getInfoShapes().stream())
 				.collect(Collectors.toList());
+
+		Map<Integer, Long> droppedFrames = getDroppedCamFrames();
+		for (CamFilter camFilter : cams.values())
+		{
+			long numDropped = droppedFrames.getOrDefault(camFilter.getCamId(), 0L);
+			camFilter.getCameraPosition().ifPresent(pos -> shapes.add(
+					new DrawableAnnotation(pos.getXYVector(), "Dropped: " + numDropped)
+							.withOffset(Vector2.fromXY(40, 120))
+							.withFontHeight(50)
+							.setColor(numDropped > 0 ? Color.RED : Color.GRAY)
+			));
+		}
+		return shapes;
 	}
 
 
@@ -6,6 +6,7 @@ package edu.tigers.sumatra.vision.data;
 
 import edu.tigers.sumatra.ball.BallState;
 import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.time.LatencyTrace;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Value;
@@ -33,6 +34,9 @@ public class FilteredVisionFrame
 	@NonNull
 	ShapeMap shapeMap;
 	FilteredVisionKick kick;
+	@NonNull
+	@Builder.Default
+	LatencyTrace latencyTrace = LatencyTrace.empty();
 
 
 	/**
@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+/**
+ * Snapshot of the solver latency of all estimators of one {@link EKickEstimatorType}.
+ *
+ * @param numUpdates        number of processed cam balls (each one runs the solvers of the estimator)
+ * @param avgLatency        average duration of a single update [s]
+ * @param maxLatency        maximum duration of a single update [s]
+ * @param numDeadlineMisses number of updates that did not finish before the publish deadline
+ */
+public record KickSolverLatency(long numUpdates, double avgLatency, double maxLatency, long numDeadlineMisses)
+{
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import edu.tigers.sumatra.cam.data.CamBall;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Collect the solver latency of kick estimators per {@link EKickEstimatorType}.
+ * Estimators run their solvers when a new cam ball is added, so the duration of
+ * {@link IKickEstimator#addCamBall(CamBall)} is measured.
+ * This class is thread-safe, as estimators may be updated on solver threads.
+ */
+public class KickSolverMetrics
+{
+	private final Map<EKickEstimatorType, Accumulator> accumulators = new EnumMap<>(EKickEstimatorType.class);
+
+
+	public KickSolverMetrics()
+	{
+		for (EKickEstimatorType type : EKickEstimatorType.values())
+		{
+			accumulators.put(type, new Accumulator());
+		}
+	}
+
+
+	/**
+	 * Add a cam ball to the estimator and measure the duration.
+	 *
+	 * @param estimator
+	 * @param camBall
+	 */
+	public void addCamBall(final IKickEstimator estimator, final CamBall camBall)
+	{
+		long start = System.nanoTime();
+		estimator.addCamBall(camBall);
+		accumulators.get(estimator.getType()).addUpdate(System.nanoTime() - start);
+	}
+
+
+	/**
+	 * Count an update that did not finish before its deadline.
+	 *
+	 * @param type
+	 */
+	public void addDeadlineMiss(final EKickEstimatorType type)
+	{
+		accumulators.get(type).addDeadlineMiss();
+	}
+
+
+	/**
+	 * @return a snapshot of the latencies of all estimator types
+	 */
+	public Map<EKickEstimatorType, KickSolverLatency> getLatencies()
+	{
+		Map<EKickEstimatorType, KickSolverLatency> latencies = new EnumMap<>(EKickEstimatorType.class);
+		accumulators.forEach((type, accumulator) -> latencies.put(type, accumulator.toLatency()));
+		return latencies;
+	}
+
+
+	/**
+	 * Reset all metrics.
+	 */
+	public void reset()
+	{
+		accumulators.values().forEach(Accumulator::reset);
+	}
+
+
+	private static class Accumulator
+	{
+		private long numUpdates;
+		private long totalDuration;
+		private long maxDuration;
+		private long numDeadlineMisses;
+
+
+		private synchronized void addUpdate(final long duration)
+		{
+			numUpdates++;
+			totalDuration += duration;
+			maxDuration = Math.max(maxDuration, duration);
+		}
+
+
+		private synchronized void addDeadlineMiss()
+		{
+			numDeadlineMisses++;
+		}
+
+
+		private synchronized KickSolverLatency toLatency()
+		{
+			double avgDuration = numUpdates == 0 ? 0 : (double) totalDuration / numUpdates;
+			return new KickSolverLatency(numUpdates, avgDuration * 1e-9, maxDuration * 1e-9, numDeadlineMisses);
+		}
+
+
+		private synchronized void reset()
+		{
+			numUpdates = 0;
+			totalDuration = 0;
+			maxDuration = 0;
+			numDeadlineMisses = 0;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import edu.tigers.sumatra.cam.data.CamBall;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Wraps a kick estimator, measures its solver latency and optionally runs its solvers on a solver pool.
+ * <p>
+ * Without an executor, cam balls are added synchronously, like without this wrapper.
+ * With an executor, cam balls are handed to the solver pool and {@link #await(long)} waits for the result up to a
+ * deadline. If the solvers are not done in time, the estimator stays busy: new cam balls are queued, and all
+ * other calls answer from the last completed update, so the caller never blocks on a slow fit.
+ * All methods must be called from the same (vision) thread.
+ */
+@Log4j2
+public class TimedKickEstimator implements IKickEstimator
+{
+	private static final int MAX_PENDING_RECORDS = 20;
+
+	private final IKickEstimator estimator;
+	private final KickSolverMetrics metrics;
+	private final ExecutorService executor;
+	private final List<CamBall> pendingRecords = new ArrayList<>();
+
+	private Future<?> update;
+	private boolean deadlineMissed;
+	private KickFitResult fitResult;
+	private List<IDrawableShape> shapes = List.of();
+
+
+	/**
+	 * @param estimator the estimator to wrap
+	 * @param metrics   the metrics to report the solver latency to
+	 * @param executor  the solver pool or null to run synchronously
+	 */
+	public TimedKickEstimator(final IKickEstimator estimator, final KickSolverMetrics metrics,
+			final ExecutorService executor)
+	{
+		this.estimator = estimator;
+		this.metrics = metrics;
+		this.executor = executor;
+		this.fitResult = estimator.getFitResult().orElse(null);
+	}
+
+
+	@Override
+	public void addCamBall(final CamBall record)
+	{
+		if (executor == null)
+		{
+			metrics.addCamBall(estimator, record);
+			return;
+		}
+
+		if (pendingRecords.size() >= MAX_PENDING_RECORDS)
+		{
+			log.debug("Solver of {} estimator can not keep up, dropping cam ball", estimator.getType());
+			pendingRecords.removeFirst();
+		}
+		pendingRecords.add(record);
+
+		if (!isBusy())
+		{
+			submitPendingRecords();
+		}
+	}
+
+
+	private void submitPendingRecords()
+	{
+		List<CamBall> records = new ArrayList<>(pendingRecords);
+		try
+		{
+			// the estimators must see the geometry of the calling pipeline
+			update = executor.submit(
+					Geometry.bindToCurrentScope(() -> records.forEach(r -> metrics.addCamBall(estimator, r))));
+			deadlineMissed = false;
+			pendingRecords.clear();
+		} catch (RejectedExecutionException e)
+		{
+			// keep the records and try again with the next cam ball
+			log.debug("Solver pool rejected update of {} estimator", estimator.getType(), e);
+		}
+	}
+
+
+	/**
+	 * Wait for the current update until the given deadline.
+	 *
+	 * @param deadline the deadline as {@link System#nanoTime()} value
+	 */
+	public void await(final long deadline)
+	{
+		if (!isBusy() && !pendingRecords.isEmpty())
+		{
+			// records that arrived while the last update was still running
+			submitPendingRecords();
+		}
+		if (update == null)
+		{
+			return;
+		}
+
+		try
+		{
+			update.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e)
+		{
+			if (!deadlineMissed)
+			{
+				deadlineMissed = true;
+				metrics.addDeadlineMiss(estimator.getType());
+			}
+		} catch (ExecutionException e)
+		{
+			log.warn("Kick estimator {} failed", estimator.getType(), e.getCause());
+			update = null;
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/**
+	 * @return true, if the solvers of this estimator are currently running
+	 */
+	public boolean isBusy()
+	{
+		return update != null && !update.isDone();
+	}
+
+
+	@Override
+	public Optional<KickFitResult> getFitResult()
+	{
+		if (!isBusy())
+		{
+			fitResult = estimator.getFitResult().orElse(null);
+		}
+		return Optional.ofNullable(fitResult);
+	}
+
+
+	@Override
+	public boolean isDone(final List<FilteredVisionBot> mergedRobots, final long timestamp)
+	{
+		return !isBusy() && estimator.isDone(mergedRobots, timestamp);
+	}
+
+
+	@Override
+	public List<IDrawableShape> getShapes()
+	{
+		if (!isBusy())
+		{
+			shapes = estimator.getShapes();
+		}
+		return shapes;
+	}
+
+
+	@Override
+	public EKickEstimatorType getType()
+	{
+		return estimator.getType();
+	}
+
+
+	@Override
+	public List<IBallModelIdentResult> getModelIdentResult()
+	{
+		if (isBusy())
+		{
+			return List.of();
+		}
+		return estimator.getModelIdentResult();
+	}
+}
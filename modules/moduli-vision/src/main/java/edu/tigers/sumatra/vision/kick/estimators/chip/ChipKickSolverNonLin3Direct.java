@@ -3,9 +3,11 @@
  */
 package edu.tigers.sumatra.vision.kick.estimators.chip;
 
+import edu.tigers.sumatra.ball.trajectory.BallFactory;
 import edu.tigers.sumatra.cam.data.CamBall;
 import edu.tigers.sumatra.cam.data.CamCalibration;
 import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.math.SumatraMath;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.IVector3;
 import edu.tigers.sumatra.math.vector.Vector3;
@@ -95,14 +97,46 @@ public class ChipKickSolverNonLin3Direct extends AChipKickSolver
 	}
 
 
+	/**
+	 * Objective function of the simplex optimizer.
+	 * All data that does not depend on the kick velocity (sample times, camera positions and measured positions)
+	 * is computed once per solve, so that a single evaluation only needs to sample the trajectory.
+	 */
 	private class ChipBallModel implements MultivariateFunction
 	{
-		private final List<CamBall> records;
+		private final BallFactory ballFactory = Geometry.getBallFactory();
+		private final double[] sampleTimes;
+		private final double[] camX;
+		private final double[] camY;
+		private final double[] camZ;
+		private final double[] measuredX;
+		private final double[] measuredY;
 
 
 		public ChipBallModel(final List<CamBall> records)
 		{
-			this.records = records;
+			int numRecords = records.size();
+			sampleTimes = new double[numRecords];
+			camX = new double[numRecords];
+			camY = new double[numRecords];
+			camZ = new double[numRecords];
+			measuredX = new double[numRecords];
+			measuredY = new double[numRecords];
+
+			long tKickOffset = records.getFirst().gettCapture() - kickTimestamp;
+			long tKick = records.getFirst().getCameraCaptureTimestamp() - tKickOffset;
+
+			for (int i = 0; i < numRecords; i++)
+			{
+				CamBall ball = records.get(i);
+				IVector3 camPos = getCameraPosition(ball.getCameraId());
+				sampleTimes[i] = (ball.getCameraCaptureTimestamp() - tKick) * 1e-9;
+				camX[i] = camPos.x();
+				camY[i] = camPos.y();
+				camZ[i] = camPos.z();
+				measuredX[i] = ball.getFlatPos().x();
+				measuredY[i] = ball.getFlatPos().y();
+			}
 		}
 
 
@@ -111,23 +145,25 @@ public class ChipKickSolverNonLin3Direct extends AChipKickSolver
 		{
 			IVector3 kickVel = Vector3.fromArray(point);
 
-			long tKickOffset = records.getFirst().gettCapture() - kickTimestamp;
-			long tKick = records.getFirst().getCameraCaptureTimestamp() - tKickOffset;
-
-			var traj = Geometry.getBallFactory()
-					.createTrajectoryFromKickedBallWithoutSpin(kickPosition, kickVel);
+			var traj = ballFactory.createTrajectoryFromKickedBallWithoutSpin(kickPosition, kickVel);
 
 			double error = 0;
 
-			for (CamBall ball : records)
+			for (int i = 0; i < sampleTimes.length; i++)
 			{
-				IVector3 trajPos = traj.getMilliStateAtTime((ball.getCameraCaptureTimestamp() - tKick) * 1e-9).getPos();
-				IVector2 ground = trajPos.projectToGroundNew(getCameraPosition(ball.getCameraId()));
+				IVector3 trajPos = traj.getMilliStateAtTime(sampleTimes[i]).getPos();
+
+				// project to ground, as seen from the camera
+				double scale = camZ[i] / (camZ[i] - trajPos.z());
+				double groundX = ((trajPos.x() - camX[i]) * scale) + camX[i];
+				double groundY = ((trajPos.y() - camY[i]) * scale) + camY[i];
 
-				error += ball.getFlatPos().distanceTo(ground);
+				error += SumatraMath.sqrt(
+						((measuredX[i] - groundX) * (measuredX[i] - groundX))
+								+ ((measuredY[i] - groundY) * (measuredY[i] - groundY)));
 			}
 
-			error /= records.size();
+			error /= sampleTimes.length;
 
 			return error;
 		}
@@ -6,7 +6,7 @@ package edu.tigers.sumatra.vision.tracker;
 import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import edu.tigers.sumatra.cam.data.CamBall;
-import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel2D;
+import edu.tigers.sumatra.filter.tracking.FastTrackingFilterPosVel2D;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
@@ -15,7 +15,6 @@ import edu.tigers.sumatra.vision.data.RobotCollisionShape;
 import edu.tigers.sumatra.vision.data.RobotCollisionShape.CollisionResult;
 import edu.tigers.sumatra.vision.data.RobotCollisionShape.ECollisionLocation;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.math3.linear.RealVector;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,7 +25,7 @@ import java.util.Optional;
  */
 public class BallTracker
 {
-	private final TrackingFilterPosVel2D filter;
+	private final FastTrackingFilterPosVel2D filter;
 
 
 	private long lastInFieldTimestamp;
@@ -68,7 +67,7 @@ public class BallTracker
 	 */
 	public BallTracker(final CamBall ball)
 	{
-		filter = new TrackingFilterPosVel2D(ball.getPos().getXYVector(), initialCovarianceXY, modelError, measError,
+		filter = new FastTrackingFilterPosVel2D(ball.getPos().getXYVector(), initialCovarianceXY, modelError, measError,
 				ball.gettCapture());
 
 		lastInFieldTimestamp = ball.gettCapture();
@@ -89,10 +88,8 @@ public class BallTracker
 		{
 			filtVel = filtVel.scaleToNew(maxLinearVel);
 		}
-		RealVector initState = camBall.getPos().getXYVector().toRealVector()
-				.append(filtVel.toRealVector());
-		filter = new TrackingFilterPosVel2D(initState, initialCovarianceXY, modelError, measError,
-				camBall.gettCapture());
+		filter = new FastTrackingFilterPosVel2D(camBall.getPos().getXYVector(), filtVel, initialCovarianceXY,
+				modelError, measError, camBall.gettCapture());
 
 		lastInFieldTimestamp = camBall.gettCapture();
 		lastCamBall = camBall;
@@ -263,7 +260,7 @@ public class BallTracker
 	/**
 	 * @return the filter
 	 */
-	public TrackingFilterPosVel2D getFilter()
+	public FastTrackingFilterPosVel2D getFilter()
 	{
 		return filter;
 	}
@@ -9,8 +9,8 @@ import edu.tigers.sumatra.cam.data.CamRobot;
 import edu.tigers.sumatra.drawable.DrawableAnnotation;
 import edu.tigers.sumatra.drawable.DrawableBotShape;
 import edu.tigers.sumatra.drawable.IDrawableShape;
-import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel1D;
-import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel2D;
+import edu.tigers.sumatra.filter.tracking.FastTrackingFilterPosVel1D;
+import edu.tigers.sumatra.filter.tracking.FastTrackingFilterPosVel2D;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.AngleMath;
 import edu.tigers.sumatra.math.vector.IVector2;
@@ -18,8 +18,6 @@ import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
 import edu.tigers.sumatra.vision.data.FilteredVisionBot;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,8 +30,8 @@ import java.util.List;
  */
 public class RobotTracker
 {
-	private final TrackingFilterPosVel2D filterXY;
-	private final TrackingFilterPosVel1D filterW;
+	private final FastTrackingFilterPosVel2D filterXY;
+	private final FastTrackingFilterPosVel1D filterW;
 	private final BotID botId;
 	private final int camId;
 	private final List<Long> updateTimestamps = new ArrayList<>();
@@ -81,9 +79,9 @@ public class RobotTracker
 	 */
 	public RobotTracker(final CamRobot robot)
 	{
-		filterXY = new TrackingFilterPosVel2D(robot.getPos(), initialCovarianceXY, modelErrorXY, measErrorXY,
+		filterXY = new FastTrackingFilterPosVel2D(robot.getPos(), initialCovarianceXY, modelErrorXY, measErrorXY,
 				robot.gettCapture());
-		filterW = new TrackingFilterPosVel1D(robot.getOrientation(), initialCovarianceW, modelErrorW, measErrorW,
+		filterW = new FastTrackingFilterPosVel1D(robot.getOrientation(), initialCovarianceW, modelErrorW, measErrorW,
 				robot.gettCapture());
 
 		lastCamOrientation = robot.getOrientation();
@@ -102,13 +100,10 @@ public class RobotTracker
 	 */
 	public RobotTracker(final CamRobot robot, final FilteredVisionBot filtered)
 	{
-		RealVector xy = new ArrayRealVector(filtered.getPos().toArray(), filtered.getVel().multiplyNew(1000.0).toArray());
-		RealVector w = new ArrayRealVector(new double[] { filtered.getOrientation(), filtered.getAngularVel() });
-
-		filterXY = new TrackingFilterPosVel2D(xy, initialCovarianceXY, modelErrorXY, measErrorXY,
-				robot.gettCapture());
-		filterW = new TrackingFilterPosVel1D(w, initialCovarianceW, modelErrorW, measErrorW,
-				robot.gettCapture());
+		filterXY = new FastTrackingFilterPosVel2D(filtered.getPos(), filtered.getVel().multiplyNew(1000.0),
+				initialCovarianceXY, modelErrorXY, measErrorXY, robot.gettCapture());
+		filterW = new FastTrackingFilterPosVel1D(filtered.getOrientation(), filtered.getAngularVel(),
+				initialCovarianceW, modelErrorW, measErrorW, robot.gettCapture());
 
 		lastCamOrientation = robot.getOrientation();
 		lastUpdateTimestamp = robot.gettCapture();
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.vision;
+
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class CamFrameWorkerTest
+{
+	private static final int NUM_CAMS = 4;
+	private static final int NUM_FRAMES_PER_CAM = 200;
+
+	private final Map<Integer, CamFrameWorker> workers = new ConcurrentHashMap<>();
+
+
+	@After
+	public void tearDown()
+	{
+		workers.values().forEach(CamFrameWorker::stop);
+	}
+
+
+	private static CamDetectionFrame frame(final int camId, final long frameNumber)
+	{
+		return new CamDetectionFrame(1_000_000 + frameNumber, 1_000_000 + frameNumber, null, camId, frameNumber,
+				frameNumber, List.of(), List.of(), List.of());
+	}
+
+
+	/**
+	 * Frames of all cameras, interleaved like they arrive from the network.
+	 */
+	private static List<CamDetectionFrame> interleavedFrames()
+	{
+		List<CamDetectionFrame> frames = new ArrayList<>();
+		long frameNumber = 0;
+		for (int i = 0; i < NUM_FRAMES_PER_CAM; i++)
+		{
+			for (int camId = 0; camId < NUM_CAMS; camId++)
+			{
+				// the cameras do not always arrive in the same order
+				frames.add(frame((camId + i) % NUM_CAMS, frameNumber++));
+			}
+		}
+		return frames;
+	}
+
+
+	/**
+	 * Dispatch the frames to one worker per camera, like {@link VisionFilterImpl} does with parallel cameras.
+	 */
+	private void processInParallel(final List<CamDetectionFrame> frames, final int bufferSize,
+			final Consumer<CamDetectionFrame> processor)
+	{
+		for (CamDetectionFrame frame : frames)
+		{
+			workers.computeIfAbsent(frame.getCameraId(), camId -> {
+				var worker = new CamFrameWorker(camId, bufferSize, processor);
+				worker.start();
+				return worker;
+			}).enqueue(frame);
+		}
+	}
+
+
+	@Test
+	public void testParallelMatchesSequentialProcessing() throws InterruptedException
+	{
+		List<CamDetectionFrame> frames = interleavedFrames();
+
+		// sequential path: all frames on a single thread
+		Map<Integer, CamState> sequential = new HashMap<>();
+		frames.forEach(f -> sequential.computeIfAbsent(f.getCameraId(), id -> new CamState()).update(f));
+
+		// parallel path: every worker only updates the state of its own camera, like the cam filters
+		Map<Integer, CamState> parallel = new ConcurrentHashMap<>();
+		CountDownLatch processed = new CountDownLatch(frames.size());
+		processInParallel(frames, NUM_FRAMES_PER_CAM, f -> {
+			parallel.computeIfAbsent(f.getCameraId(), id -> new CamState()).update(f);
+			processed.countDown();
+		});
+
+		assertThat(processed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(parallel.keySet()).isEqualTo(sequential.keySet());
+		for (int camId = 0; camId < NUM_CAMS; camId++)
+		{
+			assertThat(parallel.get(camId).frameNumbers).isEqualTo(sequential.get(camId).frameNumbers);
+			assertThat(parallel.get(camId).frameNumbers).hasSize(NUM_FRAMES_PER_CAM);
+			assertThat(parallel.get(camId).frameNumbers).isSorted();
+			assertThat(workers.get(camId).getNumDroppedFrames()).isZero();
+		}
+	}
+
+
+	@Test
+	public void testCamerasAreProcessedOnSeparateThreads() throws InterruptedException
+	{
+		Map<Integer, Thread> threads = new ConcurrentHashMap<>();
+		CountDownLatch processed = new CountDownLatch(NUM_CAMS);
+		processInParallel(interleavedFrames().subList(0, NUM_CAMS), NUM_FRAMES_PER_CAM, f -> {
+			threads.put(f.getCameraId(), Thread.currentThread());
+			processed.countDown();
+		});
+
+		assertThat(processed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(threads.values().stream().distinct().count()).isEqualTo(NUM_CAMS);
+		assertThat(threads.values()).doesNotContain(Thread.currentThread());
+	}
+
+
+	@Test
+	public void testDropOldestFramesIfQueueIsFull() throws InterruptedException
+	{
+		List<Long> processedFrames = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch processed = new CountDownLatch(4);
+		CamFrameWorker worker = new CamFrameWorker(0, 3, f -> {
+			started.countDown();
+			await(release);
+			processedFrames.add(f.getFrameNumber());
+			processed.countDown();
+		});
+		workers.put(0, worker);
+		worker.start();
+
+		// block the worker with the first frame, so that the following frames queue up
+		worker.enqueue(frame(0, 0));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		for (int i = 1; i <= 5; i++)
+		{
+			worker.enqueue(frame(0, i));
+		}
+		release.countDown();
+
+		assertThat(processed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(processedFrames).containsExactly(0L, 3L, 4L, 5L);
+		assertThat(worker.getNumDroppedFrames()).isEqualTo(2);
+	}
+
+
+	@Test
+	public void testContinueAfterFailedFrame() throws InterruptedException
+	{
+		List<Long> processedFrames = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch processed = new CountDownLatch(2);
+		CamFrameWorker worker = new CamFrameWorker(0, 10, f -> {
+			if (f.getFrameNumber() == 1)
+			{
+				throw new IllegalStateException("failing frame");
+			}
+			processedFrames.add(f.getFrameNumber());
+			processed.countDown();
+		});
+		workers.put(0, worker);
+		worker.start();
+
+		for (int i = 0; i < 3; i++)
+		{
+			worker.enqueue(frame(0, i));
+		}
+
+		assertThat(processed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(processedFrames).containsExactly(0L, 2L);
+	}
+
+
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/**
+	 * State of a camera that depends on the order of its frames.
+	 */
+	private static class CamState
+	{
+		private final List<Long> frameNumbers = new ArrayList<>();
+
+
+		private void update(final CamDetectionFrame frame)
+		{
+			frameNumbers.add(frame.getFrameNumber());
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.vision;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import edu.tigers.sumatra.cam.data.CamBall;
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.cam.data.CamRobot;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector3;
+import edu.tigers.sumatra.vision.data.FilteredVisionFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark the construction of a filtered vision frame with 16 robots that are seen by 4 cameras.
+ * Run with '-prof gc' to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class VisionFilterPublishBenchmark
+{
+	private static final int NUM_CAMS = 4;
+	private static final int NUM_BOTS_PER_TEAM = 8;
+	private static final int NUM_INITIAL_FRAMES = 100;
+	private static final long FRAME_DT = 16_666_667L;
+
+	@Param({ "false", "true" })
+	private boolean leanPublish;
+
+	private final VisionFilterImpl visionFilter = new VisionFilterImpl();
+	private FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	@Setup
+	public void setup()
+	{
+		ConfigRegistration.overrideConfig(VisionFilterImpl.class, "vision", "leanPublish",
+				Boolean.toString(leanPublish));
+
+		// fill the camera filters. Without module threads, every frame is processed and published directly.
+		for (int frameId = 0; frameId < NUM_INITIAL_FRAMES; frameId++)
+		{
+			for (int camId = 0; camId < NUM_CAMS; camId++)
+			{
+				visionFilter.onNewCamDetectionFrame(createFrame(camId, frameId));
+			}
+		}
+		lastFrame = visionFilter.constructFilteredVisionFrame(lastFrame);
+	}
+
+
+	@Benchmark
+	public int constructFilteredVisionFrame()
+	{
+		FilteredVisionFrame frame = visionFilter.constructFilteredVisionFrame(lastFrame);
+		return frame.getBots().size() + frame.getShapeMap().getAllShapeLayers().size();
+	}
+
+
+	private CamDetectionFrame createFrame(int camId, int frameId)
+	{
+		long tCapture = 1_000_000_000L + frameId * FRAME_DT + camId;
+		double t = frameId * FRAME_DT * 1e-9;
+
+		List<CamRobot> yellowBots = new ArrayList<>();
+		List<CamRobot> blueBots = new ArrayList<>();
+		for (int id = 0; id < NUM_BOTS_PER_TEAM; id++)
+		{
+			yellowBots.add(createRobot(camId, frameId, tCapture, BotID.createBotId(id, ETeamColor.YELLOW),
+					Vector2.fromXY(-3000 + t * 100, -2000 + id * 500.0)));
+			blueBots.add(createRobot(camId, frameId, tCapture, BotID.createBotId(id, ETeamColor.BLUE),
+					Vector2.fromXY(3000 - t * 100, -2000 + id * 500.0)));
+		}
+
+		CamBall ball = new CamBall(0.9, 10, Vector3.fromXYZ(t * 500, 100, 0), Vector2.zero(),
+				tCapture, null, tCapture, camId, frameId);
+
+		return new CamDetectionFrame(tCapture, tCapture, null, camId, frameId, frameId,
+				List.of(ball), yellowBots, blueBots);
+	}
+
+
+	private CamRobot createRobot(int camId, int frameId, long tCapture, BotID botID, IVector2 pos)
+	{
+		return new CamRobot(0.9, Vector2.zero(), tCapture, null, tCapture, camId, frameId, pos, 0, 150, botID);
+	}
+}
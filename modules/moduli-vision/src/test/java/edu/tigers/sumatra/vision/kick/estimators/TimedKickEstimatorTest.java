@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import edu.tigers.sumatra.cam.data.CamBall;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class TimedKickEstimatorTest
+{
+	private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private final KickSolverMetrics metrics = new KickSolverMetrics();
+	private final TestEstimator estimator = new TestEstimator();
+
+
+	@After
+	public void tearDown()
+	{
+		estimator.release.countDown();
+		executor.shutdownNow();
+	}
+
+
+	private static long farDeadline()
+	{
+		return System.nanoTime() + TIMEOUT;
+	}
+
+
+	private KickSolverLatency latency()
+	{
+		return metrics.getLatencies().get(EKickEstimatorType.FLAT);
+	}
+
+
+	@Test
+	public void testSynchronousWithoutExecutor()
+	{
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, null);
+		CamBall ball = new CamBall();
+
+		timed.addCamBall(ball);
+
+		assertThat(estimator.records).containsExactly(ball);
+		assertThat(estimator.threads).containsExactly(Thread.currentThread());
+		assertThat(timed.isBusy()).isFalse();
+		assertThat(timed.getFitResult()).isPresent();
+		assertThat(latency().numUpdates()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void testDetectKickOnSolverPool()
+	{
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, executor);
+		assertThat(timed.getFitResult()).isEmpty();
+
+		List<CamBall> balls = List.of(new CamBall(), new CamBall(), new CamBall());
+		for (CamBall ball : balls)
+		{
+			timed.addCamBall(ball);
+			timed.await(farDeadline());
+		}
+
+		assertThat(timed.isBusy()).isFalse();
+		assertThat(estimator.records).containsExactlyElementsOf(balls);
+		assertThat(estimator.threads).doesNotContain(Thread.currentThread());
+		assertThat(timed.getFitResult()).isPresent();
+		assertThat(timed.getFitResult().get().getSolverName()).isEqualTo("fit 3");
+		assertThat(timed.isDone(List.of(), 0)).isTrue();
+		assertThat(timed.getShapes()).isEqualTo(estimator.getShapes());
+		assertThat(latency().numUpdates()).isEqualTo(3);
+		assertThat(latency().numDeadlineMisses()).isZero();
+	}
+
+
+	@Test
+	public void testMissedDeadline() throws InterruptedException
+	{
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, executor);
+		timed.addCamBall(new CamBall());
+		timed.await(farDeadline());
+		KickFitResult firstFit = timed.getFitResult().orElseThrow();
+
+		// block the solver, so that the next update misses its deadline
+		estimator.blockNextUpdate();
+		CamBall slowBall = new CamBall();
+		timed.addCamBall(slowBall);
+		assertThat(estimator.blocked.await(10, TimeUnit.SECONDS)).isTrue();
+		timed.await(System.nanoTime());
+		timed.await(System.nanoTime());
+
+		assertThat(timed.isBusy()).isTrue();
+		assertThat(latency().numDeadlineMisses()).isEqualTo(1);
+		// while busy, the last completed update is used
+		assertThat(timed.getFitResult()).contains(firstFit);
+		assertThat(timed.getShapes()).isEqualTo(estimator.getShapes());
+		assertThat(timed.isDone(List.of(), 0)).isFalse();
+		assertThat(timed.getModelIdentResult()).isEmpty();
+
+		// cam balls that arrive while busy are queued for the next update
+		CamBall queuedBall = new CamBall();
+		timed.addCamBall(queuedBall);
+		assertThat(estimator.records).doesNotContain(queuedBall);
+
+		estimator.release.countDown();
+		timed.await(farDeadline());
+		timed.await(farDeadline());
+
+		assertThat(timed.isBusy()).isFalse();
+		assertThat(estimator.records.subList(1, 3)).containsExactly(slowBall, queuedBall);
+		assertThat(timed.getFitResult().orElseThrow().getSolverName()).isEqualTo("fit 3");
+		assertThat(latency().numDeadlineMisses()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void testDropOldestQueuedCamBalls() throws InterruptedException
+	{
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, executor);
+		estimator.blockNextUpdate();
+		timed.addCamBall(new CamBall());
+		assertThat(estimator.blocked.await(10, TimeUnit.SECONDS)).isTrue();
+
+		List<CamBall> queuedBalls = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+		{
+			CamBall ball = new CamBall();
+			queuedBalls.add(ball);
+			timed.addCamBall(ball);
+		}
+		estimator.release.countDown();
+		timed.await(farDeadline());
+		timed.await(farDeadline());
+
+		assertThat(estimator.records).hasSize(21);
+		assertThat(estimator.records.subList(1, 21)).containsExactlyElementsOf(queuedBalls.subList(5, 25));
+	}
+
+
+	@Test
+	public void testFailingSolver()
+	{
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, executor);
+		estimator.failNextUpdate = true;
+		timed.addCamBall(new CamBall());
+		timed.await(farDeadline());
+
+		assertThat(timed.isBusy()).isFalse();
+		assertThat(timed.getFitResult()).isEmpty();
+
+		timed.addCamBall(new CamBall());
+		timed.await(farDeadline());
+		assertThat(timed.getFitResult()).isPresent();
+	}
+
+
+	@Test
+	public void testSolverUsesGeometryScope()
+	{
+		ETeamColor globalTeam = Geometry.getNegativeHalfTeam();
+		Geometry.Scope scope = Geometry.newScope();
+		scope.run(() -> Geometry.setNegativeHalfTeam(globalTeam.opposite()));
+
+		TimedKickEstimator timed = new TimedKickEstimator(estimator, metrics, executor);
+		scope.run(() -> {
+			timed.addCamBall(new CamBall());
+			timed.await(farDeadline());
+		});
+
+		assertThat(estimator.negativeHalfTeams).containsExactly(globalTeam.opposite());
+		assertThat(Geometry.getNegativeHalfTeam()).isEqualTo(globalTeam);
+	}
+
+
+	/**
+	 * Reports a new fit result for every cam ball.
+	 */
+	private static class TestEstimator implements IKickEstimator
+	{
+		private final List<CamBall> records = Collections.synchronizedList(new ArrayList<>());
+		private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		private final List<ETeamColor> negativeHalfTeams = Collections.synchronizedList(new ArrayList<>());
+		private final List<IDrawableShape> shapes = List.of();
+		private final CountDownLatch blocked = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile boolean blockNextUpdate;
+		private volatile boolean failNextUpdate;
+		private volatile KickFitResult fitResult;
+
+
+		private void blockNextUpdate()
+		{
+			blockNextUpdate = true;
+		}
+
+
+		@Override
+		public void addCamBall(final CamBall record)
+		{
+			records.add(record);
+			threads.add(Thread.currentThread());
+			negativeHalfTeams.add(Geometry.getNegativeHalfTeam());
+			if (blockNextUpdate)
+			{
+				blockNextUpdate = false;
+				blocked.countDown();
+				try
+				{
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (failNextUpdate)
+			{
+				failNextUpdate = false;
+				throw new IllegalStateException("Solver failed");
+			}
+			fitResult = KickFitResult.builder()
+					.withSolverName("fit " + records.size())
+					.withKickTimestamp(records.size())
+					.withGroundProjection(List.of())
+					.build();
+		}
+
+
+		@Override
+		public Optional<KickFitResult> getFitResult()
+		{
+			return Optional.ofNullable(fitResult);
+		}
+
+
+		@Override
+		public boolean isDone(final List<FilteredVisionBot> mergedRobots, final long timestamp)
+		{
+			return fitResult != null;
+		}
+
+
+		@Override
+		public List<IDrawableShape> getShapes()
+		{
+			return shapes;
+		}
+
+
+		@Override
+		public EKickEstimatorType getType()
+		{
+			return EKickEstimatorType.FLAT;
+		}
+
+
+		@Override
+		public List<IBallModelIdentResult> getModelIdentResult()
+		{
+			return List.of();
+		}
+	}
+}
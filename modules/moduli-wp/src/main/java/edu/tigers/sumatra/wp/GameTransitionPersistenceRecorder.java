@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp;
+
+import edu.tigers.sumatra.model.SumatraModel;
+import edu.tigers.sumatra.persistence.ABufferedPersistenceRecorder;
+import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.wp.data.PersistenceGameTransition;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+
+
+/**
+ * Persistence recorder for changes of the referee command, the game state and the game events.
+ * The resulting table is a compact index for searching states in the replay.
+ */
+public class GameTransitionPersistenceRecorder extends ABufferedPersistenceRecorder<PersistenceGameTransition>
+		implements IWorldFrameObserver
+{
+	private PersistenceGameTransition lastTransition;
+
+
+	public GameTransitionPersistenceRecorder(PersistenceDb db)
+	{
+		super(db, PersistenceGameTransition.class);
+	}
+
+
+	@Override
+	public void start()
+	{
+		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
+		wp.addObserver(this);
+	}
+
+
+	@Override
+	public void stop()
+	{
+		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
+		wp.removeObserver(this);
+	}
+
+
+	@Override
+	public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
+	{
+		PersistenceGameTransition transition = PersistenceGameTransition.fromWorldFrame(wFrameWrapper);
+		if (lastTransition == null || !lastTransition.hasSameState(transition))
+		{
+			queue(transition);
+			lastTransition = transition;
+		}
+	}
+}
@@ -4,11 +4,15 @@
 
 package edu.tigers.sumatra.wp;
 
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.persistence.ABufferedPersistenceRecorder;
 import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.vision.AVisionFilter;
+
+import java.util.function.Predicate;
 
 
 /**
@@ -17,6 +21,9 @@ import edu.tigers.sumatra.persistence.PersistenceDb;
 public class ShapeMapPersistenceRecorder extends ABufferedPersistenceRecorder<PersistenceShapeMapFrame>
 		implements IWorldFrameObserver
 {
+	private final Predicate<IShapeLayerIdentifier> persistentShapeLayers = ShapeMap::isPersistent;
+
+
 	/**
 	 * Create persistance storage for shape maps
 	 */
@@ -31,6 +38,8 @@ public class ShapeMapPersistenceRecorder extends ABufferedPersistenceRecorder<Pe
 	{
 		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
 		wp.addObserver(this);
+		SumatraModel.getInstance().getModuleOpt(AVisionFilter.class)
+				.ifPresent(vf -> vf.addShapeLayerSubscriber(persistentShapeLayers));
 	}
 
 
@@ -39,6 +48,8 @@ public class ShapeMapPersistenceRecorder extends ABufferedPersistenceRecorder<Pe
 	{
 		AWorldPredictor wp = SumatraModel.getInstance().getModule(AWorldPredictor.class);
 		wp.removeObserver(this);
+		SumatraModel.getInstance().getModuleOpt(AVisionFilter.class)
+				.ifPresent(vf -> vf.removeShapeLayerSubscriber(persistentShapeLayers));
 	}
 
 
@@ -39,6 +39,7 @@ import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
 import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
 import edu.tigers.sumatra.referee.source.ERefereeMessageSource;
+import edu.tigers.sumatra.time.ELatencyStage;
 import edu.tigers.sumatra.util.Safe;
 import edu.tigers.sumatra.vision.AVisionFilter;
 import edu.tigers.sumatra.vision.IVisionFilterObserver;
@@ -137,6 +138,7 @@ public class WorldInfoCollector extends AWorldPredictor
 	private CiGameControllerConnector ciGameControllerConnector;
 	private long lastWFTimestamp;
 	private RefereeMsg latestRefereeMsg;
+	private boolean visualize = true;
 
 
 	private Map<BotID, BotState> getFilteredBotStates(final Collection<FilteredVisionBot> visionBots)
@@ -330,12 +332,16 @@ public class WorldInfoCollector extends AWorldPredictor
 
 		GameState gameState = gameStateCalculator.getNextGameState(latestRefereeMsg, ball.getPos(), lastWFTimestamp);
 
-		WorldFrameWrapper wfw = new WorldFrameWrapper(swf, latestRefereeMsg, gameState);
+		WorldFrameWrapper wfw = new WorldFrameWrapper(swf, latestRefereeMsg, gameState,
+				filteredVisionFrame.getLatencyTrace().stamp(ELatencyStage.WORLD_FRAME));
 		Safe.forEach(consumers, c -> c.onNewWorldFrame(wfw));
 		Safe.forEach(observers, c -> c.onNewWorldFrame(wfw));
 
-		visualize(wfw);
-		ShapeMap.setPersistDebugShapes(!SumatraModel.getInstance().isTournamentMode());
+		if (visualize)
+		{
+			visualize(wfw);
+			ShapeMap.setPersistDebugShapes(!SumatraModel.getInstance().isTournamentMode());
+		}
 	}
 
 
@@ -376,6 +382,22 @@ public class WorldInfoCollector extends AWorldPredictor
 	}
 
 
+	/**
+	 * Initialize this collector without the module system, e.g. for offline processing of game logs.
+	 * Cam frames, filtered vision frames and referee messages are not received from other modules, but must be
+	 * passed to the respective observer methods by the caller.
+	 *
+	 * @param visionFilter the vision filter that receives the robot infos of each frame
+	 * @param visualize    if false, no shape maps are created for the world frames and cam frames
+	 */
+	public void initStandalone(final AVisionFilter visionFilter, final boolean visualize)
+	{
+		this.visionFilter = visionFilter;
+		this.visualize = visualize;
+		reset();
+	}
+
+
 	@Override
 	public final void deinitModule()
 	{
@@ -521,7 +543,10 @@ public class WorldInfoCollector extends AWorldPredictor
 	public void onNewFilteredVisionFrame(final FilteredVisionFrame filteredVisionFrame)
 	{
 		processFilteredVisionFrame(filteredVisionFrame);
-		notifyNewShapeMap(lastWFTimestamp, filteredVisionFrame.getShapeMap(), VISION_FILTER_SHAPE_MAP_SOURCE);
+		if (visualize)
+		{
+			notifyNewShapeMap(lastWFTimestamp, filteredVisionFrame.getShapeMap(), VISION_FILTER_SHAPE_MAP_SOURCE);
+		}
 	}
 
 
@@ -553,7 +578,10 @@ public class WorldInfoCollector extends AWorldPredictor
 		CamBall ball = currentBallDetector.findCurrentBall(camDetectionFrame.getBalls());
 		ExtendedCamDetectionFrame eFrame = new ExtendedCamDetectionFrame(camDetectionFrame, ball);
 		observers.forEach(o -> o.onNewCamDetectionFrame(eFrame));
-		camFrameShapeMapProducer.updateCamFrameShapes(eFrame);
+		if (visualize)
+		{
+			camFrameShapeMapProducer.updateCamFrameShapes(eFrame);
+		}
 	}
 
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.wp.data;
+
+import edu.tigers.sumatra.persistence.PersistenceTable;
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.referee.gameevent.EGameEvent;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+
+/**
+ * Entity for a change of the referee command, the game state or the game events.
+ * It is stored with the key of the first {@link WorldFrameWrapper} with the new state, so the state at any time
+ * is given by the last transition before it.
+ */
+@Data
+@RequiredArgsConstructor
+public class PersistenceGameTransition implements PersistenceTable.IEntry<PersistenceGameTransition>
+{
+	private final long timestamp;
+
+	private final SslGcRefereeMessage.Referee.Command command;
+	private final EGameState gameState;
+	private final boolean stoppedGame;
+	private final boolean ballPlacement;
+	private final Set<EGameEvent> gameEvents;
+
+
+	/**
+	 * @param wfw the world frame
+	 * @return the state of the world frame
+	 */
+	public static PersistenceGameTransition fromWorldFrame(final WorldFrameWrapper wfw)
+	{
+		RefereeMsg refMsg = wfw.getRefereeMsg();
+		Set<EGameEvent> gameEvents = EnumSet.noneOf(EGameEvent.class);
+		if (refMsg != null)
+		{
+			refMsg.getGameEvents().stream().map(IGameEvent::getType).forEach(gameEvents::add);
+		}
+		return new PersistenceGameTransition(
+				wfw.getTimestamp(),
+				refMsg == null ? null : refMsg.getCommand(),
+				wfw.getGameState().getState(),
+				refMsg != null && wfw.getGameState().isStoppedGame(),
+				wfw.getGameState().isBallPlacement(),
+				gameEvents);
+	}
+
+
+	/**
+	 * @param other another transition
+	 * @return true, if both have the same state, independent of their timestamp
+	 */
+	public boolean hasSameState(final PersistenceGameTransition other)
+	{
+		return command == other.command
+				&& gameState == other.gameState
+				&& stoppedGame == other.stoppedGame
+				&& ballPlacement == other.ballPlacement
+				&& Objects.equals(gameEvents, other.gameEvents);
+	}
+
+
+	@Override
+	public long getKey()
+	{
+		return timestamp;
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+package edu.tigers.sumatra.wp.data;
+
+import edu.tigers.sumatra.persistence.PersistenceTable;
+import edu.tigers.sumatra.time.LatencyTrace;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * Entity for the latency trace of a frame, stored with the same key as the {@link WorldFrameWrapper} of the frame
+ */
+@Data
+@RequiredArgsConstructor
+public class PersistenceLatencyTraceFrame implements PersistenceTable.IEntry<PersistenceLatencyTraceFrame>
+{
+	private final long timestamp;
+
+	private final LatencyTrace latencyTrace;
+
+
+	@Override
+	public long getKey()
+	{
+		return timestamp;
+	}
+}
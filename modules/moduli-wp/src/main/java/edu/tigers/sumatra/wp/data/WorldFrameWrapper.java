@@ -8,13 +8,17 @@ import edu.tigers.sumatra.ids.EAiTeam;
 import edu.tigers.sumatra.persistence.PersistenceTable;
 import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.time.LatencyTrace;
 
-import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
- * Wrapper for different worldframes
+ * Wrapper for different worldframes.
+ * The {@link WorldFrame}s of the AI teams are only created on demand (one of them requires a mirrored copy of
+ * the whole {@link SimpleWorldFrame}) and are cached. Copies of this wrapper start with the world frames that are
+ * cached at the time of the copy, but have their own cache.
  * 
  * @author Nicolai Ommer <nicolai.ommer@gmail.com>
  */
@@ -27,7 +31,8 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 	private final RefereeMsg refereeMsg;
 	private GameState gameState = GameState.HALT;
 	
-	private final transient Map<EAiTeam, WorldFrame> worldFrames = new EnumMap<>(EAiTeam.class);
+	private final transient Map<EAiTeam, WorldFrame> worldFrames;
+	private final transient LatencyTrace latencyTrace;
 	
 	
 	@SuppressWarnings("unused") // Required (to be public) by Fury for transient field initialization.
@@ -36,10 +41,25 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 		timestamp = 0;
 		simpleWorldFrame = null;
 		refereeMsg = new RefereeMsg();
+		worldFrames = new ConcurrentHashMap<>();
+		latencyTrace = LatencyTrace.empty();
 	}
 	
 	
 	public WorldFrameWrapper(final SimpleWorldFrame swf, final RefereeMsg refereeMsg, final GameState gameState)
+	{
+		this(swf, refereeMsg, gameState, LatencyTrace.empty());
+	}
+	
+	
+	/**
+	 * @param swf
+	 * @param refereeMsg
+	 * @param gameState
+	 * @param latencyTrace the latency trace of the frame, stamped up to the creation of this wrapper
+	 */
+	public WorldFrameWrapper(final SimpleWorldFrame swf, final RefereeMsg refereeMsg, final GameState gameState,
+			final LatencyTrace latencyTrace)
 	{
 		assert refereeMsg != null;
 		assert swf != null;
@@ -47,8 +67,8 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 		simpleWorldFrame = swf;
 		this.refereeMsg = refereeMsg;
 		this.gameState = gameState;
-		worldFrames.computeIfAbsent(EAiTeam.YELLOW, t -> createWorldFrame(swf, t));
-		worldFrames.computeIfAbsent(EAiTeam.BLUE, t -> createWorldFrame(swf, t));
+		worldFrames = new ConcurrentHashMap<>();
+		this.latencyTrace = latencyTrace;
 	}
 	
 	
@@ -60,8 +80,10 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 		timestamp = wfw.getSimpleWorldFrame().getTimestamp();
 		simpleWorldFrame = wfw.simpleWorldFrame;
 		refereeMsg = wfw.refereeMsg;
-		worldFrames.putAll(wfw.worldFrames);
+		// same simple world frame and referee message, so the cached world frames can be reused
+		worldFrames = new ConcurrentHashMap<>(wfw.worldFrames);
 		gameState = wfw.gameState;
+		latencyTrace = wfw.latencyTrace;
 	}
 	
 	
@@ -112,6 +134,8 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 	
 	
 	/**
+	 * Get the world frame of the given AI team. It is created on first access (thread-safe).
+	 *
 	 * @param aiTeam
 	 * @return the worldFrames
 	 */
@@ -139,6 +163,15 @@ public class WorldFrameWrapper implements PersistenceTable.IEntry<WorldFrameWrap
 	}
 
 
+	/**
+	 * @return the latency trace of this frame (not persisted)
+	 */
+	public final LatencyTrace getLatencyTrace()
+	{
+		return latencyTrace;
+	}
+
+
 	@Override
 	public long getKey()
 	{
@@ -8,14 +8,13 @@ import edu.tigers.sumatra.bot.EFeature;
 import edu.tigers.sumatra.bot.EFeatureState;
 import edu.tigers.sumatra.bot.RobotInfo;
 import edu.tigers.sumatra.geometry.Geometry;
-import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.BotIdLongMap;
+import edu.tigers.sumatra.ids.BotIdSet;
 import edu.tigers.sumatra.math.botshape.BotShape;
 import edu.tigers.sumatra.math.pose.Pose;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.wp.data.BallContact;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 
@@ -26,11 +25,11 @@ public class BallContactCalculator
 {
 	private static final double BALL_POSS_TOLERANCE_HAS = 60;
 	private static final double BALL_POSS_TOLERANCE_GET = 20;
-	private final Map<BotID, Boolean> ballContactLastFrame = new HashMap<>();
-	private final Map<BotID, Long> startBallContactMap = new HashMap<>();
-	private final Map<BotID, Long> endBallContactMap = new HashMap<>();
-	private final Map<BotID, Long> visionStartBallContactMap = new HashMap<>();
-	private final Map<BotID, Long> visionEndBallContactMap = new HashMap<>();
+	private final BotIdSet ballContactLastFrame = new BotIdSet();
+	private final BotIdLongMap startBallContactMap = new BotIdLongMap();
+	private final BotIdLongMap endBallContactMap = new BotIdLongMap();
+	private final BotIdLongMap visionStartBallContactMap = new BotIdLongMap();
+	private final BotIdLongMap visionEndBallContactMap = new BotIdLongMap();
 	private IVector2 ballPos;
 
 
@@ -38,13 +37,14 @@ public class BallContactCalculator
 	{
 		boolean ballContactFromVision = hasBallContactFromVision(robotInfo, pose, center2Dribbler);
 		boolean ballContact = hasBallContact(robotInfo).orElse(ballContactFromVision);
-		ballContactLastFrame.put(robotInfo.getBotId(), ballContact);
 		if (ballContact)
 		{
+			ballContactLastFrame.add(robotInfo.getBotId());
 			startBallContactMap.putIfAbsent(robotInfo.getBotId(), robotInfo.getTimestamp());
 			endBallContactMap.put(robotInfo.getBotId(), robotInfo.getTimestamp());
 		} else
 		{
+			ballContactLastFrame.remove(robotInfo.getBotId());
 			startBallContactMap.remove(robotInfo.getBotId());
 		}
 		if (ballContactFromVision)
@@ -79,7 +79,7 @@ public class BallContactCalculator
 	private boolean hasBallContactFromVision(final RobotInfo robotInfo, final Pose pose, final double center2Dribbler)
 	{
 		double ballPossTolerance;
-		if (Boolean.TRUE.equals(ballContactLastFrame.getOrDefault(robotInfo.getBotId(), false)))
+		if (ballContactLastFrame.contains(robotInfo.getBotId()))
 		{
 			ballPossTolerance = BALL_POSS_TOLERANCE_HAS;
 		} else
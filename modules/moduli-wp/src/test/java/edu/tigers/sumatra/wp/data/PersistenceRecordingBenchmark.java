@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp.data;
+
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.persistence.EPersistenceKeyType;
+import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.persistence.PersistenceTable;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measure the recording throughput of world frames into a {@link PersistenceTable}.
+ * The record saver flushes every 10 ms, so at 80 Hz or more, a batch contains about one to a few frames per table.
+ * Larger batches show the effect of the group commit of the data and index file.
+ * The score is the time per batch, divide it by the batch size to get the time per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class PersistenceRecordingBenchmark
+{
+	private static final int NUM_BOTS_PER_TEAM = 11;
+
+	@Param({ "1", "8", "64" })
+	private int batchSize;
+
+	private final RefereeMsg refereeMsg = new RefereeMsg();
+	private final Map<BotID, ITrackedBot> bots = new HashMap<>();
+	private PersistenceDb db;
+	private PersistenceTable<WorldFrameWrapper> table;
+
+	private long frameNumber = 0;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	@Setup
+	public void setup() throws IOException
+	{
+		for (ETeamColor color : ETeamColor.yellowBlueValues())
+		{
+			for (int id = 0; id < NUM_BOTS_PER_TEAM; id++)
+			{
+				BotID botID = BotID.createBotId(id, color);
+				bots.put(botID, TrackedBot.stub(botID, 0));
+			}
+		}
+		db = PersistenceDb.withCustomLocation(Files.createTempDirectory("record-benchmark"));
+		db.add(WorldFrameWrapper.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		table = db.getTable(WorldFrameWrapper.class);
+	}
+
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		db.close();
+		db.delete();
+	}
+
+
+	@Benchmark
+	public int writeBatch()
+	{
+		List<WorldFrameWrapper> batch = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++)
+		{
+			long timestamp = frameNumber++;
+			batch.add(new WorldFrameWrapper(
+					new SimpleWorldFrame(timestamp, timestamp, bots, TrackedBall.createStub(), null),
+					refereeMsg, GameState.HALT));
+		}
+		table.write(batch);
+		return batch.size();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2009 - 2021, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.wp.data;
+
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.EAiTeam;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measure the per-frame cost of the world frame construction step in
+ * WorldInfoCollector#processFilteredVisionFrame.
+ * Consumers that only need the simple world frame (like the AutoRef) do not pay for the AI world frames anymore,
+ * consumers of both AI teams pay the same as before.
+ * Run with '-prof gc' to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class WorldFrameWrapperBenchmark
+{
+	private static final int NUM_BOTS_PER_TEAM = 8;
+
+	private final RefereeMsg refereeMsg = new RefereeMsg();
+	private final SimpleWorldFrame swf;
+
+	private long frameNumber = 0;
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	public WorldFrameWrapperBenchmark()
+	{
+		Map<BotID, ITrackedBot> bots = new HashMap<>();
+		for (ETeamColor color : ETeamColor.yellowBlueValues())
+		{
+			for (int id = 0; id < NUM_BOTS_PER_TEAM; id++)
+			{
+				BotID botID = BotID.createBotId(id, color);
+				bots.put(botID, TrackedBot.stub(botID, 0));
+			}
+		}
+		swf = new SimpleWorldFrame(0, 0, bots, TrackedBall.createStub(), null);
+	}
+
+
+	private WorldFrameWrapper nextFrame()
+	{
+		return new WorldFrameWrapper(
+				new SimpleWorldFrame(frameNumber++, 0, swf.getBots(), swf.getBall(), null),
+				refereeMsg, GameState.HALT);
+	}
+
+
+	@Benchmark
+	public long simpleWorldFrameOnly()
+	{
+		return nextFrame().getSimpleWorldFrame().getFrameNumber();
+	}
+
+
+	@Benchmark
+	public int worldFramesOfBothTeams()
+	{
+		WorldFrameWrapper wfw = nextFrame();
+		return wfw.getWorldFrame(EAiTeam.YELLOW).getBots().size()
+				+ wfw.getWorldFrame(EAiTeam.BLUE).getBots().size();
+	}
+}
@@ -16,12 +16,13 @@ import java.util.List;
 public class ReplayCamDetectionController implements IReplayController
 {
 	private final List<IWorldFrameObserver> wFrameObservers;
+	private final ReplayPrefetcher prefetcher;
 
 
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		PersistenceCamDetectionFrame camFrame = db.getTable(PersistenceCamDetectionFrame.class).get(sumatraTimestampNs);
+		PersistenceCamDetectionFrame camFrame = prefetcher.get(PersistenceCamDetectionFrame.class, sumatraTimestampNs);
 		if (camFrame != null)
 		{
 			for (IWorldFrameObserver vp : wFrameObservers)
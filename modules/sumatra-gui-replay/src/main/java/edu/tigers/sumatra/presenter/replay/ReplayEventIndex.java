@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.gameevent.EGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import edu.tigers.sumatra.wp.data.PersistenceGameTransition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+
+/**
+ * Index of the recorded {@link PersistenceGameTransition}s for searching and skipping game states in the replay.
+ * <p>
+ * The state at any time is given by the last transition before it. For each command, game state and game event,
+ * the positions of the transitions with this value are stored, so that the next transition with a searched value
+ * is found with a binary search.
+ * Like probing the world frames, a transition without referee message (its command is null) matches any searched
+ * command and game event.
+ */
+public class ReplayEventIndex
+{
+	private final PersistenceGameTransition[] transitions;
+	private final long[] timestamps;
+	private final Map<SslGcRefereeMessage.Referee.Command, int[]> commandPositions;
+	private final int[] noRefereeMsgPositions;
+	private final Map<EGameState, int[]> gameStatePositions;
+	private final Map<EGameEvent, int[]> gameEventPositions;
+
+
+	/**
+	 * @param transitions all transitions, ordered by timestamp
+	 */
+	public ReplayEventIndex(final List<PersistenceGameTransition> transitions)
+	{
+		this.transitions = transitions.toArray(new PersistenceGameTransition[0]);
+		timestamps = transitions.stream().mapToLong(PersistenceGameTransition::getTimestamp).toArray();
+
+		Map<SslGcRefereeMessage.Referee.Command, List<Integer>> commands = new EnumMap<>(
+				SslGcRefereeMessage.Referee.Command.class);
+		Map<EGameState, List<Integer>> gameStates = new EnumMap<>(EGameState.class);
+		Map<EGameEvent, List<Integer>> gameEvents = new EnumMap<>(EGameEvent.class);
+		List<Integer> noRefereeMsg = new ArrayList<>();
+		for (int i = 0; i < this.transitions.length; i++)
+		{
+			PersistenceGameTransition transition = this.transitions[i];
+			if (transition.getCommand() != null)
+			{
+				commands.computeIfAbsent(transition.getCommand(), k -> new ArrayList<>()).add(i);
+			} else
+			{
+				noRefereeMsg.add(i);
+			}
+			gameStates.computeIfAbsent(transition.getGameState(), k -> new ArrayList<>()).add(i);
+			for (EGameEvent gameEvent : transition.getGameEvents())
+			{
+				gameEvents.computeIfAbsent(gameEvent, k -> new ArrayList<>()).add(i);
+			}
+		}
+		commandPositions = toArrays(commands, SslGcRefereeMessage.Referee.Command.class);
+		noRefereeMsgPositions = noRefereeMsg.stream().mapToInt(Integer::intValue).toArray();
+		gameStatePositions = toArrays(gameStates, EGameState.class);
+		gameEventPositions = toArrays(gameEvents, EGameEvent.class);
+	}
+
+
+	private static <E extends Enum<E>> Map<E, int[]> toArrays(final Map<E, List<Integer>> positions,
+			final Class<E> clazz)
+	{
+		Map<E, int[]> arrays = new EnumMap<>(clazz);
+		positions.forEach((key, list) -> arrays.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+		return arrays;
+	}
+
+
+	/**
+	 * @return the number of transitions
+	 */
+	public int size()
+	{
+		return transitions.length;
+	}
+
+
+	/**
+	 * Find the first time at or after the given time, at which all conditions are fulfilled.
+	 *
+	 * @param time          the start time of the search
+	 * @param skipStop      skip stopped games
+	 * @param skipPlacement skip ball placements
+	 * @param command       the searched command or null
+	 * @param gameEvent     the searched game event or null
+	 * @param gameState     the searched game state or null
+	 * @return the time, or empty if the conditions are not fulfilled after the given time
+	 */
+	public OptionalLong findNext(final long time, final boolean skipStop, final boolean skipPlacement,
+			final SslGcRefereeMessage.Referee.Command command, final EGameEvent gameEvent, final EGameState gameState)
+	{
+		// the transition that is active at the given time, or the first one
+		int position = Math.max(0, floor(time));
+		while (position < transitions.length)
+		{
+			int candidate = nextCandidate(position, command, gameEvent, gameState);
+			if (candidate >= transitions.length)
+			{
+				break;
+			}
+			PersistenceGameTransition transition = transitions[candidate];
+			if ((!skipStop || !transition.isStoppedGame()) && (!skipPlacement || !transition.isBallPlacement()))
+			{
+				return OptionalLong.of(Math.max(time, timestamps[candidate]));
+			}
+			position = candidate + 1;
+		}
+		return OptionalLong.empty();
+	}
+
+
+	/**
+	 * @return the first position at or after the given one with all searched values
+	 */
+	private int nextCandidate(final int start, final SslGcRefereeMessage.Referee.Command command,
+			final EGameEvent gameEvent, final EGameState gameState)
+	{
+		int candidate = start;
+		int previous = -1;
+		// each position array jumps to its next match, until all of them agree
+		while (candidate != previous && candidate < transitions.length)
+		{
+			previous = candidate;
+			candidate = nextOrNoRefereeMsg(commandPositions, command, candidate);
+			candidate = nextOrNoRefereeMsg(gameEventPositions, gameEvent, candidate);
+			candidate = next(gameStatePositions, gameState, candidate);
+		}
+		return candidate;
+	}
+
+
+	/**
+	 * @return the first position at or after the given one with the value or without referee message
+	 */
+	private <E> int nextOrNoRefereeMsg(final Map<E, int[]> positions, final E value, final int start)
+	{
+		if (value == null)
+		{
+			return start;
+		}
+		return Math.min(next(positions.get(value), start), next(noRefereeMsgPositions, start));
+	}
+
+
+	private <E> int next(final Map<E, int[]> positions, final E value, final int start)
+	{
+		if (value == null)
+		{
+			return start;
+		}
+		return next(positions.get(value), start);
+	}
+
+
+	/**
+	 * @param array the ascending positions with a value, null if there are none
+	 * @return the first of the positions at or after the given one
+	 */
+	private int next(final int[] array, final int start)
+	{
+		if (array == null)
+		{
+			return transitions.length;
+		}
+		int index = Arrays.binarySearch(array, start);
+		if (index < 0)
+		{
+			index = -index - 1;
+		}
+		return index < array.length ? array[index] : transitions.length;
+	}
+
+
+	/**
+	 * @return the position of the last transition at or before the time, -1 if there is none
+	 */
+	private int floor(final long time)
+	{
+		int index = Arrays.binarySearch(timestamps, time);
+		if (index >= 0)
+		{
+			return index;
+		}
+		return -index - 2;
+	}
+}
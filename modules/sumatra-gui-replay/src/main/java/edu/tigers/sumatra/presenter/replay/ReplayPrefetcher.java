@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.persistence.PersistenceTable;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Decodes the frames that the replay will show next on background threads.
+ * <p>
+ * Based on the current time, the playback speed and its direction, the keys of the next refreshes are predicted.
+ * The entries of these keys are decoded from all tables that are based on the Sumatra timestamp into a window,
+ * which is bounded by the number of predicted refreshes.
+ * If only prefetched frames are rendered, a frame that is not decoded yet is replaced by the nearest decoded frame
+ * of the window, so that the playback thread never decodes frames itself.
+ * Tables with other keys are not prefetched, their entries are always decoded directly.
+ */
+@Log4j2
+public class ReplayPrefetcher
+{
+	private static final int NUM_THREADS = 2;
+	/** number of refreshes to prefetch in playback direction */
+	private static final int NUM_PREFETCHED_REFRESHES = 30;
+	private static final long STOP_TIMEOUT_MS = 1000;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS,
+			new NamedThreadFactory("ReplayPrefetcher"));
+	private final Map<Class<?>, NavigableMap<Long, Object>> windows = new ConcurrentHashMap<>();
+	/** keys that are decoded for all tables */
+	private final Set<Long> decodedKeys = ConcurrentHashMap.newKeySet();
+	/** keys that are queued for decoding */
+	private final Set<Long> pendingKeys = ConcurrentHashMap.newKeySet();
+	/** guards moving the window against adding decoded keys to it */
+	private final Object windowLock = new Object();
+
+	private volatile Set<Long> wantedKeys = Set.of();
+	private PersistenceDb db;
+
+	/**
+	 * Render prefetched frames only, instead of decoding missing frames on the playback thread
+	 */
+	@Setter
+	private volatile boolean prefetchedOnly = false;
+
+
+	/**
+	 * @param db the database to prefetch from
+	 */
+	public void start(final PersistenceDb db)
+	{
+		this.db = db;
+	}
+
+
+	/**
+	 * Stop prefetching and release the window. Waits for running decodes, so that the database can be closed
+	 * afterward.
+	 */
+	public void stop()
+	{
+		// queued keys are skipped, as they are not wanted anymore
+		wantedKeys = Set.of();
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+			{
+				log.warn("Prefetching did not stop within {} ms", STOP_TIMEOUT_MS);
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		synchronized (windowLock)
+		{
+			windows.clear();
+			decodedKeys.clear();
+			pendingKeys.clear();
+		}
+	}
+
+
+	/**
+	 * Prefetch the keys of the next refreshes. Keys that are not needed anymore are removed from the window.
+	 *
+	 * @param currentTime     the current time of the replay
+	 * @param speed           the playback speed, negative for backward playback and 0 if paused
+	 * @param refreshPeriodNs the time between two refreshes
+	 */
+	public void prefetch(final long currentTime, final double speed, final long refreshPeriodNs)
+	{
+		if (executor.isShutdown())
+		{
+			return;
+		}
+		Set<Long> keys = predictKeys(currentTime, speed, refreshPeriodNs);
+		synchronized (windowLock)
+		{
+			wantedKeys = keys;
+			decodedKeys.retainAll(keys);
+			windows.values().forEach(window -> window.keySet().retainAll(keys));
+		}
+
+		for (Long k : keys)
+		{
+			if (!decodedKeys.contains(k) && pendingKeys.add(k))
+			{
+				executor.execute(() -> decode(k));
+			}
+		}
+	}
+
+
+	/**
+	 * @return the keys of the next refreshes in playback order, followed by the neighbours of the current key
+	 */
+	Set<Long> predictKeys(final long currentTime, final double speed, final long refreshPeriodNs)
+	{
+		Set<Long> keys = new LinkedHashSet<>();
+		for (int i = 0; i <= NUM_PREFETCHED_REFRESHES; i++)
+		{
+			Long key = db.getKey(currentTime + Math.round(i * speed * refreshPeriodNs));
+			if (key != null)
+			{
+				keys.add(key);
+			}
+		}
+		// allow stepping frame by frame when paused
+		Long key = db.getKey(currentTime);
+		if (key != null)
+		{
+			addIfNotNull(keys, db.getNextKey(key));
+			addIfNotNull(keys, db.getPreviousKey(key));
+		}
+		return keys;
+	}
+
+
+	private void addIfNotNull(final Set<Long> keys, final Long key)
+	{
+		if (key != null)
+		{
+			keys.add(key);
+		}
+	}
+
+
+	private void decode(final long key)
+	{
+		try
+		{
+			// the playback may have moved on since the key was queued
+			if (!wantedKeys.contains(key))
+			{
+				return;
+			}
+			Map<Class<?>, Object> entries = new HashMap<>();
+			db.forEachTable(table -> {
+				if (table.isSumatraTimestampBased())
+				{
+					Object entry = table.get(key);
+					if (entry != null)
+					{
+						entries.put(entry.getClass(), entry);
+					}
+				}
+			});
+			synchronized (windowLock)
+			{
+				// a key that left the window while it was decoded would never be removed again
+				if (wantedKeys.contains(key))
+				{
+					entries.forEach((clazz, entry) -> windows.computeIfAbsent(clazz, c -> new ConcurrentSkipListMap<>())
+							.put(key, entry));
+					decodedKeys.add(key);
+				}
+			}
+		} catch (RuntimeException e)
+		{
+			log.warn("Could not prefetch key {}", key, e);
+		} finally
+		{
+			pendingKeys.remove(key);
+		}
+	}
+
+
+	/**
+	 * Get an entry from the window. If it is not prefetched yet, it is decoded directly or, if only prefetched frames
+	 * are rendered, the nearest entry of the window is returned.
+	 *
+	 * @param clazz the type of the table
+	 * @param key   the key
+	 * @param <T>   the type of the table
+	 * @return the entry or null, if there is no entry for this key
+	 */
+	public <T extends PersistenceTable.IEntry<T>> T get(final Class<T> clazz, final long key)
+	{
+		PersistenceTable<T> table = db.getTable(clazz);
+		if (table == null)
+		{
+			return null;
+		}
+		if (!table.isSumatraTimestampBased())
+		{
+			return table.get(key);
+		}
+
+		// the entries of a key are added to the window before the key is marked as decoded
+		boolean decoded = decodedKeys.contains(key);
+		NavigableMap<Long, Object> window = windows.getOrDefault(clazz, Collections.emptyNavigableMap());
+		Object entry = window.get(key);
+		if (entry != null)
+		{
+			return clazz.cast(entry);
+		}
+		if (decoded)
+		{
+			// the table has no entry for this key
+			return null;
+		}
+		if (!prefetchedOnly)
+		{
+			return table.get(key);
+		}
+		return clazz.cast(nearest(window, key));
+	}
+
+
+	/**
+	 * @param key the key
+	 * @return true, if the entries of the key are decoded for all tables
+	 */
+	boolean isDecoded(final long key)
+	{
+		return decodedKeys.contains(key);
+	}
+
+
+	private Object nearest(final NavigableMap<Long, Object> window, final long key)
+	{
+		Map.Entry<Long, Object> floor = window.floorEntry(key);
+		Map.Entry<Long, Object> ceiling = window.ceilingEntry(key);
+		if (floor == null)
+		{
+			return ceiling == null ? null : ceiling.getValue();
+		}
+		if (ceiling == null || key - floor.getKey() <= ceiling.getKey() - key)
+		{
+			return floor.getValue();
+		}
+		return ceiling.getValue();
+	}
+}
@@ -24,14 +24,19 @@ import edu.tigers.sumatra.views.EViewMode;
 import edu.tigers.sumatra.views.ISumatraPresenter;
 import edu.tigers.sumatra.visualizer.VisualizerPresenter;
 import edu.tigers.sumatra.wp.IWorldFrameObserver;
+import edu.tigers.sumatra.wp.data.PersistenceGameTransition;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.extern.log4j.Log4j2;
 
+import javax.swing.AbstractAction;
+import javax.swing.JCheckBoxMenuItem;
+import java.awt.event.ActionEvent;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.TimeZone;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
@@ -52,6 +57,7 @@ public class ReplayPresenter extends AMainPresenter
 			new NamedThreadFactory("Replay"));
 	private final SnapshotController snapshotController;
 	private final List<IReplayController> replayControllers = new ArrayList<>();
+	private final ReplayPrefetcher prefetcher = new ReplayPrefetcher();
 	private ReplayControlPresenter replayControlPresenter;
 	private PersistenceDb db = null;
 	private double speed = 1;
@@ -91,16 +97,17 @@ public class ReplayPresenter extends AMainPresenter
 		}
 
 		List<IWorldFrameObserver> wFrameObservers = getMainFrame().getObservers(IWorldFrameObserver.class);
-		replayControllers.add(new ReplayWfwController(wFrameObservers, this::updateWorldframe));
+		replayControllers.add(new ReplayWfwController(wFrameObservers, prefetcher, this::updateWorldframe));
 		replayControllers.add(new ReplayLogController(getMainFrame().getViews()));
-		replayControllers.add(new ReplayCamDetectionController(wFrameObservers));
-		replayControllers.add(new ReplayShapeMapController(wFrameObservers));
+		replayControllers.add(new ReplayCamDetectionController(wFrameObservers, prefetcher));
+		replayControllers.add(new ReplayShapeMapController(wFrameObservers, prefetcher));
 		replayControllers.add(new ReplayAutoRefReCalcController(wFrameObservers, getMainFrame().getViews()));
 
 		snapshotController = new SnapshotController(getMainFrame());
 		snapshotController.setSaveMoveDestinations(true);
 
 		replayControlPresenter.getViewPanel().addObserver(this);
+		replayControlPresenter.getViewPanel().addMenuCheckbox(new PrefetchedOnlyAction());
 		addPositionObserver(replayControlPresenter.getViewPanel());
 		getMainFrame().activate();
 	}
@@ -128,6 +135,7 @@ public class ReplayPresenter extends AMainPresenter
 	public void start(final PersistenceDb db, long startTime)
 	{
 		this.db = db;
+		prefetcher.start(db);
 		getMainFrame().setTitle(new File(db.getDbPath()).getName());
 		refreshThread = new RefreshThread(startTime);
 		getMainFrame().getPresenters().forEach(ISumatraPresenter::onStart);
@@ -154,6 +162,7 @@ public class ReplayPresenter extends AMainPresenter
 
 	private void cleanup()
 	{
+		prefetcher.stop();
 		if (db != null)
 		{
 			db.close();
@@ -291,6 +300,23 @@ public class ReplayPresenter extends AMainPresenter
 	}
 
 
+	private class PrefetchedOnlyAction extends AbstractAction
+	{
+		private PrefetchedOnlyAction()
+		{
+			super("Render prefetched frames only");
+		}
+
+
+		@Override
+		public void actionPerformed(final ActionEvent e)
+		{
+			JCheckBoxMenuItem chk = (JCheckBoxMenuItem) e.getSource();
+			prefetcher.setPrefetchedOnly(chk.isSelected());
+		}
+	}
+
+
 	/**
 	 * This thread will update the field periodically according to the speed
 	 *
@@ -305,6 +331,7 @@ public class ReplayPresenter extends AMainPresenter
 		private Long recStartTime;
 
 		private long lastKey = 0;
+		private ReplayEventIndex eventIndex;
 
 		private boolean playing = true;
 		private boolean active = true;
@@ -428,6 +455,51 @@ public class ReplayPresenter extends AMainPresenter
 
 
 		private void skipFrames()
+		{
+			if (!skipStoppedGame && !skipBallPlacement && searchCommand == null && searchGameEvent == null
+					&& searchGameState == null)
+			{
+				return;
+			}
+
+			ReplayEventIndex index = getEventIndex();
+			if (index != null)
+			{
+				OptionalLong time = index.findNext(getCurrentTime(), skipStoppedGame, skipBallPlacement, searchCommand,
+						searchGameEvent, searchGameState);
+				time.ifPresent(this::jumpAbsoluteTime);
+				searchCommand = null;
+				searchGameEvent = null;
+				searchGameState = null;
+				return;
+			}
+			skipFramesByProbing();
+		}
+
+
+		/**
+		 * @return the index of the recorded game transitions, null if the recording has none
+		 */
+		private ReplayEventIndex getEventIndex()
+		{
+			PersistenceTable<PersistenceGameTransition> table = db.getTable(PersistenceGameTransition.class);
+			if (table == null || table.size() == 0)
+			{
+				return null;
+			}
+			// the table grows while replaying a running recording
+			if (eventIndex == null || eventIndex.size() != table.size())
+			{
+				eventIndex = new ReplayEventIndex(table.load());
+			}
+			return eventIndex;
+		}
+
+
+		/**
+		 * Check the world frames every 250ms for recordings without game transitions
+		 */
+		private void skipFramesByProbing()
 		{
 			PersistenceTable<WorldFrameWrapper> table = db.getTable(WorldFrameWrapper.class);
 			for (long t = getCurrentTime(); t < recEndTime; t += 250_000_000)
@@ -530,6 +602,7 @@ public class ReplayPresenter extends AMainPresenter
 			long curT = getCurrentTime();
 
 			lastKey = db.getKey(curT);
+			prefetcher.prefetch(curT, playing ? speed : 0, (long) (1_000_000_000L / REFRESH_FPS));
 
 			replayControllers.forEach(r -> r.update(db, lastKey));
 			updateTimeStep(Math.round(replayCurTime / 1e6));
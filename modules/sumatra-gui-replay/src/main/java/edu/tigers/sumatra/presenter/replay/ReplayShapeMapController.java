@@ -19,13 +19,14 @@ import java.util.Set;
 public class ReplayShapeMapController implements IReplayController
 {
 	private final List<IWorldFrameObserver> wFrameObservers;
+	private final ReplayPrefetcher prefetcher;
 	private Set<ShapeMapSource> lastSources = Set.of();
 
 
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		PersistenceShapeMapFrame shapeMapFrame = db.getTable(PersistenceShapeMapFrame.class).get(sumatraTimestampNs);
+		PersistenceShapeMapFrame shapeMapFrame = prefetcher.get(PersistenceShapeMapFrame.class, sumatraTimestampNs);
 		if (shapeMapFrame != null)
 		{
 			var currentSources = shapeMapFrame.getShapeMaps().keySet();
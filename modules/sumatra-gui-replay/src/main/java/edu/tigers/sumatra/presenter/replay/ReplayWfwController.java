@@ -17,13 +17,14 @@ import java.util.function.Consumer;
 public class ReplayWfwController implements IReplayController
 {
 	private final List<IWorldFrameObserver> wFrameObservers;
+	private final ReplayPrefetcher prefetcher;
 	private final Consumer<WorldFrameWrapper> callback;
 
 
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		WorldFrameWrapper wfw = db.getTable(WorldFrameWrapper.class).get(sumatraTimestampNs);
+		WorldFrameWrapper wfw = prefetcher.get(WorldFrameWrapper.class, sumatraTimestampNs);
 		if (wfw != null)
 		{
 			callback.accept(wfw);
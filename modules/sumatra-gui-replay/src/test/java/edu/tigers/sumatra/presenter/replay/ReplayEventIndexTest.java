@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.gameevent.EGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage.Referee.Command;
+import edu.tigers.sumatra.wp.data.PersistenceGameTransition;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ReplayEventIndexTest
+{
+	private final ReplayEventIndex index = new ReplayEventIndex(List.of(
+			transition(100, Command.HALT, EGameState.HALT, false, false),
+			transition(200, Command.STOP, EGameState.STOP, true, false),
+			transition(300, Command.DIRECT_FREE_BLUE, EGameState.DIRECT_FREE, false, false, EGameEvent.AIMLESS_KICK),
+			transition(400, Command.NORMAL_START, EGameState.RUNNING, false, false, EGameEvent.AIMLESS_KICK),
+			transition(500, Command.STOP, EGameState.BALL_PLACEMENT, true, true, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE),
+			transition(600, Command.STOP, EGameState.STOP, true, false, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE),
+			transition(700, Command.FORCE_START, EGameState.RUNNING, false, false, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE),
+			transition(800, Command.FORCE_START, EGameState.RUNNING, false, false)
+	));
+
+
+	private static PersistenceGameTransition transition(long timestamp, Command command, EGameState gameState,
+			boolean stoppedGame, boolean ballPlacement, EGameEvent... gameEvents)
+	{
+		return new PersistenceGameTransition(timestamp, command, gameState, stoppedGame, ballPlacement,
+				Set.of(gameEvents));
+	}
+
+
+	@Test
+	public void testWithoutConditions()
+	{
+		assertThat(index.size()).isEqualTo(8);
+		assertThat(index.findNext(250, false, false, null, null, null)).hasValue(250);
+		// before the first transition
+		assertThat(index.findNext(50, false, false, null, null, null)).hasValue(100);
+		assertThat(index.findNext(900, false, false, null, null, null)).hasValue(900);
+	}
+
+
+	@Test
+	public void testSingleCondition()
+	{
+		assertThat(index.findNext(0, false, false, Command.FORCE_START, null, null)).hasValue(700);
+		// the command is still active
+		assertThat(index.findNext(750, false, false, Command.FORCE_START, null, null)).hasValue(750);
+		assertThat(index.findNext(450, false, false, Command.NORMAL_START, null, null)).hasValue(450);
+		assertThat(index.findNext(250, false, false, null, EGameEvent.AIMLESS_KICK, null)).hasValue(300);
+		assertThat(index.findNext(250, false, false, null, null, EGameState.BALL_PLACEMENT)).hasValue(500);
+	}
+
+
+	@Test
+	public void testCombinedConditions()
+	{
+		// the positions of each value leapfrog until they agree
+		assertThat(index.findNext(0, false, false, Command.FORCE_START, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE, null))
+				.hasValue(700);
+		assertThat(index.findNext(0, false, false, Command.STOP, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE,
+				EGameState.STOP)).hasValue(600);
+		assertThat(index.findNext(0, false, false, Command.STOP, null, EGameState.BALL_PLACEMENT)).hasValue(500);
+		assertThat(index.findNext(0, false, false, Command.FORCE_START, null, EGameState.RUNNING)).hasValue(700);
+	}
+
+
+	@Test
+	public void testSkipStopAndPlacement()
+	{
+		assertThat(index.findNext(150, true, false, null, null, null)).hasValue(150);
+		assertThat(index.findNext(250, true, false, null, null, null)).hasValue(300);
+		assertThat(index.findNext(450, false, true, null, null, null)).hasValue(450);
+		// the ball placement is still active
+		assertThat(index.findNext(550, false, true, null, null, null)).hasValue(600);
+		assertThat(index.findNext(650, false, true, null, null, null)).hasValue(650);
+		assertThat(index.findNext(500, true, true, null, null, null)).hasValue(700);
+		assertThat(index.findNext(0, true, false, null, EGameEvent.BALL_LEFT_FIELD_TOUCH_LINE, null)).hasValue(700);
+	}
+
+
+	@Test
+	public void testNoMatch()
+	{
+		assertThat(index.findNext(0, false, false, null, EGameEvent.KEEPER_HELD_BALL, null)).isEmpty();
+		assertThat(index.findNext(0, false, false, null, null, EGameState.PENALTY)).isEmpty();
+		assertThat(index.findNext(0, false, false, Command.STOP, EGameEvent.AIMLESS_KICK, null)).isEmpty();
+		assertThat(index.findNext(500, false, false, Command.HALT, null, null)).isEmpty();
+		// all stop commands are stopped games
+		assertThat(index.findNext(0, true, false, Command.STOP, null, null)).isEmpty();
+		assertThat(new ReplayEventIndex(List.of()).findNext(0, false, false, null, null, null)).isEmpty();
+	}
+
+
+	@Test
+	public void testWithoutRefereeMsg()
+	{
+		ReplayEventIndex withoutRefereeMsg = new ReplayEventIndex(List.of(
+				transition(100, Command.HALT, EGameState.HALT, false, false),
+				transition(200, null, EGameState.RUNNING, false, false),
+				transition(300, Command.STOP, EGameState.STOP, true, false)
+		));
+
+		// a transition without referee message matches any command and game event
+		assertThat(withoutRefereeMsg.findNext(0, false, false, Command.FORCE_START, null, null)).hasValue(200);
+		assertThat(withoutRefereeMsg.findNext(0, false, false, null, EGameEvent.AIMLESS_KICK, null)).hasValue(200);
+		assertThat(withoutRefereeMsg.findNext(0, false, false, Command.STOP, null, null)).hasValue(200);
+		assertThat(withoutRefereeMsg.findNext(250, false, false, Command.FORCE_START, null, null)).hasValue(250);
+		assertThat(withoutRefereeMsg.findNext(300, false, false, Command.FORCE_START, null, null)).isEmpty();
+		assertThat(withoutRefereeMsg.findNext(0, false, false, Command.FORCE_START, null, EGameState.STOP)).isEmpty();
+	}
+}
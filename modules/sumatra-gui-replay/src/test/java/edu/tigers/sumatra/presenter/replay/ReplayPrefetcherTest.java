@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2009 - 2024, DHBW Mannheim - TIGERs Mannheim
+ */
+
+package edu.tigers.sumatra.presenter.replay;
+
+import edu.tigers.sumatra.persistence.EPersistenceKeyType;
+import edu.tigers.sumatra.persistence.PersistenceDb;
+import edu.tigers.sumatra.persistence.PersistenceTable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class ReplayPrefetcherTest
+{
+	private static final long PERIOD = 10_000_000;
+	private static final int NUM_FRAMES = 100;
+	private static final long TIMEOUT_NS = 5_000_000_000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private PersistenceDb db;
+	private final ReplayPrefetcher prefetcher = new ReplayPrefetcher();
+
+
+	@Before
+	public void setUp()
+	{
+		db = new PersistenceDb(folder.getRoot().toPath().resolve("db"));
+		db.add(Frame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(SparseFrame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(Event.class, EPersistenceKeyType.ARBITRARY);
+
+		db.getTable(Frame.class).write(entries(0, NUM_FRAMES, Frame::new));
+		// only every second frame has an entry
+		db.getTable(SparseFrame.class).write(entries(0, NUM_FRAMES / 2, k -> new SparseFrame(2 * k)));
+		// the key of the first event equals a frame key
+		db.getTable(Event.class).write(List.of(new Event(10 * PERIOD), new Event(5)));
+		prefetcher.start(db);
+	}
+
+
+	@After
+	public void tearDown()
+	{
+		prefetcher.stop();
+		db.close();
+	}
+
+
+	private static <T> List<T> entries(int from, int to, LongFunction<T> factory)
+	{
+		return LongStream.range(from, to).mapToObj(i -> factory.apply(i * PERIOD)).toList();
+	}
+
+
+	private static List<Long> keys(long from, long to, long step)
+	{
+		List<Long> keys = new ArrayList<>();
+		for (long k = from; step > 0 ? k <= to : k >= to; k += step)
+		{
+			keys.add(k * PERIOD);
+		}
+		return keys;
+	}
+
+
+	private void awaitDecoded(Set<Long> keys)
+	{
+		long start = System.nanoTime();
+		while (!keys.stream().allMatch(prefetcher::isDecoded))
+		{
+			assertThat(System.nanoTime() - start).isLessThan(TIMEOUT_NS);
+			Thread.yield();
+		}
+	}
+
+
+	@Test
+	public void testPredictKeys()
+	{
+		List<Long> forward = keys(20, 50, 1);
+		forward.add(19 * PERIOD);
+		assertThat(prefetcher.predictKeys(20 * PERIOD, 1, PERIOD)).containsExactlyElementsOf(forward);
+
+		// keys before the start of the recording are clamped to the first key
+		List<Long> backward = keys(20, 0, -2);
+		backward.add(21 * PERIOD);
+		backward.add(19 * PERIOD);
+		assertThat(prefetcher.predictKeys(20 * PERIOD, -2, PERIOD)).containsExactlyElementsOf(backward);
+
+		assertThat(prefetcher.predictKeys(20 * PERIOD, 0, PERIOD))
+				.containsExactly(20 * PERIOD, 21 * PERIOD, 19 * PERIOD);
+
+		// the end of the recording
+		List<Long> end = keys(90, NUM_FRAMES - 1, 1);
+		end.add(89 * PERIOD);
+		assertThat(prefetcher.predictKeys(90 * PERIOD, 1, PERIOD)).containsExactlyElementsOf(end);
+	}
+
+
+	@Test
+	public void testWindow()
+	{
+		prefetcher.setPrefetchedOnly(true);
+		prefetcher.prefetch(20 * PERIOD, 1, PERIOD);
+		awaitDecoded(prefetcher.predictKeys(20 * PERIOD, 1, PERIOD));
+
+		assertThat(prefetcher.get(Frame.class, 30 * PERIOD).getKey()).isEqualTo(30 * PERIOD);
+		assertThat(prefetcher.get(SparseFrame.class, 30 * PERIOD).getKey()).isEqualTo(30 * PERIOD);
+		// decoded, but the table has no entry
+		assertThat(prefetcher.get(SparseFrame.class, 31 * PERIOD)).isNull();
+
+		// keys that left the window are released
+		prefetcher.prefetch(70 * PERIOD, 1, PERIOD);
+		assertThat(prefetcher.isDecoded(20 * PERIOD)).isFalse();
+		awaitDecoded(prefetcher.predictKeys(70 * PERIOD, 1, PERIOD));
+		assertThat(prefetcher.isDecoded(20 * PERIOD)).isFalse();
+
+		// missing frames are replaced by the nearest one of the window
+		assertThat(prefetcher.get(Frame.class, 20 * PERIOD).getKey()).isEqualTo(69 * PERIOD);
+		assertThat(prefetcher.get(SparseFrame.class, 21 * PERIOD).getKey()).isEqualTo(70 * PERIOD);
+
+		prefetcher.setPrefetchedOnly(false);
+		assertThat(prefetcher.get(Frame.class, 20 * PERIOD).getKey()).isEqualTo(20 * PERIOD);
+		assertThat(prefetcher.get(SparseFrame.class, 21 * PERIOD)).isNull();
+	}
+
+
+	@Test
+	public void testMixedKeyTypes()
+	{
+		prefetcher.setPrefetchedOnly(true);
+		prefetcher.prefetch(0, 1, PERIOD);
+		awaitDecoded(prefetcher.predictKeys(0, 1, PERIOD));
+		assertThat(prefetcher.isDecoded(10 * PERIOD)).isTrue();
+
+		// tables with other keys are not prefetched, but read directly
+		assertThat(prefetcher.get(Event.class, 10 * PERIOD).getKey()).isEqualTo(10 * PERIOD);
+		assertThat(prefetcher.get(Event.class, 5).getKey()).isEqualTo(5);
+		assertThat(prefetcher.get(Event.class, 6)).isNull();
+	}
+
+
+	@Test
+	public void testStop()
+	{
+		prefetcher.prefetch(0, 1, PERIOD);
+		prefetcher.stop();
+		assertThat(prefetcher.isDecoded(0)).isFalse();
+
+		// ignored after stopping
+		prefetcher.prefetch(0, 1, PERIOD);
+		assertThat(prefetcher.isDecoded(0)).isFalse();
+	}
+
+
+	private record Frame(long key) implements PersistenceTable.IEntry<Frame>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+
+	private record SparseFrame(long key) implements PersistenceTable.IEntry<SparseFrame>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+
+	private record Event(long key) implements PersistenceTable.IEntry<Event>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+}
@@ -14,6 +14,7 @@ import edu.tigers.sumatra.util.GlobalShortcuts;
 import edu.tigers.sumatra.util.SimpleDocumentListener;
 import edu.tigers.sumatra.views.ISumatraPresenter;
 import edu.tigers.sumatra.views.ISumatraViewPresenter;
+import edu.tigers.sumatra.vision.AVisionFilter;
 import edu.tigers.sumatra.visualizer.field.VisualizerFieldPresenter;
 import edu.tigers.sumatra.visualizer.field.components.BallInteractor;
 import edu.tigers.sumatra.visualizer.field.recorder.MediaRecorder;
@@ -51,6 +52,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 
@@ -69,6 +71,7 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 			viewPanel.getFieldPanel()
 	);
 	private final BallInteractor ballInteractor = new BallInteractor();
+	private final Predicate<IShapeLayerIdentifier> visibleShapeLayers = fieldPresenter::isShapeLayerVisible;
 	private final MediaRecorder mediaRecorder = new MediaRecorder();
 	private final Set<Object> defaultVisibilityObtained = new HashSet<>();
 	@Setter
@@ -219,6 +222,8 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(ballInteractor);
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).addObserver(fieldPresenter);
+		SumatraModel.getInstance().getModuleOpt(AVisionFilter.class)
+				.ifPresent(vf -> vf.addShapeLayerSubscriber(visibleShapeLayers));
 
 		firstUpdate = true;
 	}
@@ -231,6 +236,8 @@ public class VisualizerPresenter implements ISumatraViewPresenter, IWorldFrameOb
 
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).removeObserver(ballInteractor);
 		SumatraModel.getInstance().getModule(AWorldPredictor.class).removeObserver(fieldPresenter);
+		SumatraModel.getInstance().getModuleOpt(AVisionFilter.class)
+				.ifPresent(vf -> vf.removeShapeLayerSubscriber(visibleShapeLayers));
 	}
 
 
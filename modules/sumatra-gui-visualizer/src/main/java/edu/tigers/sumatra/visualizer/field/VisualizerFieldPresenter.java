@@ -10,6 +10,7 @@ import edu.tigers.sumatra.drawable.DrawableFieldBackground;
 import edu.tigers.sumatra.drawable.DrawableLine;
 import edu.tigers.sumatra.drawable.DrawableRectangle;
 import edu.tigers.sumatra.drawable.EFieldTurn;
+import edu.tigers.sumatra.drawable.IShapeLayerIdentifier;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.drawable.ShapeMapSource;
 import edu.tigers.sumatra.geometry.Geometry;
@@ -174,6 +175,16 @@ public class VisualizerFieldPresenter implements ISumatraPresenter, IWorldFrameO
 	}
 
 
+	/**
+	 * @param layer
+	 * @return true, if the given shape layer is currently shown
+	 */
+	public boolean isShapeLayerVisible(final IShapeLayerIdentifier layer)
+	{
+		return shapeVisibilityMap.getOrDefault(layer.getId(), false);
+	}
+
+
 	public void setSourceVisibility(final ShapeMapSource source, final boolean visible)
 	{
 		if (visible)